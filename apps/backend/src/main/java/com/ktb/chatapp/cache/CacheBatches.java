@@ -0,0 +1,37 @@
+package com.ktb.chatapp.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.cache.Cache;
+
+/**
+ * 캐시 스토어의 여러 키 조회/채우기. TieredCache 면 MGET / 파이프라인으로, 아니면 키마다 처리한다.
+ */
+final class CacheBatches {
+
+    private CacheBatches() {
+    }
+
+    static Map<String, Object> getAll(Cache cache, Collection<String> keys) {
+        if (cache instanceof TieredCache tiered) {
+            return tiered.getAll(keys);
+        }
+        Map<String, Object> found = HashMap.newHashMap(keys.size());
+        for (String key : keys) {
+            Cache.ValueWrapper value = cache.get(key);
+            if (value != null && value.get() != null) {
+                found.put(key, value.get());
+            }
+        }
+        return found;
+    }
+
+    static void putAllIfAbsent(Cache cache, Map<String, ?> values) {
+        if (cache instanceof TieredCache tiered) {
+            tiered.putAllIfAbsent(values);
+            return;
+        }
+        values.forEach(cache::putIfAbsent);
+    }
+}
@@ -0,0 +1,34 @@
+package com.ktb.chatapp.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.ktb.chatapp.model.Room;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * RoomCache 항목. room 이 null 이면 없는 방을 기억하는 음성 항목이다.
+ * loadedAt/loadMillis 는 만료 전 확률적 갱신(XFetch)에 쓴다.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedRoom {
+
+    private Room room;
+
+    /**
+     * 원본에서 읽은 시각 (epoch millis)
+     */
+    private long loadedAt;
+
+    /**
+     * 원본에서 읽는 데 걸린 시간, 오래 걸리는 항목일수록 일찍 갱신한다
+     */
+    private long loadMillis;
+
+    @JsonIgnore
+    public boolean isNegative() {
+        return room == null;
+    }
+}
@@ -0,0 +1,34 @@
+package com.ktb.chatapp.cache;
+
+import com.ktb.chatapp.message.repository.MessageRepository;
+import com.ktb.chatapp.model.File;
+import com.ktb.chatapp.model.Message;
+import com.ktb.chatapp.repository.FileRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class FileAccessCacheStore {
+    private final FileRepository fileRepository;
+    private final MessageRepository messageRepository;
+
+    /**
+     * filename -> (fileId, roomId, mimetype, size ...). 파일/메시지가 없으면 예외라 캐시되지 않는다.
+     */
+    @Cacheable(value = "file::access", key = "#filename", cacheManager = "cacheManager")
+    public FileAccessDescriptor getDescriptor(String filename) {
+        File file = fileRepository.findByFilename(filename)
+                .orElseThrow(() -> new RuntimeException("파일을 찾을 수 없습니다: " + filename));
+
+        Message message = messageRepository.findByFileId(file.getId())
+                .orElseThrow(() -> new RuntimeException("파일과 연결된 메시지를 찾을 수 없습니다"));
+
+        return FileAccessDescriptor.of(file, message.getRoomId());
+    }
+
+    @CacheEvict(value = "file::access", key = "#filename", cacheManager = "cacheManager")
+    public void evictDescriptor(String filename) {}
+}
@@ -0,0 +1,49 @@
+package com.ktb.chatapp.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.ktb.chatapp.model.File;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 다운로드/미리보기 권한 확인과 응답 헤더에 필요한 파일 정보 (filename 기준 캐시)
+ * 파일과 메시지(방)의 연결은 바뀌지 않으므로 방 참가 여부만 따로 확인하면 된다.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileAccessDescriptor {
+
+    private String fileId;
+
+    private String filename;
+
+    private String originalname;
+
+    private String mimetype;
+
+    private long size;
+
+    private String roomId;
+
+    private String storageKey;
+
+    public static FileAccessDescriptor of(File file, String roomId) {
+        return new FileAccessDescriptor(file.getId(), file.getFilename(), file.getOriginalname(),
+                file.getMimetype(), file.getSize(), roomId, file.resolveStorageKey());
+    }
+
+    /**
+     * S3 객체 키 (storageKey 가 없던 때 캐시된 값이면 파일 ID)
+     */
+    @JsonIgnore
+    public String resolveStorageKey() {
+        return storageKey != null ? storageKey : fileId;
+    }
+
+    @JsonIgnore
+    public boolean isPreviewable() {
+        return File.builder().mimetype(mimetype).build().isPreviewable();
+    }
+}
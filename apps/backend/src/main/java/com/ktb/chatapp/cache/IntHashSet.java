@@ -0,0 +1,125 @@
+package com.ktb.chatapp.cache;
+
+/**
+ * int 전용 열린 주소(선형 탐사) 해시 집합. 0 은 빈 칸이므로 원소는 1 이상이어야 한다.
+ * 원소 하나에 int 슬롯 1.33~2.67 개(약 5~11바이트)만 쓴다.
+ * 만든 뒤에는 바꾸지 않고 with/without 으로 새 집합을 만들어, 읽는 쪽은 잠금 없이 contains 를 부른다.
+ */
+final class IntHashSet {
+
+    private static final int EMPTY = 0;
+    private static final IntHashSet NONE = new IntHashSet(new int[2], 0);
+
+    private final int[] table;
+    private final int size;
+    private final int shift;
+
+    private IntHashSet(int[] table, int size) {
+        this.table = table;
+        this.size = size;
+        this.shift = 32 - Integer.numberOfTrailingZeros(table.length);
+    }
+
+    static IntHashSet empty() {
+        return NONE;
+    }
+
+    static IntHashSet of(int[] values, int count) {
+        int[] table = new int[capacityFor(count)];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            if (insert(table, values[i])) {
+                size++;
+            }
+        }
+        return new IntHashSet(table, size);
+    }
+
+    boolean contains(int value) {
+        if (value == EMPTY) {
+            return false;
+        }
+        int mask = table.length - 1;
+        for (int slot = slot(value); ; slot = (slot + 1) & mask) {
+            int current = table[slot];
+            if (current == value) {
+                return true;
+            }
+            if (current == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    IntHashSet with(int value) {
+        if (contains(value)) {
+            return this;
+        }
+        int[] copy = capacityFor(size + 1) > table.length ? rehash(capacityFor(size + 1)) : table.clone();
+        insert(copy, value);
+        return new IntHashSet(copy, size + 1);
+    }
+
+    IntHashSet without(int value) {
+        if (!contains(value)) {
+            return this;
+        }
+        int[] values = new int[size - 1];
+        int count = 0;
+        for (int current : table) {
+            if (current != EMPTY && current != value) {
+                values[count++] = current;
+            }
+        }
+        return of(values, count);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 객체 헤더를 포함한 대략의 힙 사용량 (IntHashSet 16 + int[] 16 + 슬롯)
+     */
+    long memoryBytes() {
+        return 32L + 4L * table.length;
+    }
+
+    private int slot(int value) {
+        // 피보나치 해싱: 연속된 ID 도 테이블 전체에 고르게 흩어진다
+        return (value * 0x9E3779B9) >>> shift;
+    }
+
+    private int[] rehash(int capacity) {
+        int[] copy = new int[capacity];
+        for (int current : table) {
+            if (current != EMPTY) {
+                insert(copy, current);
+            }
+        }
+        return copy;
+    }
+
+    private static boolean insert(int[] table, int value) {
+        if (value == EMPTY) {
+            throw new IllegalArgumentException("0 은 저장할 수 없습니다.");
+        }
+        int mask = table.length - 1;
+        int shift = 32 - Integer.numberOfTrailingZeros(table.length);
+        for (int slot = (value * 0x9E3779B9) >>> shift; ; slot = (slot + 1) & mask) {
+            if (table[slot] == value) {
+                return false;
+            }
+            if (table[slot] == EMPTY) {
+                table[slot] = value;
+                return true;
+            }
+        }
+    }
+
+    // 적재율 0.75 이하가 되는 2의 거듭제곱
+    private static int capacityFor(int count) {
+        int needed = Math.max(2, (int) Math.ceil(count / 0.75) + 1);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+}
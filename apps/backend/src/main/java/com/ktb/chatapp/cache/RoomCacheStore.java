@@ -2,23 +2,396 @@ package com.ktb.chatapp.cache;
 
 import com.ktb.chatapp.model.Room;
 import com.ktb.chatapp.repository.RoomRepository;
-import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 
+/**
+ * 방 캐시 (RoomCache)
+ * - 같은 방의 동시 미스는 노드 안에서 한 번만 원본을 읽고 결과를 나눠 쓴다.
+ * - 만료가 가까워지면 확률적으로(XFetch) 한 요청이 미리 다시 읽어, 만료 순간 미스가 몰리지 않게 한다.
+ * - 없는 방도 짧은 TTL 로 기억해 같은 ID 조회가 매번 DB 까지 가지 않게 한다.
+ * - 참가/퇴장은 캐시를 지우지 않고 갱신된 방으로 바로 덮어써 다음 메시지/조회가 미스 없이 최신 참가자를 본다.
+ * 미스 로드는 putIfAbsent 로만 채우고, 참가자 변경과 미리 갱신은 방 단위 Redis 리스 안에서 덮어쓰므로
+ * 변경 전에 읽은 오래된 방이 변경 후 값을 덮어쓰지 않는다. 리스를 바로 못 잡으면 원본을 바꾸고 캐시를 지운 뒤
+ * 호출 스레드(netty 워커)를 붙잡지 않고 백그라운드에서 리스를 다시 잡아 원본을 다시 읽어 덮어쓴다
+ * (리스 한 번 길이 동안도 못 잡으면 그때 캐시를 한 번 더 지운다).
+ * 참가 여부 확인은 방 전체 대신 RoomMembershipIndex 를 쓴다.
+ */
+@Slf4j
 @Component
-@RequiredArgsConstructor
 public class RoomCacheStore {
+
+    public static final String CACHE_NAME = "RoomCache";
+    private static final String LOCK_KEY_PREFIX = "room:cache:lock:";
+    private static final Duration LOCK_LEASE = Duration.ofSeconds(2);
+    private static final long LOCK_RETRY_MILLIS = 10;
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
     private final RoomRepository roomRepository;
+    private final MongoTemplate mongoTemplate;
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RoomMembershipIndex membershipIndex;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final double earlyRefreshBeta;
+    private final ScheduledExecutorService reconciler;
+
+    private final ConcurrentHashMap<String, CompletableFuture<CachedRoom>> inflight = new ConcurrentHashMap<>();
+    private final Counter missLoads;
+    private final Counter refreshLoads;
+    private final Counter coalescedLoads;
+    private final Counter membershipUpdates;
+    private final Counter membershipReloads;
+    private final Counter membershipEvictions;
+
+    public RoomCacheStore(RoomRepository roomRepository,
+                          MongoTemplate mongoTemplate,
+                          CacheManager cacheManager,
+                          StringRedisTemplate stringRedisTemplate,
+                          RoomMembershipIndex membershipIndex,
+                          MeterRegistry meterRegistry,
+                          @Value("${cache.room.ttl:PT1H}") Duration ttl,
+                          @Value("${cache.room.negative-ttl:PT10S}") Duration negativeTtl,
+                          @Value("${cache.room.early-refresh-beta:1.0}") double earlyRefreshBeta) {
+        this.roomRepository = roomRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.cacheManager = cacheManager;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.membershipIndex = membershipIndex;
+        this.ttlMillis = ttl.toMillis();
+        this.negativeTtlMillis = negativeTtl.toMillis();
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "room-cache-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.missLoads = loads(meterRegistry, "miss");
+        this.refreshLoads = loads(meterRegistry, "refresh");
+        this.coalescedLoads = loads(meterRegistry, "coalesced");
+        this.membershipUpdates = membership(meterRegistry, "updated");
+        this.membershipReloads = membership(meterRegistry, "reloaded");
+        this.membershipEvictions = membership(meterRegistry, "evicted");
+    }
 
-    @Cacheable(value = "RoomCache", key="#roomId", cacheManager = "cacheManager")
+    @PreDestroy
+    public void shutdown() {
+        reconciler.shutdownNow();
+    }
+
+    /**
+     * @return 방, 없으면 null
+     */
     public Room getRoom(String roomId) {
-        return roomRepository.findById(roomId).orElse(null);
+        CachedRoom cached = cached(roomId);
+        if (cached == null) {
+            cached = coalesce(roomId, () -> fill(roomId), missLoads);
+            return cached.getRoom();
+        }
+        if (shouldRefreshEarly(cached)) {
+            CachedRoom current = cached;
+            return coalesce(roomId, () -> refresh(roomId, current), refreshLoads).getRoom();
+        }
+        return cached.getRoom();
+    }
+
+    /**
+     * 여러 방을 한 번에 조회한다. 캐시는 MGET 한 번으로 읽고, 캐시에 없는 방만 $in 쿼리 한 번으로 읽어
+     * 비어 있는 키만 채운다 (없는 방은 음성 항목으로 기억한다). 미리 갱신은 단건 조회에서만 한다.
+     *
+     * @return ID -> 방, 없는 방은 빠진다
+     */
+    public Map<String, Room> getRooms(Collection<String> roomIds) {
+        Set<String> ids = new LinkedHashSet<>();
+        roomIds.stream().filter(Objects::nonNull).forEach(ids::add);
+        Map<String, Room> rooms = HashMap.newHashMap(ids.size());
+        if (ids.isEmpty()) {
+            return rooms;
+        }
+
+        long now = System.currentTimeMillis();
+        CacheBatches.getAll(cache(), ids).forEach((id, value) -> {
+            CachedRoom cached = usable(value, now);
+            if (cached != null) {
+                ids.remove(id);
+                if (!cached.isNegative()) {
+                    rooms.put(id, cached.getRoom());
+                }
+            }
+        });
+        if (ids.isEmpty()) {
+            return rooms;
+        }
+
+        missLoads.increment(ids.size());
+        long start = System.currentTimeMillis();
+        Map<String, Room> found = HashMap.newHashMap(ids.size());
+        roomRepository.findAllById(ids).forEach(room -> found.put(room.getId(), room));
+        long loadMillis = System.currentTimeMillis() - start;
+        Map<String, CachedRoom> loaded = HashMap.newHashMap(ids.size());
+        ids.forEach(id -> loaded.put(id, new CachedRoom(found.get(id), start, loadMillis)));
+        CacheBatches.putAllIfAbsent(cache(), loaded);
+        rooms.putAll(found);
+        return rooms;
+    }
+
+    /**
+     * 참가자를 원본에 추가하고 캐시된 방을 갱신된 방으로 덮어쓴다. 참가 여부 인덱스에도 반영한다.
+     *
+     * @return 갱신된 방, 없으면 null
+     */
+    public Room addParticipant(String roomId, String userId) {
+        Room updated = updateMembership(roomId, new Update().addToSet("participantIds", userId));
+        if (updated != null) {
+            membershipIndex.added(roomId, userId);
+        }
+        return updated;
+    }
+
+    /**
+     * 참가자를 원본에서 빼고 캐시된 방을 갱신된 방으로 덮어쓴다 (퇴장 직후부터 파일 접근 등 권한 확인에 반영된다).
+     *
+     * @return 갱신된 방, 없으면 null
+     */
+    public Room removeParticipant(String roomId, String userId) {
+        Room updated = updateMembership(roomId, new Update().pull("participantIds", userId));
+        if (updated != null) {
+            membershipIndex.removed(roomId, userId);
+        }
+        return updated;
+    }
+
+    /**
+     * 새로 만들었거나 저장한 방을 캐시에 올린다 (같은 ID 의 음성 항목도 덮어쓴다).
+     */
+    public void putRoom(Room room) {
+        cache().put(room.getId(), new CachedRoom(room, System.currentTimeMillis(), 0));
     }
 
-    @CacheEvict(cacheNames = "RoomCache", key = "#roomId", cacheManager = "cacheManager")
     public void evictRoom(String roomId) {
+        cache().evict(roomId);
+    }
+
+    private Room updateMembership(String roomId, Update update) {
+        String token = tryLock(roomId);
+        if (token != null) {
+            try {
+                long start = System.currentTimeMillis();
+                Room updated = modify(roomId, update);
+                cache().put(roomId, new CachedRoom(updated, start, System.currentTimeMillis() - start));
+                membershipUpdates.increment();
+                return updated;
+            } finally {
+                unlock(roomId, token);
+            }
+        }
+
+        // 참가가 몰려 리스를 못 잡았으면 원본을 바꾸고 캐시를 지워 바로 다음 조회부터 원본을 읽게 한다.
+        // 지우기만 하면 먼저 리스를 잡은 쪽이 이 변경이 빠진 방을 뒤늦게 올릴 수 있으므로,
+        // 리스 안에서 원본을 다시 읽어 덮어쓰는 일은 백그라운드에서 이어간다.
+        Room updated = modify(roomId, update);
+        evictRoom(roomId);
+        scheduleReconcile(roomId, System.currentTimeMillis() + LOCK_LEASE.toMillis(), 0);
+        return updated;
+    }
+
+    private void scheduleReconcile(String roomId, long deadline, long delayMillis) {
+        try {
+            reconciler.schedule(() -> reconcile(roomId, deadline), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 종료 중: 이미 지웠으므로 캐시 TTL 안에 원본으로 돌아온다
+            log.debug("Room cache reconcile rejected - roomId: {}", roomId);
+        }
+    }
+
+    private void reconcile(String roomId, long deadline) {
+        try {
+            String token = tryLock(roomId);
+            if (token == null) {
+                if (System.currentTimeMillis() < deadline) {
+                    scheduleReconcile(roomId, deadline, LOCK_RETRY_MILLIS);
+                    return;
+                }
+                // 변경 전에 리스를 잡았던 쪽은 리스가 끝나 더 쓰지 않고, 그 뒤에 잡은 쪽은 이 변경이 담긴 방을 쓰므로 지워도 된다
+                evictRoom(roomId);
+                membershipEvictions.increment();
+                return;
+            }
+            try {
+                cache().put(roomId, load(roomId));
+                membershipReloads.increment();
+            } finally {
+                unlock(roomId, token);
+            }
+        } catch (Exception e) {
+            log.warn("Room cache reconcile failed - roomId: {}, error: {}", roomId, e.getMessage());
+            evictRoom(roomId);
+            membershipEvictions.increment();
+        }
+    }
+
+    private Room modify(String roomId, Update update) {
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(roomId)), update,
+                FindAndModifyOptions.options().returnNew(true), Room.class);
+    }
+
+    private CachedRoom cached(String roomId) {
+        Cache.ValueWrapper wrapper = cache().get(roomId);
+        return wrapper != null ? usable(wrapper.get(), System.currentTimeMillis()) : null;
+    }
+
+    private CachedRoom usable(Object value, long now) {
+        // 전환 전에 Room 으로 저장된 값은 미스로 보고 다시 읽는다
+        if (!(value instanceof CachedRoom cached)) {
+            return null;
+        }
+        // L1 TTL 이 음성 TTL 보다 길 수 있으므로 음성 항목의 나이는 여기서 확인한다
+        if (cached.isNegative() && now - cached.getLoadedAt() >= negativeTtlMillis) {
+            return null;
+        }
+        return cached;
+    }
+
+    // 같은 방의 로드가 진행 중이면 그 결과를 기다린다
+    private CachedRoom coalesce(String roomId, Supplier<CachedRoom> loader, Counter counter) {
+        CompletableFuture<CachedRoom> mine = new CompletableFuture<>();
+        CompletableFuture<CachedRoom> running = inflight.putIfAbsent(roomId, mine);
+        if (running != null) {
+            coalescedLoads.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        counter.increment();
+        try {
+            CachedRoom loaded = loader.get();
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inflight.remove(roomId, mine);
+        }
+    }
+
+    // 미스: 읽는 동안 참가자 변경이 먼저 캐시에 올렸다면 그 값을 쓴다
+    private CachedRoom fill(String roomId) {
+        CachedRoom loaded = load(roomId);
+        Cache.ValueWrapper existing = cache().putIfAbsent(roomId, loaded);
+        if (existing != null && existing.get() instanceof CachedRoom current && !current.isNegative()) {
+            return current;
+        }
+        if (existing != null) {
+            // 오래된 형식 값이나 만료된 음성 항목은 덮어쓴다
+            cache().put(roomId, loaded);
+        }
+        return loaded;
+    }
+
+    // 미리 갱신: 참가자 변경과 겹치지 않게 리스 안에서 덮어쓰고, 리스를 못 잡으면 캐시된 값을 그대로 쓴다
+    private CachedRoom refresh(String roomId, CachedRoom current) {
+        String token = tryLock(roomId);
+        if (token == null) {
+            return current;
+        }
+        try {
+            CachedRoom loaded = load(roomId);
+            cache().put(roomId, loaded);
+            return loaded;
+        } finally {
+            unlock(roomId, token);
+        }
+    }
+
+    private CachedRoom load(String roomId) {
+        long start = System.currentTimeMillis();
+        Room room = roomRepository.findById(roomId).orElse(null);
+        return new CachedRoom(room, start, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * XFetch: now - loadMillis * beta * ln(rand) >= 만료 시각 이면 갱신한다.
+     * 만료가 가까울수록, 읽는 데 오래 걸린 항목일수록 먼저 갱신될 확률이 높다.
+     */
+    boolean shouldRefreshEarly(CachedRoom cached) {
+        if (cached.isNegative() || earlyRefreshBeta <= 0) {
+            return false;
+        }
+        long expiresAt = cached.getLoadedAt() + ttlMillis;
+        double gap = Math.max(1, cached.getLoadMillis()) * earlyRefreshBeta
+                * -Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+        return System.currentTimeMillis() + gap >= expiresAt;
+    }
+
+    private String tryLock(String roomId) {
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(LOCK_KEY_PREFIX + roomId, token, LOCK_LEASE);
+        return Boolean.TRUE.equals(acquired) ? token : null;
+    }
+
+    private void unlock(String roomId, String token) {
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(LOCK_KEY_PREFIX + roomId), token);
+        } catch (Exception e) {
+            log.warn("Failed to release room cache lock - roomId: {}, error: {}", roomId, e.getMessage());
+        }
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CACHE_NAME);
+    }
+
+    private static Counter loads(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("room.cache.loads")
+                .description("RoomCache loads from MongoDB by cause; coalesced waited on another load")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
 
+    private static Counter membership(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("room.cache.membership.updates")
+                .description("Join/leave cache updates; reloaded when the room lock came late, evicted when it never came")
+                .tag("result", result)
+                .register(meterRegistry);
     }
 }
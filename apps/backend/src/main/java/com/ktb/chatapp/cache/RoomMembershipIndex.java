@@ -0,0 +1,360 @@
+package com.ktb.chatapp.cache;
+
+import com.ktb.chatapp.model.Room;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import static com.ktb.chatapp.config.RedisConfig.SERVER_ID;
+
+/**
+ * 방 참가 여부 인덱스 (메시지 전송/조회마다 하는 권한 확인용)
+ * 방 문서 전체와 참가자 HashSet 을 읽지 않고 isMember 를 O(1) 로 답한다.
+ * - 클러스터 공용: Redis 집합 room:members:{roomId}. 없으면 원본의 participantIds 로 만들고, 참가/퇴장은 집합이 있을 때만 반영한다.
+ *   변경마다 room:members:gen:{roomId} 를 올리고, 만드는 쪽은 원본을 읽기 전 세대와 같을 때만 집합을 만든다
+ *   (그 사이 퇴장이 있었다면 오래된 참가자 목록으로 집합을 만들지 않는다).
+ * - 노드 로컬: 사용자 ID 를 int 로 바꿔(intern) 방마다 IntHashSet 으로 들고 있는다.
+ *   참가/퇴장은 room:members:changed 채널로 다른 노드에 보내 로컬 집합에 바로 반영하고, 메시지를 놓쳐도 local-ttl 이 지나면 Redis 에서 다시 읽는다.
+ *   로컬 미스는 SISMEMBER 로 답하고, 방마다 한 요청만 로드 토큰을 걸고 집합 전체를 읽어 로컬에 올린다.
+ *   읽는 사이 그 방에 변경이 오면 토큰을 지워 읽은 집합을 버린다 (다른 방의 변경은 영향이 없다).
+ */
+@Slf4j
+@Component
+public class RoomMembershipIndex implements MessageListener {
+
+    static final String MEMBERS_KEY_PREFIX = "room:members:";
+    static final String GENERATION_KEY_PREFIX = "room:members:gen:";
+    static final String CHANNEL = "room:members:changed";
+    // 빈 방도 집합이 남아 있도록 넣어 두는 값 (사용자 ID 는 빈 문자열일 수 없다)
+    private static final String SENTINEL = "";
+    private static final char SEPARATOR = '|';
+    private static final int BUILD_CHUNK = 1000;
+
+    // ARGV: +/-, 사용자, TTL(ms). 세대를 올리고, 집합이 있을 때만 반영한다 (없으면 다음 조회가 원본에서 다시 만든다)
+    // 세대 키도 집합과 같은 TTL 을 두어 한 번 쓰인 방마다 키가 남지 않게 한다
+    private static final RedisScript<Long> CHANGE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('incr', KEYS[2]) " +
+            "redis.call('pexpire', KEYS[2], ARGV[3]) " +
+            "if redis.call('exists', KEYS[1]) == 0 then return 0 end " +
+            "if ARGV[1] == '+' then return redis.call('sadd', KEYS[1], ARGV[2]) end " +
+            "return redis.call('srem', KEYS[1], ARGV[2])", Long.class);
+
+    // 집합이 없으면 -1, 있으면 SISMEMBER 결과
+    private static final RedisScript<Long> MEMBER_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 0 then return -1 end " +
+            "return redis.call('sismember', KEYS[1], ARGV[1])", Long.class);
+
+    // ARGV: 읽기 전 세대, TTL(ms), 참가자... 세대가 같고 집합이 없을 때만 만든다
+    private static final RedisScript<Long> BUILD_SCRIPT = new DefaultRedisScript<>(
+            "local gen = redis.call('get', KEYS[2]) or '0' " +
+            "if gen ~= ARGV[1] or redis.call('exists', KEYS[1]) == 1 then return 0 end " +
+            "for i = 3, #ARGV, " + BUILD_CHUNK + " do " +
+            "  redis.call('sadd', KEYS[1], unpack(ARGV, i, math.min(i + " + (BUILD_CHUNK - 1) + ", #ARGV))) " +
+            "end " +
+            "redis.call('pexpire', KEYS[1], ARGV[2]) " +
+            "redis.call('pexpire', KEYS[2], ARGV[2]) " +
+            "return 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final long ttlMillis;
+    private final long localTtlMillis;
+    private final int localMaxRooms;
+    private final int maxInternedUsers;
+
+    private final ConcurrentHashMap<String, LocalMembers> local = new ConcurrentHashMap<>();
+    // 비운 뒤에도 번호는 계속 늘려, 이전에 만든 집합의 번호가 다른 사용자에게 다시 쓰이지 않게 한다
+    private final ConcurrentHashMap<String, Integer> userNumbers = new ConcurrentHashMap<>();
+    private final AtomicInteger nextUserNumber = new AtomicInteger();
+
+    private final Counter localLookups;
+    private final Counter redisLookups;
+    private final Counter builds;
+    private final Counter fallbacks;
+
+    public RoomMembershipIndex(StringRedisTemplate redisTemplate,
+                               MongoTemplate mongoTemplate,
+                               RedisMessageListenerContainer listenerContainer,
+                               MeterRegistry meterRegistry,
+                               @Value("${cache.room.ttl:PT1H}") Duration ttl,
+                               @Value("${cache.room.members.local-ttl:PT30S}") Duration localTtl,
+                               @Value("${cache.room.members.local-max-rooms:10000}") int localMaxRooms,
+                               @Value("${cache.room.members.max-interned-users:1000000}") int maxInternedUsers) {
+        this.redisTemplate = redisTemplate;
+        this.mongoTemplate = mongoTemplate;
+        this.ttlMillis = ttl.toMillis();
+        this.localTtlMillis = localTtl.toMillis();
+        this.localMaxRooms = localMaxRooms;
+        this.maxInternedUsers = maxInternedUsers;
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+
+        this.localLookups = lookups(meterRegistry, "local");
+        this.redisLookups = lookups(meterRegistry, "redis");
+        this.builds = lookups(meterRegistry, "build");
+        this.fallbacks = lookups(meterRegistry, "fallback");
+        Gauge.builder("room.membership.local.bytes", this, RoomMembershipIndex::localMemoryBytes)
+                .description("Approximate heap used by node-local membership sets")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return 방이 없거나 참가자가 아니면 false
+     */
+    public boolean isMember(String roomId, String userId) {
+        if (roomId == null || userId == null || userId.isEmpty()) {
+            return false;
+        }
+        LocalMembers cached = local.get(roomId);
+        if (cached != null && cached.expiresAt > System.currentTimeMillis()) {
+            localLookups.increment();
+            return cached.contains(userNumbers.get(userId));
+        }
+
+        LocalMembers token = beginLoad(roomId, cached);
+        try {
+            if (token == null) {
+                // 다른 요청이 채우는 중이거나 로컬에 둘 수 없으면 집합 전체 대신 이 사용자만 묻는다
+                Long member = redisTemplate.execute(MEMBER_SCRIPT, List.of(membersKey(roomId)), userId);
+                if (member != null && member >= 0) {
+                    redisLookups.increment();
+                    return member == 1L;
+                }
+                return build(roomId, userId, null);
+            }
+            Set<String> members = redisTemplate.opsForSet().members(membersKey(roomId));
+            if (members != null && !members.isEmpty()) {
+                redisLookups.increment();
+                return completeLoad(roomId, token, members).contains(userNumbers.get(userId));
+            }
+            return build(roomId, userId, token);
+        } catch (Exception e) {
+            // Redis 장애 시 원본에 바로 묻는다
+            log.warn("Room membership lookup failed, falling back to MongoDB - roomId: {}, error: {}",
+                    roomId, e.getMessage());
+            fallbacks.increment();
+            return mongoTemplate.exists(Query.query(Criteria.where("_id").is(roomId).and("participantIds").is(userId)),
+                    Room.class);
+        } finally {
+            if (token != null) {
+                // 채우지 못했으면 토큰을 치워 다음 요청이 다시 채우게 한다
+                local.remove(roomId, token);
+            }
+        }
+    }
+
+    /**
+     * 원본(MongoDB)에 참가자를 추가한 뒤 호출한다.
+     */
+    public void added(String roomId, String userId) {
+        change(roomId, userId, true);
+    }
+
+    /**
+     * 원본(MongoDB)에서 참가자를 뺀 뒤 호출한다. 퇴장 직후부터 메시지 전송/조회가 거부된다.
+     */
+    public void removed(String roomId, String userId) {
+        change(roomId, userId, false);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // serverId|roomId|+userId 또는 serverId|roomId|-userId
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int first = body.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : body.indexOf(SEPARATOR, first + 1);
+        if (second < 0 || second + 2 > body.length() || body.startsWith(SERVER_ID + SEPARATOR)) {
+            return;
+        }
+        applyLocal(body.substring(first + 1, second), body.substring(second + 2), body.charAt(second + 1) == '+');
+    }
+
+    private void change(String roomId, String userId, boolean add) {
+        try {
+            redisTemplate.execute(CHANGE_SCRIPT, List.of(membersKey(roomId), generationKey(roomId)),
+                    add ? "+" : "-", userId, String.valueOf(ttlMillis));
+        } catch (Exception e) {
+            log.warn("Failed to update room membership index - roomId: {}, error: {}", roomId, e.getMessage());
+            // 반영하지 못했으면 집합을 지워 다음 조회가 원본에서 다시 만들게 한다
+            try {
+                redisTemplate.delete(membersKey(roomId));
+            } catch (Exception ignored) {
+                // Redis 가 계속 안 되면 조회도 원본으로 간다
+            }
+        }
+        applyLocal(roomId, userId, add);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, SERVER_ID + SEPARATOR + roomId + SEPARATOR + (add ? '+' : '-') + userId);
+        } catch (Exception e) {
+            log.warn("Failed to publish room membership change - roomId: {}, error: {}", roomId, e.getMessage());
+        }
+    }
+
+    private void applyLocal(String roomId, String userId, boolean add) {
+        // intern 이 로컬 집합을 비울 수 있으므로 compute 밖에서 번호를 정한다
+        Integer number = add ? Integer.valueOf(intern(userId)) : userNumbers.get(userId);
+        // 채우는 중인 방이면 토큰을 지워 변경 전에 읽었을 수 있는 집합을 버리게 한다
+        local.computeIfPresent(roomId, (key, members) -> members.loading() ? null
+                : add ? members.with(number) : members.without(number));
+    }
+
+    // 집합이 없으면 원본을 읽어 만든다. 그 사이 변경이 있었으면 만들지 않고 읽은 값으로만 답한다
+    private boolean build(String roomId, String userId, LocalMembers token) {
+        builds.increment();
+        String generation = redisTemplate.opsForValue().get(generationKey(roomId));
+        Query query = Query.query(Criteria.where("_id").is(roomId));
+        query.fields().include("participantIds");
+        Room room = mongoTemplate.findOne(query, Room.class);
+        if (room == null) {
+            return false;
+        }
+
+        Set<String> participantIds = room.getParticipantIds() != null ? room.getParticipantIds() : Set.of();
+        List<String> args = new ArrayList<>(participantIds.size() + 3);
+        args.add(generation != null ? generation : "0");
+        args.add(String.valueOf(ttlMillis));
+        args.add(SENTINEL);
+        args.addAll(participantIds);
+        Long built = redisTemplate.execute(BUILD_SCRIPT, List.of(membersKey(roomId), generationKey(roomId)),
+                args.toArray());
+        if (Long.valueOf(1).equals(built) && token != null) {
+            completeLoad(roomId, token, participantIds);
+        }
+        return participantIds.contains(userId);
+    }
+
+    /**
+     * 이 방을 로컬에 채울 요청 하나만 토큰을 건다 (만료된 항목은 토큰으로 바꾼다).
+     *
+     * @return 건 토큰, 다른 요청이 채우는 중이거나 로컬에 둘 수 없으면 null
+     */
+    private LocalMembers beginLoad(String roomId, LocalMembers expired) {
+        if (localTtlMillis <= 0 || localMaxRooms <= 0) {
+            return null;
+        }
+        if (expired != null && expired.loading()) {
+            return null;
+        }
+        if (expired == null && local.size() >= localMaxRooms) {
+            long now = System.currentTimeMillis();
+            local.values().removeIf(entry -> !entry.loading() && entry.expiresAt <= now);
+            if (local.size() >= localMaxRooms) {
+                return null;
+            }
+        }
+        LocalMembers token = LocalMembers.loadingToken();
+        boolean placed = expired == null
+                ? local.putIfAbsent(roomId, token) == null
+                : local.replace(roomId, expired, token);
+        return placed ? token : null;
+    }
+
+    // 토큰이 그대로 있을 때만 올린다 (그 사이 이 방에 변경이 왔거나 비워졌으면 버린다)
+    private LocalMembers completeLoad(String roomId, LocalMembers token, Set<String> members) {
+        int[] numbers = new int[members.size()];
+        int count = 0;
+        for (String member : members) {
+            if (!SENTINEL.equals(member)) {
+                numbers[count++] = intern(member);
+            }
+        }
+        LocalMembers loaded = new LocalMembers(IntHashSet.of(numbers, count),
+                System.currentTimeMillis() + localTtlMillis);
+        local.replace(roomId, token, loaded);
+        return loaded;
+    }
+
+    private int intern(String userId) {
+        Integer number = userNumbers.get(userId);
+        if (number != null) {
+            return number;
+        }
+        if (userNumbers.size() >= maxInternedUsers) {
+            // 번호표가 너무 커지면 로컬 집합(채우는 중인 토큰 포함)과 함께 비운다
+            // (번호는 재사용하지 않으므로 남은 집합이 다른 사용자로 오인되지 않는다)
+            local.clear();
+            userNumbers.clear();
+        }
+        return userNumbers.computeIfAbsent(userId, id -> nextUserNumber.incrementAndGet());
+    }
+
+    private double localMemoryBytes() {
+        long bytes = 0;
+        for (LocalMembers members : local.values()) {
+            if (!members.loading()) {
+                bytes += members.members.memoryBytes();
+            }
+        }
+        return bytes;
+    }
+
+    int localRooms() {
+        return local.size();
+    }
+
+    private static String membersKey(String roomId) {
+        return MEMBERS_KEY_PREFIX + roomId;
+    }
+
+    private static String generationKey(String roomId) {
+        return GENERATION_KEY_PREFIX + roomId;
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("room.membership.lookups")
+                .description("Room membership checks by the tier that answered them")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    // 항목 비교는 객체 동일성으로 한다 (토큰마다 다른 객체)
+    private static final class LocalMembers {
+        private final IntHashSet members;
+        private final long expiresAt;
+
+        private LocalMembers(IntHashSet members, long expiresAt) {
+            this.members = members;
+            this.expiresAt = expiresAt;
+        }
+
+        // 채우는 중 표시, expiresAt 이 0 이라 조회에는 미스로 보인다
+        private static LocalMembers loadingToken() {
+            return new LocalMembers(null, 0);
+        }
+
+        private boolean loading() {
+            return members == null;
+        }
+
+        private boolean contains(Integer number) {
+            return number != null && members.contains(number);
+        }
+
+        private LocalMembers with(int number) {
+            return new LocalMembers(members.with(number), expiresAt);
+        }
+
+        private LocalMembers without(Integer number) {
+            return number != null ? new LocalMembers(members.without(number), expiresAt) : this;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.ktb.chatapp.repository.SessionRepository;
 import jakarta.websocket.SessionException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
 
@@ -18,6 +19,12 @@ public class SessionCacheStore {
         return sessionRepository.findByUserId(userId).orElseThrow(() -> new RuntimeException("session_not_found"));
     }
 
+    // 캐시된 Session 을 고쳐 쓰지 않으므로 저장한 값으로 캐시를 갱신해야 lastActivity 가 반영된다
+    @CachePut(value = "user::session", key = "#session.userId", cacheManager = "cacheManager")
+    public Session saveSession(Session session) {
+        return sessionRepository.save(session);
+    }
+
     @CacheEvict(value = "user::session", key="#userId", cacheManager = "cacheManager")
     public void evictSession(String userId) {
         sessionRepository.deleteByUserId(userId);
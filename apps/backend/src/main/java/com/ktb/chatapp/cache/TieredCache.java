@@ -0,0 +1,436 @@
+package com.ktb.chatapp.cache;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+
+/**
+ * 노드 로컬 L1 + Redis L2 2단계 캐시
+ * 조회는 L1 에서 먼저 찾고 없으면 L2(RedisCache)에서 읽어 L1 에 올린다. L1 적중은 Redis 왕복과 JSON 역직렬화를 모두 건너뛴다.
+ * 쓰기/삭제는 L2 에 반영한 뒤 L1 항목을 지우고 다른 노드에 무효화를 알린다 (새 값은 다음 조회 때 L2 에서 읽는다).
+ * 무효화 메시지를 놓쳐도 L1 항목 TTL 이 지나면 L2 값으로 돌아온다.
+ * L1 은 역직렬화된 객체를 그대로 공유하므로 조회한 값을 고친 뒤 다시 쓰지 않고 읽기 전용으로 다뤄야 한다.
+ * 여러 키 조회(getAll)와 채우기(putAllIfAbsent)는 L1 에 없는 키만 모아 MGET / 파이프라인 SET NX 한 번으로 처리한다.
+ */
+public class TieredCache implements Cache {
+
+    /**
+     * 다른 노드에 L1 무효화를 알린다. key 가 null 이면 캐시 전체.
+     */
+    @FunctionalInterface
+    public interface InvalidationPublisher {
+        void publish(String cacheName, String key);
+    }
+
+    private final RedisCache remote;
+    private final long localTtlMillis;
+    private final int localMaxSize;
+    private final InvalidationPublisher publisher;
+    private final StringRedisTemplate redisTemplate;
+
+    // L2 에서 읽는 동안에는 키마다 읽기 토큰을 두고, 그 사이 무효화로 토큰이 지워졌으면 읽은 값을 올리지 않는다
+    private final ConcurrentHashMap<String, LocalEntry> local = new ConcurrentHashMap<>();
+    private final ReentrantLock trimLock = new ReentrantLock();
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder localMisses = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder remoteInvalidations = new LongAdder();
+
+    /**
+     * @param localTtl 0 이면 L1 을 쓰지 않는다
+     * @param localMaxSize 0 이면 L1 을 쓰지 않는다
+     */
+    public TieredCache(RedisCache remote, Duration localTtl, int localMaxSize, InvalidationPublisher publisher) {
+        this(remote, localTtl, localMaxSize, publisher, null);
+    }
+
+    /**
+     * @param redisTemplate 여러 키 조회/채우기에 쓸 연결, null 이면 키마다 RedisCache 를 거친다
+     */
+    public TieredCache(RedisCache remote, Duration localTtl, int localMaxSize, InvalidationPublisher publisher,
+                       StringRedisTemplate redisTemplate) {
+        this.remote = remote;
+        this.localTtlMillis = localTtl.toMillis();
+        this.localMaxSize = localMaxSize;
+        this.publisher = publisher;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper cached = getLocal(localKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        LocalEntry token = beginLoad(localKey);
+        ValueWrapper value = remote.get(key);
+        if (value == null) {
+            remoteMisses.increment();
+            cancelLoad(localKey, token);
+            return null;
+        }
+        remoteHits.increment();
+        completeLoad(localKey, token, value);
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        puts.increment();
+        invalidate(localKey(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        if (existing == null) {
+            puts.increment();
+            invalidate(localKey(key));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        evictions.increment();
+        invalidate(localKey(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = remote.evictIfPresent(key);
+        evictions.increment();
+        invalidate(localKey(key));
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        invalidateAll();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = remote.invalidate();
+        invalidateAll();
+        return present;
+    }
+
+    /**
+     * 여러 키를 한 번에 읽는다. L1 에 없는 키만 모아 MGET 한 번으로 읽고 L1 에 올린다.
+     *
+     * @return 찾은 키와 값, 없는 키는 빠진다
+     */
+    public Map<String, Object> getAll(Collection<String> keys) {
+        Map<String, Object> found = HashMap.newHashMap(keys.size());
+        List<String> misses = new ArrayList<>();
+        for (String key : new LinkedHashSet<>(keys)) {
+            ValueWrapper cached = getLocal(key);
+            if (cached != null) {
+                found.put(key, cached.get());
+            } else {
+                misses.add(key);
+            }
+        }
+        if (misses.isEmpty()) {
+            return found;
+        }
+
+        List<LocalEntry> tokens = misses.stream().map(this::beginLoad).toList();
+        List<Object> values = redisTemplate != null ? multiGet(misses) : misses.stream()
+                .map(key -> {
+                    ValueWrapper value = remote.get(key);
+                    return value != null ? value.get() : null;
+                })
+                .toList();
+        for (int i = 0; i < misses.size(); i++) {
+            Object value = values.get(i);
+            if (value == null) {
+                remoteMisses.increment();
+                cancelLoad(misses.get(i), tokens.get(i));
+                continue;
+            }
+            remoteHits.increment();
+            found.put(misses.get(i), value);
+            completeLoad(misses.get(i), tokens.get(i), new SimpleValueWrapper(value));
+        }
+        return found;
+    }
+
+    /**
+     * 원본에서 읽어 온 값들을 L2 에 비어 있는 키만 채운다 (파이프라인 SET NX, 캐시 TTL 적용).
+     * 기존 값을 바꾸지 않으므로 다른 노드에 무효화를 보내지 않는다. 그 사이 다른 쓰기가 먼저 채운 키는 건너뛴다.
+     */
+    public void putAllIfAbsent(Map<String, ?> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        if (redisTemplate == null) {
+            values.forEach(this::putIfAbsent);
+            return;
+        }
+
+        List<String> keys = new ArrayList<>(values.keySet());
+        RedisCacheConfiguration config = remote.getCacheConfiguration();
+        List<LocalEntry> tokens = keys.stream().map(this::beginLoad).toList();
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                Object value = values.get(key);
+                Duration ttl = config.getTtlFunction().getTimeToLive(key, value);
+                Expiration expiration = ttl == null || ttl.isZero() || ttl.isNegative()
+                        ? Expiration.persistent() : Expiration.from(ttl);
+                connection.stringCommands().set(rawKey(config, key),
+                        ByteUtils.getBytes(config.getValueSerializationPair().write(value)),
+                        expiration, RedisStringCommands.SetOption.ifAbsent());
+            }
+            return null;
+        });
+        for (int i = 0; i < keys.size(); i++) {
+            if (Boolean.TRUE.equals(results.get(i))) {
+                puts.increment();
+                completeLoad(keys.get(i), tokens.get(i), new SimpleValueWrapper(values.get(keys.get(i))));
+            } else {
+                cancelLoad(keys.get(i), tokens.get(i));
+            }
+        }
+    }
+
+    /**
+     * 다른 노드가 보낸 무효화를 L1 에만 반영한다.
+     */
+    void evictLocal(String key) {
+        remoteInvalidations.increment();
+        if (key == null) {
+            clearLocal();
+        } else {
+            removeLocal(key);
+        }
+    }
+
+    private void invalidate(String key) {
+        removeLocal(key);
+        publisher.publish(getName(), key);
+    }
+
+    private void invalidateAll() {
+        clearLocal();
+        publisher.publish(getName(), null);
+    }
+
+    private List<Object> multiGet(List<String> keys) {
+        RedisCacheConfiguration config = remote.getCacheConfiguration();
+        byte[][] rawKeys = keys.stream().map(key -> rawKey(config, key)).toArray(byte[][]::new);
+        List<byte[]> rawValues = redisTemplate.execute(
+                (RedisCallback<List<byte[]>>) connection -> connection.stringCommands().mGet(rawKeys));
+        List<Object> values = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] raw = rawValues != null ? rawValues.get(i) : null;
+            // 코덱이 읽지 못하는 값(새 스키마 버전 등)은 null 이 되어 미스로 처리된다
+            values.add(raw != null ? config.getValueSerializationPair().read(ByteBuffer.wrap(raw)) : null);
+        }
+        return values;
+    }
+
+    // RedisCache 와 같은 키 (접두어 + 키)
+    private byte[] rawKey(RedisCacheConfiguration config, String key) {
+        String cacheKey = config.usePrefix() ? config.getKeyPrefixFor(getName()) + key : key;
+        return ByteUtils.getBytes(config.getKeySerializationPair().write(cacheKey));
+    }
+
+    private boolean localEnabled() {
+        return localTtlMillis > 0 && localMaxSize > 0;
+    }
+
+    private ValueWrapper getLocal(String key) {
+        if (!localEnabled()) {
+            return null;
+        }
+        LocalEntry entry = local.get(key);
+        long now = System.currentTimeMillis();
+        if (entry == null || entry.expiresAt <= now) {
+            localMisses.increment();
+            return null;
+        }
+        entry.lastAccess = now;
+        localHits.increment();
+        return entry.value;
+    }
+
+    // L2 를 읽기 전에 키 자리에 읽기 토큰(만료된 항목)을 둔다. L1 을 쓰지 않으면 null
+    private LocalEntry beginLoad(String key) {
+        if (!localEnabled()) {
+            return null;
+        }
+        if (local.size() >= localMaxSize) {
+            trim();
+        }
+        LocalEntry token = LocalEntry.loading();
+        local.put(key, token);
+        return token;
+    }
+
+    // 토큰이 그대로 있을 때만 올린다. 읽는 사이 이 키가 무효화되었다면 토큰이 지워져 오래된 값을 올리지 않는다
+    private void completeLoad(String key, LocalEntry token, ValueWrapper value) {
+        if (token == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        local.replace(key, token, new LocalEntry(new SimpleValueWrapper(value.get()), now + localTtlMillis, now));
+    }
+
+    private void cancelLoad(String key, LocalEntry token) {
+        if (token != null) {
+            local.remove(key, token);
+        }
+    }
+
+    private void removeLocal(String key) {
+        local.remove(key);
+    }
+
+    private void clearLocal() {
+        local.clear();
+    }
+
+    // 만료 항목을 지우고, 그래도 가득 차 있으면 가장 오래 조회되지 않은 1/10 을 지운다 (한 스레드만 정리)
+    private void trim() {
+        if (!trimLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            local.values().removeIf(entry -> entry.expiresAt <= now);
+            int excess = local.size() - localMaxSize + Math.max(1, localMaxSize / 10);
+            if (excess <= 0) {
+                return;
+            }
+            List<Map.Entry<String, LocalEntry>> entries = new ArrayList<>(local.entrySet());
+            entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+            for (int i = 0; i < Math.min(excess, entries.size()); i++) {
+                local.remove(entries.get(i).getKey(), entries.get(i).getValue());
+            }
+        } finally {
+            trimLock.unlock();
+        }
+    }
+
+    // RedisCache 와 같이 키는 문자열로 다룬다 (무효화 메시지도 문자열 키로 온다)
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    int localSize() {
+        return local.size();
+    }
+
+    long localHits() {
+        return localHits.sum();
+    }
+
+    long localMisses() {
+        return localMisses.sum();
+    }
+
+    long remoteHits() {
+        return remoteHits.sum();
+    }
+
+    long remoteMisses() {
+        return remoteMisses.sum();
+    }
+
+    long puts() {
+        return puts.sum();
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    long remoteInvalidations() {
+        return remoteInvalidations.sum();
+    }
+
+    // 토큰 비교는 인스턴스 기준이므로 equals 를 두지 않는다
+    private static final class LocalEntry {
+        private final ValueWrapper value;
+        private final long expiresAt;
+        private volatile long lastAccess;
+
+        private LocalEntry(ValueWrapper value, long expiresAt, long lastAccess) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.lastAccess = lastAccess;
+        }
+
+        static LocalEntry loading() {
+            return new LocalEntry(null, 0, 0);
+        }
+    }
+}
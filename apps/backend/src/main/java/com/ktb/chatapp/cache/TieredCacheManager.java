@@ -0,0 +1,102 @@
+package com.ktb.chatapp.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import static com.ktb.chatapp.config.RedisConfig.SERVER_ID;
+
+/**
+ * RedisCacheManager 의 캐시마다 노드 로컬 L1 을 앞에 둔 TieredCache 를 돌려준다.
+ * 어느 노드에서든 쓰기/삭제가 일어나면 cache:invalidate 채널로 "serverId|cacheName|key" 를 보내 다른 노드의 L1 을 지운다.
+ * key 가 없는 메시지("serverId|cacheName")는 캐시 전체 무효화다.
+ */
+@Slf4j
+public class TieredCacheManager implements CacheManager, MessageListener {
+
+    static final String INVALIDATION_CHANNEL = "cache:invalidate";
+    private static final char SEPARATOR = '|';
+
+    /**
+     * @param localTtl L1 항목 TTL, 무효화 메시지를 놓쳤을 때의 최대 지연
+     * @param localMaxSize L1 최대 항목 수, 0 이면 L1 없이 Redis 만 쓴다
+     */
+    public record LocalTier(Duration localTtl, int localMaxSize) {
+        public static final LocalTier DISABLED = new LocalTier(Duration.ZERO, 0);
+    }
+
+    private final RedisCacheManager remote;
+    private final StringRedisTemplate redisTemplate;
+    private final Map<String, LocalTier> localTiers;
+    private final Map<String, TieredCache> caches = new ConcurrentHashMap<>();
+
+    public TieredCacheManager(RedisCacheManager remote,
+                              StringRedisTemplate redisTemplate,
+                              RedisMessageListenerContainer listenerContainer,
+                              Map<String, LocalTier> localTiers) {
+        this.remote = remote;
+        this.redisTemplate = redisTemplate;
+        this.localTiers = Map.copyOf(localTiers);
+        // 빈으로 등록하지 않으므로 초기 캐시 구성을 직접 읽힌다
+        remote.initializeCaches();
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TieredCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        return caches.computeIfAbsent(name, n -> {
+            Cache delegate = remote.getCache(n);
+            if (!(delegate instanceof RedisCache redisCache)) {
+                return null;
+            }
+            LocalTier tier = localTiers.getOrDefault(n, LocalTier.DISABLED);
+            return new TieredCache(redisCache, tier.localTtl(), tier.localMaxSize(), this::publish, redisTemplate);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int first = body.indexOf(SEPARATOR);
+        if (first < 0 || body.startsWith(SERVER_ID + SEPARATOR)) {
+            return;
+        }
+        int second = body.indexOf(SEPARATOR, first + 1);
+        String cacheName = second < 0 ? body.substring(first + 1) : body.substring(first + 1, second);
+        TieredCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.evictLocal(second < 0 ? null : body.substring(second + 1));
+        }
+    }
+
+    private void publish(String cacheName, String key) {
+        String body = SERVER_ID + SEPARATOR + cacheName + (key != null ? SEPARATOR + key : "");
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, body);
+        } catch (Exception e) {
+            log.warn("Failed to publish cache invalidation - cache: {}, key: {}, error: {}",
+                    cacheName, key, e.getMessage());
+        }
+    }
+}
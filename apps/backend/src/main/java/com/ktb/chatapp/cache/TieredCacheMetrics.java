@@ -0,0 +1,83 @@
+package com.ktb.chatapp.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * TieredCache 메트릭
+ * cache.gets 는 두 단계를 합친 결과(어느 단계든 적중하면 hit)를 그대로 유지하고,
+ * 단계별 조회 수(cache.tier.gets)와 적중률(cache.tier.hit.ratio)을 tier=local|redis 태그로 덧붙인다.
+ */
+public class TieredCacheMetrics extends CacheMeterBinder<TieredCache> {
+
+    public TieredCacheMetrics(TieredCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+    }
+
+    @Override
+    protected Long size() {
+        return (long) getCache().localSize();
+    }
+
+    @Override
+    protected long hitCount() {
+        return getCache().localHits() + getCache().remoteHits();
+    }
+
+    @Override
+    protected Long missCount() {
+        return getCache().remoteMisses();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        return getCache().evictions();
+    }
+
+    @Override
+    protected long putCount() {
+        return getCache().puts();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        tierGets(registry, "local", "hit", TieredCache::localHits);
+        tierGets(registry, "local", "miss", TieredCache::localMisses);
+        tierGets(registry, "redis", "hit", TieredCache::remoteHits);
+        tierGets(registry, "redis", "miss", TieredCache::remoteMisses);
+        hitRatio(registry, "local", cache -> ratio(cache.localHits(), cache.localMisses()));
+        hitRatio(registry, "redis", cache -> ratio(cache.remoteHits(), cache.remoteMisses()));
+
+        FunctionCounter.builder("cache.tier.invalidations", getCache(), TieredCache::remoteInvalidations)
+                .tags(getTagsWithCacheName())
+                .description("Local tier invalidations received from other nodes")
+                .register(registry);
+    }
+
+    private void tierGets(MeterRegistry registry, String tier, String result,
+                          ToDoubleFunction<TieredCache> count) {
+        FunctionCounter.builder("cache.tier.gets", getCache(), count)
+                .tags(getTagsWithCacheName())
+                .tag("tier", tier)
+                .tag("result", result)
+                .description("Lookups per cache tier; redis is only consulted on a local miss")
+                .register(registry);
+    }
+
+    private void hitRatio(MeterRegistry registry, String tier, ToDoubleFunction<TieredCache> ratio) {
+        Gauge.builder("cache.tier.hit.ratio", getCache(), ratio)
+                .tags(getTagsWithCacheName())
+                .tag("tier", tier)
+                .description("Hit ratio of lookups that reached this tier")
+                .register(registry);
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -2,7 +2,15 @@ package com.ktb.chatapp.cache;
 
 import com.ktb.chatapp.model.User;
 import com.ktb.chatapp.repository.UserRepository;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -11,7 +19,11 @@ import org.springframework.stereotype.Component;
 @Component
 @RequiredArgsConstructor
 public class UserCacheStore {
+
+    public static final String ID_CACHE_NAME = "user::id";
+
     private final UserRepository userRepository;
+    private final CacheManager cacheManager;
 
     @Cacheable(value = "user::email", key = "#email", cacheManager = "cacheManager")
     public User getUserByEmail(String email) {
@@ -19,6 +31,44 @@ public class UserCacheStore {
             .orElseThrow(() -> new UsernameNotFoundException("사용자를 찾을 수 없습니다."));
     }
 
+    /**
+     * 여러 사용자를 한 번에 조회한다 (메시지 발신자, 참가자 목록).
+     * 캐시는 MGET 한 번으로 읽고, 캐시에 없는 사용자만 $in 쿼리 한 번으로 읽어 채운다.
+     *
+     * @return ID -> 사용자, 없는 사용자는 빠진다
+     */
+    public Map<String, User> getUsers(Collection<String> userIds) {
+        Set<String> ids = new LinkedHashSet<>();
+        userIds.stream().filter(Objects::nonNull).forEach(ids::add);
+        Map<String, User> users = HashMap.newHashMap(ids.size());
+        if (ids.isEmpty()) {
+            return users;
+        }
+
+        Cache cache = cacheManager.getCache(ID_CACHE_NAME);
+        CacheBatches.getAll(cache, ids).forEach((id, value) -> {
+            if (value instanceof User user) {
+                users.put(id, user);
+            }
+        });
+        if (users.size() == ids.size()) {
+            return users;
+        }
+
+        ids.removeAll(users.keySet());
+        Map<String, User> loaded = HashMap.newHashMap(ids.size());
+        userRepository.findAllById(ids).forEach(user -> loaded.put(user.getId(), user));
+        CacheBatches.putAllIfAbsent(cache, loaded);
+        users.putAll(loaded);
+        return users;
+    }
+
     @CacheEvict(value = "user::email", key = "#email", cacheManager = "cacheManager")
     public void evictUserByEmail(String email) {}
+
+    /**
+     * getUsers 가 채운 ID 캐시 항목을 지운다. 사용자 정보가 바뀌면 evictUserByEmail 과 함께 호출한다.
+     */
+    @CacheEvict(value = ID_CACHE_NAME, key = "#userId", cacheManager = "cacheManager")
+    public void evictUserById(String userId) {}
 }
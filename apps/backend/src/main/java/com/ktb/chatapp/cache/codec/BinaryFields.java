@@ -0,0 +1,201 @@
+package com.ktb.chatapp.cache.codec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 캐시 스키마가 쓰는 필드 인코딩
+ * 길이/정수는 varint 이고 문자열/컬렉션은 길이+1 을 써서 0 으로 null 을 표시한다.
+ * MongoDB ObjectId 형식(24자리 소문자 hex) 문자열은 12바이트로 줄여 쓴다.
+ */
+final class BinaryFields {
+
+    private static final int ID_NULL = 0;
+    private static final int ID_OBJECT_ID = 1;
+    private static final int ID_STRING = 2;
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private BinaryFields() {
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int length = (int) readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeId(DataOutputStream out, String id) throws IOException {
+        if (id == null) {
+            out.writeByte(ID_NULL);
+            return;
+        }
+        byte[] packed = packObjectId(id);
+        if (packed != null) {
+            out.write(packed);
+        } else {
+            out.writeByte(ID_STRING);
+            writeString(out, id);
+        }
+    }
+
+    static String readId(DataInputStream in) throws IOException {
+        int kind = in.readUnsignedByte();
+        if (kind == ID_NULL) {
+            return null;
+        }
+        if (kind != ID_OBJECT_ID) {
+            return readString(in);
+        }
+        byte[] packed = new byte[12];
+        in.readFully(packed);
+        byte[] hex = new byte[24];
+        for (int i = 0; i < 12; i++) {
+            hex[i * 2] = HEX_DIGITS[(packed[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX_DIGITS[packed[i] & 0xF];
+        }
+        return new String(hex, StandardCharsets.ISO_8859_1);
+    }
+
+    static void writeIds(DataOutputStream out, Collection<String> ids) throws IOException {
+        if (ids == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        writeVarLong(out, ids.size() + 1L);
+        for (String id : ids) {
+            writeId(out, id);
+        }
+    }
+
+    static Set<String> readIdSet(DataInputStream in) throws IOException {
+        int size = (int) readVarLong(in);
+        if (size == 0) {
+            return null;
+        }
+        Set<String> ids = HashSet.newHashSet(size - 1);
+        for (int i = 0; i < size - 1; i++) {
+            ids.add(readId(in));
+        }
+        return ids;
+    }
+
+    static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        if (values == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        writeVarLong(out, values.size() + 1L);
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    static List<String> readStringList(DataInputStream in) throws IOException {
+        int size = (int) readVarLong(in);
+        if (size == 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size - 1);
+        for (int i = 0; i < size - 1; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        writeInstant(out, value != null ? value.toInstant(ZoneOffset.UTC) : null);
+    }
+
+    static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        Instant instant = readInstant(in);
+        return instant != null ? LocalDateTime.ofInstant(instant, ZoneOffset.UTC) : null;
+    }
+
+    static void writeInstant(DataOutputStream out, Instant value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getEpochSecond());
+            writeVarLong(out, value.getNano());
+        }
+    }
+
+    static Instant readInstant(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long seconds = in.readLong();
+        return Instant.ofEpochSecond(seconds, readVarLong(in));
+    }
+
+    static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("잘못된 varint 입니다.");
+    }
+
+    // 24자리 소문자 hex 면 [ID_OBJECT_ID][12바이트] 를 한 번에 쓸 수 있게 만들고, 아니면 null
+    private static byte[] packObjectId(String id) {
+        if (id.length() != 24) {
+            return null;
+        }
+        byte[] packed = new byte[13];
+        packed[0] = ID_OBJECT_ID;
+        for (int i = 0; i < 12; i++) {
+            int high = hexValue(id.charAt(i * 2));
+            int low = hexValue(id.charAt(i * 2 + 1));
+            if ((high | low) < 0) {
+                return null;
+            }
+            packed[i + 1] = (byte) ((high << 4) | low);
+        }
+        return packed;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,156 @@
+package com.ktb.chatapp.cache.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 캐시 값 바이너리 코덱
+ * 스키마가 등록된 타입은 [0xC1][typeId][version][flags] 헤더 뒤에 스키마 필드를 쓰고,
+ * 본문이 compressThreshold 이상이면 Deflate 로 압축한다 (flags bit0, 원래 길이를 varint 로 앞에 둔다).
+ * 스키마가 없는 타입은 fallback(JSON) 직렬화를 그대로 쓴다. JSON 은 0xC1 로 시작할 수 없으므로
+ * 첫 바이트로 두 형식을 구분하고, 전환 전에 저장된 JSON 값도 그대로 읽힌다.
+ * 모르는 타입이나 이 노드보다 새 스키마 버전으로 저장된 값은 캐시 미스(null)로 취급해 원본에서 다시 읽게 한다.
+ */
+@Slf4j
+public class CacheValueCodec implements RedisSerializer<Object> {
+
+    static final int MAGIC = 0xC1;
+    private static final int HEADER_SIZE = 4;
+    private static final int FLAG_COMPRESSED = 1;
+
+    private final RedisSerializer<Object> fallback;
+    private final int compressThreshold;
+    private final Map<Class<?>, CacheValueSchema<?>> schemasByType = new HashMap<>();
+    private final Map<Integer, CacheValueSchema<?>> schemasById = new HashMap<>();
+
+    public CacheValueCodec(RedisSerializer<Object> fallback, int compressThreshold, List<CacheValueSchema<?>> schemas) {
+        this.fallback = fallback;
+        this.compressThreshold = compressThreshold;
+        for (CacheValueSchema<?> schema : schemas) {
+            if (schemasById.put(schema.typeId(), schema) != null) {
+                throw new IllegalArgumentException("중복된 캐시 스키마 typeId: " + schema.typeId());
+            }
+            schemasByType.put(schema.type(), schema);
+        }
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return fallback.serialize(null);
+        }
+        CacheValueSchema<?> schema = schemasByType.get(value.getClass());
+        if (schema == null) {
+            return fallback.serialize(value);
+        }
+        try {
+            byte[] body = writeBody(schema, value);
+            // 압축해도 줄지 않으면(무작위에 가까운 ID 목록 등) 압축하지 않은 본문을 쓴다
+            byte[] compressed = body.length >= compressThreshold ? deflate(body) : null;
+            boolean compress = compressed != null && compressed.length < body.length;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_SIZE + body.length);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(MAGIC);
+            out.writeByte(schema.typeId());
+            out.writeByte(schema.version());
+            out.writeByte(compress ? FLAG_COMPRESSED : 0);
+            if (compress) {
+                BinaryFields.writeVarLong(out, body.length);
+                out.write(compressed);
+            } else {
+                out.write(body);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("캐시 값 직렬화 실패: " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if ((bytes[0] & 0xFF) != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_SIZE) {
+            throw new SerializationException("캐시 값 헤더가 올바르지 않습니다.");
+        }
+        int typeId = bytes[1] & 0xFF;
+        int version = bytes[2] & 0xFF;
+        CacheValueSchema<?> schema = schemasById.get(typeId);
+        if (schema == null || version > schema.version()) {
+            log.debug("Unknown cache value schema, treated as miss - type: {}, version: {}", typeId, version);
+            return null;
+        }
+        try {
+            DataInputStream in = new DataInputStream(
+                    new ByteArrayInputStream(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE));
+            if ((bytes[3] & FLAG_COMPRESSED) != 0) {
+                int length = (int) BinaryFields.readVarLong(in);
+                in = new DataInputStream(new ByteArrayInputStream(inflate(in.readAllBytes(), length)));
+            }
+            return schema.read(in, version);
+        } catch (IOException | DataFormatException e) {
+            throw new SerializationException("캐시 값 역직렬화 실패: type " + typeId + ", version " + version, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> byte[] writeBody(CacheValueSchema<T> schema, Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        schema.write((T) value, new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] body) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed, int length) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] body = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int count = inflater.inflate(body, read, length - read);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += count;
+            }
+            if (read != length) {
+                throw new DataFormatException("압축 해제 길이가 올바르지 않습니다: " + read + "/" + length);
+            }
+            return body;
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.ktb.chatapp.cache.codec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * 캐시 값 타입 하나의 바이너리 스키마
+ * 필드를 추가/변경하면 version 을 올리고 read 에서 이전 버전 레이아웃도 읽을 수 있게 남겨둔다.
+ * typeId 는 Redis 에 저장된 값에 기록되므로 한 번 정한 번호는 바꾸거나 다른 타입에 다시 쓰지 않는다.
+ */
+public interface CacheValueSchema<T> {
+
+    int typeId();
+
+    int version();
+
+    Class<T> type();
+
+    void write(T value, DataOutputStream out) throws IOException;
+
+    /**
+     * @param version 저장될 때의 스키마 버전 (현재 버전 이하)
+     */
+    T read(DataInputStream in, int version) throws IOException;
+}
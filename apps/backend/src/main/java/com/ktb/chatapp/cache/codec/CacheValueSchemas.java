@@ -0,0 +1,300 @@
+package com.ktb.chatapp.cache.codec;
+
+import com.ktb.chatapp.cache.CachedRoom;
+import com.ktb.chatapp.cache.FileAccessDescriptor;
+import com.ktb.chatapp.model.Room;
+import com.ktb.chatapp.model.Session;
+import com.ktb.chatapp.model.User;
+import com.ktb.chatapp.service.SessionMetadata;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.ktb.chatapp.cache.codec.BinaryFields.readDateTime;
+import static com.ktb.chatapp.cache.codec.BinaryFields.readId;
+import static com.ktb.chatapp.cache.codec.BinaryFields.readIdSet;
+import static com.ktb.chatapp.cache.codec.BinaryFields.readInstant;
+import static com.ktb.chatapp.cache.codec.BinaryFields.readString;
+import static com.ktb.chatapp.cache.codec.BinaryFields.readStringList;
+import static com.ktb.chatapp.cache.codec.BinaryFields.readVarLong;
+import static com.ktb.chatapp.cache.codec.BinaryFields.writeDateTime;
+import static com.ktb.chatapp.cache.codec.BinaryFields.writeId;
+import static com.ktb.chatapp.cache.codec.BinaryFields.writeIds;
+import static com.ktb.chatapp.cache.codec.BinaryFields.writeInstant;
+import static com.ktb.chatapp.cache.codec.BinaryFields.writeString;
+import static com.ktb.chatapp.cache.codec.BinaryFields.writeStrings;
+import static com.ktb.chatapp.cache.codec.BinaryFields.writeVarLong;
+
+/**
+ * 캐시 스토어가 저장하는 값 타입의 스키마 (RoomCache, user::email, user::session, file::access, userIp)
+ * JSON 캐시와 같은 필드를 담는다. Room.password 는 JSON 에서도 빠지므로(@JsonIgnore) 여기서도 쓰지 않는다.
+ */
+public final class CacheValueSchemas {
+
+    private CacheValueSchemas() {
+    }
+
+    public static List<CacheValueSchema<?>> all() {
+        return List.of(new RoomSchema(), new UserSchema(), new SessionSchema(),
+                new FileAccessDescriptorSchema(), new StringSchema(), new CachedRoomSchema());
+    }
+
+    static final class RoomSchema implements CacheValueSchema<Room> {
+
+        @Override
+        public int typeId() {
+            return 1;
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public Class<Room> type() {
+            return Room.class;
+        }
+
+        @Override
+        public void write(Room room, DataOutputStream out) throws IOException {
+            writeId(out, room.getId());
+            writeString(out, room.getName());
+            writeId(out, room.getCreator());
+            out.writeBoolean(room.isHasPassword());
+            writeDateTime(out, room.getCreatedAt());
+            writeIds(out, room.getParticipantIds());
+        }
+
+        @Override
+        public Room read(DataInputStream in, int version) throws IOException {
+            Room room = new Room();
+            room.setId(readId(in));
+            room.setName(readString(in));
+            room.setCreator(readId(in));
+            room.setHasPassword(in.readBoolean());
+            room.setCreatedAt(readDateTime(in));
+            Set<String> participantIds = readIdSet(in);
+            room.setParticipantIds(participantIds != null ? participantIds : new HashSet<>());
+            return room;
+        }
+    }
+
+    static final class UserSchema implements CacheValueSchema<User> {
+
+        @Override
+        public int typeId() {
+            return 2;
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public Class<User> type() {
+            return User.class;
+        }
+
+        @Override
+        public void write(User user, DataOutputStream out) throws IOException {
+            writeId(out, user.getId());
+            writeString(out, user.getName());
+            writeString(out, user.getEmail());
+            writeString(out, user.getEncryptedEmail());
+            writeString(out, user.getPassword());
+            writeString(out, user.getProfileImage());
+            writeStrings(out, user.getProfileImageVariants());
+            writeDateTime(out, user.getCreatedAt());
+            writeDateTime(out, user.getUpdatedAt());
+            writeDateTime(out, user.getLastActive());
+            writeDateTime(out, user.getLastLogin());
+            out.writeBoolean(user.isOnline());
+        }
+
+        @Override
+        public User read(DataInputStream in, int version) throws IOException {
+            return User.builder()
+                    .id(readId(in))
+                    .name(readString(in))
+                    .email(readString(in))
+                    .encryptedEmail(readString(in))
+                    .password(readString(in))
+                    .profileImage(readString(in))
+                    .profileImageVariants(readStringList(in))
+                    .createdAt(readDateTime(in))
+                    .updatedAt(readDateTime(in))
+                    .lastActive(readDateTime(in))
+                    .lastLogin(readDateTime(in))
+                    .isOnline(in.readBoolean())
+                    .build();
+        }
+    }
+
+    static final class SessionSchema implements CacheValueSchema<Session> {
+
+        @Override
+        public int typeId() {
+            return 3;
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public Class<Session> type() {
+            return Session.class;
+        }
+
+        @Override
+        public void write(Session session, DataOutputStream out) throws IOException {
+            writeId(out, session.getId());
+            writeId(out, session.getUserId());
+            writeString(out, session.getSessionId());
+            writeVarLong(out, session.getCreatedAt());
+            writeVarLong(out, session.getLastActivity());
+            SessionMetadata metadata = session.getMetadata();
+            out.writeBoolean(metadata != null);
+            if (metadata != null) {
+                writeString(out, metadata.userAgent());
+                writeString(out, metadata.ipAddress());
+                writeString(out, metadata.deviceInfo());
+            }
+            writeInstant(out, session.getExpiresAt());
+        }
+
+        @Override
+        public Session read(DataInputStream in, int version) throws IOException {
+            Session.SessionBuilder builder = Session.builder()
+                    .id(readId(in))
+                    .userId(readId(in))
+                    .sessionId(readString(in))
+                    .createdAt(readVarLong(in))
+                    .lastActivity(readVarLong(in));
+            if (in.readBoolean()) {
+                builder.metadata(new SessionMetadata(readString(in), readString(in), readString(in)));
+            }
+            return builder.expiresAt(readInstant(in)).build();
+        }
+    }
+
+    static final class FileAccessDescriptorSchema implements CacheValueSchema<FileAccessDescriptor> {
+
+        @Override
+        public int typeId() {
+            return 4;
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public Class<FileAccessDescriptor> type() {
+            return FileAccessDescriptor.class;
+        }
+
+        @Override
+        public void write(FileAccessDescriptor descriptor, DataOutputStream out) throws IOException {
+            writeId(out, descriptor.getFileId());
+            writeString(out, descriptor.getFilename());
+            writeString(out, descriptor.getOriginalname());
+            writeString(out, descriptor.getMimetype());
+            writeVarLong(out, descriptor.getSize());
+            writeId(out, descriptor.getRoomId());
+            writeId(out, descriptor.getStorageKey());
+        }
+
+        @Override
+        public FileAccessDescriptor read(DataInputStream in, int version) throws IOException {
+            return new FileAccessDescriptor(readId(in), readString(in), readString(in), readString(in),
+                    readVarLong(in), readId(in), readId(in));
+        }
+    }
+
+    static final class StringSchema implements CacheValueSchema<String> {
+
+        @Override
+        public int typeId() {
+            return 5;
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public Class<String> type() {
+            return String.class;
+        }
+
+        @Override
+        public void write(String value, DataOutputStream out) throws IOException {
+            out.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String read(DataInputStream in, int version) throws IOException {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 버전 2 부터 중첩된 Room 의 스키마 버전을 함께 써서, RoomSchema 가 바뀌어도 저장될 때의 레이아웃으로 읽는다.
+     */
+    static final class CachedRoomSchema implements CacheValueSchema<CachedRoom> {
+
+        private final RoomSchema roomSchema = new RoomSchema();
+
+        @Override
+        public int typeId() {
+            return 6;
+        }
+
+        @Override
+        public int version() {
+            return 2;
+        }
+
+        @Override
+        public Class<CachedRoom> type() {
+            return CachedRoom.class;
+        }
+
+        @Override
+        public void write(CachedRoom cached, DataOutputStream out) throws IOException {
+            writeVarLong(out, cached.getLoadedAt());
+            writeVarLong(out, cached.getLoadMillis());
+            out.writeBoolean(cached.getRoom() != null);
+            if (cached.getRoom() != null) {
+                out.writeByte(roomSchema.version());
+                roomSchema.write(cached.getRoom(), out);
+            }
+        }
+
+        @Override
+        public CachedRoom read(DataInputStream in, int version) throws IOException {
+            long loadedAt = readVarLong(in);
+            long loadMillis = readVarLong(in);
+            if (!in.readBoolean()) {
+                return new CachedRoom(null, loadedAt, loadMillis);
+            }
+            // 버전 1 은 중첩 버전 없이 당시 RoomSchema(버전 1) 레이아웃으로 썼다
+            int roomVersion = version >= 2 ? in.readUnsignedByte() : 1;
+            if (roomVersion > roomSchema.version()) {
+                // 더 새 노드가 쓴 방은 읽지 못하므로 캐시 미스로 본다
+                return null;
+            }
+            return new CachedRoom(roomSchema.read(in, roomVersion), loadedAt, loadMillis);
+        }
+    }
+}
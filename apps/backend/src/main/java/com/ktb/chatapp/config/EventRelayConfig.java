@@ -1,25 +1,29 @@
 package com.ktb.chatapp.config;
 
+import com.ktb.chatapp.websocket.socketio.EventRelayExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.util.concurrent.Executor;
-
-@EnableAsync
 @Configuration
 @ComponentScan
 public class EventRelayConfig {
 
-    @Bean
-    public Executor eventRelayExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(100);
-        executor.setMaxPoolSize(200);
-        executor.setQueueCapacity(500);
-        executor.setThreadNamePrefix("event-relay-");
-        return executor;
+    /**
+     * 브로드캐스트 relay 단계. 작업은 emit/publish 한 번이라 짧으므로 소수 워커로 충분하고,
+     * 과부하 시에는 스레드를 늘리는 대신 이벤트별 정책(병합/대기 후 버림/절대 유지)으로 처리한다.
+     * 종료 시 drain-timeout 동안 대기 중인 relay 를 마저 보낸다.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public EventRelayExecutor eventRelayExecutor(
+            @Value("${chat.relay.executor.workers:4}") int workers,
+            @Value("${chat.relay.executor.queue-capacity:2000}") int queueCapacity,
+            @Value("${chat.relay.executor.block-timeout:PT0.05S}") Duration blockTimeout,
+            @Value("${chat.relay.executor.drain-timeout:PT5S}") Duration drainTimeout,
+            MeterRegistry meterRegistry) {
+        return new EventRelayExecutor(workers, queueCapacity, blockTimeout, drainTimeout, meterRegistry);
     }
 }
@@ -0,0 +1,32 @@
+package com.ktb.chatapp.config;
+
+import com.ktb.chatapp.websocket.socketio.ai.SyntheticChatModel;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * llm-stub 프로필에서 OpenAI 대신 합성 LLM 을 ChatModel 로 등록한다.
+ * OpenAI 자동 구성은 application-llm-stub.properties 의 spring.ai.model.chat=none 으로 꺼진다.
+ */
+@Slf4j
+@Configuration
+@Profile("llm-stub")
+public class LlmStubConfig {
+
+    @Bean
+    public SyntheticChatModel syntheticChatModel(
+            @Value("${ai.stub.time-to-first-token:PT0.5S}") Duration timeToFirstToken,
+            @Value("${ai.stub.tokens-per-second:30}") double tokensPerSecond,
+            @Value("${ai.stub.min-tokens:50}") int minTokens,
+            @Value("${ai.stub.max-tokens:300}") int maxTokens,
+            @Value("${ai.stub.error-rate:0.0}") double errorRate,
+            @Value("${ai.stub.seed:42}") long seed) {
+        log.info("Synthetic LLM enabled - ttft: {}, tokens/s: {}, tokens: {}~{}, errorRate: {}",
+                timeToFirstToken, tokensPerSecond, minTokens, maxTokens, errorRate);
+        return new SyntheticChatModel(timeToFirstToken, tokensPerSecond, minTokens, maxTokens, errorRate, seed);
+    }
+}
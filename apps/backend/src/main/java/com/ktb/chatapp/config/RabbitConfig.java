@@ -3,10 +3,16 @@ package com.ktb.chatapp.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ktb.chatapp.rabbitmq.RoomShardRouter;
+import java.util.ArrayList;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
@@ -88,6 +94,26 @@ public class RabbitConfig {
             .with(ROUTING_PARTICIPANTS);
     }
 
+    /**
+     * 방 샤드 큐 (chat.message.queue.{n}) 선언
+     * single-active-consumer 로 샤드당 한 consumer만 메시지를 받아 방 단위 순서를 지킨다.
+     */
+    @Bean
+    public Declarables messageShardDeclarables(RoomShardRouter roomShardRouter) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int shard = 0; shard < roomShardRouter.shardCount(); shard++) {
+            Queue queue = QueueBuilder.durable(roomShardRouter.queueName(shard))
+                .singleActiveConsumer()
+                .build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder
+                .bind(queue)
+                .to(exchange())
+                .with(roomShardRouter.routingKey(shard)));
+        }
+        return new Declarables(declarables);
+    }
+
     @Bean
     public ObjectMapper rabbitObjectMapper() {
         return new ObjectMapper()
@@ -6,15 +6,25 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ktb.chatapp.cache.CachedRoom;
+import com.ktb.chatapp.cache.RoomCacheStore;
+import com.ktb.chatapp.cache.TieredCache;
+import com.ktb.chatapp.cache.TieredCacheManager;
+import com.ktb.chatapp.cache.TieredCacheMetrics;
+import com.ktb.chatapp.cache.codec.CacheValueCodec;
+import com.ktb.chatapp.cache.codec.CacheValueSchemas;
 import com.ktb.chatapp.redis.ChatRedisPublisher;
 import com.ktb.chatapp.redis.ChatRedisSubscriber;
+import com.ktb.chatapp.redis.RelayStreams;
 import io.lettuce.core.api.StatefulConnection;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.data.redis.cache.CacheKeyPrefix;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
@@ -31,10 +41,13 @@ import org.springframework.data.redis.listener.adapter.MessageListenerAdapter;
 import org.springframework.data.redis.repository.configuration.EnableRedisRepositories;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.unit.DataSize;
 
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -51,11 +64,28 @@ public class RedisConfig {
 
     private final ObjectMapper objectMapper;
     public static final String CHANNEL = "chat:broadcast";
-    public static final String SERVER_ID = UUID.randomUUID().toString();
+    // 재시작해도 같은 노드는 같은 ID 를 쓴다. relay 스트림을 재생할 때 이전 실행에서 발행한 자기 메시지를 걸러낸다.
+    public static final String SERVER_ID = resolveServerId();
+
+    /**
+     * chat.relay.node-id (시스템 속성 또는 CHAT_RELAY_NODE_ID), 없으면 HOSTNAME, 둘 다 없으면 실행마다 새로 만든다.
+     * 한 호스트에서 여러 프로세스를 띄우면 프로세스마다 chat.relay.node-id 를 다르게 줘야 한다.
+     */
+    static String resolveServerId() {
+        for (String candidate : new String[]{
+                System.getProperty("chat.relay.node-id"),
+                System.getenv("CHAT_RELAY_NODE_ID"),
+                System.getenv("HOSTNAME")}) {
+            if (candidate != null && !candidate.isBlank()) {
+                return candidate.trim();
+            }
+        }
+        return UUID.randomUUID().toString();
+    }
 
     @Bean
-    public ChatRedisPublisher chatRedisPublisher(StringRedisTemplate stringRedisTemplate) {
-        return new ChatRedisPublisher(stringRedisTemplate, objectMapper);
+    public ChatRedisPublisher chatRedisPublisher(StringRedisTemplate stringRedisTemplate, RelayStreams relayStreams) {
+        return new ChatRedisPublisher(stringRedisTemplate, objectMapper, relayStreams);
     }
     @Bean
     public RedisMessageListenerContainer listenerContainer(
@@ -102,21 +132,29 @@ public class RedisConfig {
         return redisTemplate;
     }
 
-    @Bean(name = "cacheManager")
-    public RedisCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
-        PolymorphicTypeValidator ptv = BasicPolymorphicTypeValidator
-            .builder()
-            .allowIfSubType(Object.class)  // Object 클래스의 하위 타입을 허용
-            .build();
+    /**
+     * 캐시 이름 -> 설정 접두어 (cache.room.ttl, cache.room.local-ttl, cache.room.local-max-size ...)
+     */
+    private static final Map<String, String> CACHE_PROPERTIES = Map.of(
+        "RoomCache", "cache.room",
+        "user::email", "cache.user",
+        "user::id", "cache.user",
+        "user::session", "cache.session",
+        "userIp", "cache.ip",
+        "file::access", "cache.file-access");
 
-        // 객체와 JSON 간의 변환을 관리
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());  // Time API 지원
-        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);  // 알려지지 않은 프로퍼티(필드)가 있을 때 실패하지 않고 무시
-        objectMapper.activateDefaultTyping(ptv, ObjectMapper.DefaultTyping.NON_FINAL); // 기본 타이핑 활성화 및 다형성 타입 검증 설정
-        objectMapper.enable(SerializationFeature.WRITE_ENUMS_USING_TO_STRING);  // enum을 문자열로 쓰기
-        objectMapper.enable(DeserializationFeature.READ_ENUMS_USING_TO_STRING);  // 문자열을 enum으로 읽기
-        GenericJackson2JsonRedisSerializer genericJackson2JsonRedisSerializer = new GenericJackson2JsonRedisSerializer(objectMapper);  // 직렬화에 사용할 Serializer
+    @Bean(name = "cacheManager")
+    public TieredCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+                                           StringRedisTemplate stringRedisTemplate,
+                                           RedisMessageListenerContainer listenerContainer,
+                                           Environment environment) {
+        GenericJackson2JsonRedisSerializer genericJackson2JsonRedisSerializer = cacheJsonSerializer();
+        // binary: 스키마가 있는 타입은 바이너리(+압축), 나머지와 기존 JSON 값은 JSON 으로 읽고 쓴다
+        // json: 스키마 없이 JSON 으로만 쓰고, 다른 노드가 쓴 바이너리 값은 캐시 미스로 읽는다
+        boolean binary = "binary".equalsIgnoreCase(environment.getProperty("cache.codec", "json"));
+        RedisSerializer<Object> valueSerializer = new CacheValueCodec(genericJackson2JsonRedisSerializer,
+            (int) environment.getProperty("cache.codec.compress-threshold", DataSize.class, DataSize.ofKilobytes(1)).toBytes(),
+            binary ? CacheValueSchemas.all() : List.of());
 
         // 캐시의 기본 설정
         RedisCacheConfiguration redisCacheConfiguration = RedisCacheConfiguration.defaultCacheConfig()
@@ -124,20 +162,57 @@ public class RedisConfig {
             .entryTtl(Duration.ofHours(1L))
             .computePrefixWith(CacheKeyPrefix.simple())  // 캐시 키의 접두어를 간단하게 계산 EX) UserCache::Key 의 형태로 저장
             .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))  // 키의 직렬화 방식 설정
-            .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(genericJackson2JsonRedisSerializer));  // 값의 직렬화 방식 설정
+            .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer));  // 값의 직렬화 방식 설정
 
-        // 캐시 이름 설정 담아주기
+        // 캐시별 Redis TTL 과 로컬 L1 설정
         Map<String, RedisCacheConfiguration> redisCacheConfigurationMap = new HashMap<>();
-        redisCacheConfigurationMap.put("user::email", redisCacheConfiguration);
-        redisCacheConfigurationMap.put("RoomCache", redisCacheConfiguration);
-        redisCacheConfigurationMap.put("userIp", redisCacheConfiguration);
-
-        // RedisCacheManager 리턴
-        return RedisCacheManager.RedisCacheManagerBuilder
+        Map<String, TieredCacheManager.LocalTier> localTiers = new HashMap<>();
+        CACHE_PROPERTIES.forEach((cacheName, prefix) -> {
+            Duration ttl = environment.getProperty(prefix + ".ttl", Duration.class, Duration.ofHours(1L));
+            redisCacheConfigurationMap.put(cacheName, redisCacheConfiguration.entryTtl(ttl));
+            localTiers.put(cacheName, new TieredCacheManager.LocalTier(
+                environment.getProperty(prefix + ".local-ttl", Duration.class, Duration.ofSeconds(30)),
+                environment.getProperty(prefix + ".local-max-size", Integer.class, 10_000)));
+        });
+        // 없는 방을 기억하는 음성 항목은 짧게만 둔다
+        Duration roomTtl = environment.getProperty("cache.room.ttl", Duration.class, Duration.ofHours(1L));
+        Duration roomNegativeTtl = environment.getProperty("cache.room.negative-ttl", Duration.class, Duration.ofSeconds(10));
+        redisCacheConfigurationMap.put(RoomCacheStore.CACHE_NAME, redisCacheConfiguration.entryTtl((key, value) ->
+            value instanceof CachedRoom cached && cached.isNegative() ? roomNegativeTtl : roomTtl));
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.RedisCacheManagerBuilder
             .fromConnectionFactory(redisConnectionFactory)  // Redis 연결 설정
             .cacheDefaults(redisCacheConfiguration)  // 기본 캐시 설정
             .withInitialCacheConfigurations(redisCacheConfigurationMap)  // 초기 캐시 설정을 맵으로 전달
             .enableStatistics()
             .build();  // RedisCacheManager 생성
+
+        // 노드 로컬 L1 을 앞에 두고 무효화는 pub/sub 로 전파
+        return new TieredCacheManager(redisCacheManager, stringRedisTemplate, listenerContainer, localTiers);
+    }
+
+    /**
+     * 캐시 값 JSON 직렬화 (기본 타이핑 포함), binary 코덱에서도 스키마가 없는 타입과 기존 값에 쓴다
+     */
+    public static GenericJackson2JsonRedisSerializer cacheJsonSerializer() {
+        PolymorphicTypeValidator ptv = BasicPolymorphicTypeValidator
+            .builder()
+            .allowIfSubType(Object.class)  // Object 클래스의 하위 타입을 허용
+            .build();
+
+        // 객체와 JSON 간의 변환을 관리
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());  // Time API 지원
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);  // 알려지지 않은 프로퍼티(필드)가 있을 때 실패하지 않고 무시
+        objectMapper.activateDefaultTyping(ptv, ObjectMapper.DefaultTyping.NON_FINAL); // 기본 타이핑 활성화 및 다형성 타입 검증 설정
+        objectMapper.enable(SerializationFeature.WRITE_ENUMS_USING_TO_STRING);  // enum을 문자열로 쓰기
+        objectMapper.enable(DeserializationFeature.READ_ENUMS_USING_TO_STRING);  // 문자열을 enum으로 읽기
+        return new GenericJackson2JsonRedisSerializer(objectMapper);  // 직렬화에 사용할 Serializer
+    }
+
+    // cache.gets 등 캐시 메트릭을 TieredCache 에도 붙인다 (단계별 적중률 포함)
+    @Bean
+    public CacheMeterBinderProvider<TieredCache> tieredCacheMeterBinderProvider() {
+        return TieredCacheMetrics::new;
     }
 }
@@ -1,13 +1,17 @@
 package com.ktb.chatapp.config;
 
 import com.ktb.chatapp.config.properties.S3Properties;
+import java.net.URI;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 
@@ -17,19 +21,25 @@ public class S3Config {
     public S3Properties s3Properties(
             @Value("${spring.cloud.aws.s3.access-key}") String accessKey,
             @Value("${spring.cloud.aws.s3.secret-key}") String secretKey,
-            @Value("${spring.cloud.aws.s3.bucket}") String bucket
+            @Value("${spring.cloud.aws.s3.bucket}") String bucket,
+            @Value("${spring.cloud.aws.s3.endpoint:}") String endpoint
     ) {
-        return new S3Properties(accessKey, secretKey, bucket);
+        return new S3Properties(accessKey, secretKey, bucket, endpoint);
     }
 
     @Bean
     public S3Presigner preSigner(S3Properties s3Properties) {
         AwsBasicCredentials credentials = AwsBasicCredentials.create(s3Properties.accessKey(), s3Properties.secretKey());
 
-        return S3Presigner.builder()
+        S3Presigner.Builder builder = S3Presigner.builder()
                 .credentialsProvider(StaticCredentialsProvider.create(credentials))
-                .region(Region.AP_NORTHEAST_2)
-                .build();
+                .region(Region.AP_NORTHEAST_2);
+        // MinIO 등 S3 호환 저장소를 쓰는 로컬 환경에서는 endpoint 와 path-style 주소를 쓴다
+        if (StringUtils.hasText(s3Properties.endpoint())) {
+            builder.endpointOverride(URI.create(s3Properties.endpoint()))
+                    .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build());
+        }
+        return builder.build();
     }
 
 
@@ -37,9 +47,13 @@ public class S3Config {
     public S3Client s3Client(S3Properties s3Properties) {
         AwsBasicCredentials credentials = AwsBasicCredentials.create(s3Properties.accessKey(), s3Properties.secretKey());
 
-        return S3Client.builder()
+        S3ClientBuilder builder = S3Client.builder()
                 .credentialsProvider(StaticCredentialsProvider.create(credentials))
-                .region(Region.AP_NORTHEAST_2)
-                .build();
+                .region(Region.AP_NORTHEAST_2);
+        if (StringUtils.hasText(s3Properties.endpoint())) {
+            builder.endpointOverride(URI.create(s3Properties.endpoint()))
+                    .forcePathStyle(true);
+        }
+        return builder.build();
     }
 }
\ No newline at end of file
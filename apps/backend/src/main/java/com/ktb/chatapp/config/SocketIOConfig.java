@@ -7,9 +7,13 @@ import com.corundumstudio.socketio.annotation.SpringAnnotationScanner;
 import com.corundumstudio.socketio.namespace.Namespace;
 import com.corundumstudio.socketio.protocol.JacksonJsonSupport;
 import com.corundumstudio.socketio.store.MemoryStoreFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.ktb.chatapp.websocket.socketio.ChatDataStore;
 import com.ktb.chatapp.websocket.socketio.LocalChatDataStore;
+import com.ktb.chatapp.websocket.socketio.RedisChatDataStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.BeanPostProcessor;
@@ -18,6 +22,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Role;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import com.corundumstudio.socketio.Transport;
 
 import static org.springframework.beans.factory.config.BeanDefinition.ROLE_INFRASTRUCTURE;
@@ -83,9 +89,24 @@ public class SocketIOConfig {
     
     // 인메모리 저장소, 단일 노드 환경에서만 사용
     @Bean
-    @ConditionalOnProperty(name = "socketio.enabled", havingValue = "true", matchIfMissing = true)
+    @ConditionalOnProperty(name = "chat.data-store.type", havingValue = "local", matchIfMissing = true)
     public ChatDataStore chatDataStore() {
         return new LocalChatDataStore();
     }
 
+    // Redis 저장소, 다중 노드에서 접속 사용자/참여 방을 클러스터 단위로 공유
+    @Bean
+    @ConditionalOnProperty(name = "chat.data-store.type", havingValue = "redis")
+    public ChatDataStore redisChatDataStore(
+            StringRedisTemplate stringRedisTemplate,
+            ObjectMapper objectMapper,
+            RedisMessageListenerContainer listenerContainer,
+            MeterRegistry meterRegistry,
+            @Value("${chat.data-store.key-ttl:P1D}") Duration keyTtl,
+            @Value("${chat.data-store.near-cache.ttl:PT30S}") Duration nearCacheTtl,
+            @Value("${chat.data-store.near-cache.max-size:100000}") int nearCacheMaxSize) {
+        return new RedisChatDataStore(stringRedisTemplate, objectMapper, listenerContainer, meterRegistry,
+                keyTtl, nearCacheTtl, nearCacheMaxSize);
+    }
+
 }
@@ -2,9 +2,13 @@ package com.ktb.chatapp.config;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
@@ -20,6 +24,41 @@ public class WebMvcConfig implements WebMvcConfigurer {
     @Value("${file.upload-dir:./uploads}")
     private String uploadDir;
 
+    // 50MB 파일을 느린 클라이언트에 흘려보내도 Tomcat 기본값(30초)에 잘리지 않도록 명시한다
+    @Value("${spring.mvc.async.request-timeout:PT10M}")
+    private Duration asyncRequestTimeout;
+
+    @Value("${file.download.stream-threads:32}")
+    private int streamThreads;
+
+    @Value("${file.download.stream-queue-capacity:100}")
+    private int streamQueueCapacity;
+
+    /**
+     * StreamingResponseBody 본문 복사 전용 bounded 실행기.
+     * 공유 applicationTaskExecutor 를 다운로드가 점유하지 않게 분리하고, 큐가 차면 요청을 거절한다.
+     * Executor 빈으로 등록하면 applicationTaskExecutor 자동 구성이 빠지므로 여기서 직접 관리한다.
+     */
+    private final ThreadPoolTaskExecutor streamingExecutor = new ThreadPoolTaskExecutor();
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        streamingExecutor.setCorePoolSize(streamThreads);
+        streamingExecutor.setMaxPoolSize(streamThreads);
+        streamingExecutor.setQueueCapacity(streamQueueCapacity);
+        streamingExecutor.setThreadNamePrefix("mvc-stream-");
+        streamingExecutor.setWaitForTasksToCompleteOnShutdown(true);
+        streamingExecutor.setAwaitTerminationSeconds(10);
+        streamingExecutor.initialize();
+        configurer.setDefaultTimeout(asyncRequestTimeout.toMillis());
+        configurer.setTaskExecutor(streamingExecutor);
+    }
+
+    @PreDestroy
+    public void shutdownStreamingExecutor() {
+        streamingExecutor.shutdown();
+    }
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(rateLimitInterceptor); // 변경금지
@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Value;
 public record S3Properties(
         String accessKey,
         String secretKey,
-        String bucket
+        String bucket,
+        String endpoint
 ) {
 }
@@ -1,13 +1,18 @@
 package com.ktb.chatapp.controller;
 
+import com.ktb.chatapp.cache.FileAccessDescriptor;
 import com.ktb.chatapp.cache.UserCacheStore;
+import com.ktb.chatapp.dto.CreateUploadRequest;
 import com.ktb.chatapp.dto.StandardResponse;
-import com.ktb.chatapp.model.File;
+import com.ktb.chatapp.dto.UploadSessionResponse;
+import com.ktb.chatapp.model.ImageVariant;
 import com.ktb.chatapp.model.User;
 import com.ktb.chatapp.repository.FileRepository;
 import com.ktb.chatapp.repository.UserRepository;
 import com.ktb.chatapp.service.FileService;
 import com.ktb.chatapp.service.FileUploadResult;
+import com.ktb.chatapp.service.ResumableUploadService;
+import com.ktb.chatapp.service.S3Service;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,18 +21,25 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.Resource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.security.Principal;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -38,10 +50,21 @@ import java.util.Map;
 @RequestMapping("/api/files")
 public class FileController {
 
+    private static final String DOWNLOAD_MODE_REDIRECT = "redirect";
+
     private final FileService fileService;
+    private final S3Service s3Service;
     private final FileRepository fileRepository;
     private final UserRepository userRepository;
     private final UserCacheStore userCacheStore;
+    private final ResumableUploadService resumableUploadService;
+
+    // proxy: 서버가 본문을 중계, redirect: presigned URL 로 302 (S3 CORS 설정 필요)
+    @Value("${file.download.mode:proxy}")
+    private String downloadMode;
+
+    @Value("${file.download.presign-ttl:PT1M}")
+    private Duration presignTtl;
 
     /**
      * 파일 업로드
@@ -72,28 +95,7 @@ public class FileController {
 
             FileUploadResult result = fileService.uploadFile(file, user.getId());
 
-            if (result.isSuccess()) {
-                Map<String, Object> response = new HashMap<>();
-                response.put("success", true);
-                response.put("message", "파일 업로드 성공");
-
-                Map<String, Object> fileData = new HashMap<>();
-                fileData.put("_id", result.getFile().getId());
-                fileData.put("filename", result.getFile().getFilename());
-                fileData.put("originalname", result.getFile().getOriginalname());
-                fileData.put("mimetype", result.getFile().getMimetype());
-                fileData.put("size", result.getFile().getSize());
-                fileData.put("uploadDate", result.getFile().getUploadDate());
-
-                response.put("file", fileData);
-
-                return ResponseEntity.ok(response);
-            } else {
-                Map<String, Object> errorResponse = new HashMap<>();
-                errorResponse.put("success", false);
-                errorResponse.put("message", "파일 업로드에 실패했습니다.");
-                return ResponseEntity.status(500).body(errorResponse);
-            }
+            return uploadResponse(result);
 
         } catch (Exception e) {
             log.error("파일 업로드 중 에러 발생", e);
@@ -105,6 +107,188 @@ public class FileController {
         }
     }
 
+    /**
+     * 스트리밍 파일 업로드
+     * multipart 대신 요청 본문 자체가 파일이며, 컨테이너가 본문을 디스크/메모리에 모으지 않고 S3 로 바로 흘려보낸다.
+     */
+    @Operation(summary = "스트리밍 파일 업로드",
+        description = "요청 본문을 그대로 저장소에 업로드합니다. Content-Type 은 파일의 MIME 타입, filename 은 원본 파일명입니다.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "파일 업로드 성공"),
+        @ApiResponse(responseCode = "400", description = "잘못된 파일",
+            content = @Content(schema = @Schema(implementation = StandardResponse.class))),
+        @ApiResponse(responseCode = "401", description = "인증 실패",
+            content = @Content(schema = @Schema(implementation = StandardResponse.class))),
+        @ApiResponse(responseCode = "413", description = "파일 크기 초과",
+            content = @Content(schema = @Schema(implementation = StandardResponse.class))),
+        @ApiResponse(responseCode = "500", description = "서버 내부 오류",
+            content = @Content(schema = @Schema(implementation = StandardResponse.class)))
+    })
+    @PostMapping(value = "/upload/stream")
+    public ResponseEntity<?> uploadFileStream(
+        @Parameter(description = "원본 파일명") @RequestParam("filename") String filename,
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+        @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+        @Parameter(description = "본문 SHA-256 (hex), 같은 파일이 이미 있으면 저장을 생략합니다")
+        @RequestHeader(value = "X-Content-SHA256", required = false) String contentSha256,
+        HttpServletRequest request,
+        Principal principal) {
+        try {
+            User user = userCacheStore.getUserByEmail(principal.getName());
+
+            // charset 등 파라미터는 제외하고 MIME 타입만 쓴다
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            String mimetype = mediaType.getType() + "/" + mediaType.getSubtype();
+            FileUploadResult result = fileService.uploadFileStream(
+                request.getInputStream(), filename, mimetype,
+                contentLength != null ? contentLength : -1, contentSha256, user.getId());
+
+            return uploadResponse(result);
+
+        } catch (Exception e) {
+            log.error("스트리밍 파일 업로드 중 에러 발생", e);
+            return uploadError(e);
+        }
+    }
+
+    /**
+     * 이어받기 업로드 세션 생성
+     * 이후 청크를 PUT /uploads/{uploadId}?offset= 로 올리고(병렬 가능) POST /uploads/{uploadId}/complete 로 완료한다.
+     */
+    @Operation(summary = "이어받기 업로드 시작",
+        description = "업로드 세션을 만들고 청크 크기를 돌려줍니다. 끊긴 업로드는 받은 청크를 조회한 뒤 나머지만 올리면 됩니다.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "201", description = "세션 생성",
+            content = @Content(schema = @Schema(implementation = UploadSessionResponse.class))),
+        @ApiResponse(responseCode = "400", description = "잘못된 파일",
+            content = @Content(schema = @Schema(implementation = StandardResponse.class))),
+        @ApiResponse(responseCode = "413", description = "파일 크기 초과",
+            content = @Content(schema = @Schema(implementation = StandardResponse.class)))
+    })
+    @PostMapping("/uploads")
+    public ResponseEntity<?> createUpload(@Valid @RequestBody CreateUploadRequest createUploadRequest,
+                                          Principal principal) {
+        try {
+            User user = userCacheStore.getUserByEmail(principal.getName());
+            ResumableUploadService.UploadStatus status = resumableUploadService.create(
+                createUploadRequest.getFilename(), createUploadRequest.getMimetype(),
+                createUploadRequest.getSize(), user.getId());
+            return ResponseEntity.status(201).body(UploadSessionResponse.from(status));
+        } catch (Exception e) {
+            log.error("업로드 세션 생성 중 에러 발생", e);
+            return uploadError(e);
+        }
+    }
+
+    @Operation(summary = "이어받기 업로드 상태", description = "받은 청크 목록과 이어 올릴 offset 을 조회합니다.")
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> getUpload(@PathVariable String uploadId, Principal principal) {
+        try {
+            User user = userCacheStore.getUserByEmail(principal.getName());
+            return ResponseEntity.ok(UploadSessionResponse.from(resumableUploadService.status(uploadId, user.getId())));
+        } catch (Exception e) {
+            log.error("업로드 세션 조회 중 에러 발생: {}", uploadId, e);
+            return uploadError(e);
+        }
+    }
+
+    @Operation(summary = "청크 업로드",
+        description = "요청 본문이 청크입니다. offset 은 chunkSize 의 배수이고 본문 길이는 chunkSize (마지막 청크는 나머지)여야 합니다.")
+    @PutMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> putChunk(
+        @PathVariable String uploadId,
+        @Parameter(description = "청크 시작 위치 (bytes)") @RequestParam("offset") long offset,
+        HttpServletRequest request,
+        Principal principal) {
+        try {
+            User user = userCacheStore.getUserByEmail(principal.getName());
+            ResumableUploadService.UploadStatus status = resumableUploadService.putChunk(
+                uploadId, offset, request.getInputStream(), user.getId());
+            return ResponseEntity.ok(UploadSessionResponse.from(status));
+        } catch (Exception e) {
+            log.error("청크 업로드 중 에러 발생: {} (offset {})", uploadId, offset, e);
+            return uploadError(e);
+        }
+    }
+
+    @Operation(summary = "이어받기 업로드 완료", description = "모든 청크를 받았으면 파일을 만듭니다. 다시 호출하면 같은 파일을 돌려줍니다.")
+    @PostMapping("/uploads/{uploadId}/complete")
+    public ResponseEntity<?> completeUpload(@PathVariable String uploadId, Principal principal) {
+        try {
+            User user = userCacheStore.getUserByEmail(principal.getName());
+            return uploadResponse(resumableUploadService.complete(uploadId, user.getId()));
+        } catch (Exception e) {
+            log.error("업로드 완료 처리 중 에러 발생: {}", uploadId, e);
+            return uploadError(e);
+        }
+    }
+
+    @Operation(summary = "이어받기 업로드 취소", description = "세션과 받은 청크를 버립니다.")
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> abortUpload(@PathVariable String uploadId, Principal principal) {
+        try {
+            User user = userCacheStore.getUserByEmail(principal.getName());
+            resumableUploadService.abort(uploadId, user.getId());
+            return ResponseEntity.ok(StandardResponse.success("업로드가 취소되었습니다.", null));
+        } catch (Exception e) {
+            log.error("업로드 취소 중 에러 발생: {}", uploadId, e);
+            return uploadError(e);
+        }
+    }
+
+    private ResponseEntity<?> uploadError(Exception e) {
+        String errorMessage = e.getMessage() != null ? e.getMessage() : "";
+        int statusCode = 500;
+        if (errorMessage.contains("초과할 수 없습니다")) {
+            statusCode = 413;
+        } else if (errorMessage.contains("지원하지 않는") || errorMessage.contains("올바르지 않습니다")
+            || errorMessage.contains("너무 깁니다") || errorMessage.contains("비어있습니다")
+            || errorMessage.contains("일치하지 않습니다")) {
+            statusCode = 400;
+        } else if (errorMessage.contains("세션을 찾을 수 없습니다")) {
+            statusCode = 404;
+        } else if (errorMessage.contains("권한")) {
+            statusCode = 403;
+        } else if (errorMessage.contains("업로드되지 않은")
+            // "이미지 ..." 검증 오류와 구분되도록 완료 관련 문구 전체로 판단
+            || errorMessage.contains("이미 완료")) {
+            statusCode = 409;
+        }
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", "파일 업로드 중 오류가 발생했습니다.");
+        errorResponse.put("error", errorMessage);
+        return ResponseEntity.status(statusCode).body(errorResponse);
+    }
+
+    private ResponseEntity<?> uploadResponse(FileUploadResult result) {
+        if (!result.isSuccess()) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "파일 업로드에 실패했습니다.");
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "파일 업로드 성공");
+
+        Map<String, Object> fileData = new HashMap<>();
+        fileData.put("_id", result.getFile().getId());
+        fileData.put("filename", result.getFile().getFilename());
+        fileData.put("originalname", result.getFile().getOriginalname());
+        fileData.put("mimetype", result.getFile().getMimetype());
+        fileData.put("size", result.getFile().getSize());
+        fileData.put("uploadDate", result.getFile().getUploadDate());
+        if (result.getFile().getChecksum() != null) {
+            fileData.put("checksum", result.getFile().getChecksum());
+        }
+
+        response.put("file", fileData);
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * 보안이 강화된 파일 다운로드
      */
@@ -126,34 +310,7 @@ public class FileController {
         HttpServletRequest request,
         Principal principal) {
         try {
-            //            User user = userRepository.findByEmail(principal.getName())
-//                    .orElseThrow(() -> new UsernameNotFoundException("User not found: " + principal.getName()));
-            User user = userCacheStore.getUserByEmail(principal.getName());
-
-            Resource resource = fileService.loadFileAsResource(filename, user.getId());
-
-            File fileEntity = fileRepository.findByFilename(filename)
-                .orElse(null);
-
-            String originalFilename = fileEntity != null ? fileEntity.getOriginalname() : filename;
-            String encodedFilename = URLEncoder.encode(originalFilename, StandardCharsets.UTF_8)
-                .replaceAll("\\+", "%20");
-
-            String contentDisposition = String.format(
-                "attachment; filename*=UTF-8''%s",
-                encodedFilename
-            );
-
-            long contentLength = fileEntity != null ? fileEntity.getSize() : resource.contentLength();
-
-            return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(fileEntity.getMimetype()))
-                .contentLength(contentLength)
-                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition)
-                .header(HttpHeaders.CACHE_CONTROL, "private, no-cache, no-store, must-revalidate")
-                .header(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, "Content-Disposition")
-                .body(resource);
-
+            return serveFile(filename, false, null, request, principal);
         } catch (Exception e) {
             log.error("파일 다운로드 중 에러 발생: {}", filename, e);
             return handleFileError(e);
@@ -197,49 +354,127 @@ public class FileController {
     @GetMapping(value = "/view/{filename:.+}")
     public ResponseEntity<?> viewFile(
         @PathVariable String filename,
+        @Parameter(description = "이미지 파생본 (thumb, preview), 생략하면 원본")
+        @RequestParam(value = "variant", required = false) String variant,
         HttpServletRequest request,
         Principal principal) {
         try {
-            //            User user = userRepository.findByEmail(principal.getName())
-//                    .orElseThrow(() -> new UsernameNotFoundException("User not found: " + principal.getName()));
-            User user = userCacheStore.getUserByEmail(principal.getName());
-
-            Resource resource = fileService.loadFileAsResource(filename, user.getId());
-
-            File fileEntity = fileRepository.findByFilename(filename)
-                .orElseThrow(() -> new RuntimeException("파일을 찾을 수 없습니다."));
-
-            if (!fileEntity.isPreviewable()) {
-                Map<String, Object> errorResponse = new HashMap<>();
-                errorResponse.put("success", false);
-                errorResponse.put("message", "미리보기를 지원하지 않는 파일 형식입니다.");
-                return ResponseEntity.status(415).body(errorResponse);
-            }
-
-
-            String originalFilename = fileEntity.getOriginalname();
-            String encodedFilename = URLEncoder.encode(originalFilename, StandardCharsets.UTF_8)
-                .replaceAll("\\+", "%20");
+            return serveFile(filename, true, variant, request, principal);
+        } catch (Exception e) {
+            log.error("파일 미리보기 중 에러 발생: {}", filename, e);
+            return handleFileError(e);
+        }
+    }
 
-            String contentDisposition = String.format(
-                "inline; filename=\"%s\"; filename*=UTF-8''%s",
-                originalFilename,
-                encodedFilename
-            );
+    /**
+     * 권한 확인 후 파일을 내려준다.
+     * redirect 모드: 단기 presigned URL 로 302 응답, 본문은 클라이언트가 S3 에서 직접 받는다.
+     * proxy 모드: S3 본문을 그대로 흘려보내며 Range(206)와 If-None-Match(304)를 지원한다.
+     * HEAD 요청은 모드와 관계없이 리다이렉트 없이 메타데이터만 응답한다.
+     * variant 가 있으면 원본 대신 생성된 이미지 파생본(JPEG)을 내려주며, 아직 없으면 404 이다.
+     */
+    private ResponseEntity<?> serveFile(String filename, boolean inline, String variant,
+                                        HttpServletRequest request, Principal principal) {
+        User user = userCacheStore.getUserByEmail(principal.getName());
+        FileAccessDescriptor fileEntity = fileService.getAccessibleFile(filename, user.getId());
 
-            long contentLength = fileEntity.getSize();
+        ImageVariant imageVariant = variant != null ? ImageVariant.fromKey(variant).orElse(null) : null;
+        if (variant != null && imageVariant == null) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "지원하지 않는 이미지 크기입니다.");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        // 파생본은 크기를 메타데이터로 모르므로 HEAD 도 저장소에서 확인한다
+        String objectKey = imageVariant != null
+            ? imageVariant.objectKey(fileEntity.resolveStorageKey())
+            : fileEntity.resolveStorageKey();
+        String mimetype = imageVariant != null ? MediaType.IMAGE_JPEG_VALUE : fileEntity.getMimetype();
+        boolean head = HttpMethod.HEAD.matches(request.getMethod());
+
+        if (inline && !fileEntity.isPreviewable()) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "미리보기를 지원하지 않는 파일 형식입니다.");
+            return ResponseEntity.status(415).body(errorResponse);
+        }
 
+        String originalFilename = fileEntity.getOriginalname();
+        String encodedFilename = URLEncoder.encode(originalFilename, StandardCharsets.UTF_8)
+            .replaceAll("\\+", "%20");
+        String contentDisposition = inline
+            ? String.format("inline; filename=\"%s\"; filename*=UTF-8''%s", originalFilename, encodedFilename)
+            : String.format("attachment; filename*=UTF-8''%s", encodedFilename);
+        String cacheControl = inline
+            ? "public, max-age=31536000, immutable"
+            : "private, no-cache, no-store, must-revalidate";
+
+        if (head && imageVariant == null) {
             return ResponseEntity.ok()
                 .contentType(MediaType.parseMediaType(fileEntity.getMimetype()))
-                .contentLength(contentLength)
+                .contentLength(fileEntity.getSize())
                 .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition)
-                .header(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable")
-                .body(resource);
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, "Content-Disposition")
+                .build();
+        }
 
-        } catch (Exception e) {
-            log.error("파일 미리보기 중 에러 발생: {}", filename, e);
-            return handleFileError(e);
+        if (DOWNLOAD_MODE_REDIRECT.equals(downloadMode) && !head) {
+            String url = s3Service.getDownloadUrl(objectKey, presignTtl, mimetype, contentDisposition);
+            // presigned URL 은 곧 만료되므로 리다이렉트 응답 자체는 캐시하지 않는다
+            return ResponseEntity.status(HttpStatus.FOUND)
+                .location(URI.create(url))
+                .header(HttpHeaders.CACHE_CONTROL, "private, no-store")
+                .build();
+        }
+
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && (!range.startsWith("bytes=") || range.contains(","))) {
+            // S3 는 단일 구간만 지원하므로 다중 구간 요청은 전체 본문으로 응답한다
+            range = null;
+        }
+        // 파생본 HEAD 는 본문을 열 필요 없이 HeadObject 로 크기만 확인한다
+        S3Service.ObjectStream object = head
+            ? s3Service.statFile(objectKey, request.getHeader(HttpHeaders.IF_NONE_MATCH))
+            : s3Service.openFile(objectKey, range, request.getHeader(HttpHeaders.IF_NONE_MATCH));
+
+        if (object.status() == HttpStatus.NOT_MODIFIED.value()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(object.eTag())
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .build();
         }
+        if (object.status() == HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()) {
+            ResponseEntity.BodyBuilder unsatisfiable = ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+            if (imageVariant == null) {
+                unsatisfiable.header(HttpHeaders.CONTENT_RANGE, "bytes */" + fileEntity.getSize());
+            }
+            return unsatisfiable.build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(object.status())
+            .contentType(MediaType.parseMediaType(mimetype))
+            .contentLength(object.contentLength())
+            .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition)
+            .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+            .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+            .header(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, "Content-Disposition");
+        if (object.eTag() != null) {
+            builder.eTag(object.eTag());
+        }
+        if (object.contentRange() != null) {
+            builder.header(HttpHeaders.CONTENT_RANGE, object.contentRange());
+        }
+        if (object.body() == null) {
+            return builder.build();
+        }
+        // 본문 복사는 MVC 비동기 실행기(WebMvcConfig)에서 진행되어 요청 스레드를 바로 돌려준다
+        StreamingResponseBody body = outputStream -> {
+            try (InputStream input = object.body()) {
+                input.transferTo(outputStream);
+            }
+        };
+        return builder.body(body);
     }
 
     @DeleteMapping(value= "/{id}", consumes = {
@@ -1,11 +1,11 @@
 package com.ktb.chatapp.controller;
 
 import com.ktb.chatapp.annotation.RateLimit;
+import com.ktb.chatapp.cache.UserCacheStore;
 import com.ktb.chatapp.dto.*;
 import com.ktb.chatapp.model.Room;
 import com.ktb.chatapp.model.User;
 import com.ktb.chatapp.message.repository.MessageRepository;
-import com.ktb.chatapp.repository.UserRepository;
 import com.ktb.chatapp.service.RoomService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -20,8 +20,10 @@ import jakarta.validation.Valid;
 import java.security.Principal;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -38,7 +40,7 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/rooms")
 public class RoomController {
 
-    private final UserRepository userRepository;
+    private final UserCacheStore userCacheStore;
     private final MessageRepository messageRepository;
     private final RoomService roomService;
 
@@ -282,20 +284,26 @@ public class RoomController {
     }
 
     private RoomResponse mapToRoomResponse(Room room, String name, boolean recent) {
-        User creator = userRepository.findById(room.getCreator()).orElse(null);
+        // 방장과 참가자를 한 번에 조회 (캐시 MGET + 캐시에 없는 사용자만 $in 한 번)
+        List<String> userIds = new ArrayList<>(room.getParticipantIds());
+        userIds.add(room.getCreator());
+        Map<String, User> users = userCacheStore.getUsers(userIds);
+
+        User creator = users.get(room.getCreator());
         if (creator == null) {
             throw new RuntimeException("Creator not found for room " + room.getId());
         }
         UserResponse creatorSummary = UserResponse.from(creator);
         List<UserResponse> participantSummaries = room.getParticipantIds()
                 .stream()
-                .map(userRepository::findById).peek(optUser -> {
-                    if (optUser.isEmpty()) {
-                        log.warn("Participant not found: roomId={}, userId={}", room.getId(), optUser);
+                .map(userId -> {
+                    User participant = users.get(userId);
+                    if (participant == null) {
+                        log.warn("Participant not found: roomId={}, userId={}", room.getId(), userId);
                     }
+                    return participant;
                 })
-                .filter(Optional::isPresent)
-                .map(Optional::get)
+                .filter(Objects::nonNull)
                 .map(UserResponse::from)
                 .toList();
 
@@ -2,28 +2,70 @@ package com.ktb.chatapp.controller;
 
 import com.corundumstudio.socketio.SocketIOClient;
 import com.corundumstudio.socketio.SocketIOServer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktb.chatapp.dto.RoomResponse;
+import com.ktb.chatapp.dto.SocketDeliveryBatchResponse;
 import com.ktb.chatapp.event.*;
 import com.ktb.chatapp.websocket.socketio.ConnectedUsers;
 import com.ktb.chatapp.websocket.socketio.SocketUser;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static com.ktb.chatapp.websocket.socketio.SocketIOEvents.*;
 
 @Slf4j
 @RestController
 @RequestMapping("/internal/socket")
-@RequiredArgsConstructor
 public class SocketDeliveryController {
 
+    public static final String NDJSON = "application/x-ndjson";
+    private static final Set<String> DELIVERY_TYPES =
+            Set.of("new", "join", "mark", "participants", "leave", "created", "updated");
+
     private final SocketIOServer socketIOServer;
     private final ConnectedUsers connectedUsers;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSizeSummary;
+
+    public SocketDeliveryController(
+            SocketIOServer socketIOServer,
+            ConnectedUsers connectedUsers,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.socketIOServer = socketIOServer;
+        this.connectedUsers = connectedUsers;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.batchTimer = Timer.builder("socket.delivery.batch.latency")
+                .description("Time to decode and fan out one delivery batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("socket.delivery.batch.size")
+                .description("Delivery events per batch")
+                .register(meterRegistry);
+    }
 
 //    @PostMapping("/new")
 //    public void createNewMessage(@RequestBody ChatMessageIpEvent event) {
@@ -35,14 +77,14 @@ public class SocketDeliveryController {
 
     @PostMapping("/new")
     public void createNewMessage(@RequestBody ChatEvent event) {
-        log.info("Consumer returning new message {}", event.messageResponse().getContent());
-        socketIOServer.getRoomOperations(event.roomId()).sendEvent(MESSAGE, event.messageResponse());
+        log.debug("Consumer returning new message {}", event.messageResponse().getContent());
+        deliverNew(event);
     }
 
     @PostMapping("/mark")
     public void mark(@RequestBody ChatMarkAsReadIpEvent event) {
-        log.info("Consumer mark as read {}", event.messagesReadResponse().getUserId());
-        socketIOServer.getRoomOperations(event.roomId()).sendEvent(MESSAGES_READ, event.messagesReadResponse());
+        log.debug("Consumer mark as read {}", event.messagesReadResponse().getUserId());
+        deliverMark(event);
     }
 
 //    @PostMapping("/join")
@@ -55,35 +97,146 @@ public class SocketDeliveryController {
 
     @PostMapping("/join")
     public void joinRoom(@RequestBody ChatEvent event) {
-        log.info("Consumer REST API called - join {}", event.messageResponse().getContent());
-        socketIOServer.getRoomOperations(event.roomId()).sendEvent(MESSAGE, event.messageResponse());
+        log.debug("Consumer REST API called - join {}", event.messageResponse().getContent());
+        deliverNew(event);
     }
 
     @PostMapping("/participants")
     public void joinRoom(@RequestBody ChatParticipantsIpEvent event) {
-        log.info("Consumer REST API called - participants");
-        SocketUser socketUser = connectedUsers.get(event.userId());
-        SocketIOClient client = socketIOServer.getClient(UUID.fromString(socketUser.socketId()));
-        client.sendEvent(PARTICIPANTS_UPDATE, event.participants());
+        log.debug("Consumer REST API called - participants");
+        deliverParticipants(event);
     }
 
     @PostMapping("/leave")
     public void leaveRoom(@RequestBody ChatLeaveIpEvent event) {
-        log.info("Consumer REST API called - leave");
-        SocketUser socketUser = connectedUsers.get(event.userId());
-        SocketIOClient client = socketIOServer.getClient(UUID.fromString(socketUser.socketId()));
-        client.sendEvent(USER_LEFT, event.userInfo());
+        log.debug("Consumer REST API called - leave");
+        deliverLeave(event);
     }
 
     @PostMapping("/created")
     public void roomCreated(@RequestBody RoomCreatedEvent event) {
-        log.info("Consumer REST API called - created");
-        socketIOServer.getRoomOperations("room-list").sendEvent(ROOM_CREATED, event.getRoomResponse());
+        log.debug("Consumer REST API called - created");
+        deliverCreated(event.getRoomResponse());
     }
 
     @PostMapping("/updated")
     public void roomUpdated(@RequestBody RoomUpdatedEvent event) {
-        log.info("Consumer REST API called - updated");
-        socketIOServer.getRoomOperations(event.getRoomId()).sendEvent(ROOM_UPDATE, event.getRoomResponse());
+        log.debug("Consumer REST API called - updated");
+        deliverUpdated(event.getRoomId(), event.getRoomResponse());
+    }
+
+    /**
+     * 여러 전달 이벤트를 한 번의 요청으로 받아 한 번에 fan-out 한다.
+     * 본문은 NDJSON, 한 줄에 { "type": "new|join|mark|participants|leave|created|updated", "event": {...} }
+     * type별 event 형식은 단건 엔드포인트의 요청 본문과 같다.
+     * participants 갱신에는 방 ID 가 없어 다른 방의 갱신과 구분할 수 없으므로 합치지 않고 모두 보낸다.
+     */
+    @PostMapping(value = "/batch", consumes = NDJSON)
+    public ResponseEntity<SocketDeliveryBatchResponse> deliverBatch(InputStream body) throws IOException {
+        long start = System.nanoTime();
+        List<JsonNode> lines = readLines(body);
+
+        int delivered = 0;
+        int failed = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            JsonNode line = lines.get(i);
+            String type = line != null ? line.path("type").asText("unknown") : "invalid";
+            try {
+                if (line == null) {
+                    throw new IllegalArgumentException("JSON 파싱 실패");
+                }
+                deliver(type, line.path("event"));
+                delivered++;
+                countEvent(type, "delivered");
+            } catch (Exception e) {
+                failed++;
+                countEvent(type, "failed");
+                log.warn("Batch delivery failed - line: {}, type: {}, error: {}", i + 1, type, e.getMessage());
+            }
+        }
+
+        batchSizeSummary.record(lines.size());
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.debug("Batch delivered - received: {}, delivered: {}, failed: {}",
+                lines.size(), delivered, failed);
+        return ResponseEntity.ok(new SocketDeliveryBatchResponse(lines.size(), delivered, failed));
+    }
+
+    private List<JsonNode> readLines(InputStream body) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                lines.add(objectMapper.readTree(line));
+            } catch (IOException e) {
+                // 잘못된 줄은 실패로 집계하고 나머지는 계속 처리
+                lines.add(null);
+            }
+        }
+        return lines;
+    }
+
+    private void deliver(String type, JsonNode event) throws IOException {
+        switch (type) {
+            case "new", "join" -> deliverNew(objectMapper.treeToValue(event, ChatEvent.class));
+            case "mark" -> deliverMark(objectMapper.treeToValue(event, ChatMarkAsReadIpEvent.class));
+            case "participants" -> deliverParticipants(objectMapper.treeToValue(event, ChatParticipantsIpEvent.class));
+            case "leave" -> deliverLeave(objectMapper.treeToValue(event, ChatLeaveIpEvent.class));
+            case "created" -> deliverCreated(objectMapper.treeToValue(event.path("roomResponse"), RoomResponse.class));
+            case "updated" -> deliverUpdated(event.path("roomId").asText(),
+                    objectMapper.treeToValue(event.path("roomResponse"), RoomResponse.class));
+            default -> throw new IllegalArgumentException("지원하지 않는 전달 타입입니다: " + type);
+        }
+    }
+
+    private void deliverNew(ChatEvent event) {
+        socketIOServer.getRoomOperations(event.roomId()).sendEvent(MESSAGE, event.messageResponse());
+    }
+
+    private void deliverMark(ChatMarkAsReadIpEvent event) {
+        socketIOServer.getRoomOperations(event.roomId()).sendEvent(MESSAGES_READ, event.messagesReadResponse());
+    }
+
+    private void deliverParticipants(ChatParticipantsIpEvent event) {
+        SocketIOClient client = localClient(event.userId());
+        if (client != null) {
+            client.sendEvent(PARTICIPANTS_UPDATE, event.participants());
+        }
+    }
+
+    private void deliverLeave(ChatLeaveIpEvent event) {
+        SocketIOClient client = localClient(event.userId());
+        if (client != null) {
+            client.sendEvent(USER_LEFT, event.userInfo());
+        }
+    }
+
+    private void deliverCreated(RoomResponse roomResponse) {
+        socketIOServer.getRoomOperations("room-list").sendEvent(ROOM_CREATED, roomResponse);
+    }
+
+    private void deliverUpdated(String roomId, RoomResponse roomResponse) {
+        socketIOServer.getRoomOperations(roomId).sendEvent(ROOM_UPDATE, roomResponse);
+    }
+
+    private SocketIOClient localClient(String userId) {
+        SocketUser socketUser = connectedUsers.get(userId);
+        if (socketUser == null) {
+            return null;
+        }
+        return socketIOServer.getClient(UUID.fromString(socketUser.socketId()));
+    }
+
+    private void countEvent(String type, String result) {
+        Counter.builder("socket.delivery.events")
+                .description("Delivery events handled by the batch endpoint")
+                .tag("type", DELIVERY_TYPES.contains(type) ? type : "unknown")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
     }
 }
@@ -21,4 +21,5 @@ public class ActiveStreamResponse {
     private String content;
     private String timestamp;  // ISO_INSTANT 형식 문자열 예) 2025-11-07T13:45:30Z
     private boolean isStreaming;
+    private int seq;  // content에 반영된 마지막 청크 순번
 }
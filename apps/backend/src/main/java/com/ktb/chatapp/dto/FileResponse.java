@@ -8,6 +8,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Data
 @Builder
@@ -22,6 +24,10 @@ public class FileResponse {
     private long size;
     private String user;
     private LocalDateTime uploadDate;
+    /**
+     * 이미지 파생본 URL (thumb, preview), 생성 전이거나 이미지가 아니면 null
+     */
+    private Map<String, String> variants;
 
     // File 엔티티에서 FileResponse로 변환하는 정적 메서드
     public static FileResponse from(File file) {
@@ -33,6 +39,17 @@ public class FileResponse {
                 .size(file.getSize())
                 .user(file.getUser())
                 .uploadDate(file.getUploadDate())
+                .variants(variantUrls(file))
                 .build();
     }
+
+    public static Map<String, String> variantUrls(File file) {
+        if (file.getVariants() == null || file.getVariants().isEmpty()) {
+            return null;
+        }
+        Map<String, String> urls = new LinkedHashMap<>();
+        file.getVariants().forEach(key ->
+                urls.put(key, "/api/files/view/" + file.getFilename() + "?variant=" + key));
+        return urls;
+    }
 }
@@ -0,0 +1,5 @@
+package com.ktb.chatapp.dto;
+
+// after: 클라이언트가 마지막으로 받은 메시지 타임스탬프 (milliseconds)
+public record ResumeMessagesRequest(String roomId, Long after) {
+}
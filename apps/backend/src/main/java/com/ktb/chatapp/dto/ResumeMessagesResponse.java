@@ -0,0 +1,7 @@
+package com.ktb.chatapp.dto;
+
+import java.util.List;
+
+// complete가 false면 relay 스트림이 구간을 모두 보존하지 못한 것이므로 fetchPreviousMessages로 다시 조회해야 한다
+public record ResumeMessagesResponse(String roomId, List<Object> messages, boolean complete) {
+}
@@ -0,0 +1,5 @@
+package com.ktb.chatapp.dto;
+
+// 배치 전달 결과: received = 읽은 줄 수, delivered + failed = received
+public record SocketDeliveryBatchResponse(int received, int delivered, int failed) {
+}
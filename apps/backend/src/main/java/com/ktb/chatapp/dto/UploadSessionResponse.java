@@ -0,0 +1,43 @@
+package com.ktb.chatapp.dto;
+
+import com.ktb.chatapp.service.ResumableUploadService;
+import java.time.Instant;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 이어받기 업로드 세션 상태
+ * 청크 i 는 offset = i * chunkSize 로 PUT 하며, offset 은 처음부터 빠짐없이 받은 바이트 수이다.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionResponse {
+    private boolean success;
+    private String uploadId;
+    private long size;
+    private int chunkSize;
+    private int totalChunks;
+    private List<Integer> receivedChunks;
+    private long offset;
+    private boolean completed;
+    private Instant expiresAt;
+
+    public static UploadSessionResponse from(ResumableUploadService.UploadStatus status) {
+        return UploadSessionResponse.builder()
+                .success(true)
+                .uploadId(status.session().getId())
+                .size(status.session().getSize())
+                .chunkSize(status.session().getChunkSize())
+                .totalChunks(status.session().totalChunks())
+                .receivedChunks(status.receivedChunks())
+                .offset(status.offset())
+                .completed(status.session().getCompletedFileId() != null)
+                .expiresAt(status.session().getExpiresAt())
+                .build();
+    }
+}
@@ -1,6 +1,8 @@
 package com.ktb.chatapp.dto;
 
 import com.ktb.chatapp.model.User;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -15,6 +17,10 @@ public class UserResponse {
     private String name;
     private String email;
     private String profileImage;
+    /**
+     * 프로필 이미지 파생본 URL (thumb 등), 생성 전이면 null
+     */
+    private Map<String, String> profileImageVariants;
 
     public static UserResponse from(User user) {
         return UserResponse.builder()
@@ -22,6 +28,17 @@ public class UserResponse {
                 .name(user.getName())
                 .email(user.getEmail())
                 .profileImage(user.getProfileImage() != null ? user.getProfileImage() : "")
+                .profileImageVariants(profileImageVariants(user))
                 .build();
     }
+
+    public static Map<String, String> profileImageVariants(User user) {
+        if (user.getProfileImage() == null || user.getProfileImage().isEmpty()
+                || user.getProfileImageVariants() == null || user.getProfileImageVariants().isEmpty()) {
+            return null;
+        }
+        Map<String, String> urls = new LinkedHashMap<>();
+        user.getProfileImageVariants().forEach(key -> urls.put(key, user.getProfileImage() + "-" + key));
+        return urls;
+    }
 }
@@ -5,21 +5,30 @@ import org.springframework.context.ApplicationEvent;
 
 /**
  * AI 메시지 청크 이벤트
+ * 청크마다 delta만 담고, 체크포인트 청크에만 누적 전체 내용(fullContent)을 담는다.
  */
 @Getter
 public class AiMessageChunkEvent extends ApplicationEvent {
     
     private final String roomId;
     private final String messageId;
+    private final int seq;
+    private final String delta;
     private final String fullContent;
     private final boolean isCodeBlock;
     
     public AiMessageChunkEvent(Object source, String roomId, String messageId,
-                               String fullContent, boolean isCodeBlock) {
+                               int seq, String delta, String fullContent, boolean isCodeBlock) {
         super(source);
         this.roomId = roomId;
         this.messageId = messageId;
+        this.seq = seq;
+        this.delta = delta;
         this.fullContent = fullContent;
         this.isCodeBlock = isCodeBlock;
     }
+
+    public boolean isCheckpoint() {
+        return fullContent != null;
+    }
 }
@@ -34,6 +34,22 @@ public class File {
 
     private String path;
 
+    /**
+     * 본문 SHA-256 (hex), 같은 내용의 업로드는 FileBlob(_id = checksum)을 공유한다
+     */
+    @Indexed
+    private String checksum;
+
+    /**
+     * S3 객체 키, 같은 내용의 File 끼리 공유한다 (중복 제거 이전 문서는 null 이며 id 가 키)
+     */
+    private String storageKey;
+
+    /**
+     * 생성이 끝난 이미지 파생본 (ImageVariant.key), 원본과 같은 저장 객체를 공유하는 파일끼리 같다
+     */
+    private List<String> variants;
+
     @Field("user")
     @Indexed
     private String user;
@@ -43,6 +59,10 @@ public class File {
     @Indexed
     private LocalDateTime uploadDate;
 
+    public String resolveStorageKey() {
+        return storageKey != null ? storageKey : id;
+    }
+
     /**
      * 미리보기 지원 여부 확인
      */
@@ -0,0 +1,38 @@
+package com.ktb.chatapp.model;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * 내용(SHA-256) 기준으로 공유되는 저장 객체
+ * 같은 내용의 File 문서들은 하나의 저장 객체를 가리키고, 참조하는 File 문서 수를 refCount 로 센다.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "file_blobs")
+public class FileBlob {
+
+    /**
+     * 본문 SHA-256 (hex)
+     */
+    @Id
+    private String id;
+
+    /**
+     * S3 객체 키 (처음 업로드한 File 의 ID)
+     */
+    private String storageKey;
+
+    private long size;
+
+    private int refCount;
+
+    private LocalDateTime createdAt;
+}
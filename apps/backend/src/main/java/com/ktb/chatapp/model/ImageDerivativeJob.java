@@ -0,0 +1,52 @@
+package com.ktb.chatapp.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * 이미지 파생본(썸네일, 미리보기) 생성 작업
+ * 저장 객체(storageKey) 단위로 한 번만 만들며, 재시작 후에도 PENDING/오래된 PROCESSING 작업을 다시 처리한다.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "image_derivative_jobs")
+public class ImageDerivativeJob {
+
+    public enum Status {
+        PENDING, PROCESSING, DONE, FAILED, SKIPPED
+    }
+
+    /**
+     * 원본 S3 객체 키 (File.storageKey)
+     */
+    @Id
+    private String id;
+
+    private String mimetype;
+
+    @Indexed
+    private Status status;
+
+    private int attempts;
+
+    /**
+     * 생성된 파생본 키 (ImageVariant.key)
+     */
+    private List<String> variants;
+
+    private String error;
+
+    private LocalDateTime createdAt;
+
+    @Indexed
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,38 @@
+package com.ktb.chatapp.model;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * 이미지 파생본 종류. 긴 변을 maxSize 이하로 줄인 JPEG 이며 S3 키는 "{storageKey}-{key}" 이다.
+ */
+public enum ImageVariant {
+    // 아바타, 목록용 (40px 아바타의 고해상도 화면 대응)
+    THUMB("thumb", 160),
+    // 채팅 이미지 미리보기 (최대 400px 표시의 2배)
+    PREVIEW("preview", 800);
+
+    private final String key;
+    private final int maxSize;
+
+    ImageVariant(String key, int maxSize) {
+        this.key = key;
+        this.maxSize = maxSize;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public String objectKey(String storageKey) {
+        return storageKey + "-" + key;
+    }
+
+    public static Optional<ImageVariant> fromKey(String key) {
+        return Arrays.stream(values()).filter(variant -> variant.key.equals(key)).findFirst();
+    }
+}
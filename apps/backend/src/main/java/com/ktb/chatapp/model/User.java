@@ -15,9 +15,10 @@ import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "users")
@@ -35,8 +36,14 @@ public class User {
 
     private String password;
 
+    @Indexed(sparse = true)
     private String profileImage;
 
+    /**
+     * 생성이 끝난 프로필 이미지 파생본 (ImageVariant.key), URL 은 profileImage + "-" + key
+     */
+    private List<String> profileImageVariants;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
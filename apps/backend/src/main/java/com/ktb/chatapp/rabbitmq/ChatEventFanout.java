@@ -0,0 +1,28 @@
+package com.ktb.chatapp.rabbitmq;
+
+import com.corundumstudio.socketio.SocketIOServer;
+import com.ktb.chatapp.event.ChatEvent;
+import com.ktb.chatapp.event.RedisBroadcastEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import static com.ktb.chatapp.websocket.socketio.SocketIOEvents.MESSAGE;
+
+/**
+ * 샤드 큐에서 꺼낸 채팅 이벤트를 로컬 소켓과 다른 노드(Redis relay)로 전달한다.
+ */
+@Component
+@ConditionalOnProperty(name = "chat.rabbit.consumer.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ChatEventFanout {
+
+    private final SocketIOServer socketIOServer;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public void deliver(ChatEvent event) {
+        socketIOServer.getRoomOperations(event.roomId()).sendEvent(MESSAGE, event.messageResponse());
+        eventPublisher.publishEvent(RedisBroadcastEvent.of(event.roomId(), MESSAGE, event.messageResponse()));
+    }
+}
@@ -27,12 +27,25 @@ public class RabbitPublisher {
     private static final int CHUNK_SIZE = 200;
     private final RabbitTemplate rabbitTemplate;
     private final MessageResponseMapper messageResponseMapper;
+    private final RoomShardRouter roomShardRouter;
+
+    /**
+     * 방 샤드 큐로 채팅 메시지를 전달하는지 여부.
+     * true 면 소켓 전달과 다른 노드 relay 는 샤드 consumer(ChatEventFanout)가 맡으므로 발행 노드는 직접 보내지 않는다.
+     */
+    public boolean isShardedDelivery() {
+        return roomShardRouter.isEnabled();
+    }
 
     // TODO: 일반, 입장, 퇴장 메시지 처리
+    // 샤드가 설정되면 방 샤드 큐로 보내 같은 방의 이벤트가 한 consumer에서 순서대로 처리되게 한다
     public void sendChatEvent(String roomId, List<String> participantIds, MessageResponse messageResponse) {
-        log.info("handleChatMessage => {}",  messageResponse.getContent());
+        log.debug("handleChatMessage => {}",  messageResponse.getContent());
         ChatEvent chatEvent = ChatEvent.of(roomId, participantIds, messageResponse);
-        rabbitTemplate.convertAndSend(EXCHANGE, ROUTING_CHAT_MESSAGE, chatEvent);
+        String routingKey = roomShardRouter.isEnabled()
+            ? roomShardRouter.routingKeyOf(roomId)
+            : ROUTING_CHAT_MESSAGE;
+        rabbitTemplate.convertAndSend(EXCHANGE, routingKey, chatEvent);
     }
 
 //    public void sendMessage(List<String> participantIds, MessageResponse messageResponse) {
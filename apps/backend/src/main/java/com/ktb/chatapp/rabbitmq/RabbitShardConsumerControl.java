@@ -0,0 +1,82 @@
+package com.ktb.chatapp.rabbitmq;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktb.chatapp.event.ChatEvent;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.MessageListener;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 샤드 큐마다 단일 consumer 리스너 컨테이너를 띄워 큐 순서(= 방 단위 순서)대로 처리한다.
+ * 큐는 x-single-active-consumer 로 선언되어 handoff 중 잠깐 겹쳐도 브로커가 한 consumer에만 전달한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "chat.rabbit.consumer.enabled", havingValue = "true")
+public class RabbitShardConsumerControl implements ShardConsumerControl {
+
+    private final ConnectionFactory connectionFactory;
+    private final RoomShardRouter router;
+    private final ObjectMapper objectMapper;
+    private final ChatEventFanout fanout;
+    private final int prefetch;
+    private final Map<Integer, SimpleMessageListenerContainer> containers = new ConcurrentHashMap<>();
+
+    public RabbitShardConsumerControl(
+            ConnectionFactory connectionFactory,
+            RoomShardRouter router,
+            ObjectMapper objectMapper,
+            ChatEventFanout fanout,
+            @Value("${chat.rabbit.consumer.prefetch:50}") int prefetch) {
+        this.connectionFactory = connectionFactory;
+        this.router = router;
+        this.objectMapper = objectMapper;
+        this.fanout = fanout;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public void start(int shard) {
+        containers.computeIfAbsent(shard, key -> {
+            SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(connectionFactory);
+            container.setQueueNames(router.queueName(shard));
+            container.setConcurrentConsumers(1);
+            container.setMaxConcurrentConsumers(1);
+            container.setPrefetchCount(prefetch);
+            container.setAcknowledgeMode(AcknowledgeMode.AUTO);
+            container.setDefaultRequeueRejected(false);
+            container.setMessageListener((MessageListener) message -> {
+                try {
+                    fanout.deliver(objectMapper.readValue(message.getBody(), ChatEvent.class));
+                } catch (Exception e) {
+                    // 재전달하면 같은 방의 뒤 메시지가 막히므로 로그만 남기고 버린다
+                    log.error("Failed to deliver sharded chat event - shard: {}", shard, e);
+                }
+            });
+            container.start();
+            return container;
+        });
+    }
+
+    @Override
+    public void stop(int shard) {
+        SimpleMessageListenerContainer container = containers.remove(shard);
+        if (container != null) {
+            // stop()은 처리 중인 메시지가 끝날 때까지 기다리고, prefetch된 미확인 메시지는 큐로 돌아간다
+            container.stop();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        containers.keySet().forEach(this::stop);
+    }
+}
@@ -0,0 +1,73 @@
+package com.ktb.chatapp.rabbitmq;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Redis 기반 샤드 리스 저장소
+ * 멤버십은 만료 시각을 score로 가진 ZSET, 샤드 리스는 owner 값을 가진 PX 키로 관리한다.
+ */
+@Component
+@ConditionalOnProperty(name = "chat.rabbit.consumer.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class RedisShardLeaseStore implements ShardLeaseStore {
+
+    private static final String MEMBERS_KEY = "chat:rabbit:consumers";
+    private static final String LEASE_KEY_PREFIX = "chat:rabbit:shard:";
+
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end", Long.class);
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Override
+    public void heartbeat(String memberId, Duration ttl) {
+        stringRedisTemplate.opsForZSet().add(MEMBERS_KEY, memberId, System.currentTimeMillis() + ttl.toMillis());
+    }
+
+    @Override
+    public void leave(String memberId) {
+        stringRedisTemplate.opsForZSet().remove(MEMBERS_KEY, memberId);
+    }
+
+    @Override
+    public List<String> liveMembers() {
+        stringRedisTemplate.opsForZSet().removeRangeByScore(MEMBERS_KEY, 0, System.currentTimeMillis());
+        Set<String> members = stringRedisTemplate.opsForZSet().range(MEMBERS_KEY, 0, -1);
+        return members != null ? new ArrayList<>(members) : List.of();
+    }
+
+    @Override
+    public boolean tryAcquire(int shard, String memberId, Duration ttl) {
+        Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(leaseKey(shard), memberId, ttl);
+        return Boolean.TRUE.equals(acquired) || renew(shard, memberId, ttl);
+    }
+
+    @Override
+    public boolean renew(int shard, String memberId, Duration ttl) {
+        Long result = stringRedisTemplate.execute(RENEW_SCRIPT, List.of(leaseKey(shard)),
+                memberId, String.valueOf(ttl.toMillis()));
+        return result != null && result == 1L;
+    }
+
+    @Override
+    public void release(int shard, String memberId) {
+        stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(leaseKey(shard)), memberId);
+    }
+
+    private String leaseKey(int shard) {
+        return LEASE_KEY_PREFIX + shard + ":owner";
+    }
+}
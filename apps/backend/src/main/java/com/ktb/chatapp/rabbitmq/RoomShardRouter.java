@@ -0,0 +1,72 @@
+package com.ktb.chatapp.rabbitmq;
+
+import java.nio.charset.StandardCharsets;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 방 ID -> 메시지 샤드 매핑
+ * jump consistent hash를 사용해 JVM/노드와 무관하게 같은 방은 항상 같은 샤드로 가고,
+ * 샤드 수를 늘릴 때는 약 1/n 의 방만 새 샤드로 이동한다.
+ * chat.rabbit.message-shards 가 0이면 기존 단일 큐(chat.message.queue)를 사용한다.
+ */
+@Component
+public class RoomShardRouter {
+
+    public static final String SHARD_QUEUE_PREFIX = "chat.message.queue.";
+    public static final String SHARD_ROUTING_PREFIX = "chat.message.";
+
+    private final int shards;
+
+    public RoomShardRouter(@Value("${chat.rabbit.message-shards:0}") int shards) {
+        this.shards = Math.max(0, shards);
+    }
+
+    public boolean isEnabled() {
+        return shards > 0;
+    }
+
+    public int shardCount() {
+        return shards;
+    }
+
+    public int shardOf(String roomId) {
+        return jumpHash(fnv1a64(roomId), shards);
+    }
+
+    public String queueName(int shard) {
+        return SHARD_QUEUE_PREFIX + shard;
+    }
+
+    public String routingKey(int shard) {
+        return SHARD_ROUTING_PREFIX + shard;
+    }
+
+    public String routingKeyOf(String roomId) {
+        return routingKey(shardOf(roomId));
+    }
+
+    /**
+     * Lamping & Veach, "A Fast, Minimal Memory, Consistent Hash Algorithm"
+     */
+    static int jumpHash(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    // String.hashCode는 32비트라 분포가 고르지 않아 64비트 FNV-1a 사용
+    static long fnv1a64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : (value == null ? "" : value).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
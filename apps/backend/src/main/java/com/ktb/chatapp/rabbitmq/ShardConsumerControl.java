@@ -0,0 +1,15 @@
+package com.ktb.chatapp.rabbitmq;
+
+/**
+ * Starts and stops consumption of a single message shard queue.
+ */
+public interface ShardConsumerControl {
+
+    void start(int shard);
+
+    /**
+     * Stop consuming the shard. Must not return before in-flight deliveries finish,
+     * so the next owner never overlaps with this one.
+     */
+    void stop(int shard);
+}
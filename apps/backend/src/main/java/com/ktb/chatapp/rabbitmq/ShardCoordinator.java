@@ -0,0 +1,177 @@
+package com.ktb.chatapp.rabbitmq;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import static com.ktb.chatapp.config.RedisConfig.SERVER_ID;
+
+/**
+ * 메시지 샤드 소비 담당 노드 조정
+ * 살아있는 consumer 목록에 rendezvous hashing을 적용해 샤드별 담당 노드를 정하고,
+ * 담당 샤드는 리스를 잡은 뒤에만 소비를 시작한다. 노드가 합류/이탈하면 다음 rebalance에서
+ * 이전 담당 노드가 소비를 멈추고 리스를 놓은 뒤 새 담당 노드가 이어받으므로 같은 샤드를 두 노드가
+ * 동시에 소비하지 않고, 방 단위 순서가 유지된다. rendezvous hashing이라 멤버 변화 시 약 1/n 샤드만 이동한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "chat.rabbit.consumer.enabled", havingValue = "true")
+public class ShardCoordinator {
+
+    private final RoomShardRouter router;
+    private final ShardLeaseStore leaseStore;
+    private final ShardConsumerControl consumerControl;
+    private final String nodeId;
+    private final Duration rebalanceInterval;
+    private final Duration leaseTtl;
+    private final Set<Integer> ownedShards = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService scheduler;
+
+    public ShardCoordinator(
+            RoomShardRouter router,
+            ShardLeaseStore leaseStore,
+            ShardConsumerControl consumerControl,
+            MeterRegistry meterRegistry,
+            @Value("${chat.rabbit.consumer.node-id:${HOSTNAME:}}") String nodeId,
+            @Value("${chat.rabbit.consumer.rebalance-interval:PT5S}") Duration rebalanceInterval) {
+        this.router = router;
+        this.leaseStore = leaseStore;
+        this.consumerControl = consumerControl;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? SERVER_ID : nodeId;
+        this.rebalanceInterval = rebalanceInterval;
+        // 한두 번의 rebalance 실패로 리스를 잃지 않도록 주기의 3배
+        this.leaseTtl = rebalanceInterval.multipliedBy(3);
+
+        Gauge.builder("chat.rabbit.shards.owned", ownedShards, Set::size)
+                .description("Message shards consumed by this node")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!router.isEnabled()) {
+            log.warn("chat.rabbit.consumer.enabled=true but chat.rabbit.message-shards=0, shard consumer idle");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rabbit-shard-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = rebalanceInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::rebalanceSafely, 0, intervalMs, TimeUnit.MILLISECONDS);
+        log.info("Rabbit shard coordinator started - nodeId: {}, shards: {}", nodeId, router.shardCount());
+    }
+
+    private void rebalanceSafely() {
+        try {
+            rebalance();
+        } catch (Exception e) {
+            log.warn("Shard rebalance failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 멤버십을 갱신하고 담당 샤드를 맞춘다. 놓을 샤드를 먼저 처리해 다른 노드가 빨리 이어받게 한다.
+     */
+    public synchronized void rebalance() {
+        leaseStore.heartbeat(nodeId, leaseTtl);
+        List<String> members = new ArrayList<>(leaseStore.liveMembers());
+        if (!members.contains(nodeId)) {
+            members.add(nodeId);
+        }
+
+        List<Integer> toAcquire = new ArrayList<>();
+        for (int shard = 0; shard < router.shardCount(); shard++) {
+            boolean desired = nodeId.equals(ownerOf(shard, members));
+            boolean owned = ownedShards.contains(shard);
+            if (owned && !desired) {
+                handOff(shard);
+            } else if (owned && !leaseStore.renew(shard, nodeId, leaseTtl)) {
+                log.warn("Lost lease for shard {}, stopping consumer", shard);
+                consumerControl.stop(shard);
+                ownedShards.remove(shard);
+            } else if (!owned && desired) {
+                toAcquire.add(shard);
+            }
+        }
+
+        for (int shard : toAcquire) {
+            if (leaseStore.tryAcquire(shard, nodeId, leaseTtl)) {
+                consumerControl.start(shard);
+                ownedShards.add(shard);
+                log.info("Shard {} claimed by {}", shard, nodeId);
+            }
+        }
+    }
+
+    public Set<Integer> ownedShards() {
+        return Set.copyOf(ownedShards);
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * rendezvous (highest random weight) hashing: 모든 노드가 같은 멤버 목록으로 같은 답을 낸다.
+     */
+    static String ownerOf(int shard, List<String> members) {
+        String owner = null;
+        long best = Long.MIN_VALUE;
+        for (String member : members) {
+            long score = mix(RoomShardRouter.fnv1a64(member) ^ (shard * 0x9E3779B97F4A7C15L));
+            if (owner == null || score > best || (score == best && member.compareTo(owner) < 0)) {
+                best = score;
+                owner = member;
+            }
+        }
+        return owner;
+    }
+
+    // splitmix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private void handOff(int shard) {
+        consumerControl.stop(shard);
+        leaseStore.release(shard, nodeId);
+        ownedShards.remove(shard);
+        log.info("Shard {} handed off by {}", shard, nodeId);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        for (int shard : List.copyOf(ownedShards)) {
+            try {
+                handOff(shard);
+            } catch (Exception e) {
+                log.warn("Failed to hand off shard {} on shutdown: {}", shard, e.getMessage());
+            }
+        }
+        try {
+            leaseStore.leave(nodeId);
+        } catch (Exception e) {
+            log.warn("Failed to leave shard consumer membership: {}", e.getMessage());
+        }
+    }
+}
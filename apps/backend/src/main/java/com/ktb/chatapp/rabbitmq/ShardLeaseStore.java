@@ -0,0 +1,46 @@
+package com.ktb.chatapp.rabbitmq;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Coordination store for consumer membership and per-shard ownership leases.
+ * A shard is consumed only by the node holding its lease, which keeps per-room ordering
+ * while shards move between consumers.
+ */
+public interface ShardLeaseStore {
+
+    /**
+     * Announce that the consumer is alive for the given TTL
+     */
+    void heartbeat(String memberId, Duration ttl);
+
+    /**
+     * Remove the consumer from the membership list
+     */
+    void leave(String memberId);
+
+    /**
+     * @return consumers whose heartbeat has not expired
+     */
+    List<String> liveMembers();
+
+    /**
+     * Take the lease if it is free, or extend it if the caller already holds it
+     *
+     * @return true if the caller holds the lease afterwards
+     */
+    boolean tryAcquire(int shard, String memberId, Duration ttl);
+
+    /**
+     * Extend a lease held by the caller
+     *
+     * @return false if the lease expired or belongs to someone else
+     */
+    boolean renew(int shard, String memberId, Duration ttl);
+
+    /**
+     * Release a lease held by the caller, no-op otherwise
+     */
+    void release(int shard, String memberId);
+}
@@ -16,12 +16,18 @@ import static com.ktb.chatapp.config.RedisConfig.SERVER_ID;
 public class ChatRedisPublisher {
     private final StringRedisTemplate stringRedisTemplate;
     private final ObjectMapper objectMapper;
+    private final RelayStreams relayStreams;
 
     public void publish(String roomId, String event, Object payload) {
         try {
             String payloadJson = objectMapper.writeValueAsString(payload);
-            ChatBroadcastMessage msg = new ChatBroadcastMessage(SERVER_ID, roomId, event, payloadJson);
-            stringRedisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(msg));
+            ChatBroadcastMessage msg = ChatBroadcastMessage.of(SERVER_ID, roomId, event, payloadJson);
+            String envelope = objectMapper.writeValueAsString(msg);
+            if (relayStreams.isEnabled()) {
+                relayStreams.append(roomId, envelope);
+            } else {
+                stringRedisTemplate.convertAndSend(CHANNEL, envelope);
+            }
         } catch (Exception e) {
             log.error(e.getMessage(), e);
         }
@@ -0,0 +1,167 @@
+package com.ktb.chatapp.redis;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import static com.ktb.chatapp.config.RedisConfig.SERVER_ID;
+
+/**
+ * Redis Streams relay 수신기
+ * 모든 샤드 스트림을 하나의 blocking XREAD로 읽고, 샤드별 마지막 소비 ID를 기억한다.
+ * Redis 연결이 끊겼다 복구되면 마지막 ID 이후부터 다시 읽어 그 사이 발행분을 재생하고,
+ * 재시작 시에는 저장된 오프셋에서 최대 max-replay 구간까지만 재생한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "chat.relay.transport", havingValue = "streams")
+public class ChatRedisStreamSubscriber {
+
+    private static final long RETRY_BACKOFF_MS = 1000;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RelayStreams relayStreams;
+    private final ChatRedisSubscriber chatRedisSubscriber;
+    private final String nodeId;
+    private final Duration maxReplay;
+    private final StreamReadOptions readOptions;
+
+    private final Map<String, String> lastIds = new ConcurrentHashMap<>();
+    // 오프셋 저장 스레드와 stop() 이 함께 쓴다
+    private final Map<String, String> flushedIds = new ConcurrentHashMap<>();
+    private ScheduledExecutorService offsetFlusher;
+    private Thread poller;
+    private volatile boolean running;
+
+    public ChatRedisStreamSubscriber(
+            StringRedisTemplate stringRedisTemplate,
+            RelayStreams relayStreams,
+            ChatRedisSubscriber chatRedisSubscriber,
+            @Value("${chat.relay.streams.max-replay:PT5M}") Duration maxReplay,
+            @Value("${chat.relay.streams.batch-size:200}") int batchSize) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.relayStreams = relayStreams;
+        this.chatRedisSubscriber = chatRedisSubscriber;
+        this.nodeId = SERVER_ID;
+        this.maxReplay = maxReplay;
+        this.readOptions = StreamReadOptions.empty().count(batchSize).block(Duration.ofSeconds(1));
+    }
+
+    @PostConstruct
+    public void start() {
+        Map<String, String> saved = relayStreams.loadOffsets(nodeId);
+        // 스트림 ID 는 Redis 시계를 따르므로 재생 구간도 Redis 시각으로 정한다
+        long now = relayStreams.redisTimeMillis();
+        long replayFloor = now - maxReplay.toMillis();
+        for (String key : relayStreams.streamKeys()) {
+            lastIds.put(key, startId(saved.get(key), now, replayFloor));
+        }
+        log.info("Redis stream relay started - nodeId: {}, streams: {}, restored offsets: {}",
+                nodeId, lastIds.size(), saved.size());
+
+        running = true;
+        poller = new Thread(this::pollLoop, "relay-stream-poller");
+        poller.setDaemon(true);
+        poller.start();
+
+        offsetFlusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "relay-stream-offsets");
+            thread.setDaemon(true);
+            return thread;
+        });
+        offsetFlusher.scheduleWithFixedDelay(this::flushOffsets, 1, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 저장된 오프셋이 없으면 지금부터, 너무 오래됐으면 재생 한도 시점부터 읽는다.
+     */
+    private String startId(String savedId, long now, long replayFloor) {
+        if (savedId == null) {
+            return now + "-0";
+        }
+        long savedMillis = RecordId.of(savedId).getTimestamp();
+        return savedMillis < replayFloor ? replayFloor + "-0" : savedId;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void pollLoop() {
+        while (running) {
+            try {
+                StreamOffset<String>[] offsets = lastIds.entrySet().stream()
+                        .map(entry -> StreamOffset.create(entry.getKey(), ReadOffset.from(entry.getValue())))
+                        .toArray(StreamOffset[]::new);
+                List<MapRecord<String, Object, Object>> records =
+                        stringRedisTemplate.opsForStream().read(readOptions, offsets);
+                if (records == null) {
+                    continue;
+                }
+                for (MapRecord<String, Object, Object> record : records) {
+                    lastIds.put(record.getStream(), record.getId().getValue());
+                    Object envelope = record.getValue().get(RelayStreams.FIELD_MESSAGE);
+                    if (envelope != null) {
+                        chatRedisSubscriber.onMessage(envelope.toString());
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Redis stream relay read failed, retrying from last consumed ids: {}", e.getMessage());
+                sleepQuietly(RETRY_BACKOFF_MS);
+            }
+        }
+    }
+
+    private void flushOffsets() {
+        try {
+            Map<String, String> changed = new HashMap<>();
+            lastIds.forEach((key, id) -> {
+                if (!id.equals(flushedIds.get(key))) {
+                    changed.put(key, id);
+                }
+            });
+            relayStreams.saveOffsets(nodeId, changed);
+            flushedIds.putAll(changed);
+        } catch (Exception e) {
+            log.warn("Failed to persist Redis stream relay offsets: {}", e.getMessage());
+        }
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (offsetFlusher != null) {
+            offsetFlusher.shutdown();
+        }
+        if (poller != null) {
+            poller.interrupt();
+        }
+        flushOffsets();
+    }
+}
@@ -6,8 +6,10 @@ import com.ktb.chatapp.dto.MessageResponse;
 import com.ktb.chatapp.dto.MessagesReadResponse;
 import com.ktb.chatapp.dto.RoomResponse;
 import com.ktb.chatapp.redis.message.ChatBroadcastMessage;
+import com.ktb.chatapp.websocket.socketio.ai.ActiveStreamRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -20,15 +22,34 @@ import static com.ktb.chatapp.websocket.socketio.SocketIOEvents.*;
 @Component
 @RequiredArgsConstructor
 public class ChatRedisSubscriber {
+    private static final String AI_EVENT_PREFIX = "aiMessage";
+
     private final SocketIOServer socketIOServer;
     private final ObjectMapper objectMapper;
+    private final RelayDispatcher relayDispatcher;
+    private final ObjectProvider<ActiveStreamRegistry> activeStreamRegistry;
 
+    /**
+     * 리스너 스레드에서는 envelope만 해석하고, payload 디코딩과 fan-out은 방별 워커에 넘긴다.
+     */
     public void onMessage(String message) {
         try {
             ChatBroadcastMessage msg = objectMapper.readValue(message, ChatBroadcastMessage.class);
             if (SERVER_ID.equals(msg.serverId())) return;
+            relayDispatcher.dispatch(msg.roomId(), msg.publishedAt(), () -> deliver(msg));
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    private void deliver(ChatBroadcastMessage msg) {
+        try {
             Object payload = objectMapper.readValue(msg.payloadJson(), Object.class); // 구조를 모르면 Object, 알면 DTO로 변환
             socketIOServer.getRoomOperations(msg.roomId()).sendEvent(msg.event(), payload);
+            if (msg.event().startsWith(AI_EVENT_PREFIX) && payload instanceof Map<?, ?> aiPayload) {
+                // 늦게 입장한 사용자에게 원격 스트림의 현재 내용을 내려주기 위해 추적
+                activeStreamRegistry.ifAvailable(registry -> registry.applyRelayed(msg.roomId(), msg.event(), aiPayload));
+            }
         } catch (Exception e) {
             log.error(e.getMessage(), e);
         }
@@ -0,0 +1,132 @@
+package com.ktb.chatapp.redis;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Redis relay 수신 메시지 디스패처
+ * roomId 해시로 워커 파티션을 고정해 같은 방의 메시지는 도착 순서대로, 다른 방의 메시지는 병렬로 처리한다.
+ *
+ * 과부하 정책: 파티션 큐가 가득 차면 리스너 스레드를 막지 않고 새 메시지를 버린다(drop-newest).
+ * 발행 노드는 이미 로컬 소켓에 전달했고, 클라이언트는 재입장/이전 메시지 조회로 복구할 수 있다.
+ */
+@Slf4j
+@Component
+public class RelayDispatcher {
+
+    private static final int DROP_LOG_INTERVAL = 1000;
+
+    private final ThreadPoolExecutor[] partitions;
+    private final Counter droppedCounter;
+    private final Timer lagTimer;
+    private final Timer processingTimer;
+
+    public RelayDispatcher(
+            @Value("${chat.relay.dispatch.workers:4}") int workers,
+            @Value("${chat.relay.dispatch.queue-capacity:1000}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        this.partitions = new ThreadPoolExecutor[Math.max(1, workers)];
+        for (int i = 0; i < partitions.length; i++) {
+            AtomicInteger threadCount = new AtomicInteger();
+            String threadName = "relay-dispatch-" + i;
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, threadName + "-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+            partitions[i] = executor;
+
+            Gauge.builder("chat.relay.dispatch.queue.size", executor, e -> e.getQueue().size())
+                    .description("Pending relay messages per dispatch partition")
+                    .tag("partition", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+
+        this.droppedCounter = Counter.builder("chat.relay.dispatch.dropped")
+                .description("Relay messages dropped because the partition queue was full")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("chat.relay.dispatch.lag")
+                .description("Time from publish on the origin node to local delivery")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.processingTimer = Timer.builder("chat.relay.dispatch.processing.time")
+                .description("Relay message decode and fan-out time")
+                .register(meterRegistry);
+
+        log.info("Relay dispatcher started with {} partitions, queue capacity {}", partitions.length, queueCapacity);
+    }
+
+    /**
+     * 방 단위 순서를 보장하며 relay 메시지 전달 작업을 예약한다.
+     *
+     * @param roomId 파티션 키
+     * @param publishedAt 발행 시각 (epoch millis, 0이면 지연 측정 생략)
+     * @param delivery 디코딩 및 로컬 소켓 전달 작업
+     * @return 큐에 들어갔으면 true, 과부하로 버려졌으면 false
+     */
+    public boolean dispatch(String roomId, long publishedAt, Runnable delivery) {
+        ThreadPoolExecutor partition = partitions[partitionOf(roomId)];
+        try {
+            partition.execute(() -> deliver(roomId, publishedAt, delivery));
+            return true;
+        } catch (RejectedExecutionException e) {
+            droppedCounter.increment();
+            long dropped = (long) droppedCounter.count();
+            if (dropped % DROP_LOG_INTERVAL == 1) {
+                log.warn("Relay dispatch queue full, dropping message - roomId: {}, total dropped: {}", roomId, dropped);
+            }
+            return false;
+        }
+    }
+
+    int partitionOf(String roomId) {
+        return roomId == null ? 0 : Math.floorMod(roomId.hashCode(), partitions.length);
+    }
+
+    private void deliver(String roomId, long publishedAt, Runnable delivery) {
+        long start = System.nanoTime();
+        try {
+            delivery.run();
+        } catch (Exception e) {
+            log.error("Relay delivery failed - roomId: {}", roomId, e);
+        } finally {
+            processingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (publishedAt > 0) {
+                // 노드 간 시계 차이로 음수가 나올 수 있어 0으로 보정
+                lagTimer.record(Math.max(0, System.currentTimeMillis() - publishedAt), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ThreadPoolExecutor partition : partitions) {
+            partition.shutdown();
+        }
+        for (ThreadPoolExecutor partition : partitions) {
+            try {
+                if (!partition.awaitTermination(5, TimeUnit.SECONDS)) {
+                    partition.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                partition.shutdownNow();
+            }
+        }
+    }
+}
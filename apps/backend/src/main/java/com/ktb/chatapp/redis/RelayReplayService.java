@@ -0,0 +1,74 @@
+package com.ktb.chatapp.redis;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktb.chatapp.dto.ResumeMessagesResponse;
+import com.ktb.chatapp.redis.message.ChatBroadcastMessage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import static com.ktb.chatapp.websocket.socketio.SocketIOEvents.MESSAGE;
+
+/**
+ * 재연결 클라이언트의 놓친 메시지를 relay 스트림에서 조회한다.
+ * 스트림이 요청 구간을 모두 보존하고 있을 때만 complete=true로 응답하고,
+ * 그렇지 않으면 클라이언트가 메시지 DB 조회(fetchPreviousMessages)로 돌아가도록 한다.
+ */
+@Slf4j
+@Service
+public class RelayReplayService {
+
+    private final RelayStreams relayStreams;
+    private final ObjectMapper objectMapper;
+    private final int scanLimit;
+
+    public RelayReplayService(
+            RelayStreams relayStreams,
+            ObjectMapper objectMapper,
+            @Value("${chat.relay.streams.resume-scan-limit:2000}") int scanLimit) {
+        this.relayStreams = relayStreams;
+        this.objectMapper = objectMapper;
+        this.scanLimit = scanLimit;
+    }
+
+    public ResumeMessagesResponse resume(String roomId, long afterMillis) {
+        if (!relayStreams.isEnabled()) {
+            return new ResumeMessagesResponse(roomId, Collections.emptyList(), false);
+        }
+        // after 는 애플리케이션 시각이므로 스트림 ID(Redis 시각)로 옮겨 비교한다
+        long sinceStreamMillis = relayStreams.streamMillis(afterMillis);
+        if (!relayStreams.retainsSince(roomId, sinceStreamMillis)) {
+            return new ResumeMessagesResponse(roomId, Collections.emptyList(), false);
+        }
+
+        List<String> envelopes = relayStreams.readSince(roomId, sinceStreamMillis, scanLimit);
+        List<Object> messages = new ArrayList<>();
+        for (String envelope : envelopes) {
+            try {
+                ChatBroadcastMessage msg = objectMapper.readValue(envelope, ChatBroadcastMessage.class);
+                if (!roomId.equals(msg.roomId()) || !MESSAGE.equals(msg.event())) {
+                    continue;
+                }
+                Map<String, Object> payload = objectMapper.readValue(msg.payloadJson(), new TypeReference<>() {});
+                if (timestampOf(payload) > afterMillis) {
+                    messages.add(payload);
+                }
+            } catch (Exception e) {
+                log.warn("Skipping unreadable relay entry - roomId: {}, error: {}", roomId, e.getMessage());
+            }
+        }
+
+        // 샤드 스트림 스캔 한도에 걸렸다면 뒤쪽 구간이 누락됐을 수 있다
+        boolean complete = envelopes.size() < scanLimit;
+        return new ResumeMessagesResponse(roomId, messages, complete);
+    }
+
+    private long timestampOf(Map<String, Object> payload) {
+        return payload.get("timestamp") instanceof Number number ? number.longValue() : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,143 @@
+package com.ktb.chatapp.redis;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Redis Streams 기반 relay 저장소
+ * 방 ID 해시로 샤드 스트림을 나누고, 각 스트림은 XADD MAXLEN ~ 으로 길이를 제한한다.
+ * chat.relay.transport=streams 일 때만 발행 경로로 사용된다.
+ */
+@Component
+public class RelayStreams {
+
+    public static final String STREAM_KEY_PREFIX = "chat:relay:stream:";
+    private static final String OFFSET_KEY_PREFIX = "chat:relay:offsets:";
+    private static final Duration OFFSET_TTL = Duration.ofDays(1);
+    // Redis TIME 왕복 시간과 발행 노드 사이 시계 차이를 덮는 여유
+    private static final long CLOCK_MARGIN_MS = 1000;
+    static final String FIELD_MESSAGE = "m";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final boolean enabled;
+    private final int shards;
+    private final long maxLen;
+
+    public RelayStreams(
+            StringRedisTemplate stringRedisTemplate,
+            @Value("${chat.relay.transport:pubsub}") String transport,
+            @Value("${chat.relay.streams.shards:16}") int shards,
+            @Value("${chat.relay.streams.max-len:10000}") long maxLen) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.enabled = "streams".equalsIgnoreCase(transport);
+        this.shards = Math.max(1, shards);
+        this.maxLen = maxLen;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String streamKey(String roomId) {
+        int shard = roomId == null ? 0 : Math.floorMod(roomId.hashCode(), shards);
+        return STREAM_KEY_PREFIX + shard;
+    }
+
+    public List<String> streamKeys() {
+        return IntStream.range(0, shards).mapToObj(i -> STREAM_KEY_PREFIX + i).toList();
+    }
+
+    /**
+     * relay envelope를 방의 샤드 스트림에 추가한다.
+     */
+    public void append(String roomId, String envelopeJson) {
+        var record = StreamRecords.newRecord()
+                .in(streamKey(roomId))
+                .ofMap(Map.of(FIELD_MESSAGE, envelopeJson));
+        stringRedisTemplate.opsForStream().add(record, XAddOptions.maxlen(maxLen).approximateTrimming(true));
+    }
+
+    /**
+     * 샤드 스트림에서 sinceMillis 이후(해당 ms 포함) 항목을 오래된 순으로 읽는다.
+     * 같은 샤드의 다른 방 항목도 포함되므로 호출 측에서 roomId로 걸러야 한다.
+     */
+    public List<String> readSince(String roomId, long sinceMillis, int count) {
+        List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().range(
+                streamKey(roomId),
+                Range.rightUnbounded(Range.Bound.inclusive(sinceMillis + "-0")),
+                Limit.limit().count(count));
+        if (records == null) {
+            return Collections.emptyList();
+        }
+        List<String> envelopes = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            Object value = record.getValue().get(FIELD_MESSAGE);
+            if (value != null) {
+                envelopes.add(value.toString());
+            }
+        }
+        return envelopes;
+    }
+
+    /**
+     * 샤드 스트림이 sinceMillis 시점까지 거슬러 올라가 보존하고 있는지 확인한다.
+     * 가장 오래된 항목이 sinceMillis 이전이면 그 이후 구간은 잘리지 않았다.
+     */
+    public boolean retainsSince(String roomId, long sinceMillis) {
+        List<MapRecord<String, Object, Object>> oldest = stringRedisTemplate.opsForStream().range(
+                streamKey(roomId), Range.unbounded(), Limit.limit().count(1));
+        if (oldest == null || oldest.isEmpty()) {
+            return false;
+        }
+        return oldest.getFirst().getId().getTimestamp() <= sinceMillis;
+    }
+
+    /**
+     * Redis 서버 시각 (ms). 스트림 ID 는 Redis 시계로 매겨지므로 애플리케이션 시계 대신 이것과 비교한다.
+     */
+    public long redisTimeMillis() {
+        Long time = stringRedisTemplate.execute(
+                (RedisCallback<Long>) connection -> connection.serverCommands().time(TimeUnit.MILLISECONDS));
+        return time != null ? time : System.currentTimeMillis();
+    }
+
+    /**
+     * 애플리케이션 시각(메시지 timestamp)을 스트림 ID 시각으로 옮긴다.
+     * 시계 차이를 모두 덮도록 여유만큼 앞당기므로, 호출 측은 읽은 항목을 메시지 timestamp 로 다시 걸러야 한다.
+     */
+    public long streamMillis(long appMillis) {
+        long offset = redisTimeMillis() - System.currentTimeMillis();
+        return appMillis + offset - CLOCK_MARGIN_MS;
+    }
+
+    public Map<String, String> loadOffsets(String nodeId) {
+        Map<Object, Object> saved = stringRedisTemplate.opsForHash().entries(OFFSET_KEY_PREFIX + nodeId);
+        Map<String, String> offsets = new HashMap<>();
+        saved.forEach((key, value) -> offsets.put(key.toString(), value.toString()));
+        return offsets;
+    }
+
+    public void saveOffsets(String nodeId, Map<String, String> offsets) {
+        if (offsets.isEmpty()) {
+            return;
+        }
+        String key = OFFSET_KEY_PREFIX + nodeId;
+        stringRedisTemplate.opsForHash().putAll(key, offsets);
+        stringRedisTemplate.expire(key, OFFSET_TTL);
+    }
+}
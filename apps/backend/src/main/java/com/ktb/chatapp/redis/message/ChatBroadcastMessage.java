@@ -1,8 +1,17 @@
 package com.ktb.chatapp.redis.message;
 
+/**
+ * 노드 간 relay 메시지
+ * @param publishedAt 발행 노드 기준 epoch millis, 수신 측 relay 지연 측정에 사용 (구버전 노드는 0)
+ */
 public record ChatBroadcastMessage(
     String serverId,
     String roomId,
     String event,
-    String payloadJson
-) { }
+    String payloadJson,
+    long publishedAt
+) {
+    public static ChatBroadcastMessage of(String serverId, String roomId, String event, String payloadJson) {
+        return new ChatBroadcastMessage(serverId, roomId, event, payloadJson, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,22 @@
+package com.ktb.chatapp.repository;
+
+import com.ktb.chatapp.model.FileBlob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FileBlobRepository extends MongoRepository<FileBlob, String> {
+
+    // 삭제 중(refCount 0)인 객체는 다시 참조하지 않는다
+    @Query("{'_id': ?0, 'refCount': {'$gt': 0}}")
+    @Update("{'$inc': {'refCount': 1}}")
+    long incrementRefCount(String id);
+
+    @Query("{'_id': ?0}")
+    @Update("{'$inc': {'refCount': -1}}")
+    long decrementRefCount(String id);
+
+    long deleteByIdAndRefCountLessThanEqual(String id, int refCount);
+}
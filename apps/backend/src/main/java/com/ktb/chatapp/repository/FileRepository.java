@@ -2,8 +2,11 @@ package com.ktb.chatapp.repository;
 
 import com.ktb.chatapp.model.File;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +14,10 @@ public interface FileRepository extends MongoRepository<File, String> {
     Optional<File> findByOriginalname(String originalname);
     Optional<File> findByFilename(String filename);
     Optional<File> findByPath(String path);
+    Optional<File> findFirstByPathAndUser(String path, String user);
+
+    // 같은 저장 객체를 공유하는 파일 모두에 파생본 목록을 반영한다
+    @Query("{'storageKey': ?0}")
+    @Update("{'$set': {'variants': ?1}}")
+    void setVariants(String storageKey, List<String> variants);
 }
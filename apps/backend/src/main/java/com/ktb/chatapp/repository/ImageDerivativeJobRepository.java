@@ -0,0 +1,28 @@
+package com.ktb.chatapp.repository;
+
+import com.ktb.chatapp.model.ImageDerivativeJob;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImageDerivativeJobRepository extends MongoRepository<ImageDerivativeJob, String> {
+
+    // PENDING 이거나, 처리 중이던 노드가 죽어 staleBefore 이후 갱신이 없는 작업만 가져간다
+    @Query("{'_id': ?0, '$or': [{'status': 'PENDING'}, {'status': 'PROCESSING', 'updatedAt': {'$lt': ?2}}]}")
+    @Update("{'$set': {'status': 'PROCESSING', 'updatedAt': ?1}, '$inc': {'attempts': 1}}")
+    long claim(String id, LocalDateTime now, LocalDateTime staleBefore);
+
+    // 이 노드의 claim 이 아직 유효할 때만 결과를 남긴다 (그 사이 삭제되었거나 다른 노드가 다시 가져갔으면 0)
+    @Query("{'_id': ?0, 'status': 'PROCESSING', 'attempts': ?1}")
+    @Update("{'$set': {'status': ?2, 'variants': ?3, 'error': ?4, 'updatedAt': ?5}}")
+    long finish(String id, int attempts, ImageDerivativeJob.Status status, List<String> variants, String error,
+                LocalDateTime now);
+
+    @Query("{'$or': [{'status': 'PENDING', 'updatedAt': {'$lt': ?0}}, {'status': 'PROCESSING', 'updatedAt': {'$lt': ?1}}]}")
+    List<ImageDerivativeJob> findRunnable(LocalDateTime pendingBefore, LocalDateTime staleBefore, Pageable pageable);
+}
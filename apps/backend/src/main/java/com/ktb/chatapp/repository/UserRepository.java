@@ -2,11 +2,32 @@ package com.ktb.chatapp.repository;
 
 import com.ktb.chatapp.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
+
+    List<User> findByProfileImage(String profileImage);
+
+    /**
+     * 프로필 이미지만 바꾸고 이전 이미지의 파생본 목록은 지운다 (문서 전체 저장으로 파생본을 덮어쓰지 않도록)
+     */
+    @Query("{'_id': ?0}")
+    @Update("{'$set': {'profileImage': ?1, 'updatedAt': ?2}, '$unset': {'profileImageVariants': ''}}")
+    void setProfileImage(String id, String profileImage, LocalDateTime updatedAt);
+
+    @Query("{'_id': ?0}")
+    @Update("{'$set': {'name': ?1, 'updatedAt': ?2}}")
+    void setName(String id, String name, LocalDateTime updatedAt);
+
+    @Query("{'profileImage': ?0}")
+    @Update("{'$set': {'profileImageVariants': ?1}}")
+    void setProfileImageVariants(String profileImage, List<String> variants);
 }
@@ -0,0 +1,121 @@
+package com.ktb.chatapp.service;
+
+import com.ktb.chatapp.model.File;
+import com.ktb.chatapp.model.FileBlob;
+import com.ktb.chatapp.repository.FileBlobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+/**
+ * 내용 주소(SHA-256) 기반 업로드 중복 제거
+ * 같은 내용은 S3 객체 하나를 공유하고 FileBlob.refCount 로 참조 수를 관리한다.
+ * 마지막 참조가 삭제될 때만 저장 객체를 지운다.
+ *
+ * 절약량은 file.dedup.saved.bytes 로 노출한다.
+ * - storage: 다시 저장하지 않은 바이트 (중복 업로드 크기의 합)
+ * - transfer: 서버에서 S3 로 보내지 않은 바이트
+ */
+@Slf4j
+@Service
+public class FileBlobService {
+
+    private static final int MAX_REGISTER_ATTEMPTS = 3;
+
+    private final FileBlobRepository fileBlobRepository;
+    private final S3Service s3Service;
+    private final ImageDerivativeService imageDerivativeService;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter storageSaved;
+    private final Counter transferSaved;
+
+    public FileBlobService(FileBlobRepository fileBlobRepository, S3Service s3Service,
+                           ImageDerivativeService imageDerivativeService, MeterRegistry meterRegistry) {
+        this.fileBlobRepository = fileBlobRepository;
+        this.s3Service = s3Service;
+        this.imageDerivativeService = imageDerivativeService;
+        this.hits = meterRegistry.counter("file.dedup.uploads", "result", "hit");
+        this.misses = meterRegistry.counter("file.dedup.uploads", "result", "miss");
+        this.storageSaved = meterRegistry.counter("file.dedup.saved.bytes", "kind", "storage");
+        this.transferSaved = meterRegistry.counter("file.dedup.saved.bytes", "kind", "transfer");
+    }
+
+    /**
+     * 같은 내용의 저장 객체가 있으면 참조를 하나 늘리고 그 키를 반환한다.
+     * 본문을 S3 로 보내기 전에 호출하므로 성공하면 저장 공간과 전송량을 모두 아낀 것으로 센다.
+     */
+    public Optional<String> acquire(String sha256) {
+        Optional<FileBlob> blob = tryAcquire(sha256);
+        blob.ifPresentOrElse(existing -> {
+            hits.increment();
+            storageSaved.increment(existing.getSize());
+            transferSaved.increment(existing.getSize());
+            log.info("중복 업로드 재사용: {} ({} bytes, 참조 {})", existing.getStorageKey(), existing.getSize(),
+                    existing.getRefCount());
+        }, misses::increment);
+        return blob.map(FileBlob::getStorageKey);
+    }
+
+    /**
+     * 방금 storageKey 로 저장한 객체를 등록하고 File 이 가리킬 키를 반환한다.
+     * 그 사이 같은 내용이 먼저 등록되었다면 기존 객체를 참조하고 방금 저장한 객체는 지운다.
+     */
+    public String register(String sha256, String storageKey, long size) {
+        for (int attempt = 0; attempt < MAX_REGISTER_ATTEMPTS; attempt++) {
+            try {
+                fileBlobRepository.insert(FileBlob.builder()
+                        .id(sha256)
+                        .storageKey(storageKey)
+                        .size(size)
+                        .refCount(1)
+                        .createdAt(LocalDateTime.now())
+                        .build());
+                return storageKey;
+            } catch (DuplicateKeyException e) {
+                Optional<FileBlob> existing = tryAcquire(sha256);
+                if (existing.isPresent()) {
+                    s3Service.deleteFile(storageKey);
+                    storageSaved.increment(size);
+                    log.info("업로드 후 중복 발견, 기존 객체로 대체: {} -> {}", storageKey, existing.get().getStorageKey());
+                    return existing.get().getStorageKey();
+                }
+                // 마지막 참조가 삭제되는 중이므로 문서가 지워지면 다시 등록한다
+            }
+        }
+        throw new RuntimeException("파일 저장 정보를 등록하지 못했습니다.");
+    }
+
+    /**
+     * File 문서 하나가 삭제될 때 호출한다. 마지막 참조이면 저장 객체를 지운다.
+     */
+    public void release(File file) {
+        // 중복 제거 이전에 올린 파일은 파일마다 객체가 따로 있다
+        if (file.getStorageKey() == null) {
+            s3Service.deleteFile(file.getId());
+            imageDerivativeService.discard(file.getId());
+            return;
+        }
+        release(file.getChecksum(), file.getStorageKey());
+    }
+
+    public void release(String sha256, String storageKey) {
+        fileBlobRepository.decrementRefCount(sha256);
+        if (fileBlobRepository.deleteByIdAndRefCountLessThanEqual(sha256, 0) > 0) {
+            s3Service.deleteFile(storageKey);
+            imageDerivativeService.discard(storageKey);
+            log.info("마지막 참조 삭제, 저장 객체 삭제: {}", storageKey);
+        }
+    }
+
+    private Optional<FileBlob> tryAcquire(String sha256) {
+        if (fileBlobRepository.incrementRefCount(sha256) == 0) {
+            return Optional.empty();
+        }
+        return fileBlobRepository.findById(sha256);
+    }
+}
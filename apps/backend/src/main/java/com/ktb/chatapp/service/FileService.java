@@ -1,5 +1,7 @@
 package com.ktb.chatapp.service;
 
+import com.ktb.chatapp.cache.FileAccessDescriptor;
+import java.io.InputStream;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -7,8 +9,20 @@ public interface FileService {
 
     FileUploadResult uploadFile(MultipartFile file, String uploaderId);
 
+    /**
+     * @param expectedSha256 클라이언트가 계산한 본문 SHA-256 (선택), 같은 내용이 이미 저장되어 있으면 S3 업로드를 생략한다
+     */
+    FileUploadResult uploadFileStream(InputStream input, String originalFilename, String contentType,
+                                      long declaredSize, String expectedSha256, String uploaderId);
+
     String storeFile(MultipartFile file, String subDirectory);
 
+    /**
+     * 파일이 연결된 메시지의 방 참가자인지 확인하고 파일 메타데이터를 반환한다.
+     * 파일 정보와 방 참가자 목록은 캐시에서 읽으므로 캐시가 채워져 있으면 DB 조회가 없다.
+     */
+    FileAccessDescriptor getAccessibleFile(String fileName, String requesterId);
+
     Resource loadFileAsResource(String fileName, String requesterId);
 
     boolean deleteFile(String fileId, String requesterId);
@@ -0,0 +1,372 @@
+package com.ktb.chatapp.service;
+
+import com.ktb.chatapp.cache.UserCacheStore;
+import com.ktb.chatapp.model.File;
+import com.ktb.chatapp.model.ImageDerivativeJob;
+import com.ktb.chatapp.model.ImageVariant;
+import com.ktb.chatapp.model.User;
+import com.ktb.chatapp.repository.FileRepository;
+import com.ktb.chatapp.repository.ImageDerivativeJobRepository;
+import com.ktb.chatapp.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+/**
+ * 업로드된 이미지의 파생본(ImageVariant) 생성 파이프라인
+ * 업로드 요청은 작업 문서만 저장하고 바로 돌아가며, 변환은 크기가 제한된 워커 풀에서 진행한다.
+ * 작업 상태는 Mongo 에 남기므로 대기열이 가득 찼거나 노드가 재시작되어도 주기 점검에서 다시 처리한다.
+ * 파생본은 저장 객체(storageKey) 단위로 한 번만 만들고, 끝나면 같은 객체를 쓰는 File 과 프로필 이미지에 반영한다.
+ */
+@Slf4j
+@Service
+public class ImageDerivativeService {
+
+    // ImageIO 기본 코덱으로 읽을 수 있는 형식 (webp 는 제외)
+    private static final Set<String> SUPPORTED_TYPES = Set.of("image/jpeg", "image/png", "image/gif");
+    private static final String OUTPUT_TYPE = "image/jpeg";
+    private static final float JPEG_QUALITY = 0.82f;
+    private static final int SWEEP_BATCH = 100;
+
+    private final ImageDerivativeJobRepository jobRepository;
+    private final FileRepository fileRepository;
+    private final UserRepository userRepository;
+    private final UserCacheStore userCacheStore;
+    private final S3Service s3Service;
+    private final MeterRegistry meterRegistry;
+    private final long maxPixels;
+    private final int maxAttempts;
+    private final Duration processingTimeout;
+    private final Duration sweepInterval;
+    private final ThreadPoolExecutor workers;
+    private ScheduledExecutorService sweeper;
+
+    public ImageDerivativeService(
+            ImageDerivativeJobRepository jobRepository,
+            FileRepository fileRepository,
+            UserRepository userRepository,
+            UserCacheStore userCacheStore,
+            S3Service s3Service,
+            MeterRegistry meterRegistry,
+            @Value("${file.derivative.workers:2}") int workerCount,
+            @Value("${file.derivative.queue-capacity:200}") int queueCapacity,
+            @Value("${file.derivative.max-pixels:40000000}") long maxPixels,
+            @Value("${file.derivative.max-attempts:3}") int maxAttempts,
+            @Value("${file.derivative.processing-timeout:PT5M}") Duration processingTimeout,
+            @Value("${file.derivative.sweep-interval:PT1M}") Duration sweepInterval) {
+        this.jobRepository = jobRepository;
+        this.fileRepository = fileRepository;
+        this.userRepository = userRepository;
+        this.userCacheStore = userCacheStore;
+        this.s3Service = s3Service;
+        this.meterRegistry = meterRegistry;
+        this.maxPixels = maxPixels;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.processingTimeout = processingTimeout;
+        this.sweepInterval = sweepInterval;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(
+                Math.max(1, workerCount), Math.max(1, workerCount), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivative-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("file.derivative.queue.size", workers, executor -> executor.getQueue().size())
+                .description("Image derivative jobs waiting for a worker on this node")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "image-derivative-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = sweepInterval.toMillis();
+        sweeper.scheduleWithFixedDelay(this::sweepSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+        workers.shutdownNow();
+    }
+
+    /**
+     * 저장이 끝난 File 의 파생본 생성을 예약한다. 업로드를 실패시키지 않도록 예외는 삼킨다.
+     */
+    public void submit(File file) {
+        if (file.getMimetype() == null || !SUPPORTED_TYPES.contains(file.getMimetype())) {
+            return;
+        }
+        String storageKey = file.resolveStorageKey();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            jobRepository.insert(ImageDerivativeJob.builder()
+                    .id(storageKey)
+                    .mimetype(file.getMimetype())
+                    .status(ImageDerivativeJob.Status.PENDING)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+            enqueue(storageKey);
+        } catch (DuplicateKeyException e) {
+            // 같은 내용이 이미 올라온 적 있음: 끝난 작업이면 새 File 에도 반영, 아니면 작업이 끝날 때 함께 반영된다
+            execute(() -> jobRepository.findById(storageKey)
+                    .filter(job -> job.getStatus() == ImageDerivativeJob.Status.DONE)
+                    .ifPresent(job -> fileRepository.setVariants(storageKey, job.getVariants())));
+        } catch (RuntimeException e) {
+            log.warn("이미지 파생본 작업 등록 실패: {} ({})", storageKey, e.getMessage());
+        }
+    }
+
+    /**
+     * 생성이 끝난 파생본 목록 (없거나 진행 중이면 빈 목록)
+     */
+    public List<String> readyVariants(String storageKey) {
+        return jobRepository.findById(storageKey)
+                .filter(job -> job.getStatus() == ImageDerivativeJob.Status.DONE)
+                .map(ImageDerivativeJob::getVariants)
+                .orElse(List.of());
+    }
+
+    /**
+     * 원본 저장 객체가 삭제될 때 파생본과 작업 문서를 지운다.
+     */
+    public void discard(String storageKey) {
+        // 이미지가 아니라 작업이 없었던 객체는 지울 파생본도 없다
+        if (!jobRepository.existsById(storageKey)) {
+            return;
+        }
+        jobRepository.deleteById(storageKey);
+        deleteVariants(storageKey);
+    }
+
+    private void deleteVariants(String storageKey) {
+        for (ImageVariant variant : ImageVariant.values()) {
+            s3Service.deleteFile(variant.objectKey(storageKey));
+        }
+    }
+
+    private void enqueue(String storageKey) {
+        execute(() -> process(storageKey));
+    }
+
+    private void execute(Runnable task) {
+        try {
+            workers.execute(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    log.error("이미지 파생본 작업 오류", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 대기열이 가득 차면 작업은 PENDING 으로 남고 주기 점검에서 다시 넣는다
+            log.debug("이미지 파생본 대기열 가득 참, 다음 점검으로 미룸");
+        }
+    }
+
+    private void sweepSafely() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<ImageDerivativeJob> runnable = jobRepository.findRunnable(
+                    now.minus(sweepInterval), now.minus(processingTimeout), PageRequest.of(0, SWEEP_BATCH));
+            for (ImageDerivativeJob job : runnable) {
+                if (workers.getQueue().remainingCapacity() == 0) {
+                    break;
+                }
+                enqueue(job.getId());
+            }
+        } catch (Exception e) {
+            log.warn("이미지 파생본 작업 점검 실패: {}", e.getMessage());
+        }
+    }
+
+    void process(String storageKey) {
+        LocalDateTime now = LocalDateTime.now();
+        // 여러 노드가 같은 작업을 집어도 한 곳만 처리한다
+        if (jobRepository.claim(storageKey, now, now.minus(processingTimeout)) == 0) {
+            return;
+        }
+        ImageDerivativeJob job = jobRepository.findById(storageKey).orElse(null);
+        if (job == null) {
+            return;
+        }
+
+        try {
+            S3Service.ObjectStream original = s3Service.openFile(storageKey, null, null);
+            BufferedImage source;
+            try (InputStream input = original.body()) {
+                source = decode(input);
+            }
+            if (source == null) {
+                finish(job, ImageDerivativeJob.Status.SKIPPED, List.of(), "지원하지 않거나 너무 큰 이미지");
+                return;
+            }
+            meterRegistry.counter("file.derivative.bytes", "kind", "original").increment(original.contentLength());
+
+            List<String> variants = new ArrayList<>();
+            for (ImageVariant variant : ImageVariant.values()) {
+                byte[] encoded = encodeJpeg(resize(source, variant.getMaxSize()));
+                s3Service.putDerivative(variant.objectKey(storageKey), encoded, OUTPUT_TYPE);
+                meterRegistry.counter("file.derivative.bytes", "kind", variant.getKey()).increment(encoded.length);
+                variants.add(variant.getKey());
+            }
+            if (!finish(job, ImageDerivativeJob.Status.DONE, variants, null)) {
+                // 처리 중에 원본이 삭제되었으면 방금 올린 파생본도 지운다
+                if (!jobRepository.existsById(storageKey)) {
+                    deleteVariants(storageKey);
+                }
+                return;
+            }
+            publish(storageKey, variants);
+            log.info("이미지 파생본 생성 완료: {} ({}x{})", storageKey, source.getWidth(), source.getHeight());
+        } catch (Exception e) {
+            // attempts 는 claim 에서 이미 늘었다
+            boolean retry = job.getAttempts() < maxAttempts;
+            finish(job, retry ? ImageDerivativeJob.Status.PENDING : ImageDerivativeJob.Status.FAILED,
+                    null, e.getMessage());
+            log.warn("이미지 파생본 생성 실패: {} (시도 {}, 재시도 {}): {}",
+                    storageKey, job.getAttempts(), retry, e.getMessage());
+        }
+    }
+
+    /**
+     * 작업 결과를 남긴다. 전체 저장(upsert)이 아니라 이 노드가 claim 한 PROCESSING 상태일 때만 갱신하므로
+     * 처리 중에 discard 로 지워진 작업을 되살리지 않는다.
+     * @return 갱신되었으면 true
+     */
+    private boolean finish(ImageDerivativeJob job, ImageDerivativeJob.Status status, List<String> variants,
+                           String error) {
+        boolean updated = jobRepository.finish(job.getId(), job.getAttempts(), status, variants, error,
+                LocalDateTime.now()) > 0;
+        meterRegistry.counter("file.derivative.jobs", "status",
+                updated ? status.name().toLowerCase() : "abandoned").increment();
+        return updated;
+    }
+
+    // 같은 저장 객체를 쓰는 채팅 파일과 프로필 이미지에 파생본을 반영한다
+    private void publish(String storageKey, List<String> variants) {
+        fileRepository.setVariants(storageKey, variants);
+
+        String profileImage = s3Service.folderUrl() + "/" + storageKey;
+        List<User> users = userRepository.findByProfileImage(profileImage);
+        if (!users.isEmpty()) {
+            userRepository.setProfileImageVariants(profileImage, variants);
+            users.forEach(user -> {
+                userCacheStore.evictUserByEmail(user.getEmail());
+                userCacheStore.evictUserById(user.getId());
+            });
+        }
+    }
+
+    /**
+     * 픽셀 수를 먼저 확인해 압축 폭탄 이미지를 디코딩하지 않는다. 읽을 수 없으면 null.
+     */
+    private BufferedImage decode(InputStream input) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(input)) {
+            Iterator<ImageReader> readers = stream != null ? ImageIO.getImageReaders(stream) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 긴 변이 maxSize 이하가 되도록 줄인 RGB 이미지 (작은 이미지는 크기를 유지, 투명 영역은 흰 배경)
+     * 한 번에 크게 줄이면 bilinear 보간이 거칠어지므로 절반씩 나눠 줄인다.
+     */
+    static BufferedImage resize(BufferedImage source, int maxSize) {
+        double scale = Math.min(1.0, (double) maxSize / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
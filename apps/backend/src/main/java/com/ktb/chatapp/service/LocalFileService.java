@@ -1,20 +1,25 @@
 package com.ktb.chatapp.service;
 
+import com.ktb.chatapp.cache.FileAccessCacheStore;
+import com.ktb.chatapp.cache.FileAccessDescriptor;
+import com.ktb.chatapp.cache.RoomCacheStore;
 import com.ktb.chatapp.model.File;
-import com.ktb.chatapp.model.Message;
 import com.ktb.chatapp.model.Room;
 import com.ktb.chatapp.repository.FileRepository;
-import com.ktb.chatapp.message.repository.MessageRepository;
-import com.ktb.chatapp.repository.RoomRepository;
 import com.ktb.chatapp.util.FileUtil;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Value;
@@ -31,18 +36,24 @@ public class LocalFileService implements FileService {
     private final Path fileStorageLocation;
     private final S3Service s3Service;
     private final FileRepository fileRepository;
-    private final MessageRepository messageRepository;
-    private final RoomRepository roomRepository;
+    private final FileAccessCacheStore fileAccessCacheStore;
+    private final RoomCacheStore roomCacheStore;
+    private final FileBlobService fileBlobService;
+    private final ImageDerivativeService imageDerivativeService;
 
     public LocalFileService(@Value("${file.upload-dir:uploads}") String uploadDir,
                       S3Service s3Service,
                       FileRepository fileRepository,
-                      MessageRepository messageRepository,
-                      RoomRepository roomRepository) {
+                      FileAccessCacheStore fileAccessCacheStore,
+                      RoomCacheStore roomCacheStore,
+                      FileBlobService fileBlobService,
+                      ImageDerivativeService imageDerivativeService) {
         this.s3Service = s3Service;
         this.fileRepository = fileRepository;
-        this.messageRepository = messageRepository;
-        this.roomRepository = roomRepository;
+        this.fileAccessCacheStore = fileAccessCacheStore;
+        this.roomCacheStore = roomCacheStore;
+        this.fileBlobService = fileBlobService;
+        this.imageDerivativeService = imageDerivativeService;
         this.fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
     }
 
@@ -65,6 +76,14 @@ public class LocalFileService implements FileService {
 
             String generatedId = new ObjectId().toHexString();
 
+            // 같은 내용이 이미 저장되어 있으면 S3 업로드 없이 참조만 늘린다
+            String checksum = sha256Hex(file.getInputStream());
+            String storageKey = fileBlobService.acquire(checksum).orElse(null);
+            if (storageKey == null) {
+                s3Service.putFile(file, generatedId);
+                storageKey = fileBlobService.register(checksum, generatedId, file.getSize());
+            }
+
             // 메타데이터 생성 및 저장
             File fileEntity = File.builder()
                     .id(generatedId)
@@ -72,15 +91,15 @@ public class LocalFileService implements FileService {
                     .originalname(normalizedOriginalname)
                     .mimetype(file.getContentType())
                     .size(file.getSize())
-                    .path("")
+                    .path(s3Service.folderUrl() + "/" + storageKey)
+                    .checksum(checksum)
+                    .storageKey(storageKey)
                     .user(uploaderId)
                     .uploadDate(LocalDateTime.now())
                     .build();
 
-            String fileFolderPath = s3Service.putFile(file, fileEntity.getId());
-            fileEntity.setPath(fileFolderPath+"/"+ fileEntity.getId());
-
-            File savedFile = fileRepository.save(fileEntity);
+            File savedFile = saveOrRelease(fileEntity);
+            imageDerivativeService.submit(savedFile);
 
             log.info("파일 저장 완료: {}", safeFileName);
 
@@ -95,6 +114,130 @@ public class LocalFileService implements FileService {
         }
     }
 
+    @Override
+    public FileUploadResult uploadFileStream(InputStream input, String originalFilename, String contentType,
+                                             long declaredSize, String expectedSha256, String uploaderId) {
+        try {
+            // 본문을 받기 전에 할 수 있는 검증 (파일명, 타입, 선언된 크기)
+            if (originalFilename != null) {
+                originalFilename = StringUtils.cleanPath(originalFilename);
+            }
+            FileUtil.validateMetadata(originalFilename, contentType);
+            if (declaredSize > 0) {
+                FileUtil.validateSize(contentType, declaredSize);
+            }
+
+            String safeFileName = FileUtil.generateSafeFileName(originalFilename);
+            String normalizedOriginalname = FileUtil.normalizeOriginalFilename(originalFilename);
+            String generatedId = new ObjectId().toHexString();
+
+            StoredContent stored = expectedSha256 != null
+                    ? storeIfAbsent(input, expectedSha256.toLowerCase(), generatedId, contentType)
+                    : null;
+            if (stored == null) {
+                // 크기/시그니처 검증과 체크섬 계산은 업로드하면서 진행
+                S3Service.StoredObject object = s3Service.putFileStreaming(input, generatedId, contentType);
+                String storageKey = fileBlobService.register(object.sha256(), generatedId, object.size());
+                stored = new StoredContent(object.sha256(), storageKey, object.size());
+            }
+
+            File fileEntity = File.builder()
+                    .id(generatedId)
+                    .filename(safeFileName)
+                    .originalname(normalizedOriginalname)
+                    .mimetype(contentType)
+                    .size(stored.size())
+                    .path(s3Service.folderUrl() + "/" + stored.storageKey())
+                    .checksum(stored.sha256())
+                    .storageKey(stored.storageKey())
+                    .user(uploaderId)
+                    .uploadDate(LocalDateTime.now())
+                    .build();
+
+            File savedFile = saveOrRelease(fileEntity);
+            imageDerivativeService.submit(savedFile);
+
+            log.info("파일 스트리밍 저장 완료: {} ({} bytes)", safeFileName, stored.size());
+
+            return FileUploadResult.builder()
+                    .success(true)
+                    .file(savedFile)
+                    .build();
+
+        } catch (Exception e) {
+            log.error("파일 스트리밍 업로드 처리 실패: {}", e.getMessage(), e);
+            throw new RuntimeException("파일 업로드에 실패했습니다: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 클라이언트가 알려준 SHA-256 의 저장 객체가 이미 있으면 본문을 S3 로 보내지 않고 해시만 확인한 뒤 참조한다.
+     * 없으면 null 을 반환하고 본문은 읽지 않은 상태로 남는다.
+     */
+    private StoredContent storeIfAbsent(InputStream input, String expectedSha256, String fileId,
+                                        String contentType) throws IOException {
+        Optional<String> existing = fileBlobService.acquire(expectedSha256);
+        if (existing.isEmpty()) {
+            return null;
+        }
+        try {
+            // 해시만 알고 내용은 없는 파일을 참조하지 못하도록 본문은 끝까지 받아 확인한다
+            MessageDigest digest = sha256();
+            long size = 0;
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = input.readNBytes(buffer, 0, buffer.length)) > 0) {
+                if (size == 0) {
+                    FileUtil.validateSignature(contentType, buffer, read);
+                }
+                size += read;
+                FileUtil.validateSize(contentType, size);
+                digest.update(buffer, 0, read);
+            }
+            if (!HexFormat.of().formatHex(digest.digest()).equals(expectedSha256)) {
+                throw new RuntimeException("파일 체크섬이 일치하지 않습니다.");
+            }
+            log.info("중복 파일 업로드, 저장 생략: {} -> {}", fileId, existing.get());
+            return new StoredContent(expectedSha256, existing.get(), size);
+        } catch (IOException | RuntimeException e) {
+            fileBlobService.release(expectedSha256, existing.get());
+            throw e;
+        }
+    }
+
+    // 메타데이터 저장에 실패하면 늘려 둔 참조를 되돌린다
+    private File saveOrRelease(File fileEntity) {
+        try {
+            return fileRepository.save(fileEntity);
+        } catch (RuntimeException e) {
+            fileBlobService.release(fileEntity);
+            throw e;
+        }
+    }
+
+    private record StoredContent(String sha256, String storageKey, long size) {
+    }
+
+    private static String sha256Hex(InputStream input) throws IOException {
+        try (input) {
+            MessageDigest digest = sha256();
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     @Override
     public String storeFile(MultipartFile file, String subDirectory) {
         try {
@@ -138,29 +281,32 @@ public class LocalFileService implements FileService {
         }
     }
 
+    @Override
+    public FileAccessDescriptor getAccessibleFile(String fileName, String requesterId) {
+        // 1. 파일 -> 메시지(방) 정보 조회 (캐시)
+        FileAccessDescriptor descriptor = fileAccessCacheStore.getDescriptor(fileName);
+
+        // 2. 방 조회 (캐시, 참가/퇴장 시 무효화)
+        Room room = roomCacheStore.getRoom(descriptor.getRoomId());
+        if (room == null) {
+            throw new RuntimeException("방을 찾을 수 없습니다");
+        }
+
+        // 3. 권한 검증
+        if (!room.getParticipantIds().contains(requesterId)) {
+            log.warn("파일 접근 권한 없음: {} (사용자: {})", fileName, requesterId);
+            throw new RuntimeException("파일에 접근할 권한이 없습니다");
+        }
+        return descriptor;
+    }
+
     @Override
     public Resource loadFileAsResource(String fileName, String requesterId) {
         try {
-            // 1. 파일 조회
-            File fileEntity = fileRepository.findByFilename(fileName)
-                    .orElseThrow(() -> new RuntimeException("파일을 찾을 수 없습니다: " + fileName));
-
-            // 2. 메시지 조회 (파일과 메시지 연결 확인) - 효율적인 쿼리 메서드 사용
-            Message message = messageRepository.findByFileId(fileEntity.getId())
-                    .orElseThrow(() -> new RuntimeException("파일과 연결된 메시지를 찾을 수 없습니다"));
-
-            // 3. 방 조회 (사용자가 방 참가자인지 확인)
-            Room room = roomRepository.findById(message.getRoomId())
-                    .orElseThrow(() -> new RuntimeException("방을 찾을 수 없습니다"));
-
-            // 4. 권한 검증
-            if (!room.getParticipantIds().contains(requesterId)) {
-                log.warn("파일 접근 권한 없음: {} (사용자: {})", fileName, requesterId);
-                throw new RuntimeException("파일에 접근할 권한이 없습니다");
-            }
+            FileAccessDescriptor descriptor = getAccessibleFile(fileName, requesterId);
 
-            // 5. 파일 경로 검증 및 로드
-            Resource resource = new UrlResource(s3Service.getFile(fileEntity.getId()));
+            // 파일 경로 검증 및 로드
+            Resource resource = new UrlResource(s3Service.getFile(descriptor.resolveStorageKey()));
 
             if (resource.exists()) {
                 log.info("파일 로드 성공: {} (사용자: {})", fileName, requesterId);
@@ -185,11 +331,12 @@ public class LocalFileService implements FileService {
                 throw new RuntimeException("파일을 삭제할 권한이 없습니다.");
             }
 
-            // 물리적 파일 삭제
-            s3Service.deleteFile(fileId);
-
             // 데이터베이스에서 제거
             fileRepository.delete(fileEntity);
+            fileAccessCacheStore.evictDescriptor(fileEntity.getFilename());
+
+            // 물리적 파일 삭제 (같은 내용을 참조하는 파일이 남아 있으면 유지)
+            fileBlobService.release(fileEntity);
 
             log.info("파일 삭제 완료: {} (사용자: {})", fileId, requesterId);
             return true;
@@ -203,7 +350,8 @@ public class LocalFileService implements FileService {
     @Override
     public boolean deleteByPath(String path, String requesterId) {
         try{
-            File fileEntity = fileRepository.findByPath(path)
+            // 같은 내용의 파일은 path 를 공유하므로 요청자의 파일을 찾는다
+            File fileEntity = fileRepository.findFirstByPathAndUser(path, requesterId)
                     .orElseThrow(() -> new RuntimeException("파일을 찾을 수 없습니다."));
 
             // 삭제 권한 검증 (업로더만 삭제 가능)
@@ -211,11 +359,12 @@ public class LocalFileService implements FileService {
                 throw new RuntimeException("파일을 삭제할 권한이 없습니다.");
             }
 
-            // 물리적 파일 삭제
-            s3Service.deleteFile(fileEntity.getId());
-
             // 데이터베이스에서 제거
             fileRepository.delete(fileEntity);
+            fileAccessCacheStore.evictDescriptor(fileEntity.getFilename());
+
+            // 물리적 파일 삭제 (같은 내용을 참조하는 파일이 남아 있으면 유지)
+            fileBlobService.release(fileEntity);
 
             log.info("파일 삭제 완료: {} (사용자: {})", fileEntity.getId(), requesterId);
             return true;
@@ -0,0 +1,238 @@
+package com.ktb.chatapp.service;
+
+import com.ktb.chatapp.model.File;
+import com.ktb.chatapp.repository.FileRepository;
+import com.ktb.chatapp.service.upload.UploadSession;
+import com.ktb.chatapp.service.upload.UploadSessionStore;
+import com.ktb.chatapp.util.FileUtil;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 이어받기(resumable) 업로드
+ * 세션을 만들고 청크를 offset 과 함께 따로따로(병렬 가능) 올린 뒤 완료한다.
+ * 청크는 받는 즉시 S3 multipart 파트로 저장되므로 연결이 끊겨도 받은 청크는 남고, 요청은 청크 하나 길이만큼만 걸린다.
+ * 세션 상태(받은 파트 ETag)는 TTL 이 있는 저장소에 두며 청크를 받을 때마다 TTL 을 연장한다.
+ */
+@Slf4j
+@Service
+public class ResumableUploadService {
+
+    // 완료/취소 처리 표시의 유효 시간, 처리하던 노드가 죽어도 이 시간이 지나면 다시 완료할 수 있다
+    private static final Duration COMPLETING_LEASE = Duration.ofMinutes(2);
+
+    private final S3Service s3Service;
+    private final FileRepository fileRepository;
+    private final ImageDerivativeService imageDerivativeService;
+    private final UploadSessionStore sessionStore;
+    private final int chunkSize;
+    private final Duration sessionTtl;
+
+    public ResumableUploadService(S3Service s3Service,
+                                  FileRepository fileRepository,
+                                  ImageDerivativeService imageDerivativeService,
+                                  UploadSessionStore sessionStore,
+                                  @Value("${file.upload.chunk-size:5MB}") DataSize chunkSize,
+                                  @Value("${file.upload.session-ttl:PT24H}") Duration sessionTtl) {
+        this.s3Service = s3Service;
+        this.fileRepository = fileRepository;
+        this.imageDerivativeService = imageDerivativeService;
+        this.sessionStore = sessionStore;
+        // 마지막 청크를 제외한 청크가 S3 최소 파트 크기 이상이어야 한다
+        this.chunkSize = (int) Math.max(S3Service.MIN_PART_SIZE, chunkSize.toBytes());
+        this.sessionTtl = sessionTtl;
+    }
+
+    /**
+     * @param receivedChunks 받은 청크 번호 (0부터)
+     * @param offset 처음부터 빠짐없이 받은 바이트 수, 순차 업로드는 여기서 이어 올리면 된다
+     */
+    public record UploadStatus(UploadSession session, List<Integer> receivedChunks, long offset) {
+    }
+
+    public UploadStatus create(String originalFilename, String contentType, long size, String uploaderId) {
+        if (originalFilename != null) {
+            originalFilename = StringUtils.cleanPath(originalFilename);
+        }
+        FileUtil.validateMetadata(originalFilename, contentType);
+        if (size <= 0) {
+            throw new RuntimeException("파일이 비어있습니다.");
+        }
+        FileUtil.validateSize(contentType, size);
+
+        String fileId = new ObjectId().toHexString();
+        UploadSession session = UploadSession.builder()
+                .id(UUID.randomUUID().toString())
+                .fileId(fileId)
+                .userId(uploaderId)
+                .originalname(originalFilename)
+                .mimetype(contentType)
+                .size(size)
+                .chunkSize(chunkSize)
+                .s3UploadId(s3Service.startUpload(fileId, contentType))
+                .expiresAt(Instant.now().plus(sessionTtl))
+                .build();
+        sessionStore.create(session, sessionTtl);
+
+        log.info("이어받기 업로드 시작: {} ({} bytes, 청크 {}개)", session.getId(), size, session.totalChunks());
+        return new UploadStatus(session, List.of(), 0);
+    }
+
+    public UploadStatus status(String sessionId, String requesterId) {
+        UploadSession session = ownedSession(sessionId, requesterId);
+        return status(session, sessionStore.parts(sessionId));
+    }
+
+    /**
+     * offset 위치의 청크를 받아 파트로 저장한다. 같은 청크를 다시 보내면 덮어쓴다.
+     */
+    public UploadStatus putChunk(String sessionId, long offset, InputStream body, String requesterId)
+            throws IOException {
+        UploadSession session = ownedSession(sessionId, requesterId);
+        rejectIfClosed(session);
+        if (offset < 0 || offset >= session.getSize() || offset % session.getChunkSize() != 0) {
+            throw new RuntimeException("청크 위치가 올바르지 않습니다.");
+        }
+
+        int index = (int) (offset / session.getChunkSize());
+        int expected = session.chunkLength(index);
+        byte[] bytes = body.readNBytes(expected);
+        if (bytes.length != expected || body.read() != -1) {
+            throw new RuntimeException("청크 크기가 올바르지 않습니다. (기대값: " + expected + " bytes)");
+        }
+        if (index == 0) {
+            FileUtil.validateSignature(session.getMimetype(), bytes, bytes.length);
+        }
+
+        String eTag = s3Service.putPart(session.getFileId(), session.getS3UploadId(), index + 1, bytes);
+        // 파트를 올리는 사이 취소/만료되었거나 완료가 시작되었으면 세션을 되살리지 않는다
+        if (!sessionStore.putPart(sessionId, index + 1, eTag, sessionTtl)) {
+            rejectIfClosed(ownedSession(sessionId, requesterId));
+            throw new RuntimeException("이미 완료 처리 중인 업로드입니다.");
+        }
+        session.setExpiresAt(Instant.now().plus(sessionTtl));
+        return status(session, sessionStore.parts(sessionId));
+    }
+
+    /**
+     * 모든 청크를 받았으면 S3 객체를 완성하고 File 을 저장한다.
+     * 이미 완료된 세션이면 같은 File 을 돌려주므로 완료 응답을 놓친 클라이언트가 다시 호출해도 된다.
+     * S3 완료 뒤 단계가 실패해도 S3 완료는 멱등하게 처리되므로 다시 호출하면 이어서 끝낸다.
+     */
+    public FileUploadResult complete(String sessionId, String requesterId) {
+        UploadSession session = ownedSession(sessionId, requesterId);
+        if (session.getCompletedFileId() != null) {
+            return completed(fileRepository.findById(session.getCompletedFileId())
+                    .orElseThrow(() -> new RuntimeException("파일을 찾을 수 없습니다.")));
+        }
+
+        SortedMap<Integer, String> parts = sessionStore.parts(sessionId);
+        if (parts.size() < session.totalChunks()) {
+            throw new RuntimeException("업로드되지 않은 청크가 있습니다. (" + parts.size() + "/"
+                    + session.totalChunks() + ")");
+        }
+        if (!sessionStore.markCompleting(sessionId, COMPLETING_LEASE)) {
+            // 동시에 들어온 다른 완료 요청이 그 사이 끝냈으면 같은 File 을 돌려준다
+            String completedFileId = ownedSession(sessionId, requesterId).getCompletedFileId();
+            if (completedFileId != null) {
+                return completed(fileRepository.findById(completedFileId)
+                        .orElseThrow(() -> new RuntimeException("파일을 찾을 수 없습니다.")));
+            }
+            throw new RuntimeException("이미 완료 처리 중인 업로드입니다.");
+        }
+
+        try {
+            s3Service.completeUpload(session.getFileId(), session.getS3UploadId(), parts);
+
+            File savedFile = fileRepository.save(File.builder()
+                    .id(session.getFileId())
+                    .filename(FileUtil.generateSafeFileName(session.getOriginalname()))
+                    .originalname(FileUtil.normalizeOriginalFilename(session.getOriginalname()))
+                    .mimetype(session.getMimetype())
+                    .size(session.getSize())
+                    .path(s3Service.folderUrl() + "/" + session.getFileId())
+                    .user(session.getUserId())
+                    .uploadDate(LocalDateTime.now())
+                    .build());
+            sessionStore.complete(sessionId, savedFile.getId(), sessionTtl);
+            imageDerivativeService.submit(savedFile);
+
+            log.info("이어받기 업로드 완료: {} -> {}", sessionId, savedFile.getFilename());
+            return completed(savedFile);
+        } catch (RuntimeException e) {
+            sessionStore.clearCompleting(sessionId);
+            throw e;
+        }
+    }
+
+    /**
+     * 완료 전 세션을 취소하고 받은 파트를 버린다.
+     */
+    public void abort(String sessionId, String requesterId) {
+        UploadSession session = ownedSession(sessionId, requesterId);
+        // 완료 처리 중인 업로드를 취소하면 만들어지는 File 의 S3 객체가 사라질 수 있다
+        if (session.getCompletedFileId() == null && !sessionStore.markCompleting(sessionId, COMPLETING_LEASE)) {
+            session = ownedSession(sessionId, requesterId);
+            if (session.getCompletedFileId() == null) {
+                throw new RuntimeException("이미 완료 처리 중인 업로드입니다.");
+            }
+        }
+        if (session.getCompletedFileId() == null) {
+            try {
+                s3Service.abortUpload(session.getFileId(), session.getS3UploadId());
+            } catch (RuntimeException e) {
+                sessionStore.clearCompleting(sessionId);
+                throw e;
+            }
+        }
+        sessionStore.delete(sessionId);
+    }
+
+    private static void rejectIfClosed(UploadSession session) {
+        if (session.getCompletedFileId() != null) {
+            throw new RuntimeException("이미 완료된 업로드입니다.");
+        }
+        if (session.isCompleting()) {
+            throw new RuntimeException("이미 완료 처리 중인 업로드입니다.");
+        }
+    }
+
+    private UploadSession ownedSession(String sessionId, String requesterId) {
+        UploadSession session = sessionStore.find(sessionId)
+                .orElseThrow(() -> new RuntimeException("업로드 세션을 찾을 수 없습니다."));
+        if (!session.getUserId().equals(requesterId)) {
+            throw new RuntimeException("업로드 세션에 접근할 권한이 없습니다.");
+        }
+        return session;
+    }
+
+    private static UploadStatus status(UploadSession session, SortedMap<Integer, String> parts) {
+        List<Integer> received = new ArrayList<>(parts.size());
+        parts.keySet().forEach(partNumber -> received.add(partNumber - 1));
+        long offset = 0;
+        for (int index = 0; index < session.totalChunks() && parts.containsKey(index + 1); index++) {
+            offset += session.chunkLength(index);
+        }
+        return new UploadStatus(session, received, offset);
+    }
+
+    private static FileUploadResult completed(File file) {
+        return FileUploadResult.builder()
+                .success(true)
+                .file(file)
+                .build();
+    }
+}
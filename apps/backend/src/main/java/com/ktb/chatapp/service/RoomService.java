@@ -9,7 +9,6 @@ import com.ktb.chatapp.model.Room;
 import com.ktb.chatapp.model.User;
 import com.ktb.chatapp.message.repository.MessageRepository;
 import com.ktb.chatapp.repository.RoomRepository;
-import com.ktb.chatapp.repository.UserRepository;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -26,10 +25,7 @@ import org.springframework.stereotype.Service;
 @Service
 @RequiredArgsConstructor
 public class RoomService {
-    private static final int PARTICIPANT_BATCH_SIZE = 250;
-
     private final RoomRepository roomRepository;
-    private final UserRepository userRepository;
     private final MessageRepository messageRepository;
     private final PasswordEncoder passwordEncoder;
     private final ApplicationEventPublisher eventPublisher;
@@ -75,9 +71,13 @@ public class RoomService {
                 roomPage = roomRepository.findAll(springPageRequest);
             }
 
-            // Room을 RoomResponse로 변환
+            // Room을 RoomResponse로 변환 (페이지의 방장/참가자를 한 번에 조회)
+            List<String> userIds = roomPage.getContent().stream()
+                .flatMap(room -> userIdsOf(room).stream())
+                .toList();
+            Map<String, User> users = userCacheStore.getUsers(userIds);
             List<RoomResponse> roomResponses = roomPage.getContent().stream()
-                .map(room -> mapToRoomResponse(room, name))
+                .map(room -> mapToRoomResponse(room, name, users))
                 .collect(Collectors.toList());
 
             // 메타데이터 생성
@@ -171,6 +171,7 @@ public class RoomService {
         }
 
         Room savedRoom = roomRepository.save(room);
+        roomCacheStore.putRoom(savedRoom);
         
         // Publish event for room created
         try {
@@ -209,9 +210,10 @@ public class RoomService {
         // 이미 참여중인지 확인
         if (!room.getParticipantIds().contains(user.getId())) {
             // 채팅방 참여
-            room.getParticipantIds().add(user.getId());
-            room = roomRepository.save(room);
-            roomCacheStore.evictRoom(roomId);
+            Room updated = roomCacheStore.addParticipant(roomId, user.getId());
+            if (updated != null) {
+                room = updated;
+            }
         }
         
         // Publish event for room updated
@@ -227,24 +229,29 @@ public class RoomService {
 
     private RoomResponse mapToRoomResponse(Room room, String name) {
         if (room == null) return null;
+        return mapToRoomResponse(room, name, userCacheStore.getUsers(userIdsOf(room)));
+    }
 
-        User creator = null;
-        if (room.getCreator() != null) {
-            creator = userRepository.findById(room.getCreator()).orElse(null);
+    // 방장과 참가자 ID, 캐시 MGET + 캐시에 없는 사용자만 $in 한 번으로 함께 조회한다
+    private List<String> userIdsOf(Room room) {
+        List<String> userIds = new ArrayList<>();
+        if (room.getParticipantIds() != null) {
+            userIds.addAll(room.getParticipantIds());
         }
+        userIds.add(room.getCreator());
+        return userIds;
+    }
 
+    private RoomResponse mapToRoomResponse(Room room, String name, Map<String, User> users) {
         List<String> participantIds = room.getParticipantIds() != null
             ? room.getParticipantIds().stream().toList()
             : Collections.emptyList();
 
-        List<User> participants = new ArrayList<>();
-        for (int i = 0; i < participantIds.size(); i += PARTICIPANT_BATCH_SIZE) {
-            int toIndex = Math.min(i + PARTICIPANT_BATCH_SIZE, participantIds.size());
-            List<String> chunk = participantIds.subList(i, toIndex);
-
-            List<User> chunkResult = userRepository.findAllById(chunk);
-            participants.addAll(chunkResult);
-        }
+        User creator = room.getCreator() != null ? users.get(room.getCreator()) : null;
+        List<User> participants = participantIds.stream()
+            .map(users::get)
+            .filter(Objects::nonNull)
+            .toList();
 
         //List<User> participants = userRepository.findAllById(room.getParticipantIds());
 //        List<User> participants = room.getParticipantIds().stream()
@@ -1,33 +1,78 @@
 package com.ktb.chatapp.service;
 
 import com.ktb.chatapp.config.properties.S3Properties;
+import com.ktb.chatapp.util.FileUtil;
+import jakarta.annotation.PreDestroy;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.awssdk.services.s3.model.ObjectCannedACL;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 
 import java.io.IOException;
 import java.time.Duration;
 
+@Slf4j
 @Service
 public class S3Service {
     private static final String IMAGE_FOLDER = "image";
     private static final String FILE_FOLDER = "file";
+    // S3 multipart 의 마지막 파트를 제외한 최소 파트 크기
+    static final int MIN_PART_SIZE = 5 * 1024 * 1024;
 
     private final S3Properties s3Properties;
     private final S3Presigner preSigner;
     private final S3Client s3Client;
+    private final int partSize;
+    private final int partConcurrency;
+    private final ExecutorService partUploader;
 
-    S3Service(S3Properties s3Properties, S3Presigner preSigner, S3Client s3Client) {
+    S3Service(S3Properties s3Properties, S3Presigner preSigner, S3Client s3Client,
+              @Value("${file.upload.part-size:8MB}") DataSize partSize,
+              @Value("${file.upload.part-concurrency:3}") int partConcurrency,
+              @Value("${file.upload.max-parallel-parts:16}") int maxParallelParts) {
         this.s3Properties = s3Properties;
         this.preSigner = preSigner;
         this.s3Client = s3Client;
+        this.partSize = (int) Math.max(MIN_PART_SIZE, partSize.toBytes());
+        this.partConcurrency = Math.max(1, partConcurrency);
+        this.partUploader = Executors.newFixedThreadPool(Math.max(1, maxParallelParts), runnable -> {
+            Thread thread = new Thread(runnable, "s3-upload-part");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     public String getFile(String fileId) {
@@ -35,6 +80,91 @@ public class S3Service {
     }
 
 
+    /**
+     * 다운로드용 단기 presigned URL. 응답 헤더(Content-Type, Content-Disposition)를 S3 가 대신 내려주도록 지정한다.
+     */
+    public String getDownloadUrl(String fileId, Duration ttl, String contentType, String contentDisposition) {
+        return preSigner.presignGetObject(GetObjectPresignRequest.builder()
+                        .signatureDuration(ttl)
+                        .getObjectRequest(objectRequest -> objectRequest
+                                .bucket(s3Properties.bucket())
+                                .key(String.join("/", FILE_FOLDER, fileId))
+                                .responseContentType(contentType)
+                                .responseContentDisposition(contentDisposition))
+                        .build())
+                .url()
+                .toString();
+    }
+
+    /**
+     * 파일 본문을 스트림으로 연다. Range(단일 구간)와 If-None-Match 는 S3 에 그대로 위임한다.
+     * 304/416 은 예외 대신 상태 코드로 돌려준다.
+     */
+    public ObjectStream openFile(String fileId, String range, String ifNoneMatch) {
+        try {
+            ResponseInputStream<GetObjectResponse> stream = s3Client.getObject(GetObjectRequest.builder()
+                    .bucket(s3Properties.bucket())
+                    .key(String.join("/", FILE_FOLDER, fileId))
+                    .range(range)
+                    .ifNoneMatch(ifNoneMatch)
+                    .build());
+            GetObjectResponse response = stream.response();
+            int status = response.contentRange() != null ? 206 : 200;
+            return new ObjectStream(stream, status, response.contentLength(), response.contentRange(), response.eTag());
+        } catch (S3Exception e) {
+            if (e.statusCode() == 304 || e.statusCode() == 416) {
+                return new ObjectStream(null, e.statusCode(), 0, null, ifNoneMatch);
+            }
+            if (e.statusCode() == 404) {
+                throw new RuntimeException("파일을 찾을 수 없습니다: " + fileId, e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 본문 없이 메타데이터만 확인한다 (HEAD 응답용). If-None-Match 가 맞으면 304 를 돌려준다.
+     */
+    public ObjectStream statFile(String fileId, String ifNoneMatch) {
+        try {
+            HeadObjectResponse response = s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(s3Properties.bucket())
+                    .key(String.join("/", FILE_FOLDER, fileId))
+                    .ifNoneMatch(ifNoneMatch)
+                    .build());
+            return new ObjectStream(null, 200, response.contentLength(), null, response.eTag());
+        } catch (S3Exception e) {
+            if (e.statusCode() == 304) {
+                return new ObjectStream(null, 304, 0, null, ifNoneMatch);
+            }
+            if (e.statusCode() == 404) {
+                throw new RuntimeException("파일을 찾을 수 없습니다: " + fileId, e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @param body 본문 스트림 (304/416 이거나 statFile 결과면 null)
+     * @param status 200, 206, 304, 416
+     */
+    public record ObjectStream(InputStream body, int status, long contentLength, String contentRange, String eTag) {
+    }
+
+    /**
+     * 원본에서 만든 파생본(썸네일 등)을 저장한다. 원본이 내용 주소로 저장되므로 키의 내용은 바뀌지 않아 영구 캐시할 수 있다.
+     */
+    public void putDerivative(String key, byte[] bytes, String contentType) {
+        s3Client.putObject(PutObjectRequest.builder()
+                .bucket(s3Properties.bucket())
+                .key(String.join("/", FILE_FOLDER, key))
+                .contentType(contentType)
+                .contentLength((long) bytes.length)
+                .cacheControl("public, max-age=31536000, immutable")
+                .acl(ObjectCannedACL.PUBLIC_READ)
+                .build(), RequestBody.fromBytes(bytes));
+    }
+
     public String putFile(MultipartFile file, String fileId) throws IOException {
         PutObjectRequest objectRequest = putObjectRequest(file, FILE_FOLDER, fileId);
         s3Client.putObject(objectRequest, RequestBody.fromBytes(file.getBytes()));
@@ -42,6 +172,224 @@ public class S3Service {
     }
 
 
+    /**
+     * 요청 본문을 그대로 S3 에 스트리밍 업로드한다.
+     * 파트 크기만큼 읽을 때마다 파트를 병렬 업로드하고, 요청당 메모리는 (part-concurrency + 1) x part-size 로 제한된다.
+     * 읽는 동안 SHA-256 을 계산하고 FileUtil 기준의 크기 제한과 파일 시그니처를 검증하며,
+     * 첫 파트에서 끝나는 작은 파일은 multipart 없이 PutObject 한 번으로 올린다.
+     */
+    public StoredObject putFileStreaming(InputStream input, String fileId, String contentType) throws IOException {
+        String key = String.join("/", FILE_FOLDER, fileId);
+        MessageDigest digest = sha256();
+        byte[] first = input.readNBytes(partSize);
+        if (first.length == 0) {
+            throw new RuntimeException("파일이 비어있습니다.");
+        }
+        FileUtil.validateSignature(contentType, first, first.length);
+        FileUtil.validateSize(contentType, first.length);
+        digest.update(first);
+
+        if (first.length < partSize) {
+            s3Client.putObject(PutObjectRequest.builder()
+                    .bucket(s3Properties.bucket())
+                    .key(key)
+                    .contentType(contentType)
+                    .contentLength((long) first.length)
+                    .acl(ObjectCannedACL.PUBLIC_READ)
+                    .build(), RequestBody.fromBytes(first));
+            return new StoredObject(folderUrl(), first.length, HexFormat.of().formatHex(digest.digest()));
+        }
+
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(s3Properties.bucket())
+                .key(key)
+                .contentType(contentType)
+                .acl(ObjectCannedACL.PUBLIC_READ)
+                .build()).uploadId();
+        Semaphore inflight = new Semaphore(partConcurrency);
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        long total = 0;
+        try {
+            byte[] part = first;
+            int partNumber = 1;
+            while (part.length > 0) {
+                total += part.length;
+                // 업로드 슬롯이 없으면 여기서 기다리므로 다음 파트를 미리 읽어 쌓아두지 않는다
+                parts.add(uploadPart(key, uploadId, partNumber++, part, inflight));
+                part = input.readNBytes(partSize);
+                FileUtil.validateSize(contentType, total + part.length);
+                digest.update(part);
+                failFast(parts);
+            }
+
+            List<CompletedPart> completed = new ArrayList<>(parts.size());
+            for (CompletableFuture<CompletedPart> future : parts) {
+                completed.add(future.join());
+            }
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(s3Properties.bucket())
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completed).build())
+                    .build());
+            return new StoredObject(folderUrl(), total, HexFormat.of().formatHex(digest.digest()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(key, uploadId, parts);
+            throw new IOException("업로드가 중단되었습니다.", e);
+        } catch (CompletionException e) {
+            abort(key, uploadId, parts);
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        } catch (IOException | RuntimeException e) {
+            abort(key, uploadId, parts);
+            throw e;
+        }
+    }
+
+    /**
+     * 이어받기 업로드(ResumableUploadService)용 multipart 업로드 시작. 파트는 요청마다 따로 올라온다.
+     */
+    public String startUpload(String fileId, String contentType) {
+        return s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(s3Properties.bucket())
+                .key(String.join("/", FILE_FOLDER, fileId))
+                .contentType(contentType)
+                .acl(ObjectCannedACL.PUBLIC_READ)
+                .build()).uploadId();
+    }
+
+    /**
+     * 같은 파트 번호로 다시 올리면 이전 파트를 덮어쓰므로 재시도해도 안전하다.
+     * @return 파트 ETag
+     */
+    public String putPart(String fileId, String uploadId, int partNumber, byte[] bytes) {
+        return s3Client.uploadPart(UploadPartRequest.builder()
+                .bucket(s3Properties.bucket())
+                .key(String.join("/", FILE_FOLDER, fileId))
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength((long) bytes.length)
+                .build(), RequestBody.fromBytes(bytes)).eTag();
+    }
+
+    /**
+     * 이미 완료된 업로드를 다시 완료하면(완료 후 뒷단계가 실패해 재시도하는 경우) S3 는 NoSuchUpload 를 돌려준다.
+     * 그때 객체가 있으면 완료된 것으로 보고 정상 반환한다.
+     * @param partETags 파트 번호 -> ETag (번호 순)
+     */
+    public void completeUpload(String fileId, String uploadId, SortedMap<Integer, String> partETags) {
+        List<CompletedPart> parts = new ArrayList<>(partETags.size());
+        partETags.forEach((partNumber, eTag) ->
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build()));
+        String key = String.join("/", FILE_FOLDER, fileId);
+        try {
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(s3Properties.bucket())
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404 && objectExists(key)) {
+                log.info("이미 완료된 multipart 업로드: {}", fileId);
+                return;
+            }
+            throw e;
+        }
+    }
+
+    private boolean objectExists(String key) {
+        try {
+            s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(s3Properties.bucket())
+                    .key(key)
+                    .build());
+            return true;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    public void abortUpload(String fileId, String uploadId) {
+        s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                .bucket(s3Properties.bucket())
+                .key(String.join("/", FILE_FOLDER, fileId))
+                .uploadId(uploadId)
+                .build());
+    }
+
+    private CompletableFuture<CompletedPart> uploadPart(String key, String uploadId, int partNumber, byte[] bytes,
+                                                        Semaphore inflight) throws InterruptedException {
+        inflight.acquire();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                String eTag = s3Client.uploadPart(UploadPartRequest.builder()
+                        .bucket(s3Properties.bucket())
+                        .key(key)
+                        .uploadId(uploadId)
+                        .partNumber(partNumber)
+                        .contentLength((long) bytes.length)
+                        .build(), RequestBody.fromBytes(bytes)).eTag();
+                return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+            } finally {
+                inflight.release();
+            }
+        }, partUploader);
+    }
+
+    private static void failFast(List<CompletableFuture<CompletedPart>> parts) {
+        for (CompletableFuture<CompletedPart> part : parts) {
+            if (part.isCompletedExceptionally()) {
+                part.join();
+            }
+        }
+    }
+
+    private void abort(String key, String uploadId, List<CompletableFuture<CompletedPart>> parts) {
+        // 진행 중인 파트가 끝난 뒤 abort 해야 남는 파트가 없다
+        parts.forEach(part -> part.exceptionally(e -> null).join());
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(s3Properties.bucket())
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (Exception e) {
+            log.warn("multipart 업로드 취소 실패: {} ({})", key, e.getMessage());
+        }
+    }
+
+    /**
+     * 파일 폴더 URL (File.path 는 이 URL + "/" + 객체 키)
+     */
+    public String folderUrl() {
+        return s3Client.utilities().getUrl(builder -> builder.bucket(s3Properties.bucket()).key(FILE_FOLDER)).toExternalForm();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        partUploader.shutdownNow();
+    }
+
+    /**
+     * 스트리밍 업로드 결과
+     * @param folderUrl 파일 폴더 URL (putFile 과 같은 형식)
+     * @param sha256 본문 SHA-256 (hex)
+     */
+    public record StoredObject(String folderUrl, long size, String sha256) {
+    }
+
     public void deleteFile(String fileId) {
         DeleteObjectRequest objectRequest = deleteObjectRequest(FILE_FOLDER, fileId);
         s3Client.deleteObject(objectRequest);
@@ -94,10 +94,11 @@ public class SessionService {
                 return SessionValidationResult.invalid("SESSION_EXPIRED", "세션이 만료되었습니다.");
             }
 
-            // Update last activity
-            session.setLastActivity(now);
-            session.setExpiresAt(Instant.now().plusSeconds(SESSION_TTL_SEC));
-            session = sessionStore.save(session);
+            // Update last activity (캐시에서 받은 Session 은 공유되므로 복사본을 저장한다)
+            session = sessionStore.save(session.toBuilder()
+                    .lastActivity(now)
+                    .expiresAt(Instant.now().plusSeconds(SESSION_TTL_SEC))
+                    .build());
 
             SessionData sessionData = toSessionData(session);
             return SessionValidationResult.valid(sessionData);
@@ -121,9 +122,10 @@ public class SessionService {
                 return;
             }
 
-            session.setLastActivity(Instant.now().toEpochMilli());
-            session.setExpiresAt(Instant.now().plusSeconds(SESSION_TTL_SEC));
-            sessionStore.save(session);
+            sessionStore.save(session.toBuilder()
+                    .lastActivity(Instant.now().toEpochMilli())
+                    .expiresAt(Instant.now().plusSeconds(SESSION_TTL_SEC))
+                    .build());
             
         } catch (Exception e) {
             log.error("Failed to update session activity for user: {}", userId, e);
@@ -39,6 +39,8 @@ public class UserService {
 
     private final UserCacheStore userCacheStore;
 
+    private final ImageDerivativeService imageDerivativeService;
+
     private static final List<String> ALLOWED_EXTENSIONS = Arrays.asList(
             "jpg", "jpeg", "png", "gif", "webp"
     );
@@ -63,12 +65,15 @@ public class UserService {
 //                .orElseThrow(() -> new UsernameNotFoundException("사용자를 찾을 수 없습니다."));
         User user = userCacheStore.getUserByEmail(email);
 
-        // 프로필 정보 업데이트
-        user.setName(request.getName());
-        user.setUpdatedAt(LocalDateTime.now());
-
+        // 캐시에서 받은 User 는 다른 요청과 공유되므로 고치지 않고, 바뀐 필드만 저장한다
+        User updatedUser = user.toBuilder()
+                .name(request.getName())
+                .updatedAt(LocalDateTime.now())
+                .build();
+        userRepository.setName(user.getId(), updatedUser.getName(), updatedUser.getUpdatedAt());
+        // 저장 전에 지우면 그 사이 조회가 이전 사용자를 다시 채울 수 있으므로 저장 뒤에 지운다
         userCacheStore.evictUserByEmail(email);
-        User updatedUser = userRepository.save(user);
+        userCacheStore.evictUserById(user.getId());
         log.info("사용자 프로필 업데이트 완료 - ID: {}, Name: {}", user.getId(), request.getName());
 
         return UserResponse.from(updatedUser);
@@ -96,13 +101,16 @@ public class UserService {
         File uploadFile = fileService.uploadFile(file, user.getId()).getFile();
         String profileImageUrl = uploadFile.getPath();
 
+        // 프로필 이미지 URL 을 먼저 저장해야 파생본 작업이 끝날 때 이 사용자를 찾아 반영할 수 있다
+        userRepository.setProfileImage(user.getId(), profileImageUrl, LocalDateTime.now());
 
+        // 저장 전에 이미 끝난 작업이면 여기서 반영한다 (이미지가 그새 바뀌었으면 profileImage 조건에 걸리지 않는다)
+        List<String> readyVariants = imageDerivativeService.readyVariants(uploadFile.resolveStorageKey());
+        if (!readyVariants.isEmpty()) {
+            userRepository.setProfileImageVariants(profileImageUrl, readyVariants);
+        }
         userCacheStore.evictUserByEmail(email);
-
-        // 사용자 프로필 이미지 URL 업데이트
-        user.setProfileImage(profileImageUrl);
-        user.setUpdatedAt(LocalDateTime.now());
-        userRepository.save(user);
+        userCacheStore.evictUserById(user.getId());
 
         log.info("프로필 이미지 업로드 완료 - User ID: {}, File: {}", user.getId(), profileImageUrl);
 
@@ -185,12 +193,11 @@ public class UserService {
         User user = userCacheStore.getUserByEmail(email);
 
         if (user.getProfileImage() != null && !user.getProfileImage().isEmpty()) {
-            userCacheStore.evictUserByEmail(email);
-
             fileService.deleteByPath(user.getProfileImage(), user.getId());
-            user.setProfileImage("");
-            user.setUpdatedAt(LocalDateTime.now());
-            userRepository.save(user);
+            // 공유되는 캐시 객체를 고치지 않고 해당 필드만 갱신한다 (파생본 목록도 함께 지운다)
+            userRepository.setProfileImage(user.getId(), "", LocalDateTime.now());
+            userCacheStore.evictUserByEmail(email);
+            userCacheStore.evictUserById(user.getId());
             log.info("프로필 이미지 삭제 완료 - User ID: {}", user.getId());
         }
     }
@@ -208,9 +215,9 @@ public class UserService {
             fileService.deleteByPath(user.getProfileImage(), user.getId());
         }
 
-        userCacheStore.evictUserByEmail(email);
-
         userRepository.delete(user);
+        userCacheStore.evictUserByEmail(email);
+        userCacheStore.evictUserById(user.getId());
         log.info("회원 탈퇴 완료 - User ID: {}", user.getId());
     }
 }
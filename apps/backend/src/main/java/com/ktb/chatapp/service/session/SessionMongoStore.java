@@ -2,19 +2,17 @@ package com.ktb.chatapp.service.session;
 
 import com.ktb.chatapp.cache.SessionCacheStore;
 import com.ktb.chatapp.model.Session;
-import com.ktb.chatapp.repository.SessionRepository;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 /**
  * MongoDB implementation of SessionStore.
- * Uses SessionRepository for persistence.
+ * Persists through SessionCacheStore so the cached session follows every save.
  */
 @Component
 @RequiredArgsConstructor
 public class SessionMongoStore implements SessionStore {
-    private final SessionRepository sessionRepository;
     private final SessionCacheStore sessionCacheStore;
     
     @Override
@@ -24,7 +22,7 @@ public class SessionMongoStore implements SessionStore {
     
     @Override
     public Session save(Session session) {
-        return sessionRepository.save(session);
+        return sessionCacheStore.saveSession(session);
     }
     
     @Override
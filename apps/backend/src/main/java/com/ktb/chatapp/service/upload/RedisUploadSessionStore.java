@@ -0,0 +1,156 @@
+package com.ktb.chatapp.service.upload;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * 세션 하나를 Redis 해시 하나(upload:session:{id})에 저장한다.
+ * 메타데이터는 필드별로, 받은 파트는 part:{번호} 필드에 ETag 로 둔다.
+ * completing 필드에는 완료 처리 lease 만료 시각(epoch ms)을 둔다.
+ * 파트 기록과 상태 변경은 Lua 로 "세션이 있고 완료 처리 중이 아님"을 확인한 뒤에만 쓰므로
+ * 취소/만료된 세션의 해시를 부분적으로 되살리지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class RedisUploadSessionStore implements UploadSessionStore {
+
+    private static final String KEY_PREFIX = "upload:session:";
+    private static final String PART_PREFIX = "part:";
+    private static final String COMPLETING = "completing";
+    private static final String COMPLETED_FILE_ID = "completedFileId";
+
+    // 세션이 있고(fileId), 완료되지 않았고, 살아 있는 completing lease 가 없을 때만 통과
+    private static final String GUARD =
+            "if redis.call('hexists', KEYS[1], 'fileId') == 0 " +
+            "or redis.call('hexists', KEYS[1], 'completedFileId') == 1 then return 0 end " +
+            "local lease = tonumber(redis.call('hget', KEYS[1], 'completing')) " +
+            "if lease and lease > tonumber(ARGV[1]) then return 0 end ";
+
+    // ARGV: now, part 필드, ETag, expiresAt, ttl(ms)
+    private static final RedisScript<Long> PUT_PART_SCRIPT = new DefaultRedisScript<>(GUARD +
+            "redis.call('hset', KEYS[1], ARGV[2], ARGV[3], 'expiresAt', ARGV[4]) " +
+            "redis.call('pexpire', KEYS[1], ARGV[5]) " +
+            "return 1", Long.class);
+
+    // ARGV: now, lease 만료 시각
+    private static final RedisScript<Long> MARK_COMPLETING_SCRIPT = new DefaultRedisScript<>(GUARD +
+            "redis.call('hset', KEYS[1], 'completing', ARGV[2]) " +
+            "return 1", Long.class);
+
+    // ARGV: File ID, ttl(ms)
+    private static final RedisScript<Long> COMPLETE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('hexists', KEYS[1], 'fileId') == 0 then return 0 end " +
+            "redis.call('hset', KEYS[1], 'completedFileId', ARGV[1]) " +
+            "redis.call('hdel', KEYS[1], 'completing') " +
+            "redis.call('pexpire', KEYS[1], ARGV[2]) " +
+            "return 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public void create(UploadSession session, Duration ttl) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("fileId", session.getFileId());
+        fields.put("userId", session.getUserId());
+        fields.put("originalname", session.getOriginalname());
+        fields.put("mimetype", session.getMimetype());
+        fields.put("size", String.valueOf(session.getSize()));
+        fields.put("chunkSize", String.valueOf(session.getChunkSize()));
+        fields.put("s3UploadId", session.getS3UploadId());
+        fields.put("expiresAt", session.getExpiresAt().toString());
+        String key = key(session.getId());
+        redisTemplate.opsForHash().putAll(key, fields);
+        redisTemplate.expire(key, ttl);
+    }
+
+    @Override
+    public Optional<UploadSession> find(String sessionId) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(key(sessionId));
+        if (fields.isEmpty() || !fields.containsKey("fileId")) {
+            return Optional.empty();
+        }
+        return Optional.of(UploadSession.builder()
+                .id(sessionId)
+                .fileId((String) fields.get("fileId"))
+                .userId((String) fields.get("userId"))
+                .originalname((String) fields.get("originalname"))
+                .mimetype((String) fields.get("mimetype"))
+                .size(Long.parseLong((String) fields.get("size")))
+                .chunkSize(Integer.parseInt((String) fields.get("chunkSize")))
+                .s3UploadId((String) fields.get("s3UploadId"))
+                .expiresAt(Instant.parse((String) fields.get("expiresAt")))
+                .completedFileId((String) fields.get(COMPLETED_FILE_ID))
+                .completing(leaseAlive((String) fields.get(COMPLETING)))
+                .build());
+    }
+
+    @Override
+    public boolean putPart(String sessionId, int partNumber, String eTag, Duration ttl) {
+        Long written = redisTemplate.execute(PUT_PART_SCRIPT, List.of(key(sessionId)),
+                String.valueOf(System.currentTimeMillis()), PART_PREFIX + partNumber, eTag,
+                Instant.now().plus(ttl).toString(), String.valueOf(ttl.toMillis()));
+        return written != null && written == 1L;
+    }
+
+    @Override
+    public SortedMap<Integer, String> parts(String sessionId) {
+        SortedMap<Integer, String> parts = new TreeMap<>();
+        redisTemplate.opsForHash().entries(key(sessionId)).forEach((field, value) -> {
+            String name = (String) field;
+            if (name.startsWith(PART_PREFIX)) {
+                parts.put(Integer.parseInt(name.substring(PART_PREFIX.length())), (String) value);
+            }
+        });
+        return parts;
+    }
+
+    @Override
+    public boolean markCompleting(String sessionId, Duration lease) {
+        long now = System.currentTimeMillis();
+        Long marked = redisTemplate.execute(MARK_COMPLETING_SCRIPT, List.of(key(sessionId)),
+                String.valueOf(now), String.valueOf(now + lease.toMillis()));
+        return marked != null && marked == 1L;
+    }
+
+    @Override
+    public void clearCompleting(String sessionId) {
+        redisTemplate.opsForHash().delete(key(sessionId), COMPLETING);
+    }
+
+    @Override
+    public void complete(String sessionId, String fileId, Duration ttl) {
+        redisTemplate.execute(COMPLETE_SCRIPT, List.of(key(sessionId)), fileId, String.valueOf(ttl.toMillis()));
+    }
+
+    @Override
+    public void delete(String sessionId) {
+        redisTemplate.delete(key(sessionId));
+    }
+
+    // 이전 형식("1")이나 지난 lease 는 만료된 것으로 본다
+    private static boolean leaseAlive(String lease) {
+        if (lease == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(lease) > System.currentTimeMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static String key(String sessionId) {
+        return KEY_PREFIX + sessionId;
+    }
+}
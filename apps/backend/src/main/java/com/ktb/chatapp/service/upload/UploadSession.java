@@ -0,0 +1,60 @@
+package com.ktb.chatapp.service.upload;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 이어받기(resumable) 업로드 세션
+ * 파일은 chunkSize 단위 청크로 나뉘고 청크 i 는 S3 multipart 의 파트 i + 1 로 저장된다.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSession {
+
+    private String id;
+
+    /**
+     * 완료 후 만들어질 File ID (S3 키)
+     */
+    private String fileId;
+
+    private String userId;
+
+    private String originalname;
+
+    private String mimetype;
+
+    private long size;
+
+    private int chunkSize;
+
+    private String s3UploadId;
+
+    private Instant expiresAt;
+
+    /**
+     * 완료된 세션이면 만들어진 File ID, 아니면 null
+     */
+    private String completedFileId;
+
+    /**
+     * 완료(또는 취소) 처리 lease 가 살아 있으면 true
+     */
+    private boolean completing;
+
+    public int totalChunks() {
+        return (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+    }
+
+    /**
+     * 청크 i 의 길이 (마지막 청크만 짧을 수 있다)
+     */
+    public int chunkLength(int index) {
+        return (int) Math.min(chunkSize, size - (long) index * chunkSize);
+    }
+}
@@ -0,0 +1,45 @@
+package com.ktb.chatapp.service.upload;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.SortedMap;
+
+/**
+ * 이어받기 업로드 세션 저장소. 세션은 TTL 이 지나면 사라진다.
+ */
+public interface UploadSessionStore {
+
+    void create(UploadSession session, Duration ttl);
+
+    Optional<UploadSession> find(String sessionId);
+
+    /**
+     * 받은 파트를 기록하고 세션 TTL 을 연장한다.
+     * 세션이 없거나(취소/만료) 완료 처리 중이거나 완료된 세션이면 기록하지 않는다.
+     *
+     * @return 기록했으면 true
+     */
+    boolean putPart(String sessionId, int partNumber, String eTag, Duration ttl);
+
+    /**
+     * @return 파트 번호 -> ETag
+     */
+    SortedMap<Integer, String> parts(String sessionId);
+
+    /**
+     * 완료(또는 취소) 처리를 한 요청만 진행하도록 lease 동안 표시한다.
+     * 처리하던 노드가 죽어도 lease 가 지나면 다시 표시할 수 있다.
+     *
+     * @return 세션이 있고 완료 전이며 살아 있는 표시가 없어 새로 표시했으면 true
+     */
+    boolean markCompleting(String sessionId, Duration lease);
+
+    void clearCompleting(String sessionId);
+
+    /**
+     * 완료된 File ID 를 남기고 완료 처리 표시를 지운다. 완료 응답을 못 받은 클라이언트가 다시 완료를 요청하면 같은 파일을 돌려준다.
+     */
+    void complete(String sessionId, String fileId, Duration ttl);
+
+    void delete(String sessionId);
+}
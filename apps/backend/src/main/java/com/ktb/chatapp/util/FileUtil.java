@@ -38,6 +38,19 @@ public class FileUtil {
         "application", 20L * 1024 * 1024 // 20MB (문서)
     );
 
+    private static final Map<String, byte[][]> SIGNATURES = Map.of(
+        "image/jpeg", new byte[][]{{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}},
+        "image/png", new byte[][]{{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}},
+        "image/gif", new byte[][]{{'G', 'I', 'F', '8', '7', 'a'}, {'G', 'I', 'F', '8', '9', 'a'}},
+        "image/webp", new byte[][]{{'R', 'I', 'F', 'F'}},
+        "video/webm", new byte[][]{{0x1A, 0x45, (byte) 0xDF, (byte) 0xA3}},
+        "audio/ogg", new byte[][]{{'O', 'g', 'g', 'S'}},
+        "audio/wav", new byte[][]{{'R', 'I', 'F', 'F'}},
+        "application/pdf", new byte[][]{{'%', 'P', 'D', 'F'}},
+        "application/msword", new byte[][]{{(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0}},
+        "application/vnd.openxmlformats-officedocument.wordprocessingml.document", new byte[][]{{'P', 'K', 0x03, 0x04}}
+    );
+
     private static final SecureRandom secureRandom = new SecureRandom();
 
     /**
@@ -48,7 +61,14 @@ public class FileUtil {
             throw new RuntimeException("파일이 비어있습니다.");
         }
 
-        String originalFilename = file.getOriginalFilename();
+        validateMetadata(file.getOriginalFilename(), file.getContentType());
+        validateSize(file.getContentType(), file.getSize());
+    }
+
+    /**
+     * 파일명/MIME 타입/확장자 검증 (본문을 받기 전에 할 수 있는 검증)
+     */
+    public static void validateMetadata(String originalFilename, String contentType) {
         if (originalFilename == null || originalFilename.trim().isEmpty()) {
             throw new RuntimeException("파일명이 올바르지 않습니다.");
         }
@@ -60,7 +80,6 @@ public class FileUtil {
         }
 
         // MIME 타입 검증
-        String contentType = file.getContentType();
         if (contentType == null || !ALLOWED_TYPES.containsKey(contentType)) {
             throw new RuntimeException("지원하지 않는 파일 형식입니다.");
         }
@@ -72,18 +91,57 @@ public class FileUtil {
             String fileType = getFileType(contentType);
             throw new RuntimeException(fileType + " 확장자가 올바르지 않습니다.");
         }
+    }
 
-        // 타입별 크기 제한 검증
-        String type = contentType.split("/")[0];
-        long limit = FILE_SIZE_LIMITS.getOrDefault(type, FILE_SIZE_LIMITS.get("application"));
-        
-        if (file.getSize() > limit) {
+    /**
+     * 타입별 크기 제한 검증. 스트리밍 업로드에서는 지금까지 받은 크기로 반복 호출한다.
+     */
+    public static void validateSize(String contentType, long size) {
+        long limit = getSizeLimit(contentType);
+        if (size > limit) {
             int limitInMB = (int) (limit / 1024 / 1024);
             String fileType = getFileType(contentType);
             throw new RuntimeException(fileType + " 파일은 " + limitInMB + "MB를 초과할 수 없습니다.");
         }
     }
 
+    /**
+     * 타입별 최대 크기 (바이트)
+     */
+    public static long getSizeLimit(String contentType) {
+        String type = contentType == null ? "" : contentType.split("/")[0];
+        return FILE_SIZE_LIMITS.getOrDefault(type, FILE_SIZE_LIMITS.get("application"));
+    }
+
+    /**
+     * 본문 앞부분의 시그니처(magic number)가 선언된 MIME 타입과 맞는지 검증.
+     * 시그니처를 알 수 없는 타입은 통과시킨다.
+     */
+    public static void validateSignature(String contentType, byte[] head, int length) {
+        byte[][] signatures = SIGNATURES.get(contentType);
+        if (signatures == null) {
+            return;
+        }
+        for (byte[] signature : signatures) {
+            if (startsWith(head, length, signature)) {
+                return;
+            }
+        }
+        throw new RuntimeException(getFileType(contentType) + " 파일 내용이 형식과 일치하지 않습니다.");
+    }
+
+    private static boolean startsWith(byte[] head, int length, byte[] signature) {
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if (head[i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * 파일 타입 한글명 반환
      */
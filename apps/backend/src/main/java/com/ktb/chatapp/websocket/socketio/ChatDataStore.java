@@ -1,6 +1,7 @@
 package com.ktb.chatapp.websocket.socketio;
 
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Data store interface for chat-related data storage.
@@ -33,5 +34,38 @@ public interface ChatDataStore {
      */
     void delete(String key);
     
+    /**
+     * Add a member to the set stored at key, creating the set if needed
+     *
+     * @param key the storage key
+     * @param member the member to add
+     */
+    void addMember(String key, String member);
+    
+    /**
+     * Remove a member from the set stored at key, deleting the set when it becomes empty
+     *
+     * @param key the storage key
+     * @param member the member to remove
+     */
+    void removeMember(String key, String member);
+    
+    /**
+     * Retrieve a snapshot of the set stored at key
+     *
+     * @param key the storage key
+     * @return immutable set of members, empty if the key does not exist
+     */
+    Set<String> members(String key);
+    
+    /**
+     * Check set membership without copying the set
+     *
+     * @param key the storage key
+     * @param member the member to check
+     * @return true if the set at key contains the member
+     */
+    boolean isMember(String key, String member);
+    
     int size();
 }
@@ -0,0 +1,267 @@
+package com.ktb.chatapp.websocket.socketio;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.util.concurrent.FastThreadLocalThread;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 소켓/relay 브로드캐스트용 bounded 실행 단계
+ * 이벤트마다 과부하 정책을 지정해 큐가 찼을 때의 동작을 명시한다.
+ *
+ * <ul>
+ *   <li>{@link Policy#CRITICAL}: 별도 무제한 레인, 절대 버리지 않고 가장 먼저 처리 (세션 종료 등)</li>
+ *   <li>{@link Policy#MERGE_LATEST}: 같은 key 의 대기 작업을 최신 값으로 교체 (방 목록/참가자 갱신)</li>
+ *   <li>{@link Policy#BLOCK_OR_SHED}: bounded 큐에 block-timeout 만큼 대기 후 버리고 카운트 (채팅 메시지).
+ *       netty 이벤트 루프 스레드에서는 기다리지 않고 바로 버린다.</li>
+ * </ul>
+ *
+ * 작업은 key(방 ID 등) 해시로 워커 하나에 고정되어 같은 key 의 작업은 들어온 순서대로 실행된다.
+ * 워커는 소수의 플랫폼 스레드이며 자기 레인에서 CRITICAL -> MERGE_LATEST -> BLOCK_OR_SHED 순으로 꺼낸다.
+ * 종료 시에는 drain-timeout 안에서 대기 중인 작업을 모두 실행하고, 못 끝낸 수를 로그로 남긴다.
+ */
+@Slf4j
+public class EventRelayExecutor {
+
+    public enum Policy { CRITICAL, MERGE_LATEST, BLOCK_OR_SHED }
+
+    private static final int SHED_LOG_INTERVAL = 1000;
+
+    private final Map<String, Task> pendingMerges = new ConcurrentHashMap<>();
+    private final Worker[] workers;
+    // key 없는 작업을 워커에 고르게 나눈다
+    private final AtomicInteger nextWorker = new AtomicInteger();
+    private final long blockTimeoutNanos;
+    private final Duration drainTimeout;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> waitTimers = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    public EventRelayExecutor(int workerCount, int queueCapacity, Duration blockTimeout, MeterRegistry meterRegistry) {
+        this(workerCount, queueCapacity, blockTimeout, Duration.ofSeconds(5), meterRegistry);
+    }
+
+    /**
+     * @param queueCapacity BLOCK_OR_SHED 큐 전체 용량, 워커마다 나눠 갖는다
+     */
+    public EventRelayExecutor(int workerCount, int queueCapacity, Duration blockTimeout, Duration drainTimeout,
+                              MeterRegistry meterRegistry) {
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.drainTimeout = drainTimeout;
+        this.meterRegistry = meterRegistry;
+
+        this.workers = new Worker[Math.max(1, workerCount)];
+        int capacityPerWorker = Math.max(1, queueCapacity / workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(capacityPerWorker);
+            Worker worker = workers[i];
+            worker.thread = new Thread(() -> workLoop(worker), "event-relay-" + i);
+            worker.thread.setDaemon(true);
+            worker.thread.start();
+        }
+
+        registerDepthGauge("critical", worker -> worker.criticalLane);
+        registerDepthGauge("merge", worker -> worker.mergeLane);
+        registerDepthGauge("main", worker -> worker.mainLane);
+        log.info("Event relay executor started with {} workers, queue capacity {} per worker",
+                workers.length, capacityPerWorker);
+    }
+
+    /**
+     * @param type 메트릭 태그로 쓰이는 이벤트 이름
+     * @param key 같은 key 의 작업은 한 워커에서 순서대로 실행된다. MERGE_LATEST 에서는 합칠 기준 키
+     * @return 실행 예약되었으면 true, 버려졌으면 false
+     */
+    public boolean submit(String type, Policy policy, String key, Runnable action) {
+        Task task = new Task(type, policy, action, System.nanoTime());
+        if (!running) {
+            counter("event.relay.rejected", type, "Relay events shed because the queue stayed full").increment();
+            log.warn("Event relay executor is shut down, dropping {}", type);
+            return false;
+        }
+        Worker worker = workerFor(key);
+        return switch (policy) {
+            case CRITICAL -> {
+                worker.criticalLane.add(task);
+                worker.ready.release();
+                yield true;
+            }
+            case MERGE_LATEST -> {
+                merge(worker, key, task);
+                yield true;
+            }
+            case BLOCK_OR_SHED -> offerOrShed(worker, task);
+        };
+    }
+
+    private Worker workerFor(String key) {
+        int index = key != null
+                ? Math.floorMod(key.hashCode(), workers.length)
+                : Math.floorMod(nextWorker.getAndIncrement(), workers.length);
+        return workers[index];
+    }
+
+    private void merge(Worker worker, String mergeKey, Task task) {
+        boolean[] fresh = new boolean[1];
+        pendingMerges.compute(mergeKey, (key, existing) -> {
+            if (existing == null) {
+                fresh[0] = true;
+                return task;
+            }
+            // 대기 시간은 처음 들어온 시점 기준으로 유지
+            return new Task(task.type(), task.policy(), task.action(), existing.enqueuedAt());
+        });
+        if (fresh[0]) {
+            worker.mergeLane.add(mergeKey);
+            worker.ready.release();
+        } else {
+            counter("event.relay.merged", task.type(), "Relay events replaced by a newer value before running").increment();
+        }
+    }
+
+    private boolean offerOrShed(Worker worker, Task task) {
+        try {
+            // netty 이벤트 루프를 붙잡으면 다른 소켓 처리까지 밀리므로 기다리지 않는다
+            boolean mayBlock = blockTimeoutNanos > 0 && !(Thread.currentThread() instanceof FastThreadLocalThread);
+            if (worker.mainLane.offer(task)
+                    || (mayBlock && worker.mainLane.offer(task, blockTimeoutNanos, TimeUnit.NANOSECONDS))) {
+                worker.ready.release();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Counter shed = counter("event.relay.rejected", task.type(), "Relay events shed because the queue stayed full");
+        shed.increment();
+        if ((long) shed.count() % SHED_LOG_INTERVAL == 1) {
+            log.warn("Event relay queue full, shedding {} - total shed: {}", task.type(), (long) shed.count());
+        }
+        return false;
+    }
+
+    private void workLoop(Worker worker) {
+        while (true) {
+            try {
+                worker.ready.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            Task task = worker.next();
+            if (task != null) {
+                run(task);
+            } else if (!running) {
+                // shutdown 이 넣은 마지막 permit, 앞선 작업은 모두 실행했다
+                return;
+            }
+        }
+    }
+
+    private void run(Task task) {
+        waitTimer(task.policy()).record(System.nanoTime() - task.enqueuedAt(), TimeUnit.NANOSECONDS);
+        try {
+            task.action().run();
+        } catch (Exception e) {
+            log.error("Event relay task failed - type: {}", task.type(), e);
+        }
+    }
+
+    /**
+     * 새 작업을 더 받지 않고, drain-timeout 안에서 대기 중인 작업을 모두 실행한 뒤 워커를 멈춘다.
+     */
+    public void shutdown() {
+        running = false;
+        for (Worker worker : workers) {
+            worker.ready.release();
+        }
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        int dropped = 0;
+        for (Worker worker : workers) {
+            try {
+                worker.thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (worker.thread.isAlive()) {
+                worker.thread.interrupt();
+            }
+            // 시간 안에 못 돈 작업과 종료 직전에 들어온 작업
+            dropped += worker.depth();
+        }
+        if (dropped > 0) {
+            log.warn("Event relay executor stopped with {} queued events not delivered", dropped);
+        }
+    }
+
+    private void registerDepthGauge(String lane, Function<Worker, BlockingQueue<?>> queue) {
+        Gauge.builder("event.relay.queue.depth", workers, all -> {
+                    int depth = 0;
+                    for (Worker worker : all) {
+                        depth += queue.apply(worker).size();
+                    }
+                    return depth;
+                })
+                .description("Pending relay events per lane")
+                .tag("lane", lane)
+                .register(meterRegistry);
+    }
+
+    private Timer waitTimer(Policy policy) {
+        return waitTimers.computeIfAbsent(policy.name(), lane -> Timer.builder("event.relay.wait")
+                .description("Time relay events spend queued before a worker runs them")
+                .tag("policy", lane.toLowerCase())
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private Counter counter(String name, String type, String description) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private record Task(String type, Policy policy, Runnable action, long enqueuedAt) {
+    }
+
+    private final class Worker {
+        private final BlockingQueue<Task> criticalLane = new LinkedBlockingQueue<>();
+        private final BlockingQueue<String> mergeLane = new LinkedBlockingQueue<>();
+        private final BlockingQueue<Task> mainLane;
+        // 세 레인에 들어간 작업 수, permit 하나당 작업 하나를 꺼낸다
+        private final Semaphore ready = new Semaphore(0);
+        private Thread thread;
+
+        private Worker(int capacity) {
+            this.mainLane = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private Task next() {
+            Task task = criticalLane.poll();
+            if (task != null) {
+                return task;
+            }
+            String mergeKey = mergeLane.poll();
+            if (mergeKey != null) {
+                return pendingMerges.remove(mergeKey);
+            }
+            return mainLane.poll();
+        }
+
+        private int depth() {
+            return criticalLane.size() + mergeLane.size() + mainLane.size();
+        }
+    }
+}
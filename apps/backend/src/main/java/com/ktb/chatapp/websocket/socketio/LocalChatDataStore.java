@@ -1,6 +1,7 @@
 package com.ktb.chatapp.websocket.socketio;
 
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -35,8 +36,44 @@ public class LocalChatDataStore implements ChatDataStore {
         storage.remove(key);
     }
     
+    @Override
+    public void addMember(String key, String member) {
+        storage.compute(key, (k, existing) -> {
+            Set<String> set = existing instanceof Set<?> ? castSet(existing) : ConcurrentHashMap.newKeySet();
+            set.add(member);
+            return set;
+        });
+    }
+    
+    @Override
+    public void removeMember(String key, String member) {
+        storage.computeIfPresent(key, (k, existing) -> {
+            if (!(existing instanceof Set<?>)) {
+                return existing;
+            }
+            Set<String> set = castSet(existing);
+            set.remove(member);
+            return set.isEmpty() ? null : set;
+        });
+    }
+    
+    @Override
+    public Set<String> members(String key) {
+        return storage.get(key) instanceof Set<?> set ? Set.copyOf(castSet(set)) : Set.of();
+    }
+    
+    @Override
+    public boolean isMember(String key, String member) {
+        return storage.get(key) instanceof Set<?> set && set.contains(member);
+    }
+    
     @Override
     public int size() {
         return storage.size();
     }
+    
+    @SuppressWarnings("unchecked")
+    private static Set<String> castSet(Object value) {
+        return (Set<String>) value;
+    }
 }
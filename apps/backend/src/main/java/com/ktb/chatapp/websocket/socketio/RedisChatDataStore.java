@@ -0,0 +1,253 @@
+package com.ktb.chatapp.websocket.socketio;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import static com.ktb.chatapp.config.RedisConfig.SERVER_ID;
+
+/**
+ * Redis implementation of ChatDataStore shared by every node in the cluster.
+ * Each value is its own key with its own TTL (e.g. {@code chat:data:value:conn_users:userid:<userId>}),
+ * so entries left behind by a crashed node expire on their own. Set members live in Redis sets.
+ * Reads are served from a local near-cache that is invalidated through a pub/sub channel whenever
+ * any node writes a key; a short entry TTL bounds staleness if an invalidation message is lost
+ * while the subscriber reconnects.
+ */
+@Slf4j
+public class RedisChatDataStore implements ChatDataStore, MessageListener {
+
+    static final String KEY_PREFIX = "chat:data:";
+    static final String VALUE_KEY_PREFIX = "chat:data:value:";
+    static final String INVALIDATION_CHANNEL = "chat:data:invalidate";
+    private static final char SEPARATOR = '|';
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration keyTtl;
+    private final long nearCacheTtlMillis;
+    private final int nearCacheMaxSize;
+
+    private final ConcurrentHashMap<String, NearEntry> nearCache = new ConcurrentHashMap<>();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter invalidationCounter;
+
+    public RedisChatDataStore(
+            StringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper,
+            RedisMessageListenerContainer listenerContainer,
+            MeterRegistry meterRegistry,
+            Duration keyTtl,
+            Duration nearCacheTtl,
+            int nearCacheMaxSize) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.keyTtl = keyTtl;
+        this.nearCacheTtlMillis = nearCacheTtl.toMillis();
+        this.nearCacheMaxSize = nearCacheMaxSize;
+
+        this.hitCounter = Counter.builder("chat.datastore.near_cache.requests")
+                .description("ChatDataStore near-cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("chat.datastore.near_cache.requests")
+                .description("ChatDataStore near-cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.invalidationCounter = Counter.builder("chat.datastore.near_cache.invalidations")
+                .description("Near-cache entries invalidated by writes from other nodes")
+                .register(meterRegistry);
+        Gauge.builder("chat.datastore.near_cache.size", nearCache, ConcurrentHashMap::size)
+                .description("Entries held in the ChatDataStore near-cache")
+                .register(meterRegistry);
+
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    @Override
+    public <T> Optional<T> get(String key, Class<T> type) {
+        NearEntry cached = lookup(key);
+        if (cached != null && (cached.value() == null || type.isInstance(cached.value()))) {
+            return Optional.ofNullable(type.cast(cached.value()));
+        }
+
+        NearEntry token = beginLoad(key);
+        String json = redisTemplate.opsForValue().get(VALUE_KEY_PREFIX + key);
+        T value = json == null ? null : decode(json, type);
+        completeLoad(key, token, value);
+        return Optional.ofNullable(value);
+    }
+
+    @Override
+    public void set(String key, Object value) {
+        redisTemplate.opsForValue().set(VALUE_KEY_PREFIX + key, encode(value), keyTtl);
+        invalidate(key);
+    }
+
+    @Override
+    public void delete(String key) {
+        redisTemplate.delete(List.of(VALUE_KEY_PREFIX + key, KEY_PREFIX + key));
+        invalidate(key);
+    }
+
+    @Override
+    public void addMember(String key, String member) {
+        String setKey = KEY_PREFIX + key;
+        redisTemplate.opsForSet().add(setKey, member);
+        redisTemplate.expire(setKey, keyTtl);
+        invalidate(key);
+    }
+
+    @Override
+    public void removeMember(String key, String member) {
+        // 마지막 멤버가 빠지면 Redis가 빈 set 키를 자동으로 제거한다
+        redisTemplate.opsForSet().remove(KEY_PREFIX + key, member);
+        invalidate(key);
+    }
+
+    @Override
+    public Set<String> members(String key) {
+        return loadMembers(key);
+    }
+
+    @Override
+    public boolean isMember(String key, String member) {
+        return loadMembers(key).contains(member);
+    }
+
+    /**
+     * Redis 에 살아 있는 값 키 수 (TTL 로 만료된 키는 빠진다). SCAN 으로 세므로 게이지처럼 자주 부르지 않는다.
+     */
+    @Override
+    public int size() {
+        ScanOptions options = ScanOptions.scanOptions().match(VALUE_KEY_PREFIX + "*").count(1000).build();
+        int count = 0;
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                cursor.next();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(SEPARATOR);
+        if (separator < 0 || body.startsWith(SERVER_ID + SEPARATOR)) {
+            return;
+        }
+        evict(body.substring(separator + 1));
+        invalidationCounter.increment();
+    }
+
+    private Set<String> loadMembers(String key) {
+        NearEntry cached = lookup(key);
+        if (cached != null && (cached.value() == null || cached.value() instanceof Set<?>)) {
+            return cached.value() == null ? Set.of() : castSet(cached.value());
+        }
+
+        NearEntry token = beginLoad(key);
+        Set<String> members = redisTemplate.opsForSet().members(KEY_PREFIX + key);
+        Set<String> snapshot = members == null || members.isEmpty() ? Set.of() : Set.copyOf(members);
+        completeLoad(key, token, snapshot.isEmpty() ? null : snapshot);
+        return snapshot;
+    }
+
+    private NearEntry lookup(String key) {
+        NearEntry entry = nearCache.get(key);
+        if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+            hitCounter.increment();
+            return entry;
+        }
+        missCounter.increment();
+        return null;
+    }
+
+    // 읽기 전에 키마다 로드 표시를 넣어 두고, 읽는 사이 그 키가 무효화되어 표시가 지워졌으면 결과를 올리지 않는다
+    private NearEntry beginLoad(String key) {
+        if (nearCache.size() >= nearCacheMaxSize) {
+            nearCache.clear();
+        }
+        NearEntry token = NearEntry.loading();
+        nearCache.put(key, token);
+        return token;
+    }
+
+    private void completeLoad(String key, NearEntry token, Object value) {
+        nearCache.replace(key, token, new NearEntry(value, System.currentTimeMillis() + nearCacheTtlMillis));
+    }
+
+    private void invalidate(String key) {
+        evict(key);
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, SERVER_ID + SEPARATOR + key);
+        } catch (Exception e) {
+            log.warn("Failed to publish near-cache invalidation - key: {}, error: {}", key, e.getMessage());
+        }
+    }
+
+    private void evict(String key) {
+        nearCache.remove(key);
+    }
+
+    private String encode(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new IllegalStateException("ChatDataStore 값 직렬화 실패: " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private <T> T decode(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (Exception e) {
+            log.warn("Failed to decode ChatDataStore value as {}: {}", type.getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> castSet(Object value) {
+        return (Set<String>) value;
+    }
+
+    // 로드 표시는 인스턴스로 구분해야 하므로 record 대신 동일성 비교를 쓰는 클래스로 둔다
+    private static final class NearEntry {
+        private final Object value;
+        private final long expiresAt;
+
+        private NearEntry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        // 이미 만료된 항목이라 조회에는 미스로 보인다
+        static NearEntry loading() {
+            return new NearEntry(null, 0);
+        }
+
+        Object value() {
+            return value;
+        }
+    }
+}
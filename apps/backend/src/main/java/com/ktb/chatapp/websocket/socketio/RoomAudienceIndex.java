@@ -0,0 +1,128 @@
+package com.ktb.chatapp.websocket.socketio;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 이 노드에 접속한 사용자 기준의 양방향 인덱스 (user -> rooms, room -> local users)
+ * 조회는 락 없이 ConcurrentHashMap과 concurrent set만 읽고,
+ * 쓰기는 userId 스트라이프 락으로 같은 사용자의 양방향 갱신을 원자적으로 묶는다.
+ * relay 구독 여부나 fan-out 전략처럼 "이 노드에 방 X의 청중이 있는가"를 O(1)로 답하는 데 사용한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "socketio.enabled", havingValue = "true", matchIfMissing = true)
+public class RoomAudienceIndex {
+
+    private static final int STRIPES = 64;
+
+    private final Map<String, Set<String>> roomsByUser = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> usersByRoom = new ConcurrentHashMap<>();
+    private final Map<String, Gauge> audienceGauges = new ConcurrentHashMap<>();
+    private final Object[] stripes = new Object[STRIPES];
+    private final MeterRegistry meterRegistry;
+
+    public RoomAudienceIndex(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+
+        Gauge.builder("socketio.rooms.local.active", usersByRoom, Map::size)
+                .description("Rooms with at least one user connected to this node")
+                .register(meterRegistry);
+    }
+
+    public void add(String userId, String roomId) {
+        synchronized (stripeOf(userId)) {
+            roomsByUser.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(roomId);
+            // 다른 사용자의 detachFromRoom 이 빈 집합을 지우는 것과 겹치지 않게 compute 안에서 넣는다
+            usersByRoom.compute(roomId, (key, users) -> {
+                Set<String> audience = users != null ? users : newAudience(key);
+                audience.add(userId);
+                return audience;
+            });
+        }
+    }
+
+    public void remove(String userId, String roomId) {
+        synchronized (stripeOf(userId)) {
+            roomsByUser.computeIfPresent(userId, (key, rooms) -> {
+                rooms.remove(roomId);
+                return rooms.isEmpty() ? null : rooms;
+            });
+            detachFromRoom(userId, roomId);
+        }
+    }
+
+    public void removeUser(String userId) {
+        synchronized (stripeOf(userId)) {
+            Set<String> rooms = roomsByUser.remove(userId);
+            if (rooms != null) {
+                rooms.forEach(roomId -> detachFromRoom(userId, roomId));
+            }
+        }
+    }
+
+    public boolean isInRoom(String userId, String roomId) {
+        Set<String> rooms = roomsByUser.get(userId);
+        return rooms != null && rooms.contains(roomId);
+    }
+
+    public Set<String> roomsOf(String userId) {
+        Set<String> rooms = roomsByUser.get(userId);
+        return rooms != null ? Collections.unmodifiableSet(rooms) : Set.of();
+    }
+
+    public Set<String> localUsersIn(String roomId) {
+        Set<String> users = usersByRoom.get(roomId);
+        return users != null ? Collections.unmodifiableSet(users) : Set.of();
+    }
+
+    public int localAudience(String roomId) {
+        Set<String> users = usersByRoom.get(roomId);
+        return users != null ? users.size() : 0;
+    }
+
+    public boolean hasLocalAudience(String roomId) {
+        return usersByRoom.containsKey(roomId);
+    }
+
+    private void detachFromRoom(String userId, String roomId) {
+        usersByRoom.computeIfPresent(roomId, (key, users) -> {
+            users.remove(userId);
+            if (users.isEmpty()) {
+                removeGauge(roomId);
+                return null;
+            }
+            return users;
+        });
+    }
+
+    private Set<String> newAudience(String roomId) {
+        Set<String> users = ConcurrentHashMap.newKeySet();
+        audienceGauges.put(roomId, Gauge.builder("socketio.room.local.audience", users, Set::size)
+                .description("Users in the room connected to this node")
+                .tag("roomId", roomId)
+                .register(meterRegistry));
+        return users;
+    }
+
+    private void removeGauge(String roomId) {
+        Gauge gauge = audienceGauges.remove(roomId);
+        if (gauge != null) {
+            meterRegistry.remove(gauge);
+        }
+    }
+
+    private Object stripeOf(String userId) {
+        return stripes[Math.floorMod(userId.hashCode(), STRIPES)];
+    }
+}
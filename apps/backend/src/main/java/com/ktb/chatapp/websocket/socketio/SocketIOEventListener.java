@@ -1,23 +1,20 @@
 package com.ktb.chatapp.websocket.socketio;
 
 import com.corundumstudio.socketio.SocketIOServer;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ktb.chatapp.config.RedisConfig;
 import com.ktb.chatapp.event.*;
+import java.util.HashMap;
 import java.util.Map;
 
 import com.ktb.chatapp.redis.ChatRedisPublisher;
-import com.ktb.chatapp.redis.message.ChatBroadcastMessage;
+import com.ktb.chatapp.websocket.socketio.EventRelayExecutor.Policy;
+import com.ktb.chatapp.websocket.socketio.ai.AiStreamRelay;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.event.EventListener;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
-import static com.ktb.chatapp.config.RedisConfig.CHANNEL;
-import static com.ktb.chatapp.config.RedisConfig.SERVER_ID;
 import static com.ktb.chatapp.websocket.socketio.SocketIOEvents.*;
 
 @Slf4j
@@ -28,65 +25,93 @@ public class SocketIOEventListener {
 
     private final SocketIOServer socketIOServer;
     private final ChatRedisPublisher chatRedisPublisher;
-    private final ObjectMapper objectMapper;
     private final RedisConfig redisConfig;
-    private final StringRedisTemplate stringRedisTemplate;
+    private final EventRelayExecutor eventRelayExecutor;
+    private final AiStreamRelay aiStreamRelay;
 
-    @Async("eventRelayExecutor")
+    /**
+     * 세션 종료는 누락되면 안 되므로 CRITICAL 레인으로 보낸다.
+     */
     @EventListener
     public void handleSessionEndedEvent(SessionEndedEvent event) {
-        try {
-            socketIOServer.getRoomOperations("user:" + event.getUserId())
-                    .sendEvent("session_ended", Map.of(
-                            "reason", event.getReason(),
-                            "message", event.getMessage()
-                    ));
-            chatRedisPublisher.publish(
-                "user:" + event.getUserId(),
-                "session_ended",
-                Map.of(
-                "reason", event.getReason(),
-                "message", event.getMessage()
-            ));
-            log.info("session_ended 이벤트 발송: userId={}, reason={}", event.getUserId(), event.getReason());
-        } catch (Exception e) {
-            log.error("session_ended 이벤트 발송 실패: userId={}", event.getUserId(), e);
-        }
+        eventRelayExecutor.submit(SESSION_ENDED, Policy.CRITICAL, "user:" + event.getUserId(), () -> {
+            try {
+                Map<String, Object> data = Map.of(
+                        "reason", event.getReason(),
+                        "message", event.getMessage()
+                );
+                socketIOServer.getRoomOperations("user:" + event.getUserId()).sendEvent(SESSION_ENDED, data);
+                chatRedisPublisher.publish("user:" + event.getUserId(), SESSION_ENDED, data);
+                log.info("session_ended 이벤트 발송: userId={}, reason={}", event.getUserId(), event.getReason());
+            } catch (Exception e) {
+                log.error("session_ended 이벤트 발송 실패: userId={}", event.getUserId(), e);
+            }
+        });
     }
 
-    @Async("eventRelayExecutor")
     @EventListener
     public void handleRoomCreatedEvent(RoomCreatedEvent event) {
-        try {
-            socketIOServer.getRoomOperations("room-list").sendEvent(ROOM_CREATED, event.getRoomResponse());
-            chatRedisPublisher.publish("room-list", ROOM_CREATED, event.getRoomResponse());
-            log.info("roomCreated 이벤트 발송: roomId={}", event.getRoomResponse().getId());
-        } catch (Exception e) {
-            log.error("roomCreated 이벤트 발송 실패", e);
-        }
+        String roomId = event.getRoomResponse().getId();
+        eventRelayExecutor.submit(ROOM_CREATED, Policy.MERGE_LATEST, ROOM_CREATED + ":" + roomId, () -> {
+            try {
+                socketIOServer.getRoomOperations("room-list").sendEvent(ROOM_CREATED, event.getRoomResponse());
+                chatRedisPublisher.publish("room-list", ROOM_CREATED, event.getRoomResponse());
+                log.info("roomCreated 이벤트 발송: roomId={}", roomId);
+            } catch (Exception e) {
+                log.error("roomCreated 이벤트 발송 실패", e);
+            }
+        });
     }
 
-    @Async("eventRelayExecutor")
     @EventListener
     public void handleRoomUpdatedEvent(RoomUpdatedEvent event) {
-        try {
-            socketIOServer.getRoomOperations(event.getRoomId()).sendEvent(ROOM_UPDATE, event.getRoomResponse());
-            chatRedisPublisher.publish(event.getRoomId(), ROOM_UPDATE, event.getRoomResponse());
-            log.info("roomUpdate 이벤트 발송: roomId={}", event.getRoomId());
-        } catch (Exception e) {
-            log.error("roomUpdate 이벤트 발송 실패: roomId={}", event.getRoomId(), e);
-        }
+        eventRelayExecutor.submit(ROOM_UPDATE, Policy.MERGE_LATEST, ROOM_UPDATE + ":" + event.getRoomId(), () -> {
+            try {
+                socketIOServer.getRoomOperations(event.getRoomId()).sendEvent(ROOM_UPDATE, event.getRoomResponse());
+                chatRedisPublisher.publish(event.getRoomId(), ROOM_UPDATE, event.getRoomResponse());
+                log.info("roomUpdate 이벤트 발송: roomId={}", event.getRoomId());
+            } catch (Exception e) {
+                log.error("roomUpdate 이벤트 발송 실패: roomId={}", event.getRoomId(), e);
+            }
+        });
     }
 
-    @Async("eventRelayExecutor")
+    /**
+     * 같은 방의 relay 는 같은 워커에서 순서대로 publish 되도록 roomId 를 key 로 넘긴다.
+     */
     @EventListener
     public void handleRedisBroadcast(RedisBroadcastEvent event) {
+        Policy policy = relayPolicyOf(event.event());
+        String key = policy == Policy.MERGE_LATEST ? event.event() + ":" + event.roomId() : event.roomId();
+        eventRelayExecutor.submit(event.event(), policy, key,
+                () -> chatRedisPublisher.publish(event.roomId(), event.event(), event.payload()));
+    }
+
+    /**
+     * 참가자/방 정보는 최신 값만 의미가 있어 병합하고, 세션 관련 알림은 버리지 않는다.
+     * 채팅 메시지 등 나머지는 잠깐 대기 후 버린다(버린 수는 event.relay.rejected 로 노출).
+     */
+    static Policy relayPolicyOf(String event) {
+        return switch (event) {
+            case SESSION_ENDED, DUPLICATE_LOGIN -> Policy.CRITICAL;
+            case PARTICIPANTS_UPDATE, ROOM_UPDATE -> Policy.MERGE_LATEST;
+            default -> Policy.BLOCK_OR_SHED;
+        };
+    }
+
+    @EventListener
+    public void handleAiMessageQueuedEvent(AiMessageQueuedEvent event) {
         try {
-            String payloadJson = objectMapper.writeValueAsString(event.payload());
-            ChatBroadcastMessage msg = new ChatBroadcastMessage(SERVER_ID, event.roomId(), event.event(), payloadJson);
-            stringRedisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(msg));
+            Map<String, Object> data = Map.of(
+                "messageId", event.getMessageId(),
+                "aiType", event.getAiType(),
+                "position", event.getPosition()
+            );
+            socketIOServer.getRoomOperations(event.getRoomId())
+                    .sendEvent(AI_MESSAGE_QUEUED, data);
+            aiStreamRelay.publish(event.getRoomId(), event.getMessageId(), AI_MESSAGE_QUEUED, data);
         } catch (Exception e) {
-            log.error(e.getMessage(), e);
+            log.error("aiMessageQueued 이벤트 발송 실패: roomId={}", event.getRoomId(), e);
         }
     }
 
@@ -100,6 +125,7 @@ public class SocketIOEventListener {
             );
             socketIOServer.getRoomOperations(event.getRoomId())
                     .sendEvent(AI_MESSAGE_START, data);
+            aiStreamRelay.publish(event.getRoomId(), event.getMessageId(), AI_MESSAGE_START, data);
             log.info("aiMessageStart 이벤트 발송: roomId={}, messageId={}",
                     event.getRoomId(), event.getMessageId());
         } catch (Exception e) {
@@ -110,14 +136,19 @@ public class SocketIOEventListener {
     @EventListener
     public void handleAiMessageChunkEvent(AiMessageChunkEvent event) {
         try {
-            Map<String, Object> data = Map.of(
-                "messageId", event.getMessageId(),
-                "fullContent", event.getFullContent(),
-                "isCodeBlock", event.isCodeBlock(),
-                "isComplete", false
-            );
+            Map<String, Object> data = new HashMap<>();
+            data.put("messageId", event.getMessageId());
+            data.put("seq", event.getSeq());
+            data.put("delta", event.getDelta());
+            data.put("isCodeBlock", event.isCodeBlock());
+            data.put("isComplete", false);
+            if (event.isCheckpoint()) {
+                data.put("fullContent", event.getFullContent());
+            }
             socketIOServer.getRoomOperations(event.getRoomId())
                     .sendEvent(AI_MESSAGE_CHUNK, data);
+            // 다른 노드로는 청크를 모아 프레임 단위로 보낸다
+            aiStreamRelay.chunk(event);
         } catch (Exception e) {
             log.error("aiMessageChunk 이벤트 발송 실패: roomId={}", event.getRoomId(), e);
         }
@@ -129,12 +160,14 @@ public class SocketIOEventListener {
         try {
             Map<String, Object> data = Map.of(
                 "_id", event.getSavedMessageId(),
+                "messageId", event.getMessageId(),
                 "content", event.getContent(),
                 "aiType", event.getAiType(),
                 "timestamp", event.getStartTime()
             );
             socketIOServer.getRoomOperations(event.getRoomId())
                     .sendEvent(AI_MESSAGE_COMPLETE, data);
+            aiStreamRelay.publish(event.getRoomId(), event.getMessageId(), AI_MESSAGE_COMPLETE, data);
             log.info("aiMessageComplete 이벤트 발송: roomId={}, messageId={}",
                     event.getRoomId(), event.getSavedMessageId());
         } catch (Exception e) {
@@ -152,6 +185,7 @@ public class SocketIOEventListener {
             );
             socketIOServer.getRoomOperations(event.getRoomId())
                     .sendEvent(AI_MESSAGE_ERROR, data);
+            aiStreamRelay.publish(event.getRoomId(), event.getMessageId(), AI_MESSAGE_ERROR, data);
             log.error("aiMessageError 이벤트 발송: roomId={}, messageId={}, error={}",
                     event.getRoomId(), event.getMessageId(), event.getErrorMessage());
         } catch (Exception e) {
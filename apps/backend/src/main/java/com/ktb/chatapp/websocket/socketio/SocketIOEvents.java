@@ -35,6 +35,12 @@ public final class SocketIOEvents {
      */
     public static final String FETCH_PREVIOUS_MESSAGES = "fetchPreviousMessages";
 
+    /**
+     * 재연결 후 놓친 메시지 요청 (relay 스트림에서 조회)
+     * Payload: { roomId, after }
+     */
+    public static final String RESUME_MESSAGES = "resumeMessages";
+
     /**
      * 메시지 읽음 처리
      * Payload: { roomId, messageIds }
@@ -81,6 +87,12 @@ public final class SocketIOEvents {
      */
     public static final String PREVIOUS_MESSAGES_LOADED = "previousMessagesLoaded";
 
+    /**
+     * 놓친 메시지 재전송 완료
+     * Payload: { roomId, messages, complete }
+     */
+    public static final String MESSAGES_RESUMED = "messagesResumed";
+
     /**
      * 메시지 로드 시작
      */
@@ -145,6 +157,12 @@ public final class SocketIOEvents {
     // AI Streaming Events
     // ============================================
 
+    /**
+     * AI 스트리밍 대기 (동시 스트림 한도 초과, 순서가 바뀔 때마다 다시 전송)
+     * Payload: { messageId, aiType, position }
+     */
+    public static final String AI_MESSAGE_QUEUED = "aiMessageQueued";
+
     /**
      * AI 스트리밍 시작
      * Payload: { messageId, aiType, timestamp }
@@ -153,7 +171,7 @@ public final class SocketIOEvents {
 
     /**
      * AI 스트리밍 청크
-     * Payload: { messageId, currentChunk, fullContent, isCodeBlock, timestamp, aiType, isComplete }
+     * Payload: { messageId, seq, delta, fullContent(체크포인트만), fromSeq(relay 프레임만), isCodeBlock, isComplete }
      */
     public static final String AI_MESSAGE_CHUNK = "aiMessageChunk";
 
@@ -1,6 +1,5 @@
 package com.ktb.chatapp.websocket.socketio;
 
-import java.util.HashSet;
 import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -14,6 +13,7 @@ public class UserRooms {
     private static final String USER_ROOM_KEY_PREFIX = "userroom:roomids:";
 
     private final ChatDataStore chatDataStore;
+    private final RoomAudienceIndex roomAudienceIndex;
 
     /**
      * Get all room IDs for a user
@@ -21,11 +21,8 @@ public class UserRooms {
      * @param userId the user ID
      * @return the set of room IDs the user is currently in, or empty set if not in any room
      */
-    @SuppressWarnings("unchecked")
     public Set<String> get(String userId) {
-        return chatDataStore.get(buildKey(userId), Set.class)
-                .map(obj -> (Set<String>) obj)
-                .orElse(new HashSet<>());
+        return chatDataStore.members(buildKey(userId));
     }
 
     /**
@@ -35,9 +32,27 @@ public class UserRooms {
      * @param roomId the room ID to add to the user's room set
      */
     public void add(String userId, String roomId) {
-        Set<String> rooms = new HashSet<>(get(userId));
-        rooms.add(roomId);
-        chatDataStore.set(buildKey(userId), rooms);
+        chatDataStore.addMember(buildKey(userId), roomId);
+        roomAudienceIndex.add(userId, roomId);
+    }
+
+    /**
+     * Record that a user already in the room has (re)joined it through a socket on this node
+     *
+     * @param userId the user ID
+     * @param roomId the room ID
+     */
+    public void attachLocal(String userId, String roomId) {
+        roomAudienceIndex.add(userId, roomId);
+    }
+
+    /**
+     * Drop a user from the local index when their socket on this node goes away
+     *
+     * @param userId the user ID
+     */
+    public void detachLocal(String userId) {
+        roomAudienceIndex.removeUser(userId);
     }
 
     /**
@@ -47,13 +62,8 @@ public class UserRooms {
      * @param roomId the room ID to remove
      */
     public void remove(String userId, String roomId) {
-        Set<String> rooms = new HashSet<>(get(userId));
-        rooms.remove(roomId);
-        if (rooms.isEmpty()) {
-            chatDataStore.delete(buildKey(userId));
-        } else {
-            chatDataStore.set(buildKey(userId), rooms);
-        }
+        chatDataStore.removeMember(buildKey(userId), roomId);
+        roomAudienceIndex.remove(userId, roomId);
     }
 
     /**
@@ -63,17 +73,20 @@ public class UserRooms {
      */
     public void clear(String userId) {
         chatDataStore.delete(buildKey(userId));
+        roomAudienceIndex.removeUser(userId);
     }
 
     /**
      * Check if a user is in a specific room
+     * Users connected to this node are answered from the local index without touching the store
      *
      * @param userId the user ID
      * @param roomId the room ID to check
      * @return true if the user is in the room, false otherwise
      */
     public boolean isInRoom(String userId, String roomId) {
-        return get(userId).contains(roomId);
+        return roomAudienceIndex.isInRoom(userId, roomId)
+                || chatDataStore.isMember(buildKey(userId), roomId);
     }
 
     private String buildKey(String userId) {
@@ -0,0 +1,138 @@
+package com.ktb.chatapp.websocket.socketio.ai;
+
+import com.ktb.chatapp.dto.ActiveStreamResponse;
+import com.ktb.chatapp.websocket.socketio.handler.StreamingSession;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import static com.ktb.chatapp.websocket.socketio.SocketIOEvents.*;
+
+/**
+ * 진행 중인 AI 스트리밍 세션 목록 (방 단위)
+ * 방 입장 시 DB 조회 없이 진행 중인 답변의 현재 내용을 내려주기 위해 사용한다.
+ * 이 노드의 스트림과 함께, 다른 노드에서 relay 된 시작/청크/완료 이벤트로 원격 스트림도 따라간다.
+ */
+@Component
+@ConditionalOnProperty(name = "socketio.enabled", havingValue = "true", matchIfMissing = true)
+public class ActiveStreamRegistry {
+
+    private final Map<String, Map<String, StreamingSession>> streamsByRoom = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, StreamingSession>> remoteStreamsByRoom = new ConcurrentHashMap<>();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final Duration remoteTimeout;
+
+    public ActiveStreamRegistry(
+            MeterRegistry meterRegistry,
+            @Value("${ai.stream.remote-timeout:PT2M}") Duration remoteTimeout) {
+        this.remoteTimeout = remoteTimeout;
+        Gauge.builder("ai.streams.active", activeCount, AtomicInteger::get)
+                .description("AI streaming sessions in progress on this node")
+                .register(meterRegistry);
+    }
+
+    public void register(StreamingSession session) {
+        streamsByRoom.computeIfAbsent(session.getRoomId(), k -> new ConcurrentHashMap<>())
+                .put(session.getMessageId(), session);
+        activeCount.incrementAndGet();
+    }
+
+    public void remove(StreamingSession session) {
+        streamsByRoom.computeIfPresent(session.getRoomId(), (roomId, streams) -> {
+            if (streams.remove(session.getMessageId()) != null) {
+                activeCount.decrementAndGet();
+            }
+            return streams.isEmpty() ? null : streams;
+        });
+    }
+
+    /**
+     * 다른 노드에서 relay 된 AI 스트리밍 이벤트로 원격 스트림 상태를 갱신한다.
+     */
+    public void applyRelayed(String roomId, String event, Map<?, ?> payload) {
+        Object messageId = payload.get("messageId");
+        if (messageId == null) {
+            return;
+        }
+        String id = messageId.toString();
+        switch (event) {
+            case AI_MESSAGE_START -> remoteStreamsByRoom
+                    .computeIfAbsent(roomId, k -> new ConcurrentHashMap<>())
+                    .put(id, StreamingSession.builder()
+                            .messageId(id)
+                            .roomId(roomId)
+                            .aiType(String.valueOf(payload.get("aiType")))
+                            .timestamp(payload.get("timestamp") instanceof Number ts ? ts.longValue() : System.currentTimeMillis())
+                            .build());
+            case AI_MESSAGE_CHUNK -> {
+                Map<String, StreamingSession> streams = remoteStreamsByRoom.get(roomId);
+                StreamingSession session = streams != null ? streams.get(id) : null;
+                if (session != null) {
+                    session.applyRelayedChunk(intOf(payload.get("fromSeq"), intOf(payload.get("seq"), 0)),
+                            intOf(payload.get("seq"), 0),
+                            (String) payload.get("delta"),
+                            (String) payload.get("fullContent"));
+                }
+            }
+            case AI_MESSAGE_COMPLETE, AI_MESSAGE_ERROR -> remoteStreamsByRoom.computeIfPresent(roomId, (key, streams) -> {
+                streams.remove(id);
+                return streams.isEmpty() ? null : streams;
+            });
+            default -> {
+            }
+        }
+    }
+
+    public List<StreamingSession> streamsIn(String roomId) {
+        Map<String, StreamingSession> streams = streamsByRoom.get(roomId);
+        return streams == null ? List.of() : List.copyOf(streams.values());
+    }
+
+    /**
+     * 방의 진행 중인 스트림을 시작 순서대로 스냅샷한다.
+     */
+    public List<ActiveStreamResponse> snapshot(String roomId) {
+        return Stream.concat(streamsIn(roomId).stream(), remoteStreamsIn(roomId).stream())
+                .sorted(Comparator.comparingLong(StreamingSession::getTimestamp))
+                .map(ActiveStreamRegistry::toResponse)
+                .toList();
+    }
+
+    // 완료 이벤트를 놓친 원격 스트림은 remote-timeout 동안 갱신이 없으면 정리한다
+    private List<StreamingSession> remoteStreamsIn(String roomId) {
+        Map<String, StreamingSession> streams = remoteStreamsByRoom.get(roomId);
+        if (streams == null) {
+            return List.of();
+        }
+        long staleBefore = System.currentTimeMillis() - remoteTimeout.toMillis();
+        streams.values().removeIf(session -> session.getLastUpdate() < staleBefore);
+        return List.copyOf(streams.values());
+    }
+
+    private static int intOf(Object value, int fallback) {
+        return value instanceof Number number ? number.intValue() : fallback;
+    }
+
+    private static ActiveStreamResponse toResponse(StreamingSession session) {
+        StreamingSession.ContentSnapshot snapshot = session.snapshot();
+        return ActiveStreamResponse.builder()
+                .id(session.getMessageId())
+                .type("ai")
+                .aiType(session.getAiType())
+                .content(snapshot.content())
+                .timestamp(Instant.ofEpochMilli(session.getTimestamp()).toString())
+                .isStreaming(true)
+                .seq(snapshot.seq())
+                .build();
+    }
+}
@@ -0,0 +1,265 @@
+package com.ktb.chatapp.websocket.socketio.ai;
+
+import com.ktb.chatapp.model.AiType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * AI 응답 캐시 (opt-in, ai.response-cache.enabled)
+ * (AI 타입, 정규화된 질문)이 같은 요청은 저장된 답변을 일정 속도로 다시 흘려보내고,
+ * 캐시에 없는 같은 질문이 동시에 들어오면 하나의 upstream 스트림을 함께 구독한다.
+ * 로컬 LRU + TTL 이 기본이며 ai.response-cache.redis=true 면 Redis 를 2차 저장소로 쓴다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "socketio.enabled", havingValue = "true", matchIfMissing = true)
+public class AiResponseCache {
+
+    private static final String REDIS_KEY_PREFIX = "ai:response:";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final boolean enabled;
+    private final boolean redisEnabled;
+    private final int maxSize;
+    private final Duration ttl;
+    private final int replayChunkSize;
+    private final Duration replayInterval;
+
+    private final Map<String, Entry> entries;
+    private final Map<String, Flux<String>> inflight = new ConcurrentHashMap<>();
+    private final Counter savedTokens;
+    private final Counter hitRequests;
+    private final Counter missRequests;
+    private final Counter sharedRequests;
+
+    public AiResponseCache(
+            StringRedisTemplate stringRedisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${ai.response-cache.enabled:false}") boolean enabled,
+            @Value("${ai.response-cache.redis:false}") boolean redisEnabled,
+            @Value("${ai.response-cache.max-size:1000}") int maxSize,
+            @Value("${ai.response-cache.ttl:PT10M}") Duration ttl,
+            @Value("${ai.response-cache.replay-chunk-size:24}") int replayChunkSize,
+            @Value("${ai.response-cache.replay-interval:PT0.03S}") Duration replayInterval) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.enabled = enabled;
+        this.redisEnabled = redisEnabled;
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.replayChunkSize = Math.max(1, replayChunkSize);
+        this.replayInterval = replayInterval;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > AiResponseCache.this.maxSize;
+            }
+        };
+        this.savedTokens = Counter.builder("ai.response_cache.saved_tokens")
+                .description("Upstream LLM chunks avoided by cache hits and shared streams")
+                .register(meterRegistry);
+        this.hitRequests = requests(meterRegistry, "hit");
+        this.missRequests = requests(meterRegistry, "miss");
+        this.sharedRequests = requests(meterRegistry, "shared");
+    }
+
+    /**
+     * 캐시/공유 스트림을 거쳐 답변 토큰 스트림을 반환한다. 비활성화 상태면 upstream 을 그대로 쓴다.
+     */
+    public Flux<String> stream(AiType aiType, String query, Supplier<Flux<String>> upstream) {
+        if (!enabled) {
+            return upstream.get();
+        }
+        String key = keyOf(aiType, query);
+        return Flux.defer(() -> {
+            CachedAnswer local = getLocal(key);
+            if (local != null) {
+                return hit(local);
+            }
+            if (!redisEnabled) {
+                return singleFlight(key, upstream);
+            }
+            return Mono.fromCallable(() -> Optional.ofNullable(getRemote(key)))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMapMany(remote -> remote
+                            .map(answer -> {
+                                putLocal(key, answer);
+                                return hit(answer);
+                            })
+                            .orElseGet(() -> singleFlight(key, upstream)));
+        });
+    }
+
+    private Flux<String> hit(CachedAnswer answer) {
+        hitRequests.increment();
+        savedTokens.increment(answer.tokens());
+        Flux<String> pieces = Flux.fromIterable(split(answer.content(), replayChunkSize));
+        return replayInterval.isZero() ? pieces : pieces.delayElements(replayInterval);
+    }
+
+    private Flux<String> singleFlight(String key, Supplier<Flux<String>> upstream) {
+        boolean[] leader = new boolean[1];
+        Flux<String> shared = inflight.computeIfAbsent(key, k -> {
+            leader[0] = true;
+            return load(k, upstream);
+        });
+        // 구독 직전에 모든 구독자가 취소해 끊긴 스트림이면 새 스트림에 다시 합류한다
+        Flux<String> joined = shared.onErrorResume(ClosedFlightException.class, e -> singleFlight(key, upstream));
+        if (leader[0]) {
+            missRequests.increment();
+            return joined;
+        }
+        sharedRequests.increment();
+        AtomicLong received = new AtomicLong();
+        return joined
+                .doOnNext(token -> received.incrementAndGet())
+                .doOnComplete(() -> savedTokens.increment(received.get()));
+    }
+
+    // 모든 구독자가 처음 토큰부터 받도록 replay, 모두 취소하면 upstream 도 취소되도록 refCount.
+    // refCount 는 끊긴 뒤 새 구독이 오면 다시 연결하므로, upstream 은 한 번만 연결하고
+    // 두 번째 연결은 inflight 에서 빼고 ClosedFlightException 으로 돌려보낸다.
+    private Flux<String> load(String key, Supplier<Flux<String>> upstream) {
+        AtomicBoolean connected = new AtomicBoolean();
+        AtomicReference<Flux<String>> self = new AtomicReference<>();
+        Flux<String> shared = Flux.defer(() -> {
+                    if (!connected.compareAndSet(false, true)) {
+                        inflight.remove(key, self.get());
+                        return Flux.<String>error(new ClosedFlightException());
+                    }
+                    StringBuilder content = new StringBuilder();
+                    AtomicInteger tokens = new AtomicInteger();
+                    return upstream.get()
+                            .doOnNext(token -> {
+                                content.append(token);
+                                tokens.incrementAndGet();
+                            })
+                            .doOnComplete(() -> {
+                                if (!content.isEmpty()) {
+                                    put(key, new CachedAnswer(content.toString(), tokens.get()));
+                                }
+                            })
+                            .doFinally(signal -> inflight.remove(key, self.get()));
+                })
+                .replay()
+                .refCount();
+        self.set(shared);
+        return shared;
+    }
+
+    private synchronized CachedAnswer getLocal(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.answer();
+    }
+
+    private synchronized void putLocal(String key, CachedAnswer answer) {
+        entries.put(key, new Entry(answer, System.currentTimeMillis() + ttl.toMillis()));
+    }
+
+    private void put(String key, CachedAnswer answer) {
+        putLocal(key, answer);
+        if (!redisEnabled) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForValue().set(REDIS_KEY_PREFIX + key, answer.tokens() + "\n" + answer.content(), ttl);
+        } catch (Exception e) {
+            log.warn("Failed to store AI response in Redis: {}", e.getMessage());
+        }
+    }
+
+    private CachedAnswer getRemote(String key) {
+        try {
+            String value = stringRedisTemplate.opsForValue().get(REDIS_KEY_PREFIX + key);
+            if (value == null) {
+                return null;
+            }
+            int separator = value.indexOf('\n');
+            return new CachedAnswer(value.substring(separator + 1), Integer.parseInt(value.substring(0, separator)));
+        } catch (Exception e) {
+            log.warn("Failed to read AI response from Redis: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    static String normalize(String query) {
+        return query == null ? "" : query.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    static String keyOf(AiType aiType, String query) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(normalize(query).getBytes(StandardCharsets.UTF_8));
+            return aiType.name() + ":" + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 서로게이트 쌍이 잘리지 않도록 code point 단위로 자른다
+    static List<String> split(String content, int chunkSize) {
+        List<String> pieces = new ArrayList<>();
+        int start = 0;
+        while (start < content.length()) {
+            int end = content.offsetByCodePoints(start,
+                    Math.min(chunkSize, content.codePointCount(start, content.length())));
+            pieces.add(content.substring(start, end));
+            start = end;
+        }
+        return pieces;
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("ai.response_cache.requests")
+                .description("AI response cache lookups by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    record CachedAnswer(String content, int tokens) {
+    }
+
+    private static final class ClosedFlightException extends RuntimeException {
+        private ClosedFlightException() {
+            super("AI response stream already closed", null, false, false);
+        }
+    }
+
+    private record Entry(CachedAnswer answer, long expiresAt) {
+    }
+}
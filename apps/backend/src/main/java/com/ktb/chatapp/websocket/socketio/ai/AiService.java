@@ -9,15 +9,20 @@ import com.ktb.chatapp.model.Message;
 import com.ktb.chatapp.model.MessageType;
 import com.ktb.chatapp.message.repository.MessageRepository;
 import com.ktb.chatapp.websocket.socketio.handler.StreamingSession;
+import java.time.Duration;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * AI 서비스 구현체
@@ -28,17 +33,39 @@ import reactor.core.publisher.Flux;
 @ConditionalOnProperty(name = "socketio.enabled", havingValue = "true", matchIfMissing = true)
 public class AiService {
 
+    // 실행마다 새로 정한다 (SERVER_ID 는 재시작해도 같고 호스트 이름 앞부분이 노드끼리 겹칠 수 있다)
+    private static final String NODE_TAG = UUID.randomUUID().toString().substring(0, 8);
+
     private final ChatClient chatClient;
+    private final AtomicLong streamSequence = new AtomicLong();
     private final ApplicationEventPublisher eventPublisher;
     private final MessageRepository messageRepository;
+    private final ActiveStreamRegistry activeStreamRegistry;
+    private final AiStreamGovernor streamGovernor;
+    private final AiResponseCache responseCache;
+    private final int checkpointInterval;
+    private final int coalesceMaxChunks;
+    private final Duration coalesceInterval;
 
     public AiService(
             ChatClient.Builder chatClientBuilder,
             ApplicationEventPublisher eventPublisher,
-            MessageRepository messageRepository) {
+            MessageRepository messageRepository,
+            ActiveStreamRegistry activeStreamRegistry,
+            AiStreamGovernor streamGovernor,
+            AiResponseCache responseCache,
+            @Value("${ai.stream.checkpoint-interval:20}") int checkpointInterval,
+            @Value("${ai.stream.coalesce.max-chunks:32}") int coalesceMaxChunks,
+            @Value("${ai.stream.coalesce.interval:PT0.05S}") Duration coalesceInterval) {
         this.chatClient = chatClientBuilder.build();
         this.eventPublisher = eventPublisher;
         this.messageRepository = messageRepository;
+        this.activeStreamRegistry = activeStreamRegistry;
+        this.streamGovernor = streamGovernor;
+        this.responseCache = responseCache;
+        this.checkpointInterval = checkpointInterval;
+        this.coalesceMaxChunks = coalesceMaxChunks;
+        this.coalesceInterval = coalesceInterval;
     }
 
     public void handleAIMentions(String roomId, String userId, MessageContent messageContent) {
@@ -50,18 +77,10 @@ public class AiService {
 
     private void startStreaming(String roomId, String userId, String aiType, String query) {
         
-        // AI 스트리밍 세션 생성 - messageId는 타입과 타임스탬프 조합
+        // AI 스트리밍 세션 생성 - messageId는 타입, 타임스탬프, 노드, 노드 내 순번 조합으로 클러스터 전체에서 유일
         var timestamp = System.currentTimeMillis();
-        String messageId = aiType + "-" + timestamp;
+        String messageId = aiType + "-" + timestamp + "-" + NODE_TAG + "-" + streamSequence.incrementAndGet();
 
-        log.info("AI response started - messageId: {}, room: {}, aiType: {}, query: {}",
-            messageId, roomId, aiType, query);
-        
-        // AI 스트리밍 시작 이벤트 발행
-        eventPublisher.publishEvent(new AiMessageStartEvent(
-            this, roomId, messageId, aiType, timestamp
-        ));
-        
         // 스트리밍 세션 초기화
         StreamingSession session = StreamingSession.builder()
             .messageId(messageId)
@@ -71,10 +90,29 @@ public class AiService {
             .timestamp(timestamp)
             .query(query)
             .build();
-        
-        
+
+        // 동시 스트림 한도 안에서 시작하거나 대기열에 넣는다
+        streamGovernor.submit(session, () -> launch(session));
+    }
+
+    private AiStreamHandler launch(StreamingSession session) {
+        log.info("AI response started - messageId: {}, room: {}, aiType: {}, query: {}",
+            session.getMessageId(), session.getRoomId(), session.getAiType(), session.getQuery());
+
+        // AI 스트리밍 시작 이벤트 발행
+        eventPublisher.publishEvent(new AiMessageStartEvent(
+            this, session.getRoomId(), session.getMessageId(), session.getAiType(), session.getTimestamp()
+        ));
+
+        AiStreamHandler handler = new AiStreamHandler(session, eventPublisher, checkpointInterval);
+        // 완료 이벤트(저장)보다 먼저 목록에서 빠지도록 terminate 시점에 제거
+        activeStreamRegistry.register(session);
         streamResponse(session)
-                .subscribe(new AiStreamHandler(session, eventPublisher));
+                .doOnTerminate(() -> activeStreamRegistry.remove(session))
+                .doOnCancel(() -> activeStreamRegistry.remove(session))
+                .doFinally(signal -> streamGovernor.release(session))
+                .subscribe(handler);
+        return handler;
     }
 
     Flux<ChunkData> streamResponse(StreamingSession session) {
@@ -85,17 +123,14 @@ public class AiService {
                 return Flux.error(new IllegalArgumentException("Unknown AI persona"));
             }
 
-            Flux<String> contentStream = chatClient.prompt()
+            // 같은 질문은 캐시된 답변을 재생하거나 진행 중인 스트림을 공유한다
+            Flux<String> contentStream = responseCache.stream(aiType, query, () -> chatClient.prompt()
                     .system(aiType.getSystemPrompt())
                     .user(query)
                     .stream()
-                    .content();
-
-            AtomicBoolean codeBlockState = new AtomicBoolean(false);
+                    .content());
 
-            return contentStream
-                    .filter(chunk -> chunk != null && !chunk.isBlank())
-                    .map(chunk -> ChunkData.from(chunk).updateCodeBlockState(codeBlockState))
+            return coalesce(contentStream, coalesceMaxChunks, coalesceInterval)
                     .doOnSubscribe(subscription -> log.info(
                             "Starting AI streaming response - aiType: {}, query: {}",
                             aiType, query))
@@ -103,6 +138,28 @@ public class AiService {
         });
     }
 
+    /**
+     * 토큰 단위의 작은 청크를 interval 또는 maxChunks 기준으로 묶어 방 브로드캐스트 횟수를 줄인다.
+     * 코드 블록 상태는 묶인 결과 기준으로 계산하며, 묶음 경계의 백틱은 ChunkCoalescer가 보류한다.
+     */
+    static Flux<ChunkData> coalesce(Flux<String> contentStream, int maxChunks, Duration interval) {
+        AtomicBoolean codeBlockState = new AtomicBoolean(false);
+        // 공백/개행만 있는 토큰도 내용이므로 빈 문자열만 거른다
+        Flux<String> tokens = contentStream.filter(chunk -> chunk != null && !chunk.isEmpty());
+        Flux<String> batches;
+        if (maxChunks <= 1 || interval.isZero()) {
+            batches = tokens;
+        } else {
+            ChunkCoalescer coalescer = new ChunkCoalescer();
+            batches = tokens.bufferTimeout(maxChunks, interval)
+                    .map(coalescer::append)
+                    .concatWith(Mono.fromCallable(coalescer::drain));
+        }
+        return batches
+                .filter(batch -> !batch.isEmpty())
+                .map(batch -> ChunkData.from(batch).updateCodeBlockState(codeBlockState));
+    }
+
     @EventListener
     public void onAiMessageCompleteEvent(AiMessageCompleteEvent event) {
         try {
@@ -0,0 +1,383 @@
+package com.ktb.chatapp.websocket.socketio.ai;
+
+import com.ktb.chatapp.cache.RoomCacheStore;
+import com.ktb.chatapp.event.AiMessageErrorEvent;
+import com.ktb.chatapp.event.AiMessageQueuedEvent;
+import com.ktb.chatapp.model.Room;
+import com.ktb.chatapp.websocket.socketio.RoomAudienceIndex;
+import com.ktb.chatapp.websocket.socketio.handler.StreamingSession;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * AI 스트림 동시 실행 제어
+ * 노드 전체/방/요청자 단위 동시 스트림 수를 제한하고, 초과분은 bounded 대기열에 넣어 순번을 알린다.
+ * 요청자가 방을 나가거나 연결이 끊기면 그 요청자의 스트림을 바로 취소하고,
+ * 주기 점검은 놓친 경우를 위한 안전망으로 lastUpdate 기준 유휴 스트림과 빈 방의 스트림을 취소한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "socketio.enabled", havingValue = "true", matchIfMissing = true)
+public class AiStreamGovernor {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final RoomAudienceIndex audienceIndex;
+    private final RoomCacheStore roomCacheStore;
+    private final MeterRegistry meterRegistry;
+    private final int maxConcurrent;
+    private final int maxPerRoom;
+    private final int maxPerUser;
+    private final int queueCapacity;
+    private final Duration idleTimeout;
+    private final Duration sweepInterval;
+
+    // 아래 상태는 모두 this 로 동기화, 스트림 시작/취소 호출은 락 밖에서 한다
+    // 세션 인스턴스로 구분해 messageId 가 겹쳐도 슬롯을 덮어쓰거나 새지 않게 한다
+    private final Map<StreamingSession, Running> running = new IdentityHashMap<>();
+    private final Deque<Pending> queue = new ArrayDeque<>();
+    private final Map<String, Integer> runningPerRoom = new HashMap<>();
+    private final Map<String, Integer> runningPerUser = new HashMap<>();
+    private final Counter rejectedCounter;
+    private ScheduledExecutorService sweeper;
+
+    public AiStreamGovernor(
+            ApplicationEventPublisher eventPublisher,
+            RoomAudienceIndex audienceIndex,
+            RoomCacheStore roomCacheStore,
+            MeterRegistry meterRegistry,
+            @Value("${ai.stream.max-concurrent:32}") int maxConcurrent,
+            @Value("${ai.stream.max-per-room:4}") int maxPerRoom,
+            @Value("${ai.stream.max-per-user:2}") int maxPerUser,
+            @Value("${ai.stream.queue-capacity:100}") int queueCapacity,
+            @Value("${ai.stream.idle-timeout:PT30S}") Duration idleTimeout,
+            @Value("${ai.stream.sweep-interval:PT5S}") Duration sweepInterval) {
+        this.eventPublisher = eventPublisher;
+        this.audienceIndex = audienceIndex;
+        this.roomCacheStore = roomCacheStore;
+        this.meterRegistry = meterRegistry;
+        this.maxConcurrent = maxConcurrent;
+        this.maxPerRoom = maxPerRoom;
+        this.maxPerUser = maxPerUser;
+        this.queueCapacity = queueCapacity;
+        this.idleTimeout = idleTimeout;
+        this.sweepInterval = sweepInterval;
+
+        Gauge.builder("ai.streams.running", this, AiStreamGovernor::runningCount)
+                .description("AI streams currently holding a concurrency slot")
+                .register(meterRegistry);
+        Gauge.builder("ai.streams.queued", this, AiStreamGovernor::queuedCount)
+                .description("AI streams waiting for a concurrency slot")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("ai.streams.rejected")
+                .description("AI stream requests rejected because the wait queue was full")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ai-stream-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = sweepInterval.toMillis();
+        sweeper.scheduleWithFixedDelay(this::sweepSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * 슬롯이 있으면 바로 시작하고, 없으면 대기열에 넣는다. 대기열도 가득 차면 에러 이벤트로 거절한다.
+     *
+     * @param launcher 스트림을 실제로 구독하고 취소 가능한 핸들러를 반환
+     * @return 시작했거나 대기열에 들어갔으면 true
+     */
+    public boolean submit(StreamingSession session, Supplier<AiStreamHandler> launcher) {
+        Pending pending = new Pending(session, launcher);
+        boolean launchNow;
+        List<Pending> positions = List.of();
+        synchronized (this) {
+            // 대기열 항목은 방/사용자 한도에 막혀 있는 것이므로 새 요청이 한도 안이면 바로 시작한다
+            launchNow = fits(session);
+            if (launchNow) {
+                reserve(pending);
+            } else if (queue.size() < queueCapacity) {
+                queue.addLast(pending);
+                positions = List.of(pending);
+            } else {
+                rejectedCounter.increment();
+                log.warn("AI stream queue full, rejecting - messageId: {}, room: {}",
+                        session.getMessageId(), session.getRoomId());
+                eventPublisher.publishEvent(new AiMessageErrorEvent(this, session.getRoomId(),
+                        session.getMessageId(), "AI 요청이 많아 처리할 수 없습니다. 잠시 후 다시 시도해주세요.",
+                        session.aiTypeEnum()));
+                return false;
+            }
+        }
+        if (launchNow) {
+            launch(pending);
+        } else {
+            notifyPositions(positions);
+        }
+        return true;
+    }
+
+    /**
+     * 스트림이 끝나거나 취소되면 호출되어 슬롯을 반납하고 대기열에서 들어갈 수 있는 스트림을 시작한다.
+     */
+    public void release(StreamingSession session) {
+        List<Pending> launchable;
+        List<Pending> positions;
+        synchronized (this) {
+            Running removed = running.remove(session);
+            if (removed == null) {
+                return;
+            }
+            decrement(runningPerRoom, session.getRoomId());
+            decrement(runningPerUser, session.getUserId());
+            launchable = drainLaunchable();
+            positions = launchable.isEmpty() ? List.of() : List.copyOf(queue);
+        }
+        launchable.forEach(this::launch);
+        notifyPositions(positions);
+    }
+
+    /**
+     * 요청자가 방을 나가거나 연결이 끊겼을 때 호출한다. 그 사용자가 요청한 진행 중 스트림을 취소하고 대기 중인 요청은 뺀다.
+     *
+     * @param roomId null 이면 모든 방
+     */
+    public void cancelRequester(String userId, String roomId) {
+        List<Running> cancelled = new ArrayList<>();
+        List<Pending> positions = List.of();
+        synchronized (this) {
+            for (Running entry : running.values()) {
+                if (entry.handler != null && requestedBy(entry.session, userId, roomId)) {
+                    cancelled.add(entry);
+                }
+            }
+            if (queue.removeIf(pending -> requestedBy(pending.session, userId, roomId))) {
+                positions = List.copyOf(queue);
+            }
+        }
+
+        for (Running entry : cancelled) {
+            log.info("Cancelling AI stream, requester left - messageId: {}, room: {}, userId: {}",
+                    entry.session.getMessageId(), entry.session.getRoomId(), userId);
+            cancelledCounter("requester_left").increment();
+            // 구독 취소 시 doFinally 에서 release 가 불려 슬롯이 반납된다
+            entry.handler.cancel();
+        }
+        notifyPositions(positions);
+    }
+
+    private static boolean requestedBy(StreamingSession session, String userId, String roomId) {
+        return userId.equals(session.getUserId()) && (roomId == null || roomId.equals(session.getRoomId()));
+    }
+
+    void sweep() {
+        long now = System.currentTimeMillis();
+        List<Running> idle = new ArrayList<>();
+        List<Running> candidates = new ArrayList<>();
+        Set<String> rooms = new HashSet<>();
+        synchronized (this) {
+            for (Running entry : running.values()) {
+                if (entry.handler == null) {
+                    continue;
+                }
+                if (now - entry.session.getLastUpdate() > idleTimeout.toMillis()) {
+                    idle.add(entry);
+                } else {
+                    candidates.add(entry);
+                    rooms.add(entry.session.getRoomId());
+                }
+            }
+            queue.forEach(pending -> rooms.add(pending.session.getRoomId()));
+        }
+
+        // 방 조회(캐시)는 락 밖에서 한 번에 한다
+        Set<String> emptyRooms = findEmptyRooms(rooms);
+
+        List<Pending> positions = List.of();
+        if (!emptyRooms.isEmpty()) {
+            synchronized (this) {
+                if (queue.removeIf(pending -> emptyRooms.contains(pending.session.getRoomId()))) {
+                    positions = List.copyOf(queue);
+                }
+            }
+        }
+
+        for (Running entry : idle) {
+            log.warn("Cancelling idle AI stream - messageId: {}, room: {}",
+                    entry.session.getMessageId(), entry.session.getRoomId());
+            cancelledCounter("idle").increment();
+            entry.handler.abort("AI 응답이 지연되어 중단되었습니다.");
+        }
+        for (Running entry : candidates) {
+            if (!emptyRooms.contains(entry.session.getRoomId())) {
+                continue;
+            }
+            log.info("Cancelling AI stream for empty room - messageId: {}, room: {}",
+                    entry.session.getMessageId(), entry.session.getRoomId());
+            cancelledCounter("room_empty").increment();
+            entry.handler.cancel();
+        }
+        notifyPositions(positions);
+    }
+
+    /**
+     * AI 이벤트가 다른 노드로도 relay 되므로, 이 노드에 보는 사람이 없고 방 참가자도 없을 때만 빈 방으로 본다.
+     */
+    private Set<String> findEmptyRooms(Set<String> rooms) {
+        Set<String> unwatched = new HashSet<>();
+        for (String roomId : rooms) {
+            if (!audienceIndex.hasLocalAudience(roomId)) {
+                unwatched.add(roomId);
+            }
+        }
+        if (unwatched.isEmpty()) {
+            return unwatched;
+        }
+        try {
+            Map<String, Room> found = roomCacheStore.getRooms(unwatched);
+            unwatched.removeIf(roomId -> found.containsKey(roomId) && !found.get(roomId).isEmpty());
+            return unwatched;
+        } catch (Exception e) {
+            log.debug("Room lookup failed during AI stream sweep - rooms: {}", unwatched, e);
+            return Set.of();
+        }
+    }
+
+    private void sweepSafely() {
+        try {
+            sweep();
+        } catch (Exception e) {
+            log.warn("AI stream sweep failed: {}", e.getMessage());
+        }
+    }
+
+    private void launch(Pending pending) {
+        StreamingSession session = pending.session;
+        AiStreamHandler handler;
+        try {
+            // 대기한 시간이 유휴 시간으로 잡히지 않게 시작 시점으로 갱신
+            session.setLastUpdate(System.currentTimeMillis());
+            handler = pending.launcher.get();
+        } catch (Exception e) {
+            log.error("Failed to start AI stream - messageId: {}", session.getMessageId(), e);
+            release(session);
+            return;
+        }
+        synchronized (this) {
+            Running entry = running.get(session);
+            if (entry != null) {
+                entry.handler = handler;
+            }
+        }
+    }
+
+    // 대기열 순서대로 보되, 방/사용자 한도에 막힌 항목은 건너뛰고 뒤 항목을 시작한다
+    private List<Pending> drainLaunchable() {
+        List<Pending> launchable = new ArrayList<>();
+        for (Iterator<Pending> it = queue.iterator(); it.hasNext() && running.size() < maxConcurrent; ) {
+            Pending pending = it.next();
+            if (fits(pending.session)) {
+                it.remove();
+                reserve(pending);
+                launchable.add(pending);
+            }
+        }
+        return launchable;
+    }
+
+    private boolean fits(StreamingSession session) {
+        return running.size() < maxConcurrent
+                && runningPerRoom.getOrDefault(session.getRoomId(), 0) < maxPerRoom
+                && runningPerUser.getOrDefault(session.getUserId(), 0) < maxPerUser;
+    }
+
+    private void reserve(Pending pending) {
+        StreamingSession session = pending.session;
+        running.put(session, new Running(session));
+        runningPerRoom.merge(session.getRoomId(), 1, Integer::sum);
+        runningPerUser.merge(session.getUserId(), 1, Integer::sum);
+    }
+
+    private void notifyPositions(List<Pending> pendings) {
+        if (pendings.isEmpty()) {
+            return;
+        }
+        Map<Pending, Integer> snapshot = new LinkedHashMap<>();
+        synchronized (this) {
+            int position = 1;
+            for (Pending pending : queue) {
+                if (pendings.contains(pending)) {
+                    snapshot.put(pending, position);
+                }
+                position++;
+            }
+        }
+        snapshot.forEach((pending, position) -> eventPublisher.publishEvent(new AiMessageQueuedEvent(this,
+                pending.session.getRoomId(), pending.session.getMessageId(), pending.session.getAiType(), position)));
+    }
+
+    private static void decrement(Map<String, Integer> counts, String key) {
+        counts.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private Counter cancelledCounter(String reason) {
+        return Counter.builder("ai.streams.cancelled")
+                .description("AI streams cancelled by the governor")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    synchronized int runningCount() {
+        return running.size();
+    }
+
+    synchronized int queuedCount() {
+        return queue.size();
+    }
+
+    private record Pending(StreamingSession session, Supplier<AiStreamHandler> launcher) {
+    }
+
+    private static final class Running {
+        private final StreamingSession session;
+        private AiStreamHandler handler;
+
+        private Running(StreamingSession session) {
+            this.session = session;
+        }
+    }
+}
@@ -16,7 +16,9 @@ import org.springframework.context.ApplicationEventPublisher;
 public class AiStreamHandler implements Subscriber<ChunkData> {
     private final StreamingSession session;
     private final ApplicationEventPublisher eventPublisher;
-    private Subscription subscription;
+    // N번째 청크마다 전체 내용을 함께 보내 중간 입장한 클라이언트가 따라잡게 한다
+    private final int checkpointInterval;
+    private volatile Subscription subscription;
 
     @Override
     public void onSubscribe(Subscription subscription) {
@@ -26,7 +28,7 @@ public class AiStreamHandler implements Subscriber<ChunkData> {
 
     @Override
     public void onNext(ChunkData chunk) {
-        session.appendContent(chunk.currentChunk());
+        int seq = session.appendContent(chunk.currentChunk());
         
         String messageId = session.getMessageId();
         String roomId = session.getRoomId();
@@ -35,9 +37,10 @@ public class AiStreamHandler implements Subscriber<ChunkData> {
             return;
         }
 
+        String checkpoint = isCheckpoint(seq) ? session.getContent() : null;
         eventPublisher.publishEvent(new AiMessageChunkEvent(
             this, roomId, messageId,
-            session.getContent(), chunk.codeBlock()
+            seq, chunk.currentChunk(), checkpoint, chunk.codeBlock()
         ));
     }
 
@@ -65,17 +68,30 @@ public class AiStreamHandler implements Subscriber<ChunkData> {
         }
     }
 
+    private boolean isCheckpoint(int seq) {
+        return checkpointInterval > 0 && seq % checkpointInterval == 0;
+    }
+
     public boolean matches(String roomId, String userId) {
         return Objects.equals(roomId, session.getRoomId())
             && Objects.equals(userId, session.getUserId());
     }
 
     public void cancel() {
-        if (subscription != null) {
-            subscription.cancel();
+        Subscription current = subscription;
+        if (current != null) {
+            current.cancel();
         }
     }
 
+    /**
+     * 스트림을 취소하고 방에 에러 이벤트로 알린다.
+     */
+    public void abort(String errorMessage) {
+        cancel();
+        sendErrorEvent(errorMessage);
+    }
+
     private void sendCompletionEvent() {
         eventPublisher.publishEvent(new AiMessageCompleteEvent(
             this, session.getRoomId(), session.getMessageId(),
@@ -0,0 +1,196 @@
+package com.ktb.chatapp.websocket.socketio.ai;
+
+import com.ktb.chatapp.event.AiMessageChunkEvent;
+import com.ktb.chatapp.redis.ChatRedisPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import static com.ktb.chatapp.websocket.socketio.SocketIOEvents.AI_MESSAGE_CHUNK;
+
+/**
+ * AI 스트리밍 이벤트의 노드 간 relay
+ * 청크는 토큰마다 publish 하지 않고 스트림(messageId)별로 모아 flush-interval 마다 한 프레임으로 보낸다.
+ * 프레임은 {messageId, fromSeq, seq, delta, ...} 형태라 수신 측은 seq 로 순서를 맞출 수 있다.
+ * 시작/청크/완료/에러 publish 는 모두 단일 스레드에서 처리되어 노드 내 발행 순서가 유지되고,
+ * 완료/에러 전에는 해당 스트림의 남은 청크 프레임을 먼저 보낸다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "socketio.enabled", havingValue = "true", matchIfMissing = true)
+public class AiStreamRelay {
+
+    private final ChatRedisPublisher chatRedisPublisher;
+    private final int maxBatchChars;
+    private final ScheduledExecutorService publisher;
+    // pending 으로 동기화. ready 는 크기 초과로 먼저 닫힌 프레임이라 pending 보다 항상 먼저 보낸다
+    private final Map<String, Frame> pending = new LinkedHashMap<>();
+    private final List<Frame> ready = new ArrayList<>();
+    private final Counter framesCounter;
+    private final Counter chunksCounter;
+
+    public AiStreamRelay(
+            ChatRedisPublisher chatRedisPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${ai.stream.relay.flush-interval:PT0.1S}") Duration flushInterval,
+            @Value("${ai.stream.relay.max-batch-chars:2048}") int maxBatchChars) {
+        this.chatRedisPublisher = chatRedisPublisher;
+        this.maxBatchChars = maxBatchChars;
+        this.framesCounter = Counter.builder("ai.stream.relay.frames")
+                .description("AI chunk relay frames published to other nodes")
+                .register(meterRegistry);
+        this.chunksCounter = Counter.builder("ai.stream.relay.chunks")
+                .description("AI chunks folded into relay frames")
+                .register(meterRegistry);
+
+        this.publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ai-stream-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = flushInterval.toMillis();
+        publisher.scheduleWithFixedDelay(this::flushAll, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 청크를 스트림별 프레임에 누적한다. 프레임이 max-batch-chars 를 넘으면 바로 보낸다.
+     */
+    public void chunk(AiMessageChunkEvent event) {
+        boolean full;
+        synchronized (pending) {
+            Frame frame = pending.computeIfAbsent(event.getMessageId(),
+                    messageId -> new Frame(event.getRoomId(), messageId, event.getSeq()));
+            frame.add(event);
+            chunksCounter.increment();
+            full = frame.size() >= maxBatchChars;
+            if (full) {
+                ready.add(pending.remove(event.getMessageId()));
+            }
+        }
+        if (full) {
+            publisher.execute(this::flushReady);
+        }
+    }
+
+    /**
+     * 시작/완료/에러 등 스트림 단위 이벤트를 relay 한다. 같은 스트림의 대기 중인 청크 프레임을 먼저 보낸다.
+     */
+    public void publish(String roomId, String messageId, String event, Object payload) {
+        publisher.execute(() -> {
+            flushReady();
+            Frame frame;
+            synchronized (pending) {
+                frame = pending.remove(messageId);
+            }
+            if (frame != null) {
+                publish(frame);
+            }
+            try {
+                chatRedisPublisher.publish(roomId, event, payload);
+            } catch (Exception e) {
+                log.warn("AI stream relay publish failed - event: {}, messageId: {}", event, messageId, e);
+            }
+        });
+    }
+
+    void flushAll() {
+        List<Frame> frames;
+        synchronized (pending) {
+            frames = new ArrayList<>(ready);
+            frames.addAll(pending.values());
+            ready.clear();
+            pending.clear();
+        }
+        frames.forEach(this::publish);
+    }
+
+    private void flushReady() {
+        List<Frame> frames;
+        synchronized (pending) {
+            frames = new ArrayList<>(ready);
+            ready.clear();
+        }
+        frames.forEach(this::publish);
+    }
+
+    private void publish(Frame frame) {
+        try {
+            chatRedisPublisher.publish(frame.roomId, AI_MESSAGE_CHUNK, frame.toPayload());
+            framesCounter.increment();
+        } catch (Exception e) {
+            log.warn("AI chunk relay failed - messageId: {}", frame.messageId, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publisher.execute(this::flushAll);
+        publisher.shutdown();
+        try {
+            publisher.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 한 스트림의 연속된 청크 묶음. 체크포인트 청크가 포함되면 그 이후 delta 까지 반영한 fullContent 를 함께 보낸다.
+     */
+    private static final class Frame {
+        private final String roomId;
+        private final String messageId;
+        private final int fromSeq;
+        private final StringBuilder delta = new StringBuilder();
+        private StringBuilder fullContent;
+        private int seq;
+        private boolean codeBlock;
+
+        private Frame(String roomId, String messageId, int fromSeq) {
+            this.roomId = roomId;
+            this.messageId = messageId;
+            this.fromSeq = fromSeq;
+        }
+
+        private void add(AiMessageChunkEvent event) {
+            delta.append(event.getDelta());
+            if (event.isCheckpoint()) {
+                fullContent = new StringBuilder(event.getFullContent());
+            } else if (fullContent != null) {
+                fullContent.append(event.getDelta());
+            }
+            seq = event.getSeq();
+            codeBlock = event.isCodeBlock();
+        }
+
+        private int size() {
+            return delta.length();
+        }
+
+        private Map<String, Object> toPayload() {
+            Map<String, Object> data = new HashMap<>();
+            data.put("messageId", messageId);
+            data.put("fromSeq", fromSeq);
+            data.put("seq", seq);
+            data.put("delta", delta.toString());
+            data.put("isCodeBlock", codeBlock);
+            data.put("isComplete", false);
+            if (fullContent != null) {
+                data.put("fullContent", fullContent.toString());
+            }
+            return data;
+        }
+    }
+}
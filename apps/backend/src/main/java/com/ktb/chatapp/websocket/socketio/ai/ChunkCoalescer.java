@@ -0,0 +1,32 @@
+package com.ktb.chatapp.websocket.socketio.ai;
+
+import java.util.List;
+
+/**
+ * 버퍼링된 토큰 묶음을 하나의 문자열로 합친다.
+ * 끝에 붙은 백틱 연속 구간은 다음 토큰과 이어져 ``` 마커가 될 수 있으므로
+ * 다음 묶음(또는 스트림 종료)까지 보류해 마커가 묶음 경계에서 잘리지 않게 한다.
+ */
+final class ChunkCoalescer {
+
+    private final StringBuilder carry = new StringBuilder();
+
+    String append(List<String> tokens) {
+        for (String token : tokens) {
+            carry.append(token);
+        }
+        int cut = carry.length();
+        while (cut > 0 && carry.charAt(cut - 1) == '`') {
+            cut--;
+        }
+        String ready = carry.substring(0, cut);
+        carry.delete(0, cut);
+        return ready;
+    }
+
+    String drain() {
+        String rest = carry.toString();
+        carry.setLength(0);
+        return rest;
+    }
+}
@@ -0,0 +1,107 @@
+package com.ktb.chatapp.websocket.socketio.ai;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+/**
+ * 부하 테스트용 합성 LLM (llm-stub 프로필)
+ * 외부 API 호출 없이 설정된 첫 토큰 지연(TTFT)과 초당 토큰 수로 토큰 스트림을 흘려보낸다.
+ * 응답 길이와 에러 주입 여부는 (seed, 프롬프트)로 정해지므로 같은 질문에는 항상 같은 답변이 나온다.
+ * 모든 토큰은 공백 또는 개행 한 글자로 끝나므로 수신 측은 공백 수로 토큰 수를 셀 수 있다.
+ */
+public class SyntheticChatModel implements ChatModel {
+
+    private static final String[] WORDS = {
+            "채팅", "서버", "스트리밍", "응답", "테스트", "부하", "메시지", "지연",
+            "stream", "token", "latency", "socket", "room", "cache", "node", "event"
+    };
+    private static final int WORDS_PER_LINE = 12;
+
+    private final Duration timeToFirstToken;
+    private final Duration tokenInterval;
+    private final int minTokens;
+    private final int maxTokens;
+    private final double errorRate;
+    private final long seed;
+
+    public SyntheticChatModel(Duration timeToFirstToken, double tokensPerSecond,
+                              int minTokens, int maxTokens, double errorRate, long seed) {
+        if (tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("tokensPerSecond must be positive");
+        }
+        this.timeToFirstToken = timeToFirstToken;
+        this.tokenInterval = Duration.ofNanos((long) (1_000_000_000L / tokensPerSecond));
+        this.minTokens = Math.max(1, minTokens);
+        this.maxTokens = Math.max(this.minTokens, maxTokens);
+        this.errorRate = errorRate;
+        this.seed = seed;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        Plan plan = plan(prompt);
+        if (plan.failAt() >= 0) {
+            throw new SyntheticLlmException(plan.failAt());
+        }
+        return response(String.join("", plan.tokens()));
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.defer(() -> {
+            Plan plan = plan(prompt);
+            int emitted = plan.failAt() >= 0 ? plan.failAt() + 1 : plan.tokens().size();
+            // interval 은 고정 주기라 느린 구독자가 있어도 토큰 시각이 밀리지 않는다
+            return Flux.interval(timeToFirstToken, tokenInterval)
+                    .take(emitted)
+                    .<String>handle((index, sink) -> {
+                        if (index == plan.failAt()) {
+                            sink.error(new SyntheticLlmException(plan.failAt()));
+                        } else {
+                            sink.next(plan.tokens().get(index.intValue()));
+                        }
+                    })
+                    .map(SyntheticChatModel::response);
+        });
+    }
+
+    Plan plan(Prompt prompt) {
+        String system = prompt.getSystemMessage() != null ? prompt.getSystemMessage().getText() : "";
+        String user = prompt.getUserMessage() != null ? prompt.getUserMessage().getText() : "";
+        Random random = new Random(seed * 31 + Objects.hash(system, user));
+
+        int length = minTokens + random.nextInt(maxTokens - minTokens + 1);
+        List<String> tokens = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            String separator = (i + 1) % WORDS_PER_LINE == 0 || i == length - 1 ? "\n" : " ";
+            tokens.add(WORDS[random.nextInt(WORDS.length)] + separator);
+        }
+        int failAt = random.nextDouble() < errorRate ? random.nextInt(length) : -1;
+        return new Plan(tokens, failAt);
+    }
+
+    private static ChatResponse response(String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+    }
+
+    /**
+     * @param failAt 에러를 낼 토큰 위치, 에러 주입이 없으면 -1
+     */
+    record Plan(List<String> tokens, int failAt) {
+    }
+
+    static class SyntheticLlmException extends RuntimeException {
+        SyntheticLlmException(int position) {
+            super("Synthetic LLM error injected at token " + position);
+        }
+    }
+}
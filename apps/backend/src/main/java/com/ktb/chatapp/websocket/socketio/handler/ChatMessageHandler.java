@@ -3,7 +3,7 @@ package com.ktb.chatapp.websocket.socketio.handler;
 import com.corundumstudio.socketio.SocketIOClient;
 import com.corundumstudio.socketio.SocketIOServer;
 import com.corundumstudio.socketio.annotation.OnEvent;
-import com.ktb.chatapp.cache.RoomCacheStore;
+import com.ktb.chatapp.cache.RoomMembershipIndex;
 import com.ktb.chatapp.dto.ChatMessageRequest;
 import com.ktb.chatapp.dto.FileResponse;
 import com.ktb.chatapp.dto.MessageContent;
@@ -53,7 +53,7 @@ public class ChatMessageHandler {
     private final BannedWordChecker bannedWordChecker;
     private final RateLimitService rateLimitService;
     private final MeterRegistry meterRegistry;
-    private final RoomCacheStore roomCacheStore;
+    private final RoomMembershipIndex roomMembershipIndex;
     private final RabbitPublisher rabbitPublisher;
     private final ChatRedisPublisher chatRedisPublisher;
     private final ApplicationEventPublisher eventPublisher;
@@ -130,8 +130,7 @@ public class ChatMessageHandler {
 
             String roomId = data.getRoom();
 //            Room room = roomRepository.findById(roomId).orElse(null);
-            Room room = roomCacheStore.getRoom(roomId);
-            if (room == null || !room.getParticipantIds().contains(socketUser.id())) {
+            if (!roomMembershipIndex.isMember(roomId, socketUser.id())) {
                 recordError("room_access_denied");
                 client.sendEvent(ERROR, Map.of(
                     "code", "MESSAGE_ERROR",
@@ -172,10 +171,16 @@ public class ChatMessageHandler {
             Message savedMessage = messageRepository.save(message);
 
             MessageResponse messageResponse = createMessageResponse(savedMessage, sender);
-            socketIOServer.getRoomOperations(roomId)
-                    .sendEvent(MESSAGE, messageResponse);
-//            chatRedisPublisher.publish(roomId, MESSAGE, messageResponse);
-            eventPublisher.publishEvent(RedisBroadcastEvent.of(roomId, MESSAGE, messageResponse));
+            if (rabbitPublisher.isShardedDelivery()) {
+                // 방 샤드 consumer 가 로컬 소켓 전달과 relay 를 맡아 같은 방 메시지를 한 곳에서 순서대로 보낸다.
+                // consumer 는 방 단위로 전달하므로 참가자 목록은 싣지 않는다.
+                rabbitPublisher.sendChatEvent(roomId, List.of(), messageResponse);
+            } else {
+                socketIOServer.getRoomOperations(roomId)
+                        .sendEvent(MESSAGE, messageResponse);
+//                chatRedisPublisher.publish(roomId, MESSAGE, messageResponse);
+                eventPublisher.publishEvent(RedisBroadcastEvent.of(roomId, MESSAGE, messageResponse));
+            }
 
             // AI 멘션 처리 -> 필요한가?
             aiService.handleAIMentions(roomId, socketUser.id(), messageContent);
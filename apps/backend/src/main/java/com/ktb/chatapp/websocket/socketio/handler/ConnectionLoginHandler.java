@@ -3,9 +3,11 @@ package com.ktb.chatapp.websocket.socketio.handler;
 import com.corundumstudio.socketio.SocketIOClient;
 import com.corundumstudio.socketio.SocketIOServer;
 import com.corundumstudio.socketio.annotation.OnDisconnect;
+import com.ktb.chatapp.event.RedisBroadcastEvent;
 import com.ktb.chatapp.websocket.socketio.ConnectedUsers;
 import com.ktb.chatapp.websocket.socketio.SocketUser;
 import com.ktb.chatapp.websocket.socketio.UserRooms;
+import com.ktb.chatapp.websocket.socketio.ai.AiStreamGovernor;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
@@ -13,7 +15,9 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 import static com.ktb.chatapp.websocket.socketio.SocketIOEvents.*;
@@ -33,6 +37,10 @@ public class ConnectionLoginHandler {
     private final UserRooms userRooms;
     private final RoomJoinHandler roomJoinHandler;
     private final RoomLeaveHandler roomLeaveHandler;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AiStreamGovernor aiStreamGovernor;
+    // 접속 정보를 클러스터가 공유할 때(redis 저장소)만 중복 로그인을 통보한다
+    private final boolean duplicateLoginNotice;
 
     public ConnectionLoginHandler(
             SocketIOServer socketIOServer,
@@ -40,19 +48,29 @@ public class ConnectionLoginHandler {
             UserRooms userRooms,
             RoomJoinHandler roomJoinHandler,
             RoomLeaveHandler roomLeaveHandler,
-            MeterRegistry meterRegistry) {
+            ApplicationEventPublisher eventPublisher,
+            AiStreamGovernor aiStreamGovernor,
+            MeterRegistry meterRegistry,
+            @Value("${chat.data-store.type:local}") String dataStoreType) {
         this.socketIOServer = socketIOServer;
         this.connectedUsers = connectedUsers;
         this.userRooms = userRooms;
         this.roomJoinHandler = roomJoinHandler;
         this.roomLeaveHandler = roomLeaveHandler;
+        this.eventPublisher = eventPublisher;
+        this.aiStreamGovernor = aiStreamGovernor;
+        this.duplicateLoginNotice = "redis".equalsIgnoreCase(dataStoreType);
 
-        // Register gauge metric for concurrent users
-        Gauge.builder("socketio.concurrent.users", connectedUsers::size)
-                .description("Current number of concurrent Socket.IO users")
+        // Register gauge metric for concurrent users (이 노드에 연결된 소켓 수, 노드별 값을 합하면 클러스터 전체)
+        Gauge.builder("socketio.concurrent.users", this::localConnections)
+                .description("Current number of concurrent Socket.IO users on this node")
                 .register(meterRegistry);
     }
     
+    private int localConnections() {
+        return socketIOServer.getAllClients().size();
+    }
+
     /**
      * auth 처리가 선행되어야 해서 @OnConnect 대신 별도 메서드로 구현
      */
@@ -60,7 +78,9 @@ public class ConnectionLoginHandler {
         String userId = user.id();
         
         try {
-            // notifyDuplicateLogin(client, userId);
+            if (duplicateLoginNotice) {
+                notifyDuplicateLogin(client, userId);
+            }
             client.set("user", user);
             
             userRooms.get(userId).forEach(roomId -> {
@@ -71,7 +91,7 @@ public class ConnectionLoginHandler {
             connectedUsers.set(userId, user);
 
             log.info("Socket.IO user connected: {} ({}) - Total concurrent users: {}",
-                    getUserName(client), userId, connectedUsers.size());
+                    getUserName(client), userId, localConnections());
 
             client.joinRooms(Set.of("user:" + userId, "room-list"));
             
@@ -102,6 +122,9 @@ public class ConnectionLoginHandler {
             var socketUser = connectedUsers.get(userId);
             if (socketUser != null && socketId.equals(socketUser.socketId())) {
                 connectedUsers.del(userId);
+                userRooms.detachLocal(userId);
+                // 방 퇴장 처리에서 빠진 방이 있어도 이 사용자가 요청한 AI 스트림은 모두 취소한다
+                aiStreamGovernor.cancelRequester(userId, null);
             } else {
                 log.warn("Socket.IO disconnect: User {} has a different active connection. Skipping cleanup.", userId);
             }
@@ -111,7 +134,7 @@ public class ConnectionLoginHandler {
             client.disconnect();
             
             log.info("Socket.IO user disconnected: {} ({}) - Total concurrent users: {}",
-                    userName, userId, connectedUsers.size());
+                    userName, userId, localConnections());
         } catch (Exception e) {
             log.error("Error handling Socket.IO disconnection", e);
             client.sendEvent(ERROR, Map.of(
@@ -136,39 +159,48 @@ public class ConnectionLoginHandler {
     }
     
     /**
-     * TODO 멀티 클러스터에서 동작 안함 다중 노드의 경우 다른  노드에 접속된 사용자는 통보 불가함
-     * socketIOServer.getRoomOperations("user:" + userId) 로 처리 변경.
+     * 기존 연결이 이 노드에 있으면 직접, 다른 노드에 있으면 relay로 "user:" 룸에 통보한다.
+     * 새 연결이 "user:" 룸에 들어가기 전에 호출되며, relay는 발행 노드로 되돌아오지 않으므로
+     * 원격 통보는 기존 연결만 받는다.
      */
     private void notifyDuplicateLogin(SocketIOClient client, String userId) {
         var socketUser = connectedUsers.get(userId);
-        if (socketUser == null) {
-            return;
-        }
-        String existingSocketId = socketUser.socketId();
-        SocketIOClient existingClient = socketIOServer.getClient(UUID.fromString(existingSocketId));
-        if (existingClient == null) {
+        if (socketUser == null || client.getSessionId().toString().equals(socketUser.socketId())) {
             return;
         }
         
-        // Send duplicate login notification
-        existingClient.sendEvent(DUPLICATE_LOGIN, Map.of(
+        Map<String, Object> duplicateLogin = Map.of(
                 "type", "new_login_attempt",
-                "deviceInfo", client.getHandshakeData().getHttpHeaders().get("User-Agent"),
+                "deviceInfo", String.valueOf(client.getHandshakeData().getHttpHeaders().get("User-Agent")),
                 "ipAddress", client.getRemoteAddress().toString(),
                 "timestamp", System.currentTimeMillis()
-        ));
+        );
+        Map<String, Object> sessionEnded = Map.of(
+                "reason", "duplicate_login",
+                "message", "다른 기기에서 로그인하여 현재 세션이 종료되었습니다."
+        );
         
-        new Thread(() -> {
+        SocketIOClient existingClient = socketIOServer.getClient(UUID.fromString(socketUser.socketId()));
+        if (existingClient != null) {
+            existingClient.sendEvent(DUPLICATE_LOGIN, duplicateLogin);
+            scheduleSessionEnded(() -> existingClient.sendEvent(SESSION_ENDED, sessionEnded));
+            return;
+        }
+        
+        String userRoom = "user:" + userId;
+        eventPublisher.publishEvent(RedisBroadcastEvent.of(userRoom, DUPLICATE_LOGIN, duplicateLogin));
+        scheduleSessionEnded(() -> eventPublisher.publishEvent(RedisBroadcastEvent.of(userRoom, SESSION_ENDED, sessionEnded)));
+    }
+    
+    private void scheduleSessionEnded(Runnable notification) {
+        Thread.ofVirtual().name("duplicate-login-notifier").start(() -> {
             try {
                 Thread.sleep(Duration.ofSeconds(10));
-                existingClient.sendEvent(SESSION_ENDED, Map.of(
-                        "reason", "duplicate_login",
-                        "message", "다른 기기에서 로그인하여 현재 세션이 종료되었습니다."
-                ));
+                notification.run();
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 log.error("Error in duplicate login notification thread", e);
             }
-        }).start();
+        });
     }
 }
@@ -2,12 +2,15 @@ package com.ktb.chatapp.websocket.socketio.handler;
 
 import com.corundumstudio.socketio.SocketIOClient;
 import com.corundumstudio.socketio.annotation.OnEvent;
-import com.ktb.chatapp.cache.RoomCacheStore;
+import com.ktb.chatapp.cache.RoomMembershipIndex;
 import com.ktb.chatapp.dto.FetchMessagesRequest;
 import com.ktb.chatapp.dto.FetchMessagesResponse;
-import com.ktb.chatapp.model.Room;
+import com.ktb.chatapp.dto.ResumeMessagesRequest;
+import com.ktb.chatapp.dto.ResumeMessagesResponse;
+import com.ktb.chatapp.redis.RelayReplayService;
 import com.ktb.chatapp.repository.RoomRepository;
 import com.ktb.chatapp.websocket.socketio.SocketUser;
+import java.util.Collections;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,7 +31,8 @@ public class MessageFetchHandler {
 
     private final RoomRepository roomRepository;
     private final MessageLoader messageLoader;
-    private final RoomCacheStore roomCacheStore;
+    private final RoomMembershipIndex roomMembershipIndex;
+    private final RelayReplayService relayReplayService;
 
     @OnEvent(FETCH_PREVIOUS_MESSAGES)
     public void handleFetchMessages(SocketIOClient client, FetchMessagesRequest data) {
@@ -44,9 +48,8 @@ public class MessageFetchHandler {
         
         try {
             // 권한 체크
-            Room room = roomCacheStore.getRoom(data.roomId());
 //            Room room = roomRepository.findById(data.roomId()).orElse(null);
-            if (room == null || !room.getParticipantIds().contains(userId)) {
+            if (!roomMembershipIndex.isMember(data.roomId(), userId)) {
                 client.sendEvent(ERROR, Map.of(
                         "code", "LOAD_ERROR",
                         "message", "채팅방 접근 권한이 없습니다."
@@ -78,6 +81,51 @@ public class MessageFetchHandler {
         }
     }
 
+    /**
+     * 재연결 직후 놓친 메시지를 relay 스트림에서 채운다.
+     * complete=false 응답을 받은 클라이언트는 fetchPreviousMessages로 전환한다.
+     */
+    @OnEvent(RESUME_MESSAGES)
+    public void handleResumeMessages(SocketIOClient client, ResumeMessagesRequest data) {
+        String userId = getUserId(client);
+        if (userId == null) {
+            client.sendEvent(ERROR, Map.of(
+                    "code", "UNAUTHORIZED",
+                    "message", "인증이 필요합니다."
+            ));
+            return;
+        }
+        if (data == null || data.roomId() == null || data.after() == null) {
+            client.sendEvent(ERROR, Map.of(
+                    "code", "LOAD_ERROR",
+                    "message", "잘못된 요청입니다."
+            ));
+            return;
+        }
+
+        try {
+            if (!roomMembershipIndex.isMember(data.roomId(), userId)) {
+                client.sendEvent(ERROR, Map.of(
+                        "code", "LOAD_ERROR",
+                        "message", "채팅방 접근 권한이 없습니다."
+                ));
+                return;
+            }
+
+            ResumeMessagesResponse result = relayReplayService.resume(data.roomId(), data.after());
+            log.debug("Messages resumed from relay stream - room: {}, count: {}, complete: {}",
+                    data.roomId(), result.messages().size(), result.complete());
+
+            client.sendEvent(MESSAGES_RESUMED, result);
+
+        } catch (Exception e) {
+            log.error("Error handling resumeMessages", e);
+            // 스트림 조회 실패는 DB 조회로 복구하도록 불완전 응답을 보낸다
+            client.sendEvent(MESSAGES_RESUMED,
+                    new ResumeMessagesResponse(data.roomId(), Collections.emptyList(), false));
+        }
+    }
+
     private String getUserId(SocketIOClient client) {
         var user = (SocketUser) client.get("user");
         return user.id();
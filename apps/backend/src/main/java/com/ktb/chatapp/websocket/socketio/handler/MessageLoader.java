@@ -1,14 +1,13 @@
 package com.ktb.chatapp.websocket.socketio.handler;
 
+import com.ktb.chatapp.cache.UserCacheStore;
 import com.ktb.chatapp.dto.FetchMessagesRequest;
 import com.ktb.chatapp.dto.FetchMessagesResponse;
 import com.ktb.chatapp.dto.MessageResponse;
 import com.ktb.chatapp.model.Message;
 import com.ktb.chatapp.model.User;
 import com.ktb.chatapp.message.repository.MessageRepository;
-import com.ktb.chatapp.repository.UserRepository;
 import com.ktb.chatapp.service.MessageReadStatusService;
-import jakarta.annotation.Nullable;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -29,7 +28,7 @@ import static java.util.Collections.emptyList;
 public class MessageLoader {
 
     private final MessageRepository messageRepository;
-    private final UserRepository userRepository;
+    private final UserCacheStore userCacheStore;
     private final MessageResponseMapper messageResponseMapper;
     private final MessageReadStatusService messageReadStatusService;
 
@@ -68,15 +67,9 @@ public class MessageLoader {
         var messageIds = sortedMessages.stream().map(Message::getId).toList();
         messageReadStatusService.updateReadStatus(messageIds, userId); // 비동기?
 
-        // 벌크 조회
+        // 벌크 조회 (캐시 MGET + 캐시에 없는 발신자만 $in 한 번)
         List<String> senderIds = sortedMessages.stream().map(Message::getSenderId).toList();
-        List<User> senders = userRepository.findAllById(senderIds);
-        Map<String, User> senderMap = senders.stream().collect(
-            Collectors.toMap(
-                User::getId,
-                user -> user
-            )
-        );
+        Map<String, User> senderMap = userCacheStore.getUsers(senderIds);
 
         // 메시지 응답 생성
         List<MessageResponse> messageResponses = sortedMessages.stream()
@@ -97,16 +90,4 @@ public class MessageLoader {
                 .hasMore(hasMore)
                 .build();
     }
-
-    /**
-     * AI 경우 null 반환 가능
-     */
-    @Nullable
-    private User findUserById(String id) {
-        if (id == null) {
-            return null;
-        }
-        return userRepository.findById(id)
-                .orElse(null);
-    }
 }
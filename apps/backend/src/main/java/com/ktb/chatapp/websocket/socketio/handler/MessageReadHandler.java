@@ -3,17 +3,15 @@ package com.ktb.chatapp.websocket.socketio.handler;
 import com.corundumstudio.socketio.SocketIOClient;
 import com.corundumstudio.socketio.SocketIOServer;
 import com.corundumstudio.socketio.annotation.OnEvent;
-import com.ktb.chatapp.cache.RoomCacheStore;
+import com.ktb.chatapp.cache.RoomMembershipIndex;
 import com.ktb.chatapp.dto.MarkAsReadRequest;
 import com.ktb.chatapp.dto.MessagesReadResponse;
 import com.ktb.chatapp.event.RedisBroadcastEvent;
 import com.ktb.chatapp.model.Message;
-import com.ktb.chatapp.model.Room;
 import com.ktb.chatapp.model.User;
 import com.ktb.chatapp.rabbitmq.RabbitPublisher;
 import com.ktb.chatapp.redis.ChatRedisPublisher;
 import com.ktb.chatapp.message.repository.MessageRepository;
-import com.ktb.chatapp.repository.RoomRepository;
 import com.ktb.chatapp.repository.UserRepository;
 import com.ktb.chatapp.service.MessageReadStatusService;
 import com.ktb.chatapp.websocket.socketio.SocketUser;
@@ -40,9 +38,8 @@ public class MessageReadHandler {
     private final SocketIOServer socketIOServer;
     private final MessageReadStatusService messageReadStatusService;
     private final MessageRepository messageRepository;
-    private final RoomRepository roomRepository;
     private final UserRepository userRepository;
-    private final RoomCacheStore roomCacheStore;
+    private final RoomMembershipIndex roomMembershipIndex;
     private final RabbitPublisher rabbitPublisher;
     private final ChatRedisPublisher chatRedisPublisher;
     private final ApplicationEventPublisher eventPublisher;
@@ -74,8 +71,7 @@ public class MessageReadHandler {
                 return;
             }
 
-            Room room = roomRepository.findById(roomId).orElse(null);
-            if (room == null || !room.getParticipantIds().contains(userId)) {
+            if (!roomMembershipIndex.isMember(roomId, userId)) {
                 client.sendEvent(ERROR, Map.of("message", "Room access denied"));
                 return;
             }
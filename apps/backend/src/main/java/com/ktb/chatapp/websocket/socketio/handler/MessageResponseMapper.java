@@ -50,6 +50,7 @@ public class MessageResponseMapper {
                     .name(sender.getName())
                     .email(sender.getEmail())
                     .profileImage(sender.getProfileImage())
+                    .profileImageVariants(UserResponse.profileImageVariants(sender))
                     .build());
         }
 
@@ -62,6 +63,7 @@ public class MessageResponseMapper {
                         .originalname(file.getOriginalname())
                         .mimetype(file.getMimetype())
                         .size(file.getSize())
+                        .variants(FileResponse.variantUrls(file))
                         .build())
                 .ifPresent(builder::file);
 
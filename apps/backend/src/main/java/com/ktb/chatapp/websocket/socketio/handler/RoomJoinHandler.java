@@ -4,11 +4,13 @@ import com.corundumstudio.socketio.SocketIOClient;
 import com.corundumstudio.socketio.SocketIOServer;
 import com.corundumstudio.socketio.annotation.OnEvent;
 import com.ktb.chatapp.cache.RoomCacheStore;
+import com.ktb.chatapp.cache.UserCacheStore;
 import com.ktb.chatapp.dto.*;
 import com.ktb.chatapp.event.RedisBroadcastEvent;
 import com.ktb.chatapp.model.Message;
 import com.ktb.chatapp.model.MessageType;
 import com.ktb.chatapp.model.Room;
+import com.ktb.chatapp.model.User;
 import com.ktb.chatapp.rabbitmq.RabbitPublisher;
 import com.ktb.chatapp.redis.ChatRedisPublisher;
 import com.ktb.chatapp.message.repository.MessageRepository;
@@ -16,6 +18,7 @@ import com.ktb.chatapp.repository.RoomRepository;
 import com.ktb.chatapp.repository.UserRepository;
 import com.ktb.chatapp.websocket.socketio.SocketUser;
 import com.ktb.chatapp.websocket.socketio.UserRooms;
+import com.ktb.chatapp.websocket.socketio.ai.ActiveStreamRegistry;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -48,6 +51,8 @@ public class RoomJoinHandler {
     private final MessageResponseMapper messageResponseMapper;
     private final RoomLeaveHandler roomLeaveHandler;
     private final RoomCacheStore roomCacheStore;
+    private final UserCacheStore userCacheStore;
+    private final ActiveStreamRegistry activeStreamRegistry;
 
     private final RabbitPublisher rabbitPublisher;
     private final ApplicationEventPublisher eventPublisher;
@@ -83,13 +88,16 @@ public class RoomJoinHandler {
             if (userRooms.isInRoom(userId, roomId)) {
                 log.debug("User {} already in room {}", userId, roomId);
                 client.joinRoom(roomId);
-                client.sendEvent(JOIN_ROOM_SUCCESS, Map.of("roomId", roomId));
+                userRooms.attachLocal(userId, roomId);
+                // 재연결한 클라이언트도 진행 중인 AI 응답을 이어받을 수 있게 activeStreams 를 같이 보낸다
+                client.sendEvent(JOIN_ROOM_SUCCESS, Map.of(
+                        "roomId", roomId,
+                        "activeStreams", activeStreamRegistry.snapshot(roomId)));
                 return;
             }
 
-            // MongoDB의 $addToSet 연산자를 사용한 원자적 업데이트
-            roomRepository.addParticipant(roomId, userId);
-            roomCacheStore.evictRoom(roomId);
+            // MongoDB의 $addToSet 연산자를 사용한 원자적 업데이트, 캐시는 갱신된 방으로 덮어쓴다
+            roomCacheStore.addParticipant(roomId, userId);
 
             // Join socket room and add to user's room set
             client.joinRoom(roomId);
@@ -121,12 +129,12 @@ public class RoomJoinHandler {
                 return;
             }
 
-            // 참가자 정보 조회
-            List<UserResponse> participants = roomOpt.get().getParticipantIds()
-                    .stream()
-                    .map(userRepository::findById)
-                    .filter(Optional::isPresent)
-                    .map(Optional::get)
+            // 참가자 정보 조회 (캐시 MGET + 캐시에 없는 사용자만 $in 한 번)
+            Set<String> participantIds = roomOpt.get().getParticipantIds();
+            Map<String, User> users = userCacheStore.getUsers(participantIds);
+            List<UserResponse> participants = participantIds.stream()
+                    .map(users::get)
+                    .filter(Objects::nonNull)
                     .map(UserResponse::from)
                     .toList();
 
@@ -135,7 +143,7 @@ public class RoomJoinHandler {
                     .participants(participants)
                     .messages(messageLoadResult.getMessages())
                     .hasMore(messageLoadResult.isHasMore())
-                    .activeStreams(Collections.emptyList())
+                    .activeStreams(activeStreamRegistry.snapshot(roomId))
                     .build();
 
             client.sendEvent(JOIN_ROOM_SUCCESS, response);
@@ -5,6 +5,7 @@ import com.corundumstudio.socketio.SocketIOServer;
 import com.corundumstudio.socketio.annotation.OnEvent;
 import com.ktb.chatapp.cache.IpCacheStore;
 import com.ktb.chatapp.cache.RoomCacheStore;
+import com.ktb.chatapp.cache.UserCacheStore;
 import com.ktb.chatapp.dto.MessageResponse;
 import com.ktb.chatapp.dto.UserResponse;
 import com.ktb.chatapp.event.RedisBroadcastEvent;
@@ -19,11 +20,12 @@ import com.ktb.chatapp.repository.RoomRepository;
 import com.ktb.chatapp.repository.UserRepository;
 import com.ktb.chatapp.websocket.socketio.SocketUser;
 import com.ktb.chatapp.websocket.socketio.UserRooms;
+import com.ktb.chatapp.websocket.socketio.ai.AiStreamGovernor;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -49,10 +51,12 @@ public class RoomLeaveHandler {
     private final UserRooms userRooms;
     private final MessageResponseMapper messageResponseMapper;
     private final RoomCacheStore roomCacheStore;
+    private final UserCacheStore userCacheStore;
     private final IpCacheStore ipCacheStore;
     private final RabbitPublisher rabbitPublisher;
     private final ChatRedisPublisher chatRedisPublisher;
     private final ApplicationEventPublisher eventPublisher;
+    private final AiStreamGovernor aiStreamGovernor;
 
     @OnEvent(LEAVE_ROOM)
     public void handleLeaveRoom(SocketIOClient client, String roomId) {
@@ -78,12 +82,14 @@ public class RoomLeaveHandler {
                 return;
             }
 
-            roomCacheStore.evictRoom(roomId);
-            roomRepository.removeParticipant(roomId, userId);
+            // 퇴장 반영과 함께 캐시를 갱신된 방으로 덮어써 이전 참가자 목록이 남지 않게 한다 (파일 접근 권한 등)
+            roomCacheStore.removeParticipant(roomId, userId);
             ipCacheStore.removeIp(userId);
 
             client.leaveRoom(roomId);
             userRooms.remove(userId, roomId);
+            // 나간 사용자가 요청한 AI 응답은 더 받을 사람이 없으므로 바로 취소한다
+            aiStreamGovernor.cancelRequester(userId, roomId);
             
             log.info("User {} left room {}", userName, room.getName());
             
@@ -135,17 +141,17 @@ public class RoomLeaveHandler {
     }
     
     private void broadcastParticipantList(String roomId) {
-        Optional<Room> roomOpt = roomRepository.findById(roomId);
-        if (roomOpt.isEmpty()) {
+        // 퇴장 직후 캐시가 갱신된 방으로 덮어써져 있으므로 캐시에서 읽는다
+        Room room = roomCacheStore.getRoom(roomId);
+        if (room == null) {
             return;
         }
 
-        var participantList = roomOpt.get()
-                .getParticipantIds()
+        Map<String, User> users = userCacheStore.getUsers(room.getParticipantIds());
+        var participantList = room.getParticipantIds()
                 .stream()
-                .map(userRepository::findById)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
+                .map(users::get)
+                .filter(Objects::nonNull)
                 .map(UserResponse::from)
                 .toList();
 
@@ -20,9 +20,11 @@ public class StreamingSession {
     private String query;
     private long timestamp;
     @Builder.Default
-    private long lastUpdate = System.currentTimeMillis();
+    private volatile long lastUpdate = System.currentTimeMillis();
+    // 청크마다 String을 새로 만들지 않도록 누적 버퍼 사용
     @Builder.Default
-    private String content = "";
+    private StringBuilder content = new StringBuilder();
+    private int chunkSequence;
 
     public AiType aiTypeEnum() {
         if (aiType == null) return null;
@@ -38,9 +40,44 @@ public class StreamingSession {
         return aiTypeEnum;
     }
 
-    public void appendContent(String contentChunk) {
-        content += contentChunk;
+    /**
+     * 청크를 누적하고 이 청크의 순번(1부터)을 반환한다.
+     * 입장 시 스냅샷과 동시에 호출될 수 있어 짧게 동기화한다.
+     */
+    public synchronized int appendContent(String contentChunk) {
+        content.append(contentChunk);
         lastUpdate = System.currentTimeMillis();
+        return ++chunkSequence;
+    }
+
+    public synchronized String getContent() {
+        return content.toString();
+    }
+
+    /**
+     * 지금까지의 내용과 마지막 청크 순번을 함께 반환한다. 클라이언트는 이후 seq 청크부터 이어 붙인다.
+     */
+    public synchronized ContentSnapshot snapshot() {
+        return new ContentSnapshot(content.toString(), chunkSequence);
+    }
+
+    /**
+     * 다른 노드에서 relay 된 청크 프레임을 반영한다. fullContent 가 있으면 교체하고,
+     * 없으면 순번이 이어질 때만 delta 를 붙인다(빠진 프레임이 있으면 다음 체크포인트까지 기다림).
+     */
+    public synchronized void applyRelayedChunk(int fromSeq, int seq, String delta, String fullContent) {
+        if (fullContent != null) {
+            content.setLength(0);
+            content.append(fullContent);
+            chunkSequence = seq;
+        } else if (fromSeq == chunkSequence + 1 && delta != null) {
+            content.append(delta);
+            chunkSequence = seq;
+        }
+        lastUpdate = System.currentTimeMillis();
+    }
+
+    public record ContentSnapshot(String content, int seq) {
     }
     
     public long generationTimeMillis() {
@@ -0,0 +1,258 @@
+package com.ktb.chatapp.cache;
+
+import com.ktb.chatapp.model.Room;
+import com.ktb.chatapp.repository.RoomRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RoomCacheStore 테스트")
+class RoomCacheStoreTest {
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private RoomMembershipIndex membershipIndex;
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(RoomCacheStore.CACHE_NAME);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("같은 방의 동시 미스는 원본을 한 번만 읽고 결과를 나눠 쓴다")
+    void getRoom_concurrentMissesCoalesced() throws Exception {
+        // given
+        RoomCacheStore store = store(Duration.ofSeconds(10));
+        CountDownLatch release = new CountDownLatch(1);
+        when(roomRepository.findById("room-1")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(room("user-1"));
+        });
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        // when
+        List<Future<Room>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> store.getRoom("room-1")));
+            }
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (loads("coalesced") < callers - 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            // then
+            for (Future<Room> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).getParticipantIds()).containsExactly("user-1");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(roomRepository, times(1)).findById("room-1");
+        assertThat(loads("miss")).isEqualTo(1);
+        assertThat(loads("coalesced")).isEqualTo(callers - 1);
+    }
+
+    @Test
+    @DisplayName("없는 방은 negative-ttl 동안 기억하고 지나면 다시 읽는다")
+    void getRoom_negativeEntryExpires() throws Exception {
+        // given
+        RoomCacheStore store = store(Duration.ofMillis(50));
+        when(roomRepository.findById("missing")).thenReturn(Optional.empty());
+
+        // when
+        Room first = store.getRoom("missing");
+        Room second = store.getRoom("missing");
+        Thread.sleep(60);
+        Room third = store.getRoom("missing");
+
+        // then
+        assertThat(first).isNull();
+        assertThat(second).isNull();
+        assertThat(third).isNull();
+        verify(roomRepository, times(2)).findById("missing");
+    }
+
+    @Test
+    @DisplayName("여러 방 조회는 캐시에 없는 방만 한 번에 읽고, 없는 방도 기억해 다음 조회는 원본을 읽지 않는다")
+    void getRooms_loadsOnlyMissesOnce() {
+        // given
+        RoomCacheStore store = store(Duration.ofSeconds(10));
+        store.putRoom(roomWithId("room-1", "user-1"));
+        when(roomRepository.findAllById(Set.of("room-2", "missing"))).thenReturn(List.of(roomWithId("room-2", "user-2")));
+
+        // when
+        Map<String, Room> first = store.getRooms(List.of("room-1", "room-2", "missing"));
+        Map<String, Room> second = store.getRooms(List.of("room-1", "room-2", "missing"));
+
+        // then
+        assertThat(first).containsOnlyKeys("room-1", "room-2");
+        assertThat(second).containsOnlyKeys("room-1", "room-2");
+        assertThat(second.get("room-2").getParticipantIds()).containsExactly("user-2");
+        verify(roomRepository, times(1)).findAllById(any());
+        assertThat(loads("miss")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("참가자 추가는 방 리스 안에서 갱신된 방으로 캐시를 덮어써 다음 조회가 미스 없이 최신 참가자를 본다")
+    void addParticipant_overwritesCachedRoom() {
+        // given
+        RoomCacheStore store = store(Duration.ofSeconds(10));
+        store.putRoom(room("user-1"));
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("room:cache:lock:room-1"), anyString(), any(Duration.class))).thenReturn(true);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Room.class)))
+                .thenReturn(room("user-1", "user-2"));
+
+        // when
+        Room updated = store.addParticipant("room-1", "user-2");
+        Room cached = store.getRoom("room-1");
+
+        // then
+        assertThat(updated.getParticipantIds()).containsExactlyInAnyOrder("user-1", "user-2");
+        assertThat(cached.getParticipantIds()).containsExactlyInAnyOrder("user-1", "user-2");
+        verify(roomRepository, never()).findById(anyString());
+        verify(membershipIndex).added("room-1", "user-2");
+        assertThat(meterRegistry.counter("room.cache.membership.updates", "result", "updated").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("방 리스를 바로 못 잡으면 원본을 바꾸고 캐시를 지운 채 돌아가고, 백그라운드에서 리스를 잡아 원본을 다시 읽어 덮어쓴다")
+    void removeParticipant_lockLate_reloadsUnderLease() throws Exception {
+        // given
+        RoomCacheStore store = store(Duration.ofSeconds(10));
+        store.putRoom(room("user-1", "user-2"));
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("room:cache:lock:room-1"), anyString(), any(Duration.class)))
+                .thenReturn(false, false, true);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Room.class)))
+                .thenReturn(room("user-1"));
+        when(roomRepository.findById("room-1")).thenReturn(Optional.of(room("user-1")));
+
+        // when
+        store.removeParticipant("room-1", "user-2");
+
+        // then
+        verify(membershipIndex).removed("room-1", "user-2");
+        assertThat(awaitMembership("reloaded", Duration.ofSeconds(2))).isEqualTo(1);
+        assertThat(store.getRoom("room-1").getParticipantIds()).containsExactly("user-1");
+        verify(roomRepository, times(1)).findById("room-1");
+        store.shutdown();
+    }
+
+    @Test
+    @DisplayName("리스 한 번 길이 동안도 방 리스를 못 잡으면 원본만 바꾸고 캐시는 지운다")
+    void removeParticipant_lockUnavailable_evicts() throws Exception {
+        // given
+        RoomCacheStore store = store(Duration.ofSeconds(10));
+        store.putRoom(room("user-1", "user-2"));
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("room:cache:lock:room-1"), anyString(), any(Duration.class))).thenReturn(false);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Room.class)))
+                .thenReturn(room("user-1"));
+
+        // when
+        long start = System.nanoTime();
+        store.removeParticipant("room-1", "user-2");
+        long callMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // then
+        assertThat(callMillis).isLessThan(500);
+        assertThat(cacheManager.getCache(RoomCacheStore.CACHE_NAME).get("room-1")).isNull();
+        verify(membershipIndex).removed("room-1", "user-2");
+        assertThat(awaitMembership("evicted", Duration.ofSeconds(5))).isEqualTo(1);
+        assertThat(cacheManager.getCache(RoomCacheStore.CACHE_NAME).get("room-1")).isNull();
+        store.shutdown();
+    }
+
+    @Test
+    @DisplayName("만료 시각에 이른 항목은 미리 갱신 대상이고 막 읽은 항목은 아니다")
+    void shouldRefreshEarly_nearExpiry() {
+        // given
+        RoomCacheStore store = store(Duration.ofSeconds(10));
+        long now = System.currentTimeMillis();
+        CachedRoom expiring = new CachedRoom(room("user-1"), now - Duration.ofHours(1).toMillis(), 10);
+        CachedRoom fresh = new CachedRoom(room("user-1"), now, 10);
+        CachedRoom negative = new CachedRoom(null, now - Duration.ofHours(1).toMillis(), 10);
+
+        // when & then
+        assertThat(store.shouldRefreshEarly(expiring)).isTrue();
+        assertThat(store.shouldRefreshEarly(fresh)).isFalse();
+        assertThat(store.shouldRefreshEarly(negative)).isFalse();
+    }
+
+    private RoomCacheStore store(Duration negativeTtl) {
+        return new RoomCacheStore(roomRepository, mongoTemplate, cacheManager, stringRedisTemplate, membershipIndex, meterRegistry,
+                Duration.ofHours(1), negativeTtl, 1.0);
+    }
+
+    // 리스 재시도는 백그라운드에서 진행되므로 결과 카운터가 오를 때까지 기다린다
+    private double awaitMembership(String result, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        double count;
+        while ((count = meterRegistry.counter("room.cache.membership.updates", "result", result).count()) == 0
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return count;
+    }
+
+    private double loads(String type) {
+        return meterRegistry.counter("room.cache.loads", "type", type).count();
+    }
+
+    private static Room room(String... participantIds) {
+        return roomWithId("room-1", participantIds);
+    }
+
+    private static Room roomWithId(String id, String... participantIds) {
+        Room room = new Room();
+        room.setId(id);
+        room.setName("room");
+        room.setParticipantIds(new HashSet<>(Set.of(participantIds)));
+        return room;
+    }
+}
@@ -0,0 +1,119 @@
+package com.ktb.chatapp.cache;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * 방 참가 여부 인덱스 벤치마크 (참가자당 힙 바이트, contains 시간)
+ * 실행: ./mvnw test -Dtest=RoomMembershipIndexBenchmark -Dbenchmark=true
+ * HashSet&lt;String&gt; 은 캐시된 Room 의 participantIds 처럼 집합마다 ID 문자열을 따로 들고 있는 경우로 잰다.
+ * 힙 크기는 같은 집합을 여러 벌 만들어 GC 전후 차이로 재므로 비교용으로만 본다.
+ */
+@DisplayName("RoomMembershipIndex 벤치마크")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RoomMembershipIndexBenchmark {
+
+    private static final int TOTAL_MEMBERS = 1_000_000;
+    private static final long TARGET_NANOS = 200_000_000L;
+
+    @Test
+    @DisplayName("IntHashSet / HashSet<String> 참가자당 메모리와 contains 비교")
+    void compareMembershipSets() {
+        System.out.printf("%10s %20s %20s %14s %14s%n",
+                "members", "IntHashSet(B/m)", "HashSet<String>(B/m)", "int(ns/op)", "string(ns/op)");
+        for (int members : new int[]{10, 100, 1_000, 10_000, 100_000}) {
+            int copies = Math.max(1, TOTAL_MEMBERS / members);
+            List<String> userIds = userIds(members);
+            int[] numbers = new int[members];
+            for (int i = 0; i < members; i++) {
+                numbers[i] = i + 1;
+            }
+
+            IntHashSet intSet = IntHashSet.of(numbers, members);
+            double intBytes = (double) intSet.memoryBytes() / members;
+            double stringBytes = heapPerMember(copies, members, () -> {
+                Set<String> set = new HashSet<>();
+                userIds.forEach(id -> set.add(new String(id)));
+                return set;
+            });
+
+            Set<String> stringSet = new HashSet<>(userIds);
+            String probe = userIds.get(members / 2);
+            double intNanos = measure(() -> intSet.contains(members / 2));
+            double stringNanos = measure(() -> stringSet.contains(probe));
+            System.out.printf("%10d %20.1f %20.1f %14.1f %14.1f%n",
+                    members, intBytes, stringBytes, intNanos, stringNanos);
+        }
+
+        // 노드마다 사용자 한 명당 한 번 드는 번호표 비용 (ID 문자열 포함)
+        double internBytes = heapPerMember(1, TOTAL_MEMBERS, () -> {
+            ConcurrentHashMap<String, Integer> numbers = new ConcurrentHashMap<>();
+            int next = 0;
+            for (String id : userIds(TOTAL_MEMBERS)) {
+                numbers.put(id, ++next);
+            }
+            return numbers;
+        });
+        System.out.printf("interned user id: %.1f B/user (node-wide, shared by every room)%n", internBytes);
+    }
+
+    private static List<String> userIds(int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(new ObjectId().toHexString());
+        }
+        return ids;
+    }
+
+    private static double heapPerMember(int copies, int members, Supplier<Object> factory) {
+        long before = usedHeap();
+        List<Object> retained = new ArrayList<>(copies);
+        for (int i = 0; i < copies; i++) {
+            retained.add(factory.get());
+        }
+        long after = usedHeap();
+        double perMember = (double) (after - before) / ((long) copies * members);
+        // 잰 뒤까지 살아 있도록 참조한다
+        if (retained.size() != copies) {
+            throw new IllegalStateException();
+        }
+        return perMember;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static double measure(BooleanSupplier task) {
+        long warmupEnd = System.nanoTime() + TARGET_NANOS / 3;
+        boolean sink = false;
+        while (System.nanoTime() < warmupEnd) {
+            sink ^= task.getAsBoolean();
+        }
+        long iterations = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            sink ^= task.getAsBoolean();
+            iterations++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < TARGET_NANOS);
+        if (sink && iterations < 0) {
+            throw new IllegalStateException();
+        }
+        return (double) elapsed / iterations;
+    }
+}
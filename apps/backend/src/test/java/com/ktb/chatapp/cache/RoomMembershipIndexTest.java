@@ -0,0 +1,216 @@
+package com.ktb.chatapp.cache;
+
+import com.ktb.chatapp.model.Room;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RoomMembershipIndex 테스트")
+class RoomMembershipIndexTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Redis 집합을 한 번 읽으면 이후 확인은 로컬 집합으로 답한다")
+    void isMember_redisHitCachedLocally() {
+        // given
+        RoomMembershipIndex index = index();
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.members("room:members:room-1")).thenReturn(Set.of("", "user-1", "user-2"));
+
+        // when & then
+        assertThat(index.isMember("room-1", "user-1")).isTrue();
+        assertThat(index.isMember("room-1", "user-2")).isTrue();
+        assertThat(index.isMember("room-1", "user-3")).isFalse();
+        verify(setOperations, times(1)).members("room:members:room-1");
+        assertThat(lookups("redis")).isEqualTo(1);
+        assertThat(lookups("local")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("퇴장은 로컬 집합에 바로 반영되고 다른 노드의 참가 메시지도 반영된다")
+    void changes_appliedToLocalSet() {
+        // given
+        RoomMembershipIndex index = index();
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.members("room:members:room-1")).thenReturn(Set.of("", "user-1"));
+        assertThat(index.isMember("room-1", "user-1")).isTrue();
+
+        // when
+        index.removed("room-1", "user-1");
+        index.onMessage(message("other-node|room-1|+user-2"), null);
+
+        // then
+        assertThat(index.isMember("room-1", "user-1")).isFalse();
+        assertThat(index.isMember("room-1", "user-2")).isTrue();
+        verify(setOperations, times(1)).members("room:members:room-1");
+        verify(redisTemplate).convertAndSend(eq(RoomMembershipIndex.CHANNEL), any(String.class));
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("room:members:room-1", "room:members:gen:room-1")),
+                eq("-"), eq("user-1"), eq(String.valueOf(Duration.ofHours(1).toMillis())));
+    }
+
+    @Test
+    @DisplayName("집합이 없으면 원본으로 답하고, 읽는 사이 세대가 바뀌어 만들지 못했으면 로컬에도 올리지 않는다")
+    @SuppressWarnings("unchecked")
+    void isMember_buildSkippedWhenGenerationChanged() {
+        // given
+        RoomMembershipIndex index = index();
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.members("room:members:room-1")).thenReturn(Set.of());
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("room:members:gen:room-1")).thenReturn("3");
+        Room room = new Room();
+        room.setId("room-1");
+        room.setParticipantIds(new HashSet<>(Set.of("user-1")));
+        when(mongoTemplate.findOne(any(Query.class), eq(Room.class))).thenReturn(room);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(0L);
+
+        // when
+        boolean first = index.isMember("room-1", "user-1");
+        boolean second = index.isMember("room-1", "user-1");
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class),
+                eq(List.of("room:members:room-1", "room:members:gen:room-1")), args.capture());
+        assertThat(args.getValue()).containsExactly("3", String.valueOf(Duration.ofHours(1).toMillis()), "", "user-1");
+        assertThat(index.localRooms()).isZero();
+        assertThat(lookups("build")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("다른 요청이 방을 채우는 중이면 집합 전체를 읽지 않고 SISMEMBER 로 답한다")
+    void isMember_whileLoading_usesSismember() {
+        // given
+        RoomMembershipIndex index = index();
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("room:members:room-1")), eq("user-2")))
+                .thenReturn(1L);
+        boolean[] concurrent = new boolean[1];
+        when(setOperations.members("room:members:room-1")).thenAnswer(invocation -> {
+            concurrent[0] = index.isMember("room-1", "user-2");
+            return Set.of("", "user-1", "user-2");
+        });
+
+        // when
+        boolean loader = index.isMember("room-1", "user-1");
+
+        // then
+        assertThat(loader).isTrue();
+        assertThat(concurrent[0]).isTrue();
+        verify(setOperations, times(1)).members("room:members:room-1");
+        assertThat(index.localRooms()).isEqualTo(1);
+        assertThat(lookups("redis")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("채우는 사이 그 방에 변경이 오면 읽은 집합을 버리고, 다른 방의 변경은 채우기를 막지 않는다")
+    void isMember_changeDuringLoad_discardsOnlyThatRoom() {
+        // given
+        RoomMembershipIndex index = index();
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.members("room:members:room-1")).thenAnswer(invocation -> {
+            index.onMessage(message("other-node|room-1|-user-2"), null);
+            return Set.of("", "user-1", "user-2");
+        });
+        when(setOperations.members("room:members:room-2")).thenAnswer(invocation -> {
+            index.onMessage(message("other-node|room-3|+user-9"), null);
+            return Set.of("", "user-1");
+        });
+
+        // when
+        index.isMember("room-1", "user-1");
+        index.isMember("room-2", "user-1");
+        index.isMember("room-1", "user-1");
+        index.isMember("room-2", "user-1");
+
+        // then
+        verify(setOperations, times(2)).members("room:members:room-1");
+        verify(setOperations, times(1)).members("room:members:room-2");
+        assertThat(lookups("local")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("IntHashSet 은 늘리고 줄여도 원래 집합을 바꾸지 않는다")
+    void intHashSet_copyOnWrite() {
+        // given
+        int[] values = new int[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i + 1;
+        }
+        IntHashSet set = IntHashSet.of(values, values.length);
+
+        // when
+        IntHashSet grown = set.with(5000);
+        IntHashSet shrunk = grown.without(1);
+
+        // then
+        assertThat(set.size()).isEqualTo(1000);
+        assertThat(set.contains(1000)).isTrue();
+        assertThat(set.contains(5000)).isFalse();
+        assertThat(grown.contains(5000)).isTrue();
+        assertThat(shrunk.size()).isEqualTo(1000);
+        assertThat(shrunk.contains(1)).isFalse();
+        assertThat(grown.contains(1)).isTrue();
+        assertThat(set.without(4242)).isSameAs(set);
+        assertThat(IntHashSet.empty().contains(0)).isFalse();
+    }
+
+    private RoomMembershipIndex index() {
+        return new RoomMembershipIndex(redisTemplate, mongoTemplate, listenerContainer, meterRegistry,
+                Duration.ofHours(1), Duration.ofSeconds(30), 100, 1000);
+    }
+
+    private double lookups(String source) {
+        return meterRegistry.counter("room.membership.lookups", "source", source).count();
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(RoomMembershipIndex.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
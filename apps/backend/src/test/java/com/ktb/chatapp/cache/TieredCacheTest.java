@@ -0,0 +1,218 @@
+package com.ktb.chatapp.cache;
+
+import com.ktb.chatapp.config.RedisConfig;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TieredCache 테스트")
+class TieredCacheTest {
+
+    @Mock
+    private RedisCache redisCache;
+
+    private final List<String> published = new ArrayList<>();
+
+    @Test
+    @DisplayName("L2 에서 읽은 값은 L1 에 올라가 다음 조회는 Redis 를 거치지 않는다")
+    void get_secondLookupServedLocally() {
+        // given
+        TieredCache cache = cache(Duration.ofMinutes(1), 100);
+        when(redisCache.get("room-1")).thenReturn(new SimpleValueWrapper("value"));
+
+        // when
+        Cache.ValueWrapper first = cache.get("room-1");
+        Cache.ValueWrapper second = cache.get("room-1");
+
+        // then
+        assertThat(first.get()).isEqualTo("value");
+        assertThat(second.get()).isEqualTo("value");
+        verify(redisCache, times(1)).get("room-1");
+        assertThat(cache.localHits()).isEqualTo(1);
+        assertThat(cache.localMisses()).isEqualTo(1);
+        assertThat(cache.remoteHits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("삭제와 쓰기는 L2 에 반영하고 L1 을 지운 뒤 다른 노드에 무효화를 알린다")
+    void evictAndPut_invalidateLocalAndPublish() {
+        // given
+        TieredCache cache = cache(Duration.ofMinutes(1), 100);
+        when(redisCache.getName()).thenReturn("RoomCache");
+        when(redisCache.get("room-1")).thenReturn(new SimpleValueWrapper("old"), new SimpleValueWrapper("new"));
+        cache.get("room-1");
+
+        // when
+        cache.evict("room-1");
+        Cache.ValueWrapper reloaded = cache.get("room-1");
+        cache.put("room-2", "value");
+        cache.clear();
+
+        // then
+        assertThat(reloaded.get()).isEqualTo("new");
+        verify(redisCache).evict("room-1");
+        verify(redisCache).put("room-2", "value");
+        verify(redisCache).clear();
+        assertThat(published).containsExactly("RoomCache|room-1", "RoomCache|room-2", "RoomCache|*");
+    }
+
+    @Test
+    @DisplayName("L1 항목은 TTL 이 지나면 L2 에서 다시 읽고, 최대 크기를 넘으면 오래 조회되지 않은 항목부터 지운다")
+    void local_expiresAndStaysBounded() throws Exception {
+        // given
+        TieredCache expiring = cache(Duration.ofMillis(20), 100);
+        when(redisCache.get(any())).thenAnswer(invocation -> new SimpleValueWrapper(invocation.getArgument(0)));
+
+        // when
+        expiring.get("room-1");
+        Thread.sleep(40);
+        expiring.get("room-1");
+
+        TieredCache bounded = cache(Duration.ofMinutes(1), 10);
+        for (int i = 0; i < 50; i++) {
+            bounded.get("room-" + i);
+        }
+
+        // then
+        assertThat(expiring.remoteHits()).isEqualTo(2);
+        assertThat(bounded.localSize()).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("L2 를 읽는 사이 같은 키가 무효화되면 L1 에 올리지 않고, 다른 키의 무효화는 영향을 주지 않는다")
+    void get_invalidatedDuringLoad_skipsOnlyThatKey() {
+        // given
+        TieredCache cache = cache(Duration.ofMinutes(1), 100);
+        when(redisCache.get("room-1")).thenAnswer(invocation -> {
+            cache.evictLocal("room-2");
+            return new SimpleValueWrapper("value");
+        });
+        when(redisCache.get("room-2")).thenAnswer(invocation -> {
+            cache.evictLocal("room-2");
+            return new SimpleValueWrapper("stale");
+        });
+
+        // when
+        cache.get("room-1");
+        cache.get("room-1");
+        cache.get("room-2");
+        cache.get("room-2");
+
+        // then
+        verify(redisCache, times(1)).get("room-1");
+        verify(redisCache, times(2)).get("room-2");
+        assertThat(cache.localSize()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("다른 노드의 무효화 메시지는 해당 키의 L1 만 지우고, 자기 노드가 보낸 메시지는 무시한다")
+    void onMessage_evictsLocalEntryFromOtherNodes() {
+        // given
+        RedisCacheManager redisCacheManager = mock(RedisCacheManager.class);
+        when(redisCacheManager.getCache("RoomCache")).thenReturn(redisCache);
+        when(redisCache.get("room-1")).thenReturn(new SimpleValueWrapper("value"));
+        TieredCacheManager manager = new TieredCacheManager(redisCacheManager,
+                mock(StringRedisTemplate.class),
+                mock(RedisMessageListenerContainer.class),
+                Map.of("RoomCache", new TieredCacheManager.LocalTier(Duration.ofMinutes(1), 100)));
+        Cache cache = manager.getCache("RoomCache");
+        cache.get("room-1");
+
+        // when
+        manager.onMessage(message(RedisConfig.SERVER_ID + "|RoomCache|room-1"), null);
+        cache.get("room-1");
+        manager.onMessage(message("other-node|RoomCache|room-1"), null);
+        cache.get("room-1");
+
+        // then
+        verify(redisCache, times(2)).get("room-1");
+        assertThat(manager.getCache("RoomCache")).isSameAs(cache);
+        assertThat(((TieredCache) cache).remoteInvalidations()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("여러 키 조회는 L1 에 없는 키만 MGET 한 번으로 읽고, 채우기는 비어 있던 키만 L1 에 올린다")
+    void getAllAndPutAllIfAbsent_batchRemoteCalls() {
+        // given
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        when(redisTemplate.execute(any(RedisCallback.class)))
+                .thenAnswer(invocation -> invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection);
+            return List.of(true, false);
+        });
+        when(redisCache.getName()).thenReturn("RoomCache");
+        when(redisCache.getCacheConfiguration()).thenReturn(RedisCacheConfiguration.defaultCacheConfig()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(RedisSerializer.string())));
+        when(redisCache.get("room-1")).thenReturn(new SimpleValueWrapper("v1"));
+        when(stringCommands.mGet(any(byte[][].class))).thenReturn(Arrays.asList(bytes("v2"), null));
+        TieredCache cache = new TieredCache(redisCache, Duration.ofMinutes(1), 100, (cacheName, key) -> { }, redisTemplate);
+        cache.get("room-1");
+
+        // when
+        Map<String, Object> found = cache.getAll(List.of("room-1", "room-2", "room-3"));
+        Map<String, String> loaded = new LinkedHashMap<>();
+        loaded.put("room-3", "v3");
+        loaded.put("room-4", "v4");
+        cache.putAllIfAbsent(loaded);
+        Map<String, Object> again = cache.getAll(List.of("room-2", "room-3"));
+
+        // then
+        assertThat(found).containsOnly(Map.entry("room-1", "v1"), Map.entry("room-2", "v2"));
+        assertThat(again).containsOnly(Map.entry("room-2", "v2"), Map.entry("room-3", "v3"));
+        verify(stringCommands, times(1)).mGet(bytes("RoomCache::room-2"), bytes("RoomCache::room-3"));
+        verify(stringCommands).set(eq(bytes("RoomCache::room-3")), eq(bytes("v3")), any(Expiration.class),
+                eq(RedisStringCommands.SetOption.ifAbsent()));
+        assertThat(cache.remoteMisses()).isEqualTo(1);
+        assertThat(cache.puts()).isEqualTo(1);
+    }
+
+    private TieredCache cache(Duration localTtl, int localMaxSize) {
+        return new TieredCache(redisCache, localTtl, localMaxSize,
+                (cacheName, key) -> published.add(cacheName + "|" + (key != null ? key : "*")));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage("cache:invalidate".getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,65 @@
+package com.ktb.chatapp.cache.codec;
+
+import com.ktb.chatapp.config.RedisConfig;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * 캐시 값 코덱 벤치마크 (항목당 바이트, 인코딩/디코딩 시간)
+ * 실행: ./mvnw test -Dtest=CacheValueCodecBenchmark -Dbenchmark=true
+ * 워밍업 후 값마다 같은 횟수를 돌려 평균 시간을 표로 출력한다. JIT/GC 영향이 있으므로 비교용으로만 본다.
+ */
+@DisplayName("CacheValueCodec 벤치마크")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CacheValueCodecBenchmark {
+
+    private static final long TARGET_NANOS = 300_000_000L;
+
+    @Test
+    @DisplayName("JSON / binary / binary+deflate 비교")
+    void compareCodecs() {
+        Map<String, RedisSerializer<Object>> codecs = new LinkedHashMap<>();
+        codecs.put("json", RedisConfig.cacheJsonSerializer());
+        codecs.put("binary", new CacheValueCodec(RedisConfig.cacheJsonSerializer(), Integer.MAX_VALUE,
+                CacheValueSchemas.all()));
+        codecs.put("binary+deflate", new CacheValueCodec(RedisConfig.cacheJsonSerializer(), 1024,
+                CacheValueSchemas.all()));
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("Room (10 participants)", CacheValueFixtures.room(10));
+        values.put("Room (100 participants)", CacheValueFixtures.room(100));
+        values.put("Room (1,000 participants)", CacheValueFixtures.room(1_000));
+        values.put("Room (10,000 participants)", CacheValueFixtures.room(10_000));
+        values.put("User", CacheValueFixtures.user());
+        values.put("Session", CacheValueFixtures.session());
+
+        System.out.printf("%-28s %-16s %10s %14s %14s%n", "value", "codec", "bytes", "encode(us)", "decode(us)");
+        values.forEach((name, value) -> codecs.forEach((codecName, codec) -> {
+            byte[] bytes = codec.serialize(value);
+            double encode = measure(() -> codec.serialize(value));
+            double decode = measure(() -> codec.deserialize(bytes));
+            System.out.printf("%-28s %-16s %10d %14.2f %14.2f%n", name, codecName, bytes.length, encode, decode);
+        }));
+    }
+
+    // 워밍업 후 TARGET_NANOS 동안 반복한 평균 (마이크로초)
+    private static double measure(Runnable task) {
+        long warmupEnd = System.nanoTime() + TARGET_NANOS / 3;
+        while (System.nanoTime() < warmupEnd) {
+            task.run();
+        }
+        long iterations = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            task.run();
+            iterations++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < TARGET_NANOS);
+        return elapsed / 1_000.0 / iterations;
+    }
+}
@@ -0,0 +1,175 @@
+package com.ktb.chatapp.cache.codec;
+
+import com.ktb.chatapp.cache.CachedRoom;
+import com.ktb.chatapp.cache.FileAccessDescriptor;
+import com.ktb.chatapp.config.RedisConfig;
+import com.ktb.chatapp.model.Room;
+import com.ktb.chatapp.model.Session;
+import com.ktb.chatapp.model.User;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CacheValueCodec 테스트")
+class CacheValueCodecTest {
+
+    private final GenericJackson2JsonRedisSerializer json = RedisConfig.cacheJsonSerializer();
+    private final CacheValueCodec codec = new CacheValueCodec(json, 1024, CacheValueSchemas.all());
+
+    @Test
+    @DisplayName("스키마가 있는 타입은 바이너리로 쓰고 같은 값으로 읽으며, 방 비밀번호는 JSON 과 같이 저장하지 않는다")
+    void roundTrip_registeredTypes() {
+        // given
+        Room room = CacheValueFixtures.room(20);
+        room.setPassword("hashed");
+        User user = CacheValueFixtures.user();
+        Session session = CacheValueFixtures.session();
+        FileAccessDescriptor descriptor = new FileAccessDescriptor("6908a1f2c3d4e5f601234567", "a.png", "사진.png",
+                "image/png", 1234L, "6908a1f2c3d4e5f601234568", "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08");
+
+        // when
+        Room decodedRoom = (Room) codec.deserialize(codec.serialize(room));
+
+        // then
+        assertThat(codec.serialize(room)[0] & 0xFF).isEqualTo(CacheValueCodec.MAGIC);
+        assertThat(decodedRoom.getPassword()).isNull();
+        room.setPassword(null);
+        assertThat(decodedRoom).isEqualTo(room);
+        assertThat(codec.deserialize(codec.serialize(user))).isEqualTo(user);
+        assertThat(codec.deserialize(codec.serialize(session))).isEqualTo(session);
+        assertThat(codec.deserialize(codec.serialize(descriptor))).isEqualTo(descriptor);
+        assertThat(codec.deserialize(codec.serialize("retry"))).isEqualTo("retry");
+        assertThat(codec.deserialize(codec.serialize(new CachedRoom(room, 1_700_000_000_000L, 12))))
+                .isEqualTo(new CachedRoom(room, 1_700_000_000_000L, 12));
+        assertThat(codec.deserialize(codec.serialize(new CachedRoom(null, 1_700_000_000_000L, 3))))
+                .isEqualTo(new CachedRoom(null, 1_700_000_000_000L, 3));
+    }
+
+    @Test
+    @DisplayName("큰 방은 압축해서 쓰고, JSON 보다 훨씬 작다")
+    void largeRoom_compressedAndSmallerThanJson() {
+        // given
+        Room room = CacheValueFixtures.room(5000);
+
+        // when
+        byte[] binary = codec.serialize(room);
+        byte[] jsonBytes = json.serialize(room);
+
+        // then
+        assertThat(binary[3] & 1).isEqualTo(1);
+        assertThat(binary.length).isLessThan(jsonBytes.length / 3);
+        assertThat(codec.deserialize(binary)).isEqualTo(room);
+    }
+
+    @Test
+    @DisplayName("전환 전에 저장된 JSON 값과 스키마가 없는 타입은 JSON 으로 읽고 쓴다")
+    void fallback_json() {
+        // given
+        User user = CacheValueFixtures.user();
+        byte[] legacy = json.serialize(user);
+        List<String> unregistered = new ArrayList<>(List.of("a", "b"));
+
+        // when
+        byte[] encoded = codec.serialize(unregistered);
+
+        // then
+        assertThat(codec.deserialize(legacy)).isEqualTo(user);
+        assertThat(encoded).isEqualTo(json.serialize(unregistered));
+        assertThat(codec.deserialize(encoded)).isEqualTo(unregistered);
+    }
+
+    @Test
+    @DisplayName("json 설정(스키마 없음)은 JSON 으로만 쓰고 바이너리 값은 캐시 미스로 읽는다")
+    void jsonMode_writesJsonAndSkipsBinary() {
+        // given
+        CacheValueCodec jsonOnly = new CacheValueCodec(json, 1024, List.of());
+        User user = CacheValueFixtures.user();
+        byte[] binary = codec.serialize(user);
+
+        // when
+        byte[] encoded = jsonOnly.serialize(user);
+
+        // then
+        assertThat(jsonOnly.deserialize(binary)).isNull();
+        assertThat(encoded).isEqualTo(json.serialize(user));
+        assertThat(codec.deserialize(encoded)).isEqualTo(user);
+    }
+
+    @Test
+    @DisplayName("새 버전 노드는 이전 버전 값을 읽고, 이전 버전 노드는 새 버전 값을 캐시 미스로 본다")
+    void schemaVersions() {
+        // given
+        CacheValueSchema<String> v1 = new LabelSchema(1);
+        CacheValueSchema<String> v2 = new LabelSchema(2);
+        CacheValueCodec oldNode = new CacheValueCodec(json, 1024, List.of(v1));
+        CacheValueCodec newNode = new CacheValueCodec(json, 1024, List.of(v2));
+
+        // when
+        Object readByNew = newNode.deserialize(oldNode.serialize("label"));
+        Object readByOld = oldNode.deserialize(newNode.serialize("label"));
+
+        // then
+        assertThat(readByNew).isEqualTo("label:v1");
+        assertThat(readByOld).isNull();
+    }
+
+    @Test
+    @DisplayName("CachedRoom 은 중첩된 Room 스키마 버전을 함께 저장하고, 중첩 버전이 없던 이전 값도 읽는다")
+    void cachedRoom_nestedRoomVersion() throws IOException {
+        // given
+        Room room = CacheValueFixtures.room(3);
+        CacheValueSchemas.CachedRoomSchema schema = new CacheValueSchemas.CachedRoomSchema();
+        ByteArrayOutputStream v1 = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(v1);
+        BinaryFields.writeVarLong(out, 1_700_000_000_000L);
+        BinaryFields.writeVarLong(out, 12);
+        out.writeBoolean(true);
+        new CacheValueSchemas.RoomSchema().write(room, out);
+
+        // when
+        byte[] current = codec.serialize(new CachedRoom(room, 1_700_000_000_000L, 12));
+        CachedRoom fromV1 = schema.read(new DataInputStream(new ByteArrayInputStream(v1.toByteArray())), 1);
+
+        // then
+        assertThat(current[2]).isEqualTo((byte) 2);
+        assertThat(codec.deserialize(current)).isEqualTo(new CachedRoom(room, 1_700_000_000_000L, 12));
+        assertThat(fromV1).isEqualTo(new CachedRoom(room, 1_700_000_000_000L, 12));
+    }
+
+    // 버전 2 에서 접미사 필드를 추가한 스키마
+    private record LabelSchema(int version) implements CacheValueSchema<String> {
+
+        @Override
+        public int typeId() {
+            return 5;
+        }
+
+        @Override
+        public Class<String> type() {
+            return String.class;
+        }
+
+        @Override
+        public void write(String value, DataOutputStream out) throws IOException {
+            BinaryFields.writeString(out, value);
+            if (version >= 2) {
+                BinaryFields.writeString(out, "v2");
+            }
+        }
+
+        @Override
+        public String read(DataInputStream in, int storedVersion) throws IOException {
+            String value = BinaryFields.readString(in);
+            return value + ":" + (storedVersion >= 2 ? BinaryFields.readString(in) : "v1");
+        }
+    }
+}
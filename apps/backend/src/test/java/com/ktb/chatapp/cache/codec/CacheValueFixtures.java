@@ -0,0 +1,68 @@
+package com.ktb.chatapp.cache.codec;
+
+import com.ktb.chatapp.model.Room;
+import com.ktb.chatapp.model.Session;
+import com.ktb.chatapp.model.User;
+import com.ktb.chatapp.service.SessionMetadata;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.bson.types.ObjectId;
+
+/**
+ * 운영과 비슷한 크기의 캐시 값 (ID 는 ObjectId, 날짜는 밀리초 단위)
+ */
+final class CacheValueFixtures {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 11, 3, 14, 30, 15, 123_000_000);
+
+    private CacheValueFixtures() {
+    }
+
+    static Room room(int participants) {
+        Set<String> participantIds = new HashSet<>();
+        for (int i = 0; i < participants; i++) {
+            participantIds.add(new ObjectId().toHexString());
+        }
+        return Room.builder()
+                .id(new ObjectId().toHexString())
+                .name("카테부 백엔드 스터디방")
+                .creator(participantIds.isEmpty() ? null : participantIds.iterator().next())
+                .hasPassword(true)
+                .createdAt(NOW)
+                .participantIds(participantIds)
+                .build();
+    }
+
+    static User user() {
+        return User.builder()
+                .id(new ObjectId().toHexString())
+                .name("김카테부")
+                .email("kate.boo@example.com")
+                .encryptedEmail("8u2c2Lr7cQm1Xv0vF7q7Lw==:Jd9xW0qv3n0pQ4m5R8sT2uV1wX6yZ3aB")
+                .password("$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy")
+                .profileImage("https://bucket.s3.ap-northeast-2.amazonaws.com/file/" + new ObjectId().toHexString())
+                .profileImageVariants(List.of("thumb", "preview"))
+                .createdAt(NOW)
+                .updatedAt(NOW)
+                .lastActive(NOW)
+                .lastLogin(NOW)
+                .build();
+    }
+
+    static Session session() {
+        return Session.builder()
+                .id(new ObjectId().toHexString())
+                .userId(new ObjectId().toHexString())
+                .sessionId("4f1c2a9e-0b7d-4c3e-9a51-7d2f8e6b3c10")
+                .createdAt(1_762_150_215_123L)
+                .lastActivity(1_762_150_815_456L)
+                .metadata(new SessionMetadata(
+                        "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/141.0.0.0 Safari/537.36",
+                        "203.0.113.42", "desktop"))
+                .expiresAt(Instant.parse("2025-11-03T06:00:15.123Z"))
+                .build();
+    }
+}
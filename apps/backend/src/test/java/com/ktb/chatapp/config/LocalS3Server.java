@@ -0,0 +1,268 @@
+package com.ktb.chatapp.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+/**
+ * 테스트용 인메모리 S3 호환 서버
+ * path-style 의 PutObject / GetObject(단일 Range, If-None-Match) / HeadObject / DeleteObject 와 multipart 업로드(생성, 파트 업로드, 완료, 취소)만 지원한다.
+ * Docker 없이 S3Client 를 실제 HTTP 로 붙여 볼 수 있다.
+ */
+public class LocalS3Server implements AutoCloseable {
+
+    private final HttpServer server;
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    private final AtomicInteger partRequests = new AtomicInteger();
+    private final AtomicInteger abortedUploads = new AtomicInteger();
+
+    public LocalS3Server() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public URI endpoint() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    public S3Client client() {
+        return S3Client.builder()
+                .endpointOverride(endpoint())
+                .forcePathStyle(true)
+                .region(Region.AP_NORTHEAST_2)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .build();
+    }
+
+    public byte[] object(String bucket, String key) {
+        return objects.get(bucket + "/" + key);
+    }
+
+    public Set<String> pendingUploads() {
+        return uploads.keySet();
+    }
+
+    public int partRequests() {
+        return partRequests.get();
+    }
+
+    public int abortedUploads() {
+        return abortedUploads.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().substring(1);
+        Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+        String method = exchange.getRequestMethod();
+        try (exchange) {
+            if ("POST".equals(method) && query.containsKey("uploads")) {
+                String uploadId = UUID.randomUUID().toString();
+                uploads.put(uploadId, new ConcurrentHashMap<>());
+                xml(exchange, "<InitiateMultipartUploadResult><UploadId>" + uploadId
+                        + "</UploadId></InitiateMultipartUploadResult>");
+            } else if ("PUT".equals(method) && query.containsKey("uploadId")) {
+                partRequests.incrementAndGet();
+                Map<Integer, byte[]> parts = uploads.get(query.get("uploadId"));
+                if (parts == null) {
+                    empty(exchange, 404);
+                    return;
+                }
+                byte[] part = body(exchange);
+                parts.put(Integer.parseInt(query.get("partNumber")), part);
+                exchange.getResponseHeaders().add("ETag", eTag(part));
+                empty(exchange, 200);
+            } else if ("POST".equals(method) && query.containsKey("uploadId")) {
+                body(exchange);
+                Map<Integer, byte[]> parts = uploads.remove(query.get("uploadId"));
+                if (parts == null) {
+                    error(exchange, 404, "NoSuchUpload");
+                    return;
+                }
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                new TreeMap<>(parts).values().forEach(out::writeBytes);
+                objects.put(path, out.toByteArray());
+                xml(exchange, "<CompleteMultipartUploadResult><Key>" + path
+                        + "</Key><ETag>\"complete\"</ETag></CompleteMultipartUploadResult>");
+            } else if ("DELETE".equals(method) && query.containsKey("uploadId")) {
+                uploads.remove(query.get("uploadId"));
+                abortedUploads.incrementAndGet();
+                empty(exchange, 204);
+            } else if ("PUT".equals(method)) {
+                byte[] object = body(exchange);
+                objects.put(path, object);
+                exchange.getResponseHeaders().add("ETag", eTag(object));
+                empty(exchange, 200);
+            } else if ("HEAD".equals(method) && objects.containsKey(path)) {
+                byte[] object = objects.get(path);
+                exchange.getResponseHeaders().add("ETag", eTag(object));
+                exchange.getResponseHeaders().add("Content-Length", String.valueOf(object.length));
+                empty(exchange, 200);
+            } else if ("GET".equals(method) && objects.containsKey(path)) {
+                get(exchange, objects.get(path));
+            } else if ("DELETE".equals(method)) {
+                objects.remove(path);
+                empty(exchange, 204);
+            } else {
+                empty(exchange, 404);
+            }
+        }
+    }
+
+    // 단일 Range 와 If-None-Match 만 지원한다
+    private static void get(HttpExchange exchange, byte[] bytes) throws IOException {
+        String eTag = eTag(bytes);
+        exchange.getResponseHeaders().add("ETag", eTag);
+        if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            empty(exchange, 304);
+            return;
+        }
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range == null) {
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            return;
+        }
+        String[] bounds = range.substring("bytes=".length()).split("-", -1);
+        int start = Integer.parseInt(bounds[0]);
+        int end = bounds[1].isEmpty() ? bytes.length - 1 : Math.min(Integer.parseInt(bounds[1]), bytes.length - 1);
+        if (start >= bytes.length) {
+            exchange.getResponseHeaders().add("Content-Range", "bytes */" + bytes.length);
+            empty(exchange, 416);
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + bytes.length);
+        exchange.sendResponseHeaders(206, end - start + 1);
+        exchange.getResponseBody().write(bytes, start, end - start + 1);
+    }
+
+    // SDK 는 http 에서 본문을 aws-chunked 서명 청크로 보낼 수 있으므로 청크 헤더를 벗겨낸다
+    private static byte[] body(HttpExchange exchange) throws IOException {
+        byte[] raw = exchange.getRequestBody().readAllBytes();
+        String sha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        if (sha == null || !sha.startsWith("STREAMING-")) {
+            return raw;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int position = 0;
+        while (position < raw.length) {
+            int lineEnd = indexOfCrlf(raw, position);
+            String header = new String(raw, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";")[0], 16);
+            if (size == 0) {
+                break;
+            }
+            out.write(raw, lineEnd + 2, size);
+            position = lineEnd + 2 + size + 2;
+        }
+        return out.toByteArray();
+    }
+
+    // S3 와 같이 MD5 hex 를 ETag 로 쓴다 (SDK 가 PutObject 응답의 ETag 로 MD5 를 검증한다)
+    private static String eTag(byte[] bytes) {
+        try {
+            return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(bytes)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int indexOfCrlf(byte[] raw, int from) {
+        for (int i = from; i < raw.length - 1; i++) {
+            if (raw[i] == '\r' && raw[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return raw.length;
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            params.put(separator < 0 ? pair : pair.substring(0, separator),
+                    separator < 0 ? "" : pair.substring(separator + 1));
+        }
+        return params;
+    }
+
+    private static void xml(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void error(HttpExchange exchange, int status, String code) throws IOException {
+        byte[] bytes = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?><Error><Code>" + code + "</Code></Error>")
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void empty(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    /**
+     * head 로 시작하고 나머지는 고정 패턴으로 채운 size 바이트 입력 스트림 (큰 본문을 메모리에 만들지 않는다)
+     */
+    public static InputStream repeating(byte[] head, long size) {
+        return new InputStream() {
+            private long position;
+
+            @Override
+            public int read() {
+                if (position >= size) {
+                    return -1;
+                }
+                int value = position < head.length ? head[(int) position] & 0xFF : (int) (position % 251);
+                position++;
+                return value;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                if (position >= size) {
+                    return -1;
+                }
+                int count = (int) Math.min(length, size - position);
+                for (int i = 0; i < count; i++) {
+                    buffer[offset + i] = (byte) read();
+                }
+                return count;
+            }
+        };
+    }
+}
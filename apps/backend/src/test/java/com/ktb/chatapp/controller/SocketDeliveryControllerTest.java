@@ -0,0 +1,92 @@
+package com.ktb.chatapp.controller;
+
+import com.corundumstudio.socketio.BroadcastOperations;
+import com.corundumstudio.socketio.SocketIOClient;
+import com.corundumstudio.socketio.SocketIOServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktb.chatapp.dto.SocketDeliveryBatchResponse;
+import com.ktb.chatapp.websocket.socketio.ConnectedUsers;
+import com.ktb.chatapp.websocket.socketio.SocketUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.ktb.chatapp.websocket.socketio.SocketIOEvents.MESSAGE;
+import static com.ktb.chatapp.websocket.socketio.SocketIOEvents.PARTICIPANTS_UPDATE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("SocketDeliveryController 배치 전달 테스트")
+class SocketDeliveryControllerTest {
+
+    private final SocketIOServer socketIOServer = mock(SocketIOServer.class);
+    private final ConnectedUsers connectedUsers = mock(ConnectedUsers.class);
+    private final BroadcastOperations roomOperations = mock(BroadcastOperations.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SocketDeliveryController controller;
+
+    @BeforeEach
+    void setUp() {
+        when(socketIOServer.getRoomOperations(any())).thenReturn(roomOperations);
+        controller = new SocketDeliveryController(socketIOServer, connectedUsers, new ObjectMapper(), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("NDJSON 배치의 이벤트를 한 번에 전달하고 잘못된 줄은 실패로 집계한다")
+    void deliverBatch_mixedEvents() throws Exception {
+        // given
+        UUID socketId = UUID.randomUUID();
+        SocketIOClient client = mock(SocketIOClient.class);
+        when(connectedUsers.get("u1")).thenReturn(new SocketUser("u1", "kim", "auth", socketId.toString()));
+        when(socketIOServer.getClient(socketId)).thenReturn(client);
+
+        String body = String.join("\n",
+                "{\"type\":\"new\",\"event\":{\"roomId\":\"r1\",\"participantIds\":[],\"messageResponse\":{\"content\":\"a\"}}}",
+                "{\"type\":\"new\",\"event\":{\"roomId\":\"r2\",\"participantIds\":[],\"messageResponse\":{\"content\":\"b\"}}}",
+                "{\"type\":\"participants\",\"event\":{\"userId\":\"u1\",\"participants\":[{\"id\":\"room-a\"}]}}",
+                "not-json",
+                "",
+                "{\"type\":\"participants\",\"event\":{\"userId\":\"u1\",\"participants\":[{\"id\":\"room-b\"}]}}");
+
+        // when
+        SocketDeliveryBatchResponse response = controller.deliverBatch(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))).getBody();
+
+        // then
+        assertThat(response).isEqualTo(new SocketDeliveryBatchResponse(5, 4, 1));
+        verify(roomOperations, times(2)).sendEvent(eq(MESSAGE), any(Object[].class));
+        // 방 ID 가 없어 다른 방의 갱신일 수 있으므로 한 사용자에게 가는 participants 도 모두 보낸다
+        verify(client, times(2)).sendEvent(eq(PARTICIPANTS_UPDATE), any(List.class));
+        assertThat(meterRegistry.get("socket.delivery.batch.latency").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("socket.delivery.events").tag("type", "participants")
+                .tag("result", "delivered").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("지원하지 않는 타입은 실패로 집계하고 나머지는 전달한다")
+    void deliverBatch_unknownType_failsOnlyThatLine() throws Exception {
+        // given
+        String body = String.join("\n",
+                "{\"type\":\"bogus\",\"event\":{}}",
+                "{\"type\":\"mark\",\"event\":{\"roomId\":\"r1\",\"ip\":\"x\",\"messagesReadResponse\":{\"userId\":\"u1\"}}}");
+
+        // when
+        SocketDeliveryBatchResponse response = controller.deliverBatch(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))).getBody();
+
+        // then
+        assertThat(response).isEqualTo(new SocketDeliveryBatchResponse(2, 1, 1));
+        assertThat(meterRegistry.get("socket.delivery.events").tag("type", "unknown")
+                .tag("result", "failed").counter().count()).isEqualTo(1.0);
+    }
+}
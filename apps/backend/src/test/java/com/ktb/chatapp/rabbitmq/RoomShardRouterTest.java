@@ -0,0 +1,53 @@
+package com.ktb.chatapp.rabbitmq;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RoomShardRouter 테스트")
+class RoomShardRouterTest {
+
+    @Test
+    @DisplayName("같은 방은 항상 같은 샤드로 라우팅되고 샤드가 고르게 분포한다")
+    void shardOf_stableAndBalanced() {
+        // given
+        RoomShardRouter router = new RoomShardRouter(8);
+        int rooms = 80_000;
+        int[] counts = new int[8];
+
+        // when
+        for (int i = 0; i < rooms; i++) {
+            String roomId = "room-" + i;
+            int shard = router.shardOf(roomId);
+            assertThat(router.shardOf(roomId)).isEqualTo(shard);
+            counts[shard]++;
+        }
+
+        // then
+        for (int count : counts) {
+            assertThat(count).isBetween(9_000, 11_000);
+        }
+        assertThat(router.routingKeyOf("room-1")).startsWith(RoomShardRouter.SHARD_ROUTING_PREFIX);
+    }
+
+    @Test
+    @DisplayName("샤드 수를 늘리면 약 1/n 의 방만 새 샤드로 이동한다")
+    void shardOf_growingShardCount_movesOnlyNewShare() {
+        // given
+        RoomShardRouter before = new RoomShardRouter(8);
+        RoomShardRouter after = new RoomShardRouter(9);
+        int rooms = 90_000;
+
+        // when
+        long moved = IntStream.range(0, rooms)
+                .mapToObj(i -> "room-" + i)
+                .filter(roomId -> before.shardOf(roomId) != after.shardOf(roomId))
+                .peek(roomId -> assertThat(after.shardOf(roomId)).isEqualTo(8))
+                .count();
+
+        // then
+        assertThat(moved).isBetween(9_000L, 11_000L);
+    }
+}
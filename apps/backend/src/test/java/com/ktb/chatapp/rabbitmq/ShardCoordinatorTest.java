@@ -0,0 +1,342 @@
+package com.ktb.chatapp.rabbitmq;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * RabbitMQ/Redis 대신 메모리 브로커와 리스 저장소로 샤드 할당/이동을 검증한다.
+ */
+@DisplayName("ShardCoordinator 테스트")
+class ShardCoordinatorTest {
+
+    private static final int SHARDS = 16;
+    private static final Duration INTERVAL = Duration.ofSeconds(5);
+
+    private final RoomShardRouter router = new RoomShardRouter(SHARDS);
+    private final InMemoryLeaseStore leaseStore = new InMemoryLeaseStore();
+    private final InMemoryBroker broker = new InMemoryBroker(router);
+    private final List<ShardCoordinator> coordinators = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        coordinators.forEach(ShardCoordinator::shutdown);
+    }
+
+    @Test
+    @DisplayName("모든 샤드가 정확히 한 노드에 할당되고 노드별로 나뉜다")
+    void rebalance_assignsEveryShardExactlyOnce() {
+        // given
+        addNode("node-a");
+        addNode("node-b");
+        addNode("node-c");
+
+        // when
+        rebalanceAll(2);
+
+        // then
+        assertExactlyOnceOwnership();
+        coordinators.forEach(coordinator -> assertThat(coordinator.ownedShards()).isNotEmpty());
+    }
+
+    @Test
+    @DisplayName("노드가 합류하면 새 노드로 가는 샤드만 이동한다")
+    void rebalance_nodeJoins_movesShardsOnlyToNewNode() {
+        // given
+        addNode("node-a");
+        addNode("node-b");
+        addNode("node-c");
+        rebalanceAll(2);
+        Map<Integer, String> before = ownership();
+
+        // when
+        ShardCoordinator joined = addNode("node-d");
+        rebalanceAll(2);
+
+        // then
+        assertExactlyOnceOwnership();
+        Map<Integer, String> after = ownership();
+        before.forEach((shard, owner) -> {
+            if (!owner.equals(after.get(shard))) {
+                assertThat(after.get(shard)).isEqualTo("node-d");
+            }
+        });
+        assertThat(joined.ownedShards()).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("노드가 응답 없이 사라지면 리스 만료 후 다른 노드가 샤드를 이어받는다")
+    void rebalance_nodeCrashes_shardsTakenOverAfterLeaseExpiry() {
+        // given
+        addNode("node-a");
+        addNode("node-b");
+        ShardCoordinator crashed = addNode("node-c");
+        rebalanceAll(2);
+        Set<Integer> orphaned = crashed.ownedShards();
+        coordinators.remove(crashed);
+        orphaned.forEach(broker::crash);
+
+        // when
+        leaseStore.advance(INTERVAL.multipliedBy(4));
+        rebalanceAll(2);
+
+        // then
+        assertExactlyOnceOwnership();
+        assertThat(ownership().values()).doesNotContain("node-c");
+    }
+
+    @Test
+    @DisplayName("소비 중 노드가 합류해도 방 단위 순서가 유지되고 샤드당 consumer는 하나다")
+    void rebalance_duringTraffic_preservesPerRoomOrder() throws InterruptedException {
+        // given
+        addNode("node-a");
+        addNode("node-b");
+        rebalanceAll(2);
+        int rooms = 40;
+        int messagesPerRoom = 300;
+
+        // when
+        for (int seq = 0; seq < messagesPerRoom; seq++) {
+            for (int r = 0; r < rooms; r++) {
+                broker.publish("room-" + r, seq);
+            }
+            if (seq == messagesPerRoom / 2) {
+                addNode("node-c");
+                rebalanceAll(2);
+            }
+        }
+
+        // then
+        assertThat(broker.awaitDelivered(rooms * messagesPerRoom, 10, TimeUnit.SECONDS)).isTrue();
+        assertThat(broker.overlapDetected()).isFalse();
+        for (int r = 0; r < rooms; r++) {
+            assertThat(broker.delivered("room-" + r)).hasSize(messagesPerRoom).isSorted();
+        }
+    }
+
+    private ShardCoordinator addNode(String nodeId) {
+        ShardCoordinator coordinator = new ShardCoordinator(router, leaseStore, broker.consumer(),
+                new SimpleMeterRegistry(), nodeId, INTERVAL);
+        coordinators.add(coordinator);
+        return coordinator;
+    }
+
+    // 놓는 노드가 먼저 처리돼야 받는 노드가 리스를 잡으므로 여러 바퀴 돈다
+    private void rebalanceAll(int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            coordinators.forEach(ShardCoordinator::rebalance);
+        }
+    }
+
+    private Map<Integer, String> ownership() {
+        Map<Integer, String> owners = new HashMap<>();
+        for (ShardCoordinator coordinator : coordinators) {
+            coordinator.ownedShards().forEach(shard -> owners.put(shard, coordinator.nodeId()));
+        }
+        return owners;
+    }
+
+    private void assertExactlyOnceOwnership() {
+        List<Integer> owned = new ArrayList<>();
+        coordinators.forEach(coordinator -> owned.addAll(coordinator.ownedShards()));
+        assertThat(owned).hasSize(SHARDS).doesNotHaveDuplicates();
+    }
+
+    static class InMemoryLeaseStore implements ShardLeaseStore {
+
+        private final AtomicLong now = new AtomicLong(1_000_000);
+        private final Map<String, Long> members = new HashMap<>();
+        private final Map<Integer, String> owners = new HashMap<>();
+        private final Map<Integer, Long> expiries = new HashMap<>();
+
+        void advance(Duration duration) {
+            now.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public synchronized void heartbeat(String memberId, Duration ttl) {
+            members.put(memberId, now.get() + ttl.toMillis());
+        }
+
+        @Override
+        public synchronized void leave(String memberId) {
+            members.remove(memberId);
+        }
+
+        @Override
+        public synchronized List<String> liveMembers() {
+            members.values().removeIf(expiresAt -> expiresAt <= now.get());
+            return new ArrayList<>(members.keySet());
+        }
+
+        @Override
+        public synchronized boolean tryAcquire(int shard, String memberId, Duration ttl) {
+            String owner = currentOwner(shard);
+            if (owner != null && !owner.equals(memberId)) {
+                return false;
+            }
+            owners.put(shard, memberId);
+            expiries.put(shard, now.get() + ttl.toMillis());
+            return true;
+        }
+
+        @Override
+        public synchronized boolean renew(int shard, String memberId, Duration ttl) {
+            if (!memberId.equals(currentOwner(shard))) {
+                return false;
+            }
+            expiries.put(shard, now.get() + ttl.toMillis());
+            return true;
+        }
+
+        @Override
+        public synchronized void release(int shard, String memberId) {
+            if (memberId.equals(currentOwner(shard))) {
+                owners.remove(shard);
+                expiries.remove(shard);
+            }
+        }
+
+        private String currentOwner(int shard) {
+            Long expiresAt = expiries.get(shard);
+            return expiresAt != null && expiresAt > now.get() ? owners.get(shard) : null;
+        }
+    }
+
+    /**
+     * 샤드별 FIFO 큐와, 샤드를 맡은 consumer 스레드로 구성된 브로커 대용
+     */
+    static class InMemoryBroker {
+
+        private final RoomShardRouter router;
+        private final Map<Integer, LinkedBlockingQueue<Delivery>> queues = new ConcurrentHashMap<>();
+        private final Map<Integer, ConsumerThread> consumers = new ConcurrentHashMap<>();
+        private final Map<Integer, AtomicInteger> activeConsumers = new ConcurrentHashMap<>();
+        private final Map<String, List<Integer>> delivered = new ConcurrentHashMap<>();
+        private final AtomicInteger deliveredCount = new AtomicInteger();
+        private final AtomicBoolean overlap = new AtomicBoolean();
+
+        InMemoryBroker(RoomShardRouter router) {
+            this.router = router;
+        }
+
+        void publish(String roomId, int seq) {
+            queue(router.shardOf(roomId)).add(new Delivery(roomId, seq));
+        }
+
+        ShardConsumerControl consumer() {
+            return new ShardConsumerControl() {
+                @Override
+                public void start(int shard) {
+                    ConsumerThread thread = new ConsumerThread(shard);
+                    if (consumers.put(shard, thread) != null) {
+                        // 이전 consumer가 멈추기 전에 새 consumer가 붙었다
+                        overlap.set(true);
+                    }
+                    thread.start();
+                }
+
+                @Override
+                public void stop(int shard) {
+                    ConsumerThread thread = consumers.remove(shard);
+                    if (thread != null) {
+                        thread.halt();
+                    }
+                }
+            };
+        }
+
+        // 정리 없이 consumer가 사라진 상황 (처리 중 메시지 없음 가정)
+        void crash(int shard) {
+            ConsumerThread thread = consumers.remove(shard);
+            if (thread != null) {
+                thread.halt();
+            }
+        }
+
+        boolean awaitDelivered(int expected, long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (deliveredCount.get() < expected) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                Thread.sleep(10);
+            }
+            return true;
+        }
+
+        List<Integer> delivered(String roomId) {
+            return delivered.getOrDefault(roomId, Collections.emptyList());
+        }
+
+        boolean overlapDetected() {
+            return overlap.get();
+        }
+
+        private LinkedBlockingQueue<Delivery> queue(int shard) {
+            return queues.computeIfAbsent(shard, k -> new LinkedBlockingQueue<>());
+        }
+
+        private record Delivery(String roomId, int seq) {
+        }
+
+        private class ConsumerThread extends Thread {
+            private final int shard;
+            private volatile boolean running = true;
+
+            ConsumerThread(int shard) {
+                super("in-memory-shard-" + shard);
+                this.shard = shard;
+                setDaemon(true);
+            }
+
+            @Override
+            public void run() {
+                AtomicInteger active = activeConsumers.computeIfAbsent(shard, k -> new AtomicInteger());
+                if (active.incrementAndGet() > 1) {
+                    overlap.set(true);
+                }
+                try {
+                    while (running) {
+                        Delivery delivery = queue(shard).poll(5, TimeUnit.MILLISECONDS);
+                        if (delivery != null) {
+                            delivered.computeIfAbsent(delivery.roomId(),
+                                    k -> Collections.synchronizedList(new ArrayList<>())).add(delivery.seq());
+                            deliveredCount.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    active.decrementAndGet();
+                }
+            }
+
+            // 처리 중인 메시지가 끝날 때까지 기다린다
+            void halt() {
+                running = false;
+                try {
+                    join(TimeUnit.SECONDS.toMillis(5));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
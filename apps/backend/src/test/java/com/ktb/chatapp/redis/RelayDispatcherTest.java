@@ -0,0 +1,108 @@
+package com.ktb.chatapp.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RelayDispatcher 테스트")
+class RelayDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RelayDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("같은 방의 메시지는 발행 순서대로 전달된다")
+    void dispatch_sameRoom_preservesOrder() throws InterruptedException {
+        // given
+        dispatcher = new RelayDispatcher(4, 10_000, meterRegistry);
+        int roomCount = 16;
+        int messagesPerRoom = 500;
+        Map<String, List<Integer>> delivered = new ConcurrentHashMap<>();
+        CountDownLatch latch = new CountDownLatch(roomCount * messagesPerRoom);
+
+        // when
+        for (int i = 0; i < messagesPerRoom; i++) {
+            for (int r = 0; r < roomCount; r++) {
+                String roomId = "room-" + r;
+                int seq = i;
+                dispatcher.dispatch(roomId, System.currentTimeMillis(), () -> {
+                    delivered.computeIfAbsent(roomId, k -> Collections.synchronizedList(new ArrayList<>())).add(seq);
+                    latch.countDown();
+                });
+            }
+        }
+
+        // then
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(delivered).hasSize(roomCount);
+        delivered.values().forEach(seqs -> assertThat(seqs).isSorted().hasSize(messagesPerRoom));
+        assertThat(meterRegistry.get("chat.relay.dispatch.lag").timer().count())
+                .isEqualTo((long) roomCount * messagesPerRoom);
+    }
+
+    @Test
+    @DisplayName("파티션 큐가 가득 차면 새 메시지를 버리고 카운트한다")
+    void dispatch_queueFull_dropsNewest() throws InterruptedException {
+        // given
+        dispatcher = new RelayDispatcher(1, 1, meterRegistry);
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        dispatcher.dispatch("room", 0, () -> {
+            started.countDown();
+            awaitQuietly(blocker);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // when
+        boolean queued = dispatcher.dispatch("room", 0, () -> { });
+        boolean dropped = dispatcher.dispatch("room", 0, () -> { });
+        blocker.countDown();
+
+        // then
+        assertThat(queued).isTrue();
+        assertThat(dropped).isFalse();
+        assertThat(meterRegistry.get("chat.relay.dispatch.dropped").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("전달 작업의 예외는 다음 메시지 처리를 막지 않는다")
+    void dispatch_deliveryThrows_continues() throws InterruptedException {
+        // given
+        dispatcher = new RelayDispatcher(1, 10, meterRegistry);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        // when
+        dispatcher.dispatch("room", 0, () -> {
+            throw new IllegalStateException("boom");
+        });
+        dispatcher.dispatch("room", 0, latch::countDown);
+
+        // then
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.ktb.chatapp.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktb.chatapp.dto.ResumeMessagesResponse;
+import com.ktb.chatapp.redis.message.ChatBroadcastMessage;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("RelayReplayService 테스트")
+class RelayReplayServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RelayStreams relayStreams = mock(RelayStreams.class);
+
+    @Test
+    @DisplayName("같은 방의 after 이후 메시지만 돌려준다")
+    void resume_filtersByRoomEventAndTimestamp() throws Exception {
+        // given
+        RelayReplayService service = new RelayReplayService(relayStreams, objectMapper, 100);
+        when(relayStreams.isEnabled()).thenReturn(true);
+        when(relayStreams.streamMillis(1000L)).thenReturn(1000L);
+        when(relayStreams.retainsSince("room-1", 1000L)).thenReturn(true);
+        when(relayStreams.readSince(eq("room-1"), eq(1000L), anyInt())).thenReturn(List.of(
+                envelope("room-1", "message", Map.of("id", "m0", "timestamp", 1000)),
+                envelope("room-1", "message", Map.of("id", "m1", "timestamp", 1001)),
+                envelope("room-2", "message", Map.of("id", "other", "timestamp", 1002)),
+                envelope("room-1", "participantsUpdate", Map.of("timestamp", 1003)),
+                envelope("room-1", "message", Map.of("id", "m2", "timestamp", 1004))
+        ));
+
+        // when
+        ResumeMessagesResponse response = service.resume("room-1", 1000L);
+
+        // then
+        assertThat(response.complete()).isTrue();
+        List<String> ids = response.messages().stream()
+                .map(message -> String.valueOf(((Map<?, ?>) message).get("id")))
+                .toList();
+        assertThat(ids).containsExactly("m1", "m2");
+    }
+
+    @Test
+    @DisplayName("스트림이 구간을 보존하지 못하면 불완전 응답을 보낸다")
+    void resume_trimmedStream_incomplete() {
+        // given
+        RelayReplayService service = new RelayReplayService(relayStreams, objectMapper, 100);
+        when(relayStreams.isEnabled()).thenReturn(true);
+        when(relayStreams.streamMillis(1000L)).thenReturn(1000L);
+        when(relayStreams.retainsSince("room-1", 1000L)).thenReturn(false);
+
+        // when
+        ResumeMessagesResponse response = service.resume("room-1", 1000L);
+
+        // then
+        assertThat(response.complete()).isFalse();
+        assertThat(response.messages()).isEmpty();
+        verify(relayStreams, never()).readSince(eq("room-1"), anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("스캔 한도에 걸리면 불완전 응답으로 표시한다")
+    void resume_scanLimitReached_incomplete() throws Exception {
+        // given
+        RelayReplayService service = new RelayReplayService(relayStreams, objectMapper, 1);
+        when(relayStreams.isEnabled()).thenReturn(true);
+        when(relayStreams.streamMillis(1000L)).thenReturn(1000L);
+        when(relayStreams.retainsSince("room-1", 1000L)).thenReturn(true);
+        when(relayStreams.readSince(eq("room-1"), eq(1000L), anyInt())).thenReturn(List.of(
+                envelope("room-1", "message", Map.of("id", "m1", "timestamp", 1001))
+        ));
+
+        // when
+        ResumeMessagesResponse response = service.resume("room-1", 1000L);
+
+        // then
+        assertThat(response.complete()).isFalse();
+        assertThat(response.messages()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("after 는 Redis 시각으로 옮겨 스트림과 비교하고, 메시지 timestamp 로 다시 거른다")
+    void resume_comparesStreamIdsInRedisTime() throws Exception {
+        // given
+        RelayReplayService service = new RelayReplayService(relayStreams, objectMapper, 100);
+        when(relayStreams.isEnabled()).thenReturn(true);
+        when(relayStreams.streamMillis(1000L)).thenReturn(400L);
+        when(relayStreams.retainsSince("room-1", 400L)).thenReturn(true);
+        when(relayStreams.readSince(eq("room-1"), eq(400L), anyInt())).thenReturn(List.of(
+                envelope("room-1", "message", Map.of("id", "old", "timestamp", 900)),
+                envelope("room-1", "message", Map.of("id", "m1", "timestamp", 1001))
+        ));
+
+        // when
+        ResumeMessagesResponse response = service.resume("room-1", 1000L);
+
+        // then
+        assertThat(response.complete()).isTrue();
+        assertThat(response.messages()).hasSize(1);
+        assertThat(((Map<?, ?>) response.messages().getFirst()).get("id")).isEqualTo("m1");
+    }
+
+    private String envelope(String roomId, String event, Map<String, Object> payload) throws Exception {
+        return objectMapper.writeValueAsString(
+                ChatBroadcastMessage.of("other-node", roomId, event, objectMapper.writeValueAsString(payload)));
+    }
+}
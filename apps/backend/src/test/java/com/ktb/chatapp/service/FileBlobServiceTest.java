@@ -0,0 +1,97 @@
+package com.ktb.chatapp.service;
+
+import com.ktb.chatapp.model.File;
+import com.ktb.chatapp.model.FileBlob;
+import com.ktb.chatapp.repository.FileBlobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FileBlobService 중복 제거 테스트")
+class FileBlobServiceTest {
+
+    @Mock
+    private FileBlobRepository fileBlobRepository;
+    @Mock
+    private S3Service s3Service;
+    @Mock
+    private ImageDerivativeService imageDerivativeService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private FileBlobService fileBlobService;
+
+    @BeforeEach
+    void setUp() {
+        fileBlobService = new FileBlobService(fileBlobRepository, s3Service, imageDerivativeService, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("기존 객체를 참조하면 절약한 저장 공간과 전송량을 기록한다")
+    void acquire_existingBlob_recordsSavedBytes() {
+        // given
+        when(fileBlobRepository.incrementRefCount("sha")).thenReturn(1L);
+        when(fileBlobRepository.findById("sha")).thenReturn(Optional.of(blob(2)));
+
+        // when
+        Optional<String> storageKey = fileBlobService.acquire("sha");
+
+        // then
+        assertThat(storageKey).contains("first-file");
+        assertThat(meterRegistry.counter("file.dedup.saved.bytes", "kind", "storage").count()).isEqualTo(1000);
+        assertThat(meterRegistry.counter("file.dedup.saved.bytes", "kind", "transfer").count()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("동시에 같은 내용이 먼저 등록되었으면 방금 올린 객체를 지우고 기존 객체를 가리킨다")
+    void register_concurrentDuplicate_deletesOwnObject() {
+        // given
+        when(fileBlobRepository.insert(any(FileBlob.class))).thenThrow(new DuplicateKeyException("dup"));
+        when(fileBlobRepository.incrementRefCount("sha")).thenReturn(1L);
+        when(fileBlobRepository.findById("sha")).thenReturn(Optional.of(blob(2)));
+
+        // when
+        String storageKey = fileBlobService.register("sha", "second-file", 1000);
+
+        // then
+        assertThat(storageKey).isEqualTo("first-file");
+        verify(s3Service).deleteFile("second-file");
+    }
+
+    @Test
+    @DisplayName("다른 참조가 남아 있으면 저장 객체를 지우지 않고, 마지막 참조일 때만 지운다")
+    void release_deletesObjectOnlyForLastReference() {
+        // given
+        File file = File.builder().id("second-file").checksum("sha").storageKey("first-file").build();
+        when(fileBlobRepository.deleteByIdAndRefCountLessThanEqual("sha", 0)).thenReturn(0L, 1L);
+
+        // when
+        fileBlobService.release(file);
+
+        // then
+        verify(s3Service, never()).deleteFile("first-file");
+
+        // when
+        fileBlobService.release(file);
+
+        // then
+        verify(s3Service).deleteFile("first-file");
+        verify(imageDerivativeService).discard("first-file");
+    }
+
+    private static FileBlob blob(int refCount) {
+        return FileBlob.builder().id("sha").storageKey("first-file").size(1000).refCount(refCount).build();
+    }
+}
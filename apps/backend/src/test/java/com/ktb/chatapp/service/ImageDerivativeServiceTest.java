@@ -0,0 +1,176 @@
+package com.ktb.chatapp.service;
+
+import com.ktb.chatapp.cache.UserCacheStore;
+import com.ktb.chatapp.model.ImageDerivativeJob;
+import com.ktb.chatapp.model.User;
+import com.ktb.chatapp.repository.FileRepository;
+import com.ktb.chatapp.repository.ImageDerivativeJobRepository;
+import com.ktb.chatapp.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ImageDerivativeService 테스트")
+class ImageDerivativeServiceTest {
+
+    @Mock
+    private ImageDerivativeJobRepository jobRepository;
+    @Mock
+    private FileRepository fileRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private UserCacheStore userCacheStore;
+    @Mock
+    private S3Service s3Service;
+
+    private ImageDerivativeService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ImageDerivativeService(jobRepository, fileRepository, userRepository, userCacheStore,
+                s3Service, new SimpleMeterRegistry(), 1, 10, 40_000_000, 3, Duration.ofMinutes(5),
+                Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("긴 변을 최대 크기로 줄이고 비율을 유지하며, 작은 이미지는 키우지 않는다")
+    void resize_boundsLongestSide() {
+        // when
+        BufferedImage large = ImageDerivativeService.resize(
+                new BufferedImage(4000, 1000, BufferedImage.TYPE_INT_ARGB), 800);
+        BufferedImage small = ImageDerivativeService.resize(
+                new BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB), 800);
+
+        // then
+        assertThat(large.getWidth()).isEqualTo(800);
+        assertThat(large.getHeight()).isEqualTo(200);
+        assertThat(small.getWidth()).isEqualTo(100);
+        assertThat(small.getHeight()).isEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("작업을 가져오면 원본보다 작은 파생본을 저장하고 같은 객체를 쓰는 파일과 프로필에 반영한다")
+    void process_storesVariantsAndPublishes() throws Exception {
+        // given
+        byte[] png = png(2400, 1600);
+        ImageDerivativeJob job = ImageDerivativeJob.builder()
+                .id("key-1").status(ImageDerivativeJob.Status.PROCESSING).attempts(1).build();
+        when(jobRepository.claim(eq("key-1"), any(), any())).thenReturn(1L);
+        when(jobRepository.findById("key-1")).thenReturn(Optional.of(job));
+        when(s3Service.openFile("key-1", null, null)).thenReturn(
+                new S3Service.ObjectStream(new ByteArrayInputStream(png), 200, png.length, null, "\"etag\""));
+        when(jobRepository.finish(eq("key-1"), eq(1), eq(ImageDerivativeJob.Status.DONE),
+                eq(List.of("thumb", "preview")), isNull(), any())).thenReturn(1L);
+        when(s3Service.folderUrl()).thenReturn("http://s3/file");
+        when(userRepository.findByProfileImage("http://s3/file/key-1"))
+                .thenReturn(List.of(User.builder().email("a@test.com").build()));
+
+        // when
+        service.process("key-1");
+
+        // then
+        ArgumentCaptor<byte[]> preview = ArgumentCaptor.forClass(byte[].class);
+        verify(s3Service).putDerivative(eq("key-1-thumb"), any(), eq("image/jpeg"));
+        verify(s3Service).putDerivative(eq("key-1-preview"), preview.capture(), eq("image/jpeg"));
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(preview.getValue()));
+        assertThat(decoded.getWidth()).isEqualTo(800);
+        assertThat(preview.getValue().length).isLessThan(png.length);
+
+        verify(jobRepository, never()).save(any());
+        verify(fileRepository).setVariants("key-1", List.of("thumb", "preview"));
+        verify(userRepository).setProfileImageVariants("http://s3/file/key-1", List.of("thumb", "preview"));
+        verify(userCacheStore).evictUserByEmail("a@test.com");
+    }
+
+    @Test
+    @DisplayName("다른 노드가 이미 가져간 작업은 처리하지 않는다")
+    void process_notClaimed_skips() {
+        // given
+        when(jobRepository.claim(eq("key-1"), any(), any())).thenReturn(0L);
+
+        // when
+        service.process("key-1");
+
+        // then
+        verify(s3Service, never()).openFile(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("처리 중에 작업이 삭제되면 DONE 으로 되살리지 않고, 반영 없이 방금 만든 파생본을 지운다")
+    void process_discardedWhileProcessing_doesNotResurrect() throws Exception {
+        // given
+        byte[] png = png(400, 300);
+        ImageDerivativeJob job = ImageDerivativeJob.builder()
+                .id("key-1").status(ImageDerivativeJob.Status.PROCESSING).attempts(1).build();
+        when(jobRepository.claim(eq("key-1"), any(), any())).thenReturn(1L);
+        when(jobRepository.findById("key-1")).thenReturn(Optional.of(job));
+        when(s3Service.openFile("key-1", null, null)).thenReturn(
+                new S3Service.ObjectStream(new ByteArrayInputStream(png), 200, png.length, null, "\"etag\""));
+        when(jobRepository.finish(eq("key-1"), eq(1), eq(ImageDerivativeJob.Status.DONE), any(), isNull(), any()))
+                .thenReturn(0L);
+        when(jobRepository.existsById("key-1")).thenReturn(false);
+
+        // when
+        service.process("key-1");
+
+        // then
+        verify(jobRepository, never()).save(any());
+        verify(fileRepository, never()).setVariants(any(), any());
+        verify(s3Service).deleteFile("key-1-thumb");
+        verify(s3Service).deleteFile("key-1-preview");
+    }
+
+    @Test
+    @DisplayName("작업이 없는(이미지가 아닌) 객체를 지울 때는 파생본 삭제를 보내지 않는다")
+    void discard_withoutJob_skipsVariantDeletes() {
+        // given
+        when(jobRepository.existsById("doc-key")).thenReturn(false);
+
+        // when
+        service.discard("doc-key");
+
+        // then
+        verify(s3Service, never()).deleteFile(any());
+        verify(jobRepository, never()).deleteById(any());
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, (x * 31 + y * 17) & 0xFFFFFF);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,128 @@
+package com.ktb.chatapp.service;
+
+import com.ktb.chatapp.cache.FileAccessCacheStore;
+import com.ktb.chatapp.cache.FileAccessDescriptor;
+import com.ktb.chatapp.cache.RoomCacheStore;
+import com.ktb.chatapp.model.File;
+import com.ktb.chatapp.model.Room;
+import com.ktb.chatapp.repository.FileRepository;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LocalFileService 테스트")
+class LocalFileServiceTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 1, 2, 3};
+
+    @Mock
+    private S3Service s3Service;
+    @Mock
+    private FileRepository fileRepository;
+    @Mock
+    private FileAccessCacheStore fileAccessCacheStore;
+    @Mock
+    private RoomCacheStore roomCacheStore;
+    @Mock
+    private FileBlobService fileBlobService;
+    @Mock
+    private ImageDerivativeService imageDerivativeService;
+
+    private LocalFileService fileService;
+
+    @BeforeEach
+    void setUp() {
+        fileService = new LocalFileService("uploads", s3Service, fileRepository, fileAccessCacheStore, roomCacheStore,
+                fileBlobService, imageDerivativeService);
+    }
+
+    @Test
+    @DisplayName("방 참가자는 캐시된 정보만으로 파일에 접근하고 저장소는 조회하지 않는다")
+    void getAccessibleFile_participant_usesCachesOnly() {
+        // given
+        givenDescriptor();
+        when(roomCacheStore.getRoom("room-1")).thenReturn(room("user-1", "user-2"));
+
+        // when
+        FileAccessDescriptor descriptor = fileService.getAccessibleFile("a.png", "user-1");
+
+        // then
+        assertThat(descriptor.getFileId()).isEqualTo("file-1");
+        assertThat(descriptor.isPreviewable()).isTrue();
+        verifyNoInteractions(fileRepository, s3Service);
+    }
+
+    @Test
+    @DisplayName("방 참가자가 아니면 접근이 거부된다")
+    void getAccessibleFile_nonParticipant_denied() {
+        // given
+        givenDescriptor();
+        when(roomCacheStore.getRoom("room-1")).thenReturn(room("user-2"));
+
+        // when & then
+        assertThatThrownBy(() -> fileService.getAccessibleFile("a.png", "user-1"))
+                .hasMessageContaining("권한");
+    }
+
+    @Test
+    @DisplayName("같은 내용이 이미 저장되어 있으면 S3 에 올리지 않고 기존 객체를 가리킨다")
+    void uploadFile_duplicateContent_skipsStorage() throws Exception {
+        // given
+        when(fileBlobService.acquire(anyString())).thenReturn(Optional.of("first-file"));
+        when(s3Service.folderUrl()).thenReturn("http://s3/file");
+        when(fileRepository.save(any(File.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        File saved = fileService.uploadFile(new MockMultipartFile("file", "a.png", "image/png", PNG), "user-1")
+                .getFile();
+
+        // then
+        verify(s3Service, never()).putFile(any(), anyString());
+        assertThat(saved.getStorageKey()).isEqualTo("first-file");
+        assertThat(saved.getPath()).isEqualTo("http://s3/file/first-file");
+        assertThat(saved.getChecksum()).hasSize(64);
+        verify(imageDerivativeService).submit(saved);
+    }
+
+    @Test
+    @DisplayName("파일을 삭제하면 저장 객체 대신 참조를 반납한다")
+    void deleteFile_releasesReference() {
+        // given
+        File file = File.builder().id("file-2").filename("b.png").user("user-1")
+                .checksum("abc").storageKey("first-file").build();
+        when(fileRepository.findById("file-2")).thenReturn(Optional.of(file));
+
+        // when
+        fileService.deleteFile("file-2", "user-1");
+
+        // then
+        verify(fileBlobService).release(file);
+        verify(s3Service, never()).deleteFile(anyString());
+    }
+
+    private void givenDescriptor() {
+        when(fileAccessCacheStore.getDescriptor("a.png")).thenReturn(
+                new FileAccessDescriptor("file-1", "a.png", "사진.png", "image/png", 1000, "room-1", "file-1"));
+    }
+
+    private static Room room(String... participantIds) {
+        return Room.builder().id("room-1").participantIds(new HashSet<>(Set.of(participantIds))).build();
+    }
+}
@@ -0,0 +1,229 @@
+package com.ktb.chatapp.service;
+
+import com.ktb.chatapp.config.LocalS3Server;
+import com.ktb.chatapp.config.properties.S3Properties;
+import com.ktb.chatapp.model.File;
+import com.ktb.chatapp.repository.FileRepository;
+import com.ktb.chatapp.service.upload.UploadSession;
+import com.ktb.chatapp.service.upload.UploadSessionStore;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ResumableUploadService 테스트")
+class ResumableUploadServiceTest {
+
+    private static final byte[] PNG_HEAD = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] PDF_HEAD = {'%', 'P', 'D', 'F', '-', '1', '.', '7'};
+    private static final int CHUNK = 5 * 1024 * 1024;
+
+    private final LocalS3Server s3 = new LocalS3Server();
+    private final S3Service s3Service = new S3Service(
+            new S3Properties("test", "test", "bucket", s3.endpoint().toString()), null, s3.client(),
+            DataSize.ofMegabytes(5), 2, 4);
+    private final FileRepository fileRepository = mock(FileRepository.class);
+    private final ImageDerivativeService imageDerivativeService = mock(ImageDerivativeService.class);
+    private final InMemorySessionStore sessionStore = new InMemorySessionStore();
+    private final ResumableUploadService service = new ResumableUploadService(s3Service, fileRepository,
+            imageDerivativeService, sessionStore, DataSize.ofMegabytes(5), Duration.ofHours(1));
+
+    ResumableUploadServiceTest() throws IOException {
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3Service.shutdown();
+        s3.close();
+    }
+
+    @Test
+    @DisplayName("청크를 순서와 상관없이 올리면 이어 올릴 offset 을 알려주고, 완료하면 원본과 같은 객체가 되며 다시 완료해도 같은 파일을 돌려준다")
+    void putChunk_outOfOrder_thenComplete() throws Exception {
+        // given
+        byte[] content = LocalS3Server.repeating(PDF_HEAD, 2L * CHUNK + 100).readAllBytes();
+        when(fileRepository.save(any(File.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        ResumableUploadService.UploadStatus created =
+                service.create("report.pdf", "application/pdf", content.length, "user-1");
+        String sessionId = created.session().getId();
+
+        // when
+        service.putChunk(sessionId, 2L * CHUNK, chunk(content, 2), "user-1");
+        ResumableUploadService.UploadStatus partial = service.putChunk(sessionId, 0, chunk(content, 0), "user-1");
+        service.putChunk(sessionId, CHUNK, chunk(content, 1), "user-1");
+        FileUploadResult result = service.complete(sessionId, "user-1");
+
+        // then
+        assertThat(created.session().totalChunks()).isEqualTo(3);
+        assertThat(partial.receivedChunks()).containsExactly(0, 2);
+        assertThat(partial.offset()).isEqualTo(CHUNK);
+        assertThat(s3.object("bucket", "file/" + result.getFile().getId())).isEqualTo(content);
+        assertThat(result.getFile().getSize()).isEqualTo(content.length);
+
+        when(fileRepository.findById(result.getFile().getId())).thenReturn(Optional.of(result.getFile()));
+        assertThat(service.complete(sessionId, "user-1").getFile()).isSameAs(result.getFile());
+        verify(fileRepository, times(1)).save(any(File.class));
+        verify(imageDerivativeService, times(1)).submit(result.getFile());
+    }
+
+    @Test
+    @DisplayName("받지 않은 청크가 있으면 완료할 수 없다")
+    void complete_missingChunk_fails() throws Exception {
+        // given
+        byte[] content = LocalS3Server.repeating(PNG_HEAD, CHUNK + 10).readAllBytes();
+        String sessionId = service.create("photo.png", "image/png", content.length, "user-1").session().getId();
+        service.putChunk(sessionId, 0, chunk(content, 0), "user-1");
+
+        // when & then
+        assertThatThrownBy(() -> service.complete(sessionId, "user-1"))
+                .hasMessageContaining("업로드되지 않은 청크가 있습니다. (1/2)");
+    }
+
+    @Test
+    @DisplayName("청크 길이가 다르거나 청크 경계가 아니거나 다른 사용자의 세션이면 거부한다")
+    void putChunk_invalidRequests_rejected() throws Exception {
+        // given
+        byte[] content = LocalS3Server.repeating(PNG_HEAD, CHUNK + 10).readAllBytes();
+        String sessionId = service.create("photo.png", "image/png", content.length, "user-1").session().getId();
+
+        // when & then
+        assertThatThrownBy(() -> service.putChunk(sessionId, 0,
+                new ByteArrayInputStream(Arrays.copyOf(content, CHUNK - 1)), "user-1"))
+                .hasMessageContaining("청크 크기가 올바르지 않습니다.");
+        assertThatThrownBy(() -> service.putChunk(sessionId, 10, chunk(content, 1), "user-1"))
+                .hasMessageContaining("청크 위치가 올바르지 않습니다.");
+        assertThatThrownBy(() -> service.putChunk(sessionId, 0, chunk(content, 0), "user-2"))
+                .hasMessageContaining("권한");
+        assertThat(s3.partRequests()).isZero();
+    }
+
+    @Test
+    @DisplayName("완료 처리 중인 세션에는 청크를 받지 않는다")
+    void putChunk_whileCompleting_rejected() throws Exception {
+        // given
+        byte[] content = LocalS3Server.repeating(PNG_HEAD, CHUNK + 10).readAllBytes();
+        String sessionId = service.create("photo.png", "image/png", content.length, "user-1").session().getId();
+        sessionStore.markCompleting(sessionId, Duration.ofMinutes(1));
+
+        // when & then
+        assertThatThrownBy(() -> service.putChunk(sessionId, 0, chunk(content, 0), "user-1"))
+                .hasMessageContaining("이미 완료 처리 중인 업로드입니다.");
+        assertThat(s3.partRequests()).isZero();
+    }
+
+    @Test
+    @DisplayName("S3 완료 뒤 File 저장이 실패해도 다시 완료하면 이어서 끝낸다")
+    void complete_failedAfterS3Complete_retrySucceeds() throws Exception {
+        // given
+        byte[] content = LocalS3Server.repeating(PDF_HEAD, CHUNK + 10).readAllBytes();
+        when(fileRepository.save(any(File.class)))
+                .thenThrow(new RuntimeException("mongo down"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        String sessionId = service.create("report.pdf", "application/pdf", content.length, "user-1")
+                .session().getId();
+        service.putChunk(sessionId, 0, chunk(content, 0), "user-1");
+        service.putChunk(sessionId, CHUNK, chunk(content, 1), "user-1");
+        assertThatThrownBy(() -> service.complete(sessionId, "user-1")).hasMessageContaining("mongo down");
+
+        // when
+        FileUploadResult result = service.complete(sessionId, "user-1");
+
+        // then
+        assertThat(s3.object("bucket", "file/" + result.getFile().getId())).isEqualTo(content);
+        verify(imageDerivativeService, times(1)).submit(result.getFile());
+    }
+
+    private static ByteArrayInputStream chunk(byte[] content, int index) {
+        int from = index * CHUNK;
+        return new ByteArrayInputStream(Arrays.copyOfRange(content, from, Math.min(content.length, from + CHUNK)));
+    }
+
+    private static class InMemorySessionStore implements UploadSessionStore {
+
+        private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+        private final Map<String, SortedMap<Integer, String>> parts = new ConcurrentHashMap<>();
+        private final Map<String, Long> completing = new ConcurrentHashMap<>();
+
+        @Override
+        public void create(UploadSession session, Duration ttl) {
+            sessions.put(session.getId(), session);
+            parts.put(session.getId(), new TreeMap<>());
+        }
+
+        @Override
+        public Optional<UploadSession> find(String sessionId) {
+            UploadSession session = sessions.get(sessionId);
+            if (session != null) {
+                session.setCompleting(leaseAlive(sessionId));
+            }
+            return Optional.ofNullable(session);
+        }
+
+        @Override
+        public synchronized boolean putPart(String sessionId, int partNumber, String eTag, Duration ttl) {
+            if (!open(sessionId)) {
+                return false;
+            }
+            parts.get(sessionId).put(partNumber, eTag);
+            return true;
+        }
+
+        @Override
+        public SortedMap<Integer, String> parts(String sessionId) {
+            return new TreeMap<>(parts.get(sessionId));
+        }
+
+        @Override
+        public synchronized boolean markCompleting(String sessionId, Duration lease) {
+            if (!open(sessionId)) {
+                return false;
+            }
+            completing.put(sessionId, System.currentTimeMillis() + lease.toMillis());
+            return true;
+        }
+
+        @Override
+        public void clearCompleting(String sessionId) {
+            completing.remove(sessionId);
+        }
+
+        @Override
+        public synchronized void complete(String sessionId, String fileId, Duration ttl) {
+            sessions.get(sessionId).setCompletedFileId(fileId);
+            completing.remove(sessionId);
+        }
+
+        @Override
+        public void delete(String sessionId) {
+            sessions.remove(sessionId);
+            parts.remove(sessionId);
+        }
+
+        private boolean open(String sessionId) {
+            UploadSession session = sessions.get(sessionId);
+            return session != null && session.getCompletedFileId() == null && !leaseAlive(sessionId);
+        }
+
+        private boolean leaseAlive(String sessionId) {
+            Long until = completing.get(sessionId);
+            return until != null && until > System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.ktb.chatapp.service;
+
+import com.ktb.chatapp.config.LocalS3Server;
+import com.ktb.chatapp.config.properties.S3Properties;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("S3Service 스트리밍 업로드 테스트")
+class S3ServiceTest {
+
+    private static final byte[] PNG_HEAD = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] PDF_HEAD = {'%', 'P', 'D', 'F', '-', '1', '.', '7'};
+    private static final long MB = 1024 * 1024;
+
+    private final LocalS3Server s3 = new LocalS3Server();
+    // 파트 5MB, 요청당 동시 파트 2개
+    private final S3Service s3Service = new S3Service(
+            new S3Properties("test", "test", "bucket", s3.endpoint().toString()), null, s3.client(),
+            DataSize.ofMegabytes(5), 2, 4);
+
+    S3ServiceTest() throws IOException {
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3Service.shutdown();
+        s3.close();
+    }
+
+    @Test
+    @DisplayName("파트 크기보다 작은 파일은 multipart 없이 한 번에 올리고 체크섬을 계산한다")
+    void putFileStreaming_smallFile_singlePut() throws Exception {
+        // when
+        S3Service.StoredObject stored = s3Service.putFileStreaming(
+                LocalS3Server.repeating(PNG_HEAD, 1000), "file-1", "image/png");
+
+        // then
+        assertThat(stored.size()).isEqualTo(1000);
+        assertThat(stored.sha256()).isEqualTo(sha256(LocalS3Server.repeating(PNG_HEAD, 1000)));
+        assertThat(s3.object("bucket", "file/file-1")).hasSize(1000);
+        assertThat(s3.partRequests()).isZero();
+    }
+
+    @Test
+    @DisplayName("큰 파일은 파트 단위로 나눠 올리고 완료 후 원본과 같은 객체가 된다")
+    void putFileStreaming_largeFile_multipartUpload() throws Exception {
+        // given
+        long size = 12 * MB + 123;
+
+        // when
+        S3Service.StoredObject stored = s3Service.putFileStreaming(
+                LocalS3Server.repeating(PDF_HEAD, size), "file-2", "application/pdf");
+
+        // then
+        assertThat(stored.size()).isEqualTo(size);
+        assertThat(stored.sha256()).isEqualTo(sha256(LocalS3Server.repeating(PDF_HEAD, size)));
+        assertThat(s3.partRequests()).isEqualTo(3);
+        assertThat(sha256(new java.io.ByteArrayInputStream(s3.object("bucket", "file/file-2"))))
+                .isEqualTo(stored.sha256());
+        assertThat(s3.pendingUploads()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("업로드 도중 타입별 크기 제한을 넘으면 multipart 업로드를 취소하고 객체를 남기지 않는다")
+    void putFileStreaming_overSizeLimit_abortsUpload() {
+        // when & then (이미지 제한 10MB)
+        assertThatThrownBy(() -> s3Service.putFileStreaming(
+                LocalS3Server.repeating(PNG_HEAD, 11 * MB), "file-3", "image/png"))
+                .hasMessageContaining("10MB를 초과할 수 없습니다");
+        assertThat(s3.abortedUploads()).isEqualTo(1);
+        assertThat(s3.pendingUploads()).isEmpty();
+        assertThat(s3.object("bucket", "file/file-3")).isNull();
+    }
+
+    @Test
+    @DisplayName("본문 시그니처가 선언된 MIME 타입과 다르면 업로드하지 않는다")
+    void putFileStreaming_signatureMismatch_rejects() {
+        // when & then
+        assertThatThrownBy(() -> s3Service.putFileStreaming(
+                LocalS3Server.repeating(PDF_HEAD, 1000), "file-4", "image/png"))
+                .hasMessageContaining("형식과 일치하지 않습니다");
+        assertThat(s3.object("bucket", "file/file-4")).isNull();
+    }
+
+    @Test
+    @DisplayName("파일을 열 때 Range 는 206 으로, 같은 ETag 의 If-None-Match 는 304 로, 범위 밖 Range 는 416 으로 응답한다")
+    void openFile_supportsRangeAndConditionalRequests() throws Exception {
+        // given
+        s3Service.putFileStreaming(LocalS3Server.repeating(PDF_HEAD, 1000), "file-5", "application/pdf");
+
+        // when
+        S3Service.ObjectStream full = s3Service.openFile("file-5", null, null);
+        full.body().close();
+        S3Service.ObjectStream partial = s3Service.openFile("file-5", "bytes=0-3", null);
+        S3Service.ObjectStream notModified = s3Service.openFile("file-5", null, full.eTag());
+        S3Service.ObjectStream unsatisfiable = s3Service.openFile("file-5", "bytes=5000-", null);
+
+        // then
+        assertThat(full.status()).isEqualTo(200);
+        assertThat(full.contentLength()).isEqualTo(1000);
+        assertThat(partial.status()).isEqualTo(206);
+        assertThat(partial.contentRange()).isEqualTo("bytes 0-3/1000");
+        assertThat(partial.body().readAllBytes()).containsExactly('%', 'P', 'D', 'F');
+        assertThat(notModified.status()).isEqualTo(304);
+        assertThat(notModified.body()).isNull();
+        assertThat(unsatisfiable.status()).isEqualTo(416);
+    }
+
+    private static String sha256(InputStream input) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = input.read(buffer)) > 0) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,165 @@
+package com.ktb.chatapp.websocket.socketio;
+
+import com.ktb.chatapp.websocket.socketio.EventRelayExecutor.Policy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("EventRelayExecutor 테스트")
+class EventRelayExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EventRelayExecutor executor =
+            new EventRelayExecutor(1, 2, Duration.ofMillis(10), meterRegistry);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("대기 중인 MERGE_LATEST 작업은 같은 키의 최신 작업으로 교체된다")
+    void submit_mergeLatest_runsOnlyNewestPendingValue() throws InterruptedException {
+        // given
+        blockWorker();
+        List<Integer> ran = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+
+        // when
+        for (int i = 1; i <= 5; i++) {
+            int value = i;
+            executor.submit("participantsUpdate", Policy.MERGE_LATEST, "room-1", () -> {
+                ran.add(value);
+                done.countDown();
+            });
+        }
+        executor.submit("participantsUpdate", Policy.MERGE_LATEST, "room-2", () -> {
+            ran.add(100);
+            done.countDown();
+        });
+        release.countDown();
+
+        // then
+        assertThat(done.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(ran).containsExactlyInAnyOrder(5, 100);
+        assertThat(meterRegistry.counter("event.relay.merged", "type", "participantsUpdate").count())
+                .isEqualTo(4.0);
+    }
+
+    @Test
+    @DisplayName("BLOCK_OR_SHED 큐가 가득 차면 대기 후 버리고 rejected 카운터를 올린다")
+    void submit_blockOrShed_shedsWhenQueueStaysFull() {
+        // given
+        blockWorker();
+
+        // when
+        boolean first = executor.submit("message", Policy.BLOCK_OR_SHED, null, () -> { });
+        boolean second = executor.submit("message", Policy.BLOCK_OR_SHED, null, () -> { });
+        boolean third = executor.submit("message", Policy.BLOCK_OR_SHED, null, () -> { });
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(meterRegistry.counter("event.relay.rejected", "type", "message").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("event.relay.queue.depth").tag("lane", "main").gauge().value())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("CRITICAL 작업은 메인 큐가 가득 차도 버려지지 않고 먼저 실행된다")
+    void submit_critical_neverDroppedAndRunsFirst() throws InterruptedException {
+        // given
+        blockWorker();
+        List<String> ran = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        for (int i = 0; i < 2; i++) {
+            executor.submit("message", Policy.BLOCK_OR_SHED, null, () -> {
+                ran.add("message");
+                done.countDown();
+            });
+        }
+
+        // when
+        boolean accepted = executor.submit("session_ended", Policy.CRITICAL, null, () -> {
+            ran.add("session_ended");
+            done.countDown();
+        });
+        release.countDown();
+
+        // then
+        assertThat(accepted).isTrue();
+        assertThat(done.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(ran).containsExactly("session_ended", "message", "message");
+    }
+
+    @Test
+    @DisplayName("같은 key 의 BLOCK_OR_SHED 작업은 워커가 여럿이어도 들어온 순서대로 실행된다")
+    void submit_sameKey_runsInOrderAcrossWorkers() throws InterruptedException {
+        // given
+        EventRelayExecutor multi = new EventRelayExecutor(4, 4000, Duration.ofMillis(10), meterRegistry);
+        List<Integer> ran = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(500);
+
+        // when
+        for (int i = 0; i < 500; i++) {
+            int value = i;
+            multi.submit("message", Policy.BLOCK_OR_SHED, "room-1", () -> {
+                ran.add(value);
+                done.countDown();
+            });
+            multi.submit("message", Policy.BLOCK_OR_SHED, "room-" + (i % 7 + 2), () -> { });
+        }
+
+        // then
+        assertThat(done.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(ran).isSorted().hasSize(500);
+        multi.shutdown();
+    }
+
+    @Test
+    @DisplayName("종료 시 대기 중인 메인 레인 작업을 버리지 않고 실행한다")
+    void shutdown_drainsQueuedTasks() {
+        // given
+        blockWorker();
+        List<String> ran = new CopyOnWriteArrayList<>();
+        executor.submit("message", Policy.BLOCK_OR_SHED, "room-1", () -> ran.add("first"));
+        executor.submit("message", Policy.BLOCK_OR_SHED, "room-1", () -> ran.add("second"));
+
+        // when
+        release.countDown();
+        executor.shutdown();
+
+        // then
+        assertThat(ran).containsExactly("first", "second");
+        assertThat(executor.submit("message", Policy.BLOCK_OR_SHED, "room-1", () -> ran.add("late"))).isFalse();
+    }
+
+    // 유일한 워커를 release 될 때까지 붙잡아 둔다
+    private void blockWorker() {
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit("block", Policy.CRITICAL, null, () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            assertThat(started.await(2, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.ktb.chatapp.websocket.socketio;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import static com.ktb.chatapp.config.RedisConfig.SERVER_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("RedisChatDataStore 테스트")
+class RedisChatDataStoreTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valueOps = mock(ValueOperations.class);
+    @SuppressWarnings("unchecked")
+    private final SetOperations<String, String> setOps = mock(SetOperations.class);
+
+    private RedisChatDataStore store;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(redisTemplate.opsForSet()).thenReturn(setOps);
+        store = new RedisChatDataStore(redisTemplate, objectMapper, mock(RedisMessageListenerContainer.class),
+                new SimpleMeterRegistry(), Duration.ofDays(1), Duration.ofMinutes(1), 1000);
+    }
+
+    @Test
+    @DisplayName("접속 사용자는 항목별 키에 저장되고 반복 조회는 near-cache에서 처리된다")
+    void get_repeatedReads_servedFromNearCache() throws Exception {
+        // given
+        SocketUser user = new SocketUser("u1", "kim", "auth-1", "socket-1");
+        when(valueOps.get("chat:data:value:conn_users:userid:u1")).thenReturn(objectMapper.writeValueAsString(user));
+
+        // when
+        Optional<SocketUser> first = store.get("conn_users:userid:u1", SocketUser.class);
+        Optional<SocketUser> second = store.get("conn_users:userid:u1", SocketUser.class);
+
+        // then
+        assertThat(first).contains(user);
+        assertThat(second).contains(user);
+        verify(valueOps, times(1)).get("chat:data:value:conn_users:userid:u1");
+    }
+
+    @Test
+    @DisplayName("값마다 TTL 을 주어 저장하고, size 는 Redis 에 남아 있는 값 키를 센다")
+    @SuppressWarnings("unchecked")
+    void setAndSize_perEntryTtlAndLiveKeys() {
+        // given
+        SocketUser user = new SocketUser("u1", "kim", "auth-1", "socket-1");
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenReturn(true, true, false);
+        when(cursor.next()).thenReturn("chat:data:value:conn_users:userid:u1", "chat:data:value:conn_users:userid:u2");
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+
+        // when
+        store.set("conn_users:userid:u1", user);
+        store.delete("conn_users:userid:u2");
+        int size = store.size();
+
+        // then
+        verify(valueOps).set(eq("chat:data:value:conn_users:userid:u1"), anyString(), eq(Duration.ofDays(1)));
+        verify(redisTemplate).delete(List.of("chat:data:value:conn_users:userid:u2", "chat:data:conn_users:userid:u2"));
+        verify(redisTemplate, never()).expire(anyString(), any(Duration.class));
+        assertThat(size).isEqualTo(2);
+        verify(cursor).close();
+    }
+
+    @Test
+    @DisplayName("읽는 사이 다른 키가 무효화되어도 읽은 값은 near-cache에 올라간다")
+    void get_otherKeyInvalidatedDuringLoad_stillCached() {
+        // given
+        when(valueOps.get("chat:data:value:conn_users:userid:u1")).thenAnswer(invocation -> {
+            store.onMessage(invalidation("other-node", "conn_users:userid:u2"), null);
+            return "null";
+        });
+
+        // when
+        store.get("conn_users:userid:u1", SocketUser.class);
+        store.get("conn_users:userid:u1", SocketUser.class);
+
+        // then
+        verify(valueOps, times(1)).get("chat:data:value:conn_users:userid:u1");
+    }
+
+    @Test
+    @DisplayName("읽는 사이 같은 키가 무효화되면 읽은 값을 올리지 않고 다음 조회에서 다시 읽는다")
+    void get_sameKeyInvalidatedDuringLoad_notCached() {
+        // given
+        when(valueOps.get("chat:data:value:conn_users:userid:u1")).thenAnswer(invocation -> {
+            store.onMessage(invalidation("other-node", "conn_users:userid:u1"), null);
+            return "null";
+        });
+
+        // when
+        store.get("conn_users:userid:u1", SocketUser.class);
+        store.get("conn_users:userid:u1", SocketUser.class);
+
+        // then
+        verify(valueOps, times(2)).get("chat:data:value:conn_users:userid:u1");
+    }
+
+    @Test
+    @DisplayName("다른 노드의 무효화 메시지를 받으면 다음 조회에서 Redis를 다시 읽는다")
+    void onMessage_remoteInvalidation_reloads() {
+        // given
+        when(setOps.members("chat:data:userroom:roomids:u1")).thenReturn(Set.of("r1"), Set.of("r1", "r2"));
+        assertThat(store.isMember("userroom:roomids:u1", "r2")).isFalse();
+
+        // when
+        store.onMessage(invalidation("other-node", "userroom:roomids:u1"), null);
+
+        // then
+        assertThat(store.isMember("userroom:roomids:u1", "r2")).isTrue();
+        verify(setOps, times(2)).members("chat:data:userroom:roomids:u1");
+    }
+
+    @Test
+    @DisplayName("자기 노드가 보낸 무효화 메시지는 무시한다")
+    void onMessage_ownInvalidation_ignored() {
+        // given
+        when(setOps.members("chat:data:userroom:roomids:u1")).thenReturn(Set.of("r1"));
+        store.members("userroom:roomids:u1");
+
+        // when
+        store.onMessage(invalidation(SERVER_ID, "userroom:roomids:u1"), null);
+        store.members("userroom:roomids:u1");
+
+        // then
+        verify(setOps, times(1)).members("chat:data:userroom:roomids:u1");
+    }
+
+    @Test
+    @DisplayName("로컬 쓰기는 Redis에 반영하고 다른 노드에 무효화를 발행한다")
+    void addMember_writesAndPublishesInvalidation() {
+        // when
+        store.addMember("userroom:roomids:u1", "r1");
+
+        // then
+        verify(setOps).add("chat:data:userroom:roomids:u1", "r1");
+        verify(redisTemplate).convertAndSend(eq(RedisChatDataStore.INVALIDATION_CHANNEL), anyString());
+    }
+
+    private DefaultMessage invalidation(String serverId, String key) {
+        return new DefaultMessage(
+                RedisChatDataStore.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                (serverId + "|" + key).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,122 @@
+package com.ktb.chatapp.websocket.socketio;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RoomAudienceIndex 테스트")
+class RoomAudienceIndexTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RoomAudienceIndex index = new RoomAudienceIndex(meterRegistry);
+
+    @Test
+    @DisplayName("사용자-방 추가는 양방향으로 조회되고 방별 게이지에 반영된다")
+    void add_updatesBothDirectionsAndGauge() {
+        // when
+        index.add("u1", "r1");
+        index.add("u2", "r1");
+        index.add("u1", "r2");
+
+        // then
+        assertThat(index.roomsOf("u1")).containsExactlyInAnyOrder("r1", "r2");
+        assertThat(index.localUsersIn("r1")).containsExactlyInAnyOrder("u1", "u2");
+        assertThat(index.isInRoom("u2", "r1")).isTrue();
+        assertThat(index.isInRoom("u2", "r2")).isFalse();
+        assertThat(meterRegistry.get("socketio.room.local.audience").tag("roomId", "r1").gauge().value())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("마지막 사용자가 나가면 방 항목과 게이지가 제거된다")
+    void removeUser_lastAudience_removesRoomAndGauge() {
+        // given
+        index.add("u1", "r1");
+        index.add("u1", "r2");
+        index.add("u2", "r2");
+
+        // when
+        index.removeUser("u1");
+
+        // then
+        assertThat(index.roomsOf("u1")).isEmpty();
+        assertThat(index.hasLocalAudience("r1")).isFalse();
+        assertThat(index.localAudience("r2")).isEqualTo(1);
+        assertThat(meterRegistry.find("socketio.room.local.audience").tag("roomId", "r1").gauge()).isNull();
+        assertThat(meterRegistry.get("socketio.rooms.local.active").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("동시 입장/퇴장 후에도 양방향 인덱스가 일치한다")
+    void concurrentAddRemove_staysConsistent() throws InterruptedException {
+        // given
+        int users = 50;
+        int rooms = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(users);
+
+        // when
+        for (int u = 0; u < users; u++) {
+            String userId = "u" + u;
+            executor.execute(() -> {
+                for (int i = 0; i < 200; i++) {
+                    String roomId = "r" + (i % rooms);
+                    index.add(userId, roomId);
+                    if (i % 3 == 0) {
+                        index.remove(userId, roomId);
+                    }
+                }
+                done.countDown();
+            });
+        }
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+
+        // then
+        for (int u = 0; u < users; u++) {
+            String userId = "u" + u;
+            for (int r = 0; r < rooms; r++) {
+                String roomId = "r" + r;
+                assertThat(index.localUsersIn(roomId).contains(userId)).isEqualTo(index.isInRoom(userId, roomId));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("다른 사용자가 나가며 빈 방을 지우는 중에 들어와도 방 청중에서 빠지지 않는다")
+    void addWhileOtherLeaves_neverOrphaned() throws InterruptedException {
+        // given
+        int users = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        CountDownLatch done = new CountDownLatch(users);
+        AtomicInteger orphaned = new AtomicInteger();
+
+        // when
+        for (int u = 0; u < users; u++) {
+            String userId = "u" + u;
+            executor.execute(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    index.add(userId, "r1");
+                    if (!index.localUsersIn("r1").contains(userId)) {
+                        orphaned.incrementAndGet();
+                    }
+                    index.remove(userId, "r1");
+                }
+                done.countDown();
+            });
+        }
+        assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+
+        // then
+        assertThat(orphaned.get()).isZero();
+        assertThat(index.hasLocalAudience("r1")).isFalse();
+    }
+}
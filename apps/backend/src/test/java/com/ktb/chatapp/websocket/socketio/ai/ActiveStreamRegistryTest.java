@@ -0,0 +1,98 @@
+package com.ktb.chatapp.websocket.socketio.ai;
+
+import com.ktb.chatapp.dto.ActiveStreamResponse;
+import com.ktb.chatapp.websocket.socketio.handler.StreamingSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ActiveStreamRegistry 테스트")
+class ActiveStreamRegistryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ActiveStreamRegistry registry = new ActiveStreamRegistry(meterRegistry, Duration.ofMinutes(2));
+
+    @Test
+    @DisplayName("진행 중인 스트림의 현재 내용과 순번을 시작 순서대로 스냅샷한다")
+    void snapshot_returnsInFlightContentAndSequence() {
+        // given
+        StreamingSession first = session("wayneAI-1", "room-1", 1_000L);
+        StreamingSession second = session("consultingAI-2", "room-1", 2_000L);
+        registry.register(second);
+        registry.register(first);
+        first.appendContent("안녕");
+        first.appendContent("하세요");
+        second.appendContent("네");
+
+        // when
+        List<ActiveStreamResponse> streams = registry.snapshot("room-1");
+
+        // then
+        assertThat(streams).extracting(ActiveStreamResponse::getId)
+                .containsExactly("wayneAI-1", "consultingAI-2");
+        assertThat(streams.get(0).getContent()).isEqualTo("안녕하세요");
+        assertThat(streams.get(0).getSeq()).isEqualTo(2);
+        assertThat(streams.get(0).isStreaming()).isTrue();
+        assertThat(streams.get(0).getTimestamp()).isEqualTo("1970-01-01T00:00:01Z");
+        assertThat(registry.snapshot("room-2")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("스트림이 끝나 제거되면 스냅샷과 활성 스트림 수에서 빠진다")
+    void remove_dropsStreamAndUpdatesGauge() {
+        // given
+        StreamingSession stream = session("wayneAI-1", "room-1", 1_000L);
+        registry.register(stream);
+        assertThat(meterRegistry.get("ai.streams.active").gauge().value()).isEqualTo(1.0);
+
+        // when
+        registry.remove(stream);
+        registry.remove(stream);
+
+        // then
+        assertThat(registry.snapshot("room-1")).isEmpty();
+        assertThat(meterRegistry.get("ai.streams.active").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("다른 노드에서 relay 된 스트림도 프레임 순번에 맞춰 따라가고 완료되면 빠진다")
+    void applyRelayed_tracksRemoteStreams() {
+        // given
+        registry.applyRelayed("room-1", "aiMessageStart",
+                Map.of("messageId", "wayneAI-1-abcd1234-1", "aiType", "wayneAI", "timestamp", 1_000L));
+
+        // when
+        registry.applyRelayed("room-1", "aiMessageChunk",
+                Map.of("messageId", "wayneAI-1-abcd1234-1", "fromSeq", 1, "seq", 3, "delta", "안녕하"));
+        // 4~5번 프레임이 빠진 경우 무시하고 체크포인트를 기다린다
+        registry.applyRelayed("room-1", "aiMessageChunk",
+                Map.of("messageId", "wayneAI-1-abcd1234-1", "fromSeq", 6, "seq", 6, "delta", "!"));
+        ActiveStreamResponse afterGap = registry.snapshot("room-1").get(0);
+        registry.applyRelayed("room-1", "aiMessageChunk", Map.of("messageId", "wayneAI-1-abcd1234-1",
+                "fromSeq", 7, "seq", 8, "delta", "요", "fullContent", "안녕하세요"));
+        ActiveStreamResponse afterCheckpoint = registry.snapshot("room-1").get(0);
+        registry.applyRelayed("room-1", "aiMessageComplete", Map.of("messageId", "wayneAI-1-abcd1234-1"));
+
+        // then
+        assertThat(afterGap.getContent()).isEqualTo("안녕하");
+        assertThat(afterGap.getSeq()).isEqualTo(3);
+        assertThat(afterCheckpoint.getContent()).isEqualTo("안녕하세요");
+        assertThat(afterCheckpoint.getSeq()).isEqualTo(8);
+        assertThat(registry.snapshot("room-1")).isEmpty();
+    }
+
+    private StreamingSession session(String messageId, String roomId, long timestamp) {
+        return StreamingSession.builder()
+                .messageId(messageId)
+                .roomId(roomId)
+                .userId("user-1")
+                .aiType(messageId.substring(0, messageId.indexOf('-')))
+                .timestamp(timestamp)
+                .build();
+    }
+}
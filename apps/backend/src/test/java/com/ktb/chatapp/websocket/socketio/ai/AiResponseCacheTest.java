@@ -0,0 +1,137 @@
+package com.ktb.chatapp.websocket.socketio.ai;
+
+import com.ktb.chatapp.model.AiType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AiResponseCache 테스트")
+class AiResponseCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @Test
+    @DisplayName("같은 질문(공백/대소문자 차이 무시)은 upstream 호출 없이 저장된 답변을 재생한다")
+    void stream_repeatedQuery_replaysCachedAnswer() {
+        // given
+        AiResponseCache cache = cache(10);
+        String first = join(cache.stream(AiType.WAYNE_AI, "자바의 특징은?", () -> upstream("자바는 ", "객체지향 ", "언어입니다.")));
+
+        // when
+        String second = join(cache.stream(AiType.WAYNE_AI, "  자바의   특징은? ", () -> upstream("다른 답변")));
+
+        // then
+        assertThat(second).isEqualTo(first).isEqualTo("자바는 객체지향 언어입니다.");
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(meterRegistry.counter("ai.response_cache.requests", "result", "miss").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("ai.response_cache.requests", "result", "hit").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("ai.response_cache.saved_tokens").count()).isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("AI 타입이 다르면 같은 질문이어도 따로 캐시하고, 크기 한도를 넘으면 오래된 항목부터 제거한다")
+    void stream_differentAiTypeAndEviction() {
+        // given
+        AiResponseCache cache = cache(1);
+        join(cache.stream(AiType.WAYNE_AI, "질문", () -> upstream("wayne")));
+
+        // when
+        String consulting = join(cache.stream(AiType.CONSULTING_AI, "질문", () -> upstream("consulting")));
+        String wayne = join(cache.stream(AiType.WAYNE_AI, "질문", () -> upstream("wayne-again")));
+
+        // then
+        assertThat(consulting).isEqualTo("consulting");
+        assertThat(wayne).isEqualTo("wayne-again");
+        assertThat(upstreamCalls).hasValue(3);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("캐시에 없는 같은 질문이 동시에 들어오면 하나의 upstream 스트림을 공유한다")
+    void stream_concurrentMisses_shareSingleUpstream() {
+        // given
+        AiResponseCache cache = cache(10);
+        Sinks.Many<String> sink = Sinks.many().unicast().onBackpressureBuffer();
+        Flux<String> upstream = sink.asFlux().doOnSubscribe(subscription -> upstreamCalls.incrementAndGet());
+        StringBuilder leader = new StringBuilder();
+        StringBuilder follower = new StringBuilder();
+
+        // when
+        cache.stream(AiType.WAYNE_AI, "같은 질문", () -> upstream).subscribe(leader::append);
+        sink.tryEmitNext("첫 ");
+        cache.stream(AiType.WAYNE_AI, "같은 질문", () -> upstream).subscribe(follower::append);
+        sink.tryEmitNext("답변");
+        sink.tryEmitComplete();
+
+        // then
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(leader).hasToString("첫 답변");
+        assertThat(follower).hasToString("첫 답변");
+        assertThat(meterRegistry.counter("ai.response_cache.requests", "result", "shared").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("ai.response_cache.saved_tokens").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("구독자가 모두 취소한 스트림에 뒤늦게 합류해도 추적되지 않는 upstream 을 다시 열지 않는다")
+    void stream_cancelRace_neverReconnectsUpstream() throws InterruptedException {
+        // given
+        AiResponseCache cache = cache(10);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        // when
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    cache.stream(AiType.WAYNE_AI, "같은 질문",
+                                    () -> Flux.<String>never().doOnSubscribe(s -> upstreamCalls.incrementAndGet()))
+                            .subscribe()
+                            .dispose();
+                }
+                done.countDown();
+            });
+        }
+        assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+
+        // then
+        assertThat((double) upstreamCalls.get())
+                .isEqualTo(meterRegistry.counter("ai.response_cache.requests", "result", "miss").count());
+    }
+
+    @Test
+    @DisplayName("재생 청크는 서로게이트 쌍을 자르지 않는다")
+    void split_keepsSurrogatePairs() {
+        // when
+        List<String> pieces = AiResponseCache.split("a😀b😀c", 2);
+
+        // then
+        assertThat(pieces).containsExactly("a😀", "b😀", "c");
+    }
+
+    private AiResponseCache cache(int maxSize) {
+        return new AiResponseCache(null, meterRegistry, true, false, maxSize,
+                Duration.ofMinutes(1), 4, Duration.ZERO);
+    }
+
+    private Flux<String> upstream(String... tokens) {
+        return Flux.fromArray(tokens).doOnSubscribe(subscription -> upstreamCalls.incrementAndGet());
+    }
+
+    private String join(Flux<String> tokens) {
+        return String.join("", tokens.collectList().block(Duration.ofSeconds(5)));
+    }
+}
@@ -0,0 +1,191 @@
+package com.ktb.chatapp.websocket.socketio.ai;
+
+import com.ktb.chatapp.cache.RoomCacheStore;
+import com.ktb.chatapp.event.AiMessageErrorEvent;
+import com.ktb.chatapp.event.AiMessageQueuedEvent;
+import com.ktb.chatapp.websocket.socketio.RoomAudienceIndex;
+import com.ktb.chatapp.websocket.socketio.handler.StreamingSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("AiStreamGovernor 테스트")
+class AiStreamGovernorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RoomAudienceIndex audienceIndex = new RoomAudienceIndex(meterRegistry);
+    private final List<Object> published = new ArrayList<>();
+    private final Set<String> launched = new HashSet<>();
+    private final Set<String> cancelled = new HashSet<>();
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    // 전체 3, 방당 2, 사용자당 1, 대기열 2
+    // 방 조회 결과가 없으면 참가자 없는 방으로 본다
+    private final AiStreamGovernor governor = new AiStreamGovernor(published::add, audienceIndex,
+            mock(RoomCacheStore.class), meterRegistry, 3, 2, 1, 2, Duration.ofSeconds(30), Duration.ofSeconds(5));
+
+    @Test
+    @DisplayName("사용자 한도를 넘은 요청은 대기 순번을 알리고, 앞 스트림이 끝나면 시작된다")
+    void submit_overUserLimit_queuesUntilRelease() {
+        // given
+        audienceIndex.add("user-1", "room-1");
+        StreamingSession first = session("room-1", "user-1");
+        StreamingSession second = session("room-1", "user-1");
+        submit(first);
+
+        // when
+        boolean accepted = submit(second);
+
+        // then
+        assertThat(accepted).isTrue();
+        assertThat(launched).containsExactly(first.getMessageId());
+        assertThat(published).singleElement()
+                .isInstanceOfSatisfying(AiMessageQueuedEvent.class, queued -> {
+                    assertThat(queued.getMessageId()).isEqualTo(second.getMessageId());
+                    assertThat(queued.getPosition()).isEqualTo(1);
+                });
+
+        // when
+        governor.release(first);
+
+        // then
+        assertThat(launched).contains(second.getMessageId());
+        assertThat(governor.queuedCount()).isZero();
+        assertThat(governor.runningCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("한도에 막힌 요청이 대기 중이어도 한도 안의 다른 사용자 요청은 바로 시작되고, 대기열이 차면 거절한다")
+    void submit_queueFull_rejectsWithError() {
+        // given
+        audienceIndex.add("user-1", "room-1");
+        submit(session("room-1", "user-1"));
+        submit(session("room-1", "user-1"));
+        submit(session("room-1", "user-1"));
+
+        // when
+        StreamingSession other = session("room-2", "user-2");
+        boolean otherAccepted = submit(other);
+        boolean rejected = submit(session("room-1", "user-1"));
+
+        // then
+        assertThat(otherAccepted).isTrue();
+        assertThat(launched).contains(other.getMessageId()).hasSize(2);
+        assertThat(rejected).isFalse();
+        assertThat(published).filteredOn(AiMessageErrorEvent.class::isInstance).hasSize(1);
+        assertThat(meterRegistry.counter("ai.streams.rejected").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("점검 시 유휴 스트림은 에러와 함께 중단하고, 보는 사람이 없는 방의 스트림은 취소한다")
+    void sweep_cancelsIdleAndOrphanedStreams() {
+        // given
+        audienceIndex.add("user-1", "room-1");
+        audienceIndex.add("user-2", "room-2");
+        StreamingSession idle = session("room-1", "user-1");
+        StreamingSession orphaned = session("room-2", "user-2");
+        StreamingSession healthy = session("room-1", "user-3");
+        submit(idle);
+        submit(orphaned);
+        submit(healthy);
+        idle.setLastUpdate(System.currentTimeMillis() - Duration.ofMinutes(1).toMillis());
+        audienceIndex.remove("user-2", "room-2");
+
+        // when
+        governor.sweep();
+
+        // then
+        assertThat(cancelled).containsExactlyInAnyOrder(idle.getMessageId(), orphaned.getMessageId());
+        assertThat(published).filteredOn(AiMessageErrorEvent.class::isInstance)
+                .extracting(event -> ((AiMessageErrorEvent) event).getMessageId())
+                .containsExactly(idle.getMessageId());
+        assertThat(meterRegistry.counter("ai.streams.cancelled", "reason", "idle").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("ai.streams.cancelled", "reason", "room_empty").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("messageId 가 겹치는 두 스트림도 각자 슬롯을 잡고 끝나면 모두 반납한다")
+    void release_duplicateMessageIds_freesEverySlot() {
+        // given
+        audienceIndex.add("user-1", "room-1");
+        audienceIndex.add("user-2", "room-1");
+        StreamingSession first = session("room-1", "user-1");
+        StreamingSession second = session("room-1", "user-2");
+        second.setMessageId(first.getMessageId());
+        submit(first);
+        submit(second);
+        assertThat(governor.runningCount()).isEqualTo(2);
+
+        // when
+        governor.release(first);
+        governor.release(second);
+
+        // then
+        assertThat(governor.runningCount()).isZero();
+        StreamingSession next = session("room-1", "user-1");
+        submit(next);
+        assertThat(launched).contains(next.getMessageId());
+    }
+
+    @Test
+    @DisplayName("요청자가 방을 나가면 그 사용자의 스트림만 바로 취소하고 대기 중인 요청도 뺀다")
+    void cancelRequester_cancelsOnlyThatUsersStreams() {
+        // given
+        audienceIndex.add("user-1", "room-1");
+        audienceIndex.add("user-2", "room-1");
+        StreamingSession mine = session("room-1", "user-1");
+        StreamingSession queued = session("room-1", "user-1");
+        StreamingSession other = session("room-1", "user-2");
+        submit(mine);
+        submit(queued);
+        submit(other);
+        assertThat(governor.queuedCount()).isEqualTo(1);
+
+        // when
+        governor.cancelRequester("user-1", "room-1");
+
+        // then
+        assertThat(cancelled).containsExactly(mine.getMessageId());
+        assertThat(governor.queuedCount()).isZero();
+        assertThat(launched).doesNotContain(queued.getMessageId());
+        assertThat(meterRegistry.counter("ai.streams.cancelled", "reason", "requester_left").count()).isEqualTo(1);
+    }
+
+    private boolean submit(StreamingSession session) {
+        return governor.submit(session, () -> {
+            launched.add(session.getMessageId());
+            AiStreamHandler handler = new AiStreamHandler(session, published::add, 0);
+            handler.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled.add(session.getMessageId());
+                }
+            });
+            return handler;
+        });
+    }
+
+    private StreamingSession session(String roomId, String userId) {
+        return StreamingSession.builder()
+                .messageId("wayneAI-" + sequence.incrementAndGet())
+                .roomId(roomId)
+                .userId(userId)
+                .aiType("wayneAI")
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.ktb.chatapp.websocket.socketio.ai;
+
+import com.ktb.chatapp.event.AiMessageChunkEvent;
+import com.ktb.chatapp.event.AiMessageCompleteEvent;
+import com.ktb.chatapp.websocket.socketio.handler.StreamingSession;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AiStreamHandler 테스트")
+class AiStreamHandlerTest {
+
+    private final List<Object> published = new ArrayList<>();
+    private final StreamingSession session = StreamingSession.builder()
+            .messageId("wayneAI-1")
+            .roomId("room-1")
+            .userId("user-1")
+            .aiType("wayneAI")
+            .query("질문")
+            .timestamp(System.currentTimeMillis())
+            .build();
+
+    @Test
+    @DisplayName("청크는 순번과 delta만 보내고 N번째 청크마다 전체 내용을 체크포인트로 보낸다")
+    void onNext_sendsDeltasWithPeriodicCheckpoints() {
+        // given
+        AiStreamHandler handler = new AiStreamHandler(session, published::add, 3);
+
+        // when
+        for (String delta : List.of("a", "b", "c", "d", "e", "f", "g")) {
+            handler.onNext(ChunkData.from(delta));
+        }
+
+        // then
+        List<AiMessageChunkEvent> chunks = published.stream()
+                .map(AiMessageChunkEvent.class::cast)
+                .toList();
+        assertThat(chunks).extracting(AiMessageChunkEvent::getSeq).containsExactly(1, 2, 3, 4, 5, 6, 7);
+        assertThat(chunks).extracting(AiMessageChunkEvent::getDelta)
+                .containsExactly("a", "b", "c", "d", "e", "f", "g");
+        assertThat(chunks).filteredOn(AiMessageChunkEvent::isCheckpoint)
+                .extracting(AiMessageChunkEvent::getFullContent)
+                .containsExactly("abc", "abcdef");
+    }
+
+    @Test
+    @DisplayName("delta를 순서대로 이어 붙인 결과가 완료 이벤트의 전체 내용과 같다")
+    void onComplete_contentEqualsConcatenatedDeltas() {
+        // given
+        AiStreamHandler handler = new AiStreamHandler(session, published::add, 0);
+        StringBuilder client = new StringBuilder();
+
+        // when
+        for (String delta : List.of("```java\n", "int x = 1;", "\n```", " 끝")) {
+            handler.onNext(ChunkData.from(delta));
+        }
+        handler.onComplete();
+
+        // then
+        published.stream()
+                .filter(AiMessageChunkEvent.class::isInstance)
+                .map(AiMessageChunkEvent.class::cast)
+                .forEach(chunk -> {
+                    assertThat(chunk.isCheckpoint()).isFalse();
+                    client.append(chunk.getDelta());
+                });
+        AiMessageCompleteEvent complete = (AiMessageCompleteEvent) published.get(published.size() - 1);
+        assertThat(complete.getContent()).isEqualTo(client.toString());
+    }
+}
@@ -0,0 +1,76 @@
+package com.ktb.chatapp.websocket.socketio.ai;
+
+import com.ktb.chatapp.event.AiMessageChunkEvent;
+import com.ktb.chatapp.redis.ChatRedisPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("AiStreamRelay 테스트")
+class AiStreamRelayTest {
+
+    private final ChatRedisPublisher chatRedisPublisher = mock(ChatRedisPublisher.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // 주기 flush 가 테스트 중에 끼어들지 않도록 길게 둔다
+    private final AiStreamRelay relay = new AiStreamRelay(chatRedisPublisher, meterRegistry, Duration.ofMinutes(1), 1024);
+
+    @AfterEach
+    void tearDown() {
+        relay.shutdown();
+    }
+
+    @Test
+    @DisplayName("청크는 스트림별 한 프레임으로 묶이고 완료 이벤트보다 먼저 발행된다")
+    @SuppressWarnings("unchecked")
+    void publish_flushesBatchedFrameBeforeCompletion() {
+        // given
+        relay.chunk(chunk(1, "안", null));
+        relay.chunk(chunk(2, "녕", "안녕"));
+        relay.chunk(chunk(3, "하세요", null));
+        Map<String, Object> complete = Map.of("messageId", "wayneAI-1", "content", "안녕하세요");
+
+        // when
+        relay.publish("room-1", "wayneAI-1", "aiMessageComplete", complete);
+
+        // then
+        InOrder order = inOrder(chatRedisPublisher);
+        ArgumentCaptor<Object> frame = ArgumentCaptor.forClass(Object.class);
+        order.verify(chatRedisPublisher, timeout(1000)).publish(eq("room-1"), eq("aiMessageChunk"), frame.capture());
+        order.verify(chatRedisPublisher, timeout(1000)).publish("room-1", "aiMessageComplete", complete);
+        assertThat((Map<String, Object>) frame.getValue())
+                .containsEntry("messageId", "wayneAI-1")
+                .containsEntry("fromSeq", 1)
+                .containsEntry("seq", 3)
+                .containsEntry("delta", "안녕하세요")
+                .containsEntry("fullContent", "안녕하세요");
+        assertThat(meterRegistry.counter("ai.stream.relay.chunks").count()).isEqualTo(3.0);
+        assertThat(meterRegistry.counter("ai.stream.relay.frames").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("프레임이 max-batch-chars 를 넘으면 주기를 기다리지 않고 바로 발행한다")
+    void chunk_overBatchLimit_publishesImmediately() {
+        // when
+        relay.chunk(chunk(1, "a".repeat(1024), null));
+
+        // then
+        verify(chatRedisPublisher, timeout(1000)).publish(eq("room-1"), eq("aiMessageChunk"), any());
+    }
+
+    private AiMessageChunkEvent chunk(int seq, String delta, String fullContent) {
+        return new AiMessageChunkEvent(this, "room-1", "wayneAI-1", seq, delta, fullContent, false);
+    }
+}
@@ -0,0 +1,67 @@
+package com.ktb.chatapp.websocket.socketio.ai;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AI 청크 묶음 처리 테스트")
+class ChunkCoalescingTest {
+
+    @Test
+    @DisplayName("작은 토큰들을 maxChunks 단위로 묶고 내용은 그대로 유지한다")
+    void coalesce_batchesTokensWithoutLosingContent() {
+        // given
+        List<String> tokens = List.of("안녕", "하세요", " ", "자바", "는", "\n", "객체", "지향", " 언어", "입니다.");
+
+        // when
+        List<ChunkData> chunks = AiService.coalesce(Flux.fromIterable(tokens), 4, Duration.ofSeconds(5))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        // then
+        assertThat(chunks).hasSize(3);
+        assertThat(join(chunks)).isEqualTo(String.join("", tokens));
+    }
+
+    @Test
+    @DisplayName("묶음 경계에서 잘린 ``` 마커도 하나의 마커로 인식해 코드 블록 상태를 추적한다")
+    void coalesce_fenceSplitAcrossBatches_tracksCodeBlockState() {
+        // given
+        List<String> tokens = List.of("설명", "`", "``", "java\n", "int x;", "\n``", "`", " 끝");
+
+        // when
+        List<ChunkData> chunks = AiService.coalesce(Flux.fromIterable(tokens), 2, Duration.ofSeconds(5))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        // then
+        assertThat(join(chunks)).isEqualTo("설명```java\nint x;\n``` 끝");
+        assertThat(chunks).noneMatch(chunk -> chunk.currentChunk().endsWith("`"));
+        assertThat(chunks).filteredOn(chunk -> chunk.currentChunk().contains("int x;"))
+                .allMatch(ChunkData::codeBlock);
+        assertThat(chunks.get(chunks.size() - 1).codeBlock()).isFalse();
+    }
+
+    @Test
+    @DisplayName("스트림이 백틱으로 끝나도 보류한 내용을 마지막에 내보낸다")
+    void coalesce_trailingBackticks_flushedOnComplete() {
+        // when
+        List<ChunkData> chunks = AiService.coalesce(Flux.just("```", "code", "``", "`"), 8, Duration.ofSeconds(5))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        // then
+        assertThat(join(chunks)).isEqualTo("```code```");
+        assertThat(chunks.get(chunks.size() - 1).codeBlock()).isFalse();
+    }
+
+    private String join(List<ChunkData> chunks) {
+        StringBuilder content = new StringBuilder();
+        chunks.forEach(chunk -> content.append(chunk.currentChunk()));
+        return content.toString();
+    }
+}
@@ -0,0 +1,76 @@
+package com.ktb.chatapp.websocket.socketio.ai;
+
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SyntheticChatModel 테스트")
+class SyntheticChatModelTest {
+
+    @Test
+    @DisplayName("같은 프롬프트는 같은 답변을 만들고, 길이는 설정 범위 안에 있으며 토큰마다 공백 한 글자로 끝난다")
+    void plan_isDeterministicWithinLengthBounds() {
+        // given
+        SyntheticChatModel model = new SyntheticChatModel(Duration.ZERO, 10, 5, 8, 0.0, 1L);
+
+        // when
+        SyntheticChatModel.Plan first = model.plan(prompt("자바의 특징은?"));
+        SyntheticChatModel.Plan second = model.plan(prompt("자바의 특징은?"));
+
+        // then
+        assertThat(first.tokens()).isEqualTo(second.tokens()).hasSizeBetween(5, 8);
+        assertThat(first.tokens()).allSatisfy(token ->
+                assertThat(token.chars().filter(Character::isWhitespace).count()).isEqualTo(1));
+        assertThat(first.failAt()).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("첫 토큰은 TTFT 후에, 이후 토큰은 초당 토큰 수 간격으로 나온다")
+    void stream_followsTimeToFirstTokenAndRate() {
+        // given
+        SyntheticChatModel model = new SyntheticChatModel(Duration.ofMillis(500), 10, 3, 3, 0.0, 1L);
+
+        // when & then
+        StepVerifier.withVirtualTime(() -> model.stream(prompt("질문")).map(SyntheticChatModelTest::text))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(499))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNextCount(1)
+                .expectNoEvent(Duration.ofMillis(99))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNextCount(1)
+                .thenAwait(Duration.ofMillis(100))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("에러 비율이 1이면 답변 도중 에러로 끝난다")
+    void stream_injectsError() {
+        // given
+        SyntheticChatModel model = new SyntheticChatModel(Duration.ZERO, 1000, 4, 4, 1.0, 1L);
+        int failAt = model.plan(prompt("질문")).failAt();
+
+        // when & then
+        assertThat(failAt).isBetween(0, 3);
+        StepVerifier.create(model.stream(prompt("질문")))
+                .expectNextCount(failAt)
+                .expectError(SyntheticChatModel.SyntheticLlmException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private static Prompt prompt(String query) {
+        return new Prompt(new SystemMessage("system"), new UserMessage(query));
+    }
+
+    private static String text(ChatResponse response) {
+        return response.getResult().getOutput().getText();
+    }
+}
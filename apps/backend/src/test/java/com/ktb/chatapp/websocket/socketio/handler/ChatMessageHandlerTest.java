@@ -2,9 +2,8 @@ package com.ktb.chatapp.websocket.socketio.handler;
 
 import com.corundumstudio.socketio.SocketIOClient;
 import com.corundumstudio.socketio.SocketIOServer;
-import com.ktb.chatapp.cache.RoomCacheStore;
+import com.ktb.chatapp.cache.RoomMembershipIndex;
 import com.ktb.chatapp.dto.ChatMessageRequest;
-import com.ktb.chatapp.model.Room;
 import com.ktb.chatapp.model.User;
 import com.ktb.chatapp.rabbitmq.RabbitPublisher;
 import com.ktb.chatapp.redis.ChatRedisPublisher;
@@ -29,7 +28,6 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
 
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
 
@@ -60,7 +58,7 @@ class ChatMessageHandlerTest {
     @Mock
     private RateLimitService rateLimitService;
     @Mock
-    private RoomCacheStore roomCacheStore;
+    private RoomMembershipIndex roomMembershipIndex;
     @Mock
     private RabbitPublisher rabbitPublisher;
     @Mock
@@ -85,7 +83,7 @@ class ChatMessageHandlerTest {
                 bannedWordChecker,
                 rateLimitService,
                 meterRegistry,
-                roomCacheStore,
+                roomMembershipIndex,
                 rabbitPublisher,
                 chatRedisPublisher,
                 eventPublisher
@@ -110,10 +108,7 @@ class ChatMessageHandlerTest {
         user.setId("user-1");
         when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
 
-        Room room = new Room();
-        room.setId("room-1");
-        room.setParticipantIds(new HashSet<>(java.util.List.of("user-1")));
-        when(roomRepository.findById("room-1")).thenReturn(Optional.of(room));
+        when(roomMembershipIndex.isMember("room-1", "user-1")).thenReturn(true);
 
         ChatMessageRequest request =
             ChatMessageRequest.builder()
@@ -133,4 +128,36 @@ class ChatMessageHandlerTest {
         verifyNoInteractions(messageRepository);
         verify(socketIOServer, never()).getRoomOperations(any());
     }
+
+    @Test
+    void handleChatMessage_shardedDelivery_leavesFanoutToShardConsumer() {
+        SocketIOClient client = mock(SocketIOClient.class);
+        SocketUser socketUser = new SocketUser("user-1", "tester", "session-1", "socket-1");
+        when(client.get("user")).thenReturn(socketUser);
+        when(sessionService.validateSession(socketUser.id(), socketUser.authSessionId()))
+            .thenReturn(SessionValidationResult.valid(null));
+        when(rateLimitService.checkRateLimit(eq(socketUser.id()), anyInt(), any()))
+            .thenReturn(RateLimitCheckResult.allowed(10000, 9999, 60, System.currentTimeMillis() / 1000 + 60, 60));
+
+        User user = new User();
+        user.setId("user-1");
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+        when(roomMembershipIndex.isMember("room-1", "user-1")).thenReturn(true);
+        when(messageRepository.save(any(com.ktb.chatapp.model.Message.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        when(rabbitPublisher.isShardedDelivery()).thenReturn(true);
+
+        ChatMessageRequest request =
+            ChatMessageRequest.builder()
+                .room("room-1")
+                .type("text")
+                .content("hello")
+                .build();
+
+        handler.handleChatMessage(client, request);
+
+        verify(rabbitPublisher).sendChatEvent(eq("room-1"), eq(java.util.List.of()), any());
+        verify(socketIOServer, never()).getRoomOperations(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
 }
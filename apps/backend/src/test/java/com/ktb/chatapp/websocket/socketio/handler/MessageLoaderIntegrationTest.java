@@ -1,5 +1,6 @@
 package com.ktb.chatapp.websocket.socketio.handler;
 
+import com.ktb.chatapp.cache.UserCacheStore;
 import com.ktb.chatapp.config.MongoTestContainer;
 import com.ktb.chatapp.dto.FetchMessagesRequest;
 import com.ktb.chatapp.dto.FetchMessagesResponse;
@@ -20,6 +21,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
@@ -63,7 +65,7 @@ class MessageLoaderIntegrationTest {
         // MessageLoader 인스턴스 생성
         messageLoader = new MessageLoader(
                 messageRepository,
-                userRepository,
+                new UserCacheStore(userRepository, new ConcurrentMapCacheManager()),
                 new MessageResponseMapper(fileRepository),
                 messageReadStatusService
         );
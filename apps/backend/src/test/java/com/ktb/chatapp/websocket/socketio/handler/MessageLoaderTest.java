@@ -1,5 +1,6 @@
 package com.ktb.chatapp.websocket.socketio.handler;
 
+import com.ktb.chatapp.cache.UserCacheStore;
 import com.ktb.chatapp.dto.FetchMessagesRequest;
 import com.ktb.chatapp.dto.FetchMessagesResponse;
 import com.ktb.chatapp.model.Message;
@@ -17,6 +18,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.data.domain.*;
 
 import java.time.LocalDateTime;
@@ -59,7 +61,7 @@ class MessageLoaderTest {
         
         messageLoader = new MessageLoader(
                 messageRepository,
-                userRepository,
+                new UserCacheStore(userRepository, new ConcurrentMapCacheManager()),
                 new MessageResponseMapper(fileRepository),
                 messageReadStatusService
         );
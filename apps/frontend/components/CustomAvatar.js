@@ -110,7 +110,8 @@ const CustomAvatar = forwardRef(({
       return currentImage && !imageError ? currentImage : undefined;
     }
     
-    return getImageUrl(user?.profileImage);
+    // 목록/채팅 아바타는 썸네일이 있으면 원본 대신 쓴다
+    return getImageUrl(user?.profileImageVariants?.thumb || user?.profileImage);
   })();
 
   // 사용자 이름 첫 글자
@@ -170,7 +170,7 @@ const FileMessage = ({
         throw new Error('인증 정보가 없습니다.');
       }
 
-      const previewUrl = fileService.getPreviewUrl(msg.file, user?.token, user?.sessionId, true);
+      const previewUrl = fileService.getPreviewUrl(msg.file, user?.token, user?.sessionId, true, 'preview');
 
       return (
         <div className="bg-transparent-pattern">
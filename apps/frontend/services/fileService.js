@@ -238,10 +238,14 @@ class FileService {
     return `${baseUrl}/api/files/${endpoint}/${filename}`;
   }
 
-  getPreviewUrl(file, token, sessionId, withAuth = true) {
+  getPreviewUrl(file, token, sessionId, withAuth = true, variant = null) {
     if (!file?.filename) return '';
 
-    const baseUrl = `${process.env.NEXT_PUBLIC_API_URL}/api/files/view/${file.filename}`;
+    // 서버가 만든 이미지 파생본(thumb, preview)이 있으면 원본 대신 쓴다
+    const variantPath = variant ? file.variants?.[variant] : null;
+    const baseUrl = variantPath
+      ? `${process.env.NEXT_PUBLIC_API_URL}${variantPath}`
+      : `${process.env.NEXT_PUBLIC_API_URL}/api/files/view/${file.filename}`;
 
     if (!withAuth) return baseUrl;
 
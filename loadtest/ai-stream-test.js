@@ -0,0 +1,350 @@
+#!/usr/bin/env node
+
+const io = require('socket.io-client');
+const axios = require('axios');
+const yargs = require('yargs/yargs');
+const { hideBin } = require('yargs/helpers');
+const chalk = require('chalk');
+const Table = require('cli-table3');
+
+// Parse command line arguments
+const argv = yargs(hideBin(process.argv))
+  .option('users', {
+    alias: 'u',
+    description: 'Number of users listening in the room',
+    type: 'number',
+    default: 20
+  })
+  .option('streams', {
+    alias: 'n',
+    description: 'Concurrent AI mentions per round',
+    type: 'number',
+    default: 10
+  })
+  .option('rounds', {
+    description: 'Number of mention rounds',
+    type: 'number',
+    default: 3
+  })
+  .option('round-delay', {
+    description: 'Delay between rounds in milliseconds (after the previous round finished)',
+    type: 'number',
+    default: 2000
+  })
+  .option('ai-type', {
+    description: 'AI persona to mention',
+    type: 'string',
+    default: 'wayneAI'
+  })
+  .option('stub-ttft', {
+    description: 'Server ai.stub.time-to-first-token in milliseconds (for chunk latency)',
+    type: 'number',
+    default: 500
+  })
+  .option('stub-tps', {
+    description: 'Server ai.stub.tokens-per-second (for chunk latency)',
+    type: 'number',
+    default: 30
+  })
+  .option('stream-timeout', {
+    description: 'Give up on a round after this many milliseconds',
+    type: 'number',
+    default: 60000
+  })
+  .option('api-url', {
+    description: 'Backend REST API URL',
+    type: 'string',
+    default: 'http://localhost:5001'
+  })
+  .option('socket-url', {
+    description: 'Socket.IO server URL',
+    type: 'string',
+    default: 'http://localhost:5002'
+  })
+  .option('room-id', {
+    description: 'Room ID to use (auto-create if not specified)',
+    type: 'string',
+    default: null
+  })
+  .help()
+  .alias('help', 'h')
+  .argv;
+
+/**
+ * AI 스트리밍 경로 벤치마크
+ * 백엔드를 llm-stub 프로필로 띄운 뒤 N개의 AI 멘션을 동시에 보내고 다음을 측정한다.
+ * - Chunk fan-out rate: 모든 클라이언트가 받은 청크 수 / 초
+ * - Time to first chunk: 멘션 전송 ~ 보낸 사람이 첫 청크를 받을 때까지
+ * - Chunk latency: 합성 LLM이 청크의 마지막 토큰을 만든 예정 시각 ~ 클라이언트 수신 시각
+ *   (aiMessageStart 수신 시각 + TTFT + (토큰 수 - 1) / TPS 를 생성 시각으로 본다)
+ * - Heap: /actuator/metrics 의 jvm.memory.used(area=heap) 와 ai.streams.active
+ */
+class AiStreamBenchmark {
+  constructor(config) {
+    this.config = config;
+    this.metrics = {
+      connected: 0,
+      mentionsSent: 0,
+      streamsStarted: new Set(),
+      streamsCompleted: new Set(),
+      streamsFailed: new Set(),
+      chunksReceived: 0,
+      uniqueChunks: new Set(),
+      firstChunkTimes: [],
+      chunkLatencies: [],
+      heapSamples: [],
+      activeStreamSamples: [],
+      errors: 0,
+      startTime: Date.now()
+    };
+    this.clients = [];
+    this.pendingMentions = new Map();
+  }
+
+  async login(userId) {
+    const email = `loadtest-${userId}@test.com`;
+    const password = 'Test1234!';
+    const name = `LoadTest User ${userId}`;
+    try {
+      const res = await axios.post(`${this.config.apiUrl}/api/auth/login`, { email, password }, { timeout: 5000 });
+      return res.data;
+    } catch (loginError) {
+      if (loginError.response?.status === 401 || loginError.response?.status === 404) {
+        const res = await axios.post(`${this.config.apiUrl}/api/auth/register`, { email, password, name }, { timeout: 5000 });
+        return res.data;
+      }
+      throw loginError;
+    }
+  }
+
+  async createRoom() {
+    if (this.config.roomId) {
+      return this.config.roomId;
+    }
+    const admin = await this.login('ai-admin');
+    const response = await axios.post(
+      `${this.config.apiUrl}/api/rooms`,
+      {
+        name: 'AI Stream Benchmark Room',
+        description: 'Room for AI stream benchmark - ' + new Date().toISOString(),
+        participants: []
+      },
+      { headers: { 'Authorization': `Bearer ${admin.token}` }, timeout: 10000 }
+    );
+    return response.data.data._id;
+  }
+
+  connect(userId, roomId) {
+    return new Promise(async (resolve, reject) => {
+      let auth;
+      try {
+        auth = await this.login(`ai-${userId}`);
+      } catch (error) {
+        reject(error);
+        return;
+      }
+
+      const socket = io(this.config.socketUrl, {
+        auth: { token: auth.token, sessionId: auth.sessionId },
+        transports: ['websocket'],
+        reconnection: false
+      });
+      // messageId -> { startAt, tokens }
+      const client = { socket, streams: new Map() };
+
+      socket.on('connect', () => socket.emit('joinRoom', roomId));
+      socket.on('joinRoomSuccess', () => {
+        this.metrics.connected++;
+        resolve(client);
+      });
+      socket.on('joinRoomError', (error) => reject(new Error(error.message || 'joinRoomError')));
+      socket.on('connect_error', (error) => reject(error));
+      socket.on('error', () => this.metrics.errors++);
+
+      socket.on('aiMessageStart', (data) => {
+        client.streams.set(data.messageId, { startAt: Date.now(), tokens: 0 });
+        this.metrics.streamsStarted.add(data.messageId);
+      });
+
+      socket.on('aiMessageChunk', (data) => {
+        const now = Date.now();
+        this.metrics.chunksReceived++;
+        this.metrics.uniqueChunks.add(`${data.messageId}:${data.seq}`);
+
+        const stream = client.streams.get(data.messageId);
+        if (stream) {
+          // 합성 LLM의 토큰은 공백/개행 한 글자로 끝난다
+          stream.tokens += (data.delta.match(/\s/g) || []).length;
+          const expectedAt = stream.startAt + this.config.stubTtft
+            + (Math.max(stream.tokens, 1) - 1) * 1000 / this.config.stubTps;
+          this.metrics.chunkLatencies.push(Math.max(0, now - expectedAt));
+        }
+
+        const mention = this.pendingMentions.get(client);
+        if (mention && !mention.firstChunkAt) {
+          mention.firstChunkAt = now;
+          this.metrics.firstChunkTimes.push(now - mention.sentAt);
+        }
+      });
+
+      socket.on('aiMessageComplete', (data) => {
+        client.streams.delete(data.messageId);
+        this.metrics.streamsCompleted.add(data.messageId);
+      });
+
+      socket.on('aiMessageError', (data) => {
+        client.streams.delete(data.messageId);
+        this.metrics.streamsFailed.add(data.messageId);
+      });
+    });
+  }
+
+  async sampleServer() {
+    const get = async (name, tag) => {
+      const url = `${this.config.apiUrl}/actuator/metrics/${name}${tag ? `?tag=${tag}` : ''}`;
+      const res = await axios.get(url, { timeout: 2000 });
+      return res.data.measurements.find(m => m.statistic === 'VALUE')?.value ?? 0;
+    };
+    try {
+      this.metrics.heapSamples.push(await get('jvm.memory.used', 'area:heap'));
+      this.metrics.activeStreamSamples.push(await get('ai.streams.active'));
+    } catch (error) {
+      // actuator 미노출 환경에서는 힙 측정을 건너뛴다
+    }
+  }
+
+  async runRound(round) {
+    const senders = [];
+    for (let i = 0; i < this.config.streams; i++) {
+      senders.push(this.clients[i % this.clients.length]);
+    }
+    const before = this.metrics.streamsCompleted.size + this.metrics.streamsFailed.size;
+
+    senders.forEach((client, i) => {
+      this.pendingMentions.set(client, { sentAt: Date.now(), firstChunkAt: null });
+      client.socket.emit('chatMessage', {
+        room: this.roomId,
+        type: 'text',
+        content: `@${this.config.aiType} 벤치마크 질문 ${round}-${i} ${Date.now()}`
+      });
+      this.metrics.mentionsSent++;
+    });
+
+    const deadline = Date.now() + this.config.streamTimeout;
+    while (Date.now() < deadline) {
+      const finished = this.metrics.streamsCompleted.size + this.metrics.streamsFailed.size - before;
+      if (finished >= this.config.streams) {
+        return;
+      }
+      await this.sleep(200);
+    }
+    this.metrics.errors++;
+  }
+
+  percentile(arr, p) {
+    if (arr.length === 0) return 0;
+    const sorted = [...arr].sort((a, b) => a - b);
+    return sorted[Math.max(0, Math.ceil((p / 100) * sorted.length) - 1)];
+  }
+
+  printReport() {
+    const m = this.metrics;
+    const elapsed = (Date.now() - m.startTime) / 1000;
+    const mb = bytes => `${(bytes / 1024 / 1024).toFixed(1)}MB`;
+    const ms = value => `${value.toFixed(1)}ms`;
+    const heapBaseline = m.heapSamples[0] ?? 0;
+    const heapPeak = m.heapSamples.length ? Math.max(...m.heapSamples) : 0;
+
+    const table = new Table({
+      head: [chalk.cyan('Metric'), chalk.cyan('Value')],
+      colWidths: [34, 20]
+    });
+    table.push(
+      ['Elapsed Time', `${elapsed.toFixed(1)}s`],
+      ['Listeners Connected', m.connected],
+      ['---', '---'],
+      [chalk.green('Mentions Sent'), m.mentionsSent],
+      [chalk.green('Streams Started'), m.streamsStarted.size],
+      [chalk.green('Streams Completed'), m.streamsCompleted.size],
+      [chalk.red('Streams Failed'), m.streamsFailed.size],
+      ['---', '---'],
+      ['Chunks Emitted (unique)', m.uniqueChunks.size],
+      ['Chunks Delivered (all clients)', m.chunksReceived],
+      ['Chunk Fan-out Rate', `${(m.chunksReceived / elapsed).toFixed(1)}/s`],
+      ['---', '---'],
+      ['Time to First Chunk P50', ms(this.percentile(m.firstChunkTimes, 50))],
+      ['Time to First Chunk P95', ms(this.percentile(m.firstChunkTimes, 95))],
+      ['Chunk Latency P50', ms(this.percentile(m.chunkLatencies, 50))],
+      ['Chunk Latency P95', ms(this.percentile(m.chunkLatencies, 95))],
+      ['Chunk Latency P99', ms(this.percentile(m.chunkLatencies, 99))],
+      ['---', '---'],
+      ['Heap Baseline', mb(heapBaseline)],
+      ['Heap Peak', mb(heapPeak)],
+      ['Heap Peak - Baseline', mb(heapPeak - heapBaseline)],
+      ['Peak Active Streams (server)', m.activeStreamSamples.length ? Math.max(...m.activeStreamSamples) : 0],
+      [chalk.red('Errors'), m.errors]
+    );
+
+    console.clear();
+    console.log(chalk.bold.cyan('\n=== KTB Chat AI Stream Benchmark ===\n'));
+    console.log(table.toString());
+  }
+
+  sleep(ms) {
+    return new Promise(resolve => setTimeout(resolve, ms));
+  }
+
+  async run() {
+    const { users, streams, rounds } = this.config;
+    console.log(chalk.bold.cyan('\n=== KTB Chat AI Stream Benchmark ===\n'));
+    console.log(chalk.gray(`  Listeners:       ${users}`));
+    console.log(chalk.gray(`  Streams/round:   ${streams}`));
+    console.log(chalk.gray(`  Rounds:          ${rounds}`));
+    console.log(chalk.gray(`  Stub TTFT/TPS:   ${this.config.stubTtft}ms / ${this.config.stubTps}`));
+    console.log(chalk.yellow('  Backend must run with SPRING_PROFILES_ACTIVE=llm-stub\n'));
+
+    this.roomId = await this.createRoom();
+    for (let i = 0; i < users; i++) {
+      this.clients.push(await this.connect(i, this.roomId));
+    }
+
+    await this.sampleServer();
+    const sampler = setInterval(() => this.sampleServer(), 1000);
+    const reporter = setInterval(() => this.printReport(), 2000);
+    this.metrics.startTime = Date.now();
+
+    for (let round = 1; round <= rounds; round++) {
+      await this.runRound(round);
+      if (round < rounds) {
+        await this.sleep(this.config.roundDelay);
+      }
+    }
+
+    clearInterval(sampler);
+    clearInterval(reporter);
+    await this.sampleServer();
+    this.printReport();
+    this.clients.forEach(client => client.socket.close());
+    console.log(chalk.bold.green('\n✓ AI stream benchmark completed!\n'));
+    process.exit(0);
+  }
+}
+
+const benchmark = new AiStreamBenchmark({
+  apiUrl: argv.apiUrl,
+  socketUrl: argv.socketUrl,
+  roomId: argv.roomId,
+  users: argv.users,
+  streams: argv.streams,
+  rounds: argv.rounds,
+  roundDelay: argv.roundDelay,
+  aiType: argv.aiType,
+  stubTtft: argv.stubTtft,
+  stubTps: argv.stubTps,
+  streamTimeout: argv.streamTimeout
+});
+
+benchmark.run().catch(error => {
+  console.error(chalk.red('Fatal error:'), error.message);
+  process.exit(1);
+});